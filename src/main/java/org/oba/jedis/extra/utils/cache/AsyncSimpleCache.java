@@ -0,0 +1,422 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous facade of a SimpleCache, where every operation returns a CompletableFuture
+ *
+ * Reads (get and getAll) are auto-pipelined: concurrent reads are queued, and a few dispatcher
+ * threads (lanes) take all the queued reads, up to a batch, and get their keys from redis in
+ * one round trip. Each lane uses one pooled connection at a time
+ * If a key is not found and the cache has a cacheloader, the read-through is done in the executor
+ *
+ * Writes, removes and replaces are done in the executor, with write-through if the cache has a cachewriter
+ * By default the executor uses virtual threads if the runtime has them, or else a pool of daemon threads
+ *
+ * The futures are completed in the executor, so callbacks never run in a dispatcher thread
+ * Operations are not ordered between them; wait for a future before doing an operation that depends on it
+ *
+ * Closing this facade doesn't close the SimpleCache
+ */
+public final class AsyncSimpleCache implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncSimpleCache.class);
+
+    private static final AtomicLong num = new AtomicLong();
+
+    public static final int DEFAULT_PIPELINE_LANES = 2;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    private static final long LANE_POLL_MS = 100L;
+
+    private final SimpleCache simpleCache;
+    private final ExecutorService executorService;
+    private final boolean ownedExecutorService;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingRead> pendingReads = new LinkedBlockingQueue<>();
+    private final List<Thread> lanes = new ArrayList<>();
+    private final AtomicBoolean active = new AtomicBoolean(true);
+
+    /**
+     * Creates an asynchronous cache with its own executor and default values
+     * @param simpleCache cache to use
+     */
+    public AsyncSimpleCache(SimpleCache simpleCache) {
+        this(simpleCache, newDefaultExecutorService(), true, DEFAULT_PIPELINE_LANES, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Creates an asynchronous cache with default values
+     * @param simpleCache cache to use
+     * @param executorService executor for read-through, writes and completions, not shut down on close
+     */
+    public AsyncSimpleCache(SimpleCache simpleCache, ExecutorService executorService) {
+        this(simpleCache, executorService, false, DEFAULT_PIPELINE_LANES, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Creates an asynchronous cache
+     * @param simpleCache cache to use
+     * @param executorService executor for read-through, writes and completions, not shut down on close
+     * @param pipelineLanes number of dispatcher threads for reads, each uses one connection at a time
+     * @param maxBatchSize maximum number of reads sent in one round trip
+     */
+    public AsyncSimpleCache(SimpleCache simpleCache, ExecutorService executorService, int pipelineLanes, int maxBatchSize) {
+        this(simpleCache, executorService, false, pipelineLanes, maxBatchSize);
+    }
+
+    private AsyncSimpleCache(SimpleCache simpleCache, ExecutorService executorService, boolean ownedExecutorService,
+                             int pipelineLanes, int maxBatchSize) {
+        if (simpleCache == null) throw new IllegalArgumentException("AsyncSimpleCache simpleCache is null");
+        if (executorService == null) throw new IllegalArgumentException("AsyncSimpleCache executorService is null");
+        if (pipelineLanes <= 0) throw new IllegalArgumentException("AsyncSimpleCache pipelineLanes must be more than zero");
+        if (maxBatchSize <= 0) throw new IllegalArgumentException("AsyncSimpleCache maxBatchSize must be more than zero");
+        this.simpleCache = simpleCache;
+        this.executorService = executorService;
+        this.ownedExecutorService = ownedExecutorService;
+        this.maxBatchSize = maxBatchSize;
+        long current = num.incrementAndGet();
+        for(int i = 0; i < pipelineLanes; i++) {
+            Thread lane = new Thread(this::dispatchReads);
+            lane.setDaemon(true);
+            lane.setName("AsyncSimpleCache_Lane_" + current + "_" + i);
+            lanes.add(lane);
+            lane.start();
+        }
+    }
+
+    /**
+     * Executor with virtual threads if the runtime has them (java 21 or later),
+     * or else a pool of daemon threads
+     * @return executor
+     */
+    static ExecutorService newDefaultExecutorService() {
+        try {
+            Method newVirtualThreadPerTaskExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) newVirtualThreadPerTaskExecutor.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.debug("Virtual threads not available, using platform threads");
+            return Executors.newCachedThreadPool(AsyncSimpleCache::newThread);
+        }
+    }
+
+    private static Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        thread.setName("AsyncSimpleCache_Thread_" + num.incrementAndGet());
+        return thread;
+    }
+
+    /**
+     * Underlying cache
+     * @return simple cache
+     */
+    public SimpleCache getSimpleCache() {
+        return simpleCache;
+    }
+
+    /**
+     * Gets current value from redis cache, auto-pipelined with other concurrent reads
+     * read-through: if not found, it can use the default cacheloader if present
+     * @param key not null key
+     * @return future of the value, or null if no exists
+     */
+    public CompletableFuture<String> get(String key) {
+        if (key == null) throw new IllegalArgumentException("AsyncSimpleCache.get key is null");
+        return read(Set.of(key)).thenApply(values -> values.get(key));
+    }
+
+    /**
+     * Gets values from redis cache, auto-pipelined with other concurrent reads
+     * read-through: if not found, it can use the default cacheloader if present
+     * @param keys not null set of keys
+     * @return future of map with values from cache or loaded (no nulls)
+     */
+    public CompletableFuture<Map<String, String>> getAll(Set<String> keys) {
+        if (keys == null) throw new IllegalArgumentException("AsyncSimpleCache.getAll keys is null");
+        return read(new HashSet<>(keys));
+    }
+
+    /**
+     * Inserts a new value for given key, see SimpleCache.put
+     * @param key Key of the value
+     * @param value Data of the value
+     * @return future completed when done
+     */
+    public CompletableFuture<Void> put(String key, String value) {
+        return runAsync(() -> simpleCache.put(key, value));
+    }
+
+    /**
+     * Inserts a new value for given key with given timeout, see SimpleCache.put
+     * @param key Key of the value
+     * @param value Data of the value
+     * @param timeOutMs Time to live
+     * @return future completed when done
+     */
+    public CompletableFuture<Void> put(String key, String value, long timeOutMs) {
+        return runAsync(() -> simpleCache.put(key, value, timeOutMs));
+    }
+
+    /**
+     * Inserts a new value and returns the previous one, see SimpleCache.getAndPut
+     * @param key Key of the value
+     * @param value Data of the value
+     * @return future of the previous value
+     */
+    public CompletableFuture<String> getAndPut(String key, String value) {
+        return supplyAsync(() -> simpleCache.getAndPut(key, value));
+    }
+
+    /**
+     * Inserts a list of new key-values in cache, see SimpleCache.putAll
+     * @param values map of the key-values data
+     * @return future completed when done
+     */
+    public CompletableFuture<Void> putAll(Map<String, String> values) {
+        return runAsync(() -> simpleCache.putAll(values));
+    }
+
+    /**
+     * Inserts a new value if no previous value is present, see SimpleCache.putIfAbsent
+     * @param key Key of the value
+     * @param value Data of the value
+     * @return future of true if inserted
+     */
+    public CompletableFuture<Boolean> putIfAbsent(String key, String value) {
+        return supplyAsync(() -> simpleCache.putIfAbsent(key, value));
+    }
+
+    /**
+     * Removes for given key, see SimpleCache.remove
+     * @param key Key of the value
+     * @return future of true if removed
+     */
+    public CompletableFuture<Boolean> remove(String key) {
+        return supplyAsync(() -> simpleCache.remove(key));
+    }
+
+    /**
+     * Removes for given key if the value matches, see SimpleCache.remove
+     * @param key Key of the value
+     * @param oldValue value that must equal to redis one to execute deletion
+     * @return future of true if removed
+     */
+    public CompletableFuture<Boolean> remove(String key, String oldValue) {
+        return supplyAsync(() -> simpleCache.remove(key, oldValue));
+    }
+
+    /**
+     * Removes for given key and returns the previous value, see SimpleCache.getAndRemove
+     * @param key Key of the value
+     * @return future of the previous value, null if there wasn't one
+     */
+    public CompletableFuture<String> getAndRemove(String key) {
+        return supplyAsync(() -> simpleCache.getAndRemove(key));
+    }
+
+    /**
+     * Removes entries with the given keys, see SimpleCache.removeAll
+     * @param keys keys to remove
+     * @return future completed when done
+     */
+    public CompletableFuture<Void> removeAll(Set<String> keys) {
+        return runAsync(() -> simpleCache.removeAll(keys));
+    }
+
+    /**
+     * Replaces key value if current value is equals to given oldValue, see SimpleCache.replace
+     * @param key Key to have replacement
+     * @param oldValue Value to be matched
+     * @param newValue New value
+     * @return future of true if replaced
+     */
+    public CompletableFuture<Boolean> replace(String key, String oldValue, String newValue) {
+        return supplyAsync(() -> simpleCache.replace(key, oldValue, newValue));
+    }
+
+    /**
+     * Replaces key value if a value exists, see SimpleCache.replace
+     * @param key Key to have replacement
+     * @param value New value
+     * @return future of true if replaced
+     */
+    public CompletableFuture<Boolean> replace(String key, String value) {
+        return supplyAsync(() -> simpleCache.replace(key, value));
+    }
+
+    /**
+     * Replaces key value if a value exists and returns the previous one, see SimpleCache.getAndReplace
+     * @param key Key to have replacement
+     * @param value New value
+     * @return future of the previous value, null if not replaced
+     */
+    public CompletableFuture<String> getAndReplace(String key, String value) {
+        return supplyAsync(() -> simpleCache.getAndReplace(key, value));
+    }
+
+    private CompletableFuture<Void> runAsync(Runnable operation) {
+        checkActive();
+        return CompletableFuture.runAsync(operation, executorService);
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> operation) {
+        checkActive();
+        return CompletableFuture.supplyAsync(operation, executorService);
+    }
+
+    /**
+     * Queues a read for the dispatcher lanes
+     * @param keys keys to read
+     * @return future of the found values
+     */
+    private CompletableFuture<Map<String, String>> read(Set<String> keys) {
+        checkActive();
+        PendingRead pendingRead = new PendingRead(keys);
+        pendingReads.add(pendingRead);
+        if (!active.get() && pendingReads.remove(pendingRead)) {
+            pendingRead.future.completeExceptionally(new IllegalStateException("AsyncSimpleCache is closed"));
+        }
+        return pendingRead.future;
+    }
+
+    /**
+     * Loop of a dispatcher lane
+     * Takes the queued reads, up to a batch, and executes them in one round trip
+     */
+    private void dispatchReads() {
+        while (active.get()) {
+            try {
+                PendingRead first = pendingReads.poll(LANE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    List<PendingRead> batch = new ArrayList<>();
+                    batch.add(first);
+                    pendingReads.drainTo(batch, maxBatchSize - 1);
+                    executeReads(batch);
+                }
+            } catch (InterruptedException e) {
+                LOGGER.debug("interrupted", e);
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads all the keys of the batch from redis in one round trip
+     * The read-through of the not found keys and the completion of the futures are done in the executor,
+     * without reading the not found keys again
+     * The not found keys are loaded as in SimpleCache.get, coalesced and under the load lease if there is one,
+     * and the found ones near expiration are refreshed ahead
+     * @param batch reads
+     */
+    private void executeReads(List<PendingRead> batch) {
+        try {
+            Set<String> keys = new HashSet<>();
+            batch.forEach(pendingRead -> keys.addAll(pendingRead.keys));
+            Map<String, String> found = new HashMap<>(simpleCache.getAllFound(keys));
+            Set<String> notFound = new HashSet<>(keys);
+            notFound.removeAll(found.keySet());
+            boolean readThrough = !notFound.isEmpty() && simpleCache.hasCacheLoader();
+            executorService.execute(() -> {
+                try {
+                    if (readThrough) {
+                        found.putAll(simpleCache.loadNotFound(notFound));
+                    }
+                    batch.forEach(pendingRead -> pendingRead.complete(found));
+                } catch (RuntimeException e) {
+                    batch.forEach(pendingRead -> pendingRead.future.completeExceptionally(e));
+                }
+            });
+        } catch (RuntimeException e) {
+            // Redis errors, or the executor rejects the task
+            LOGGER.debug("Error in auto-pipelined reads", e);
+            batch.forEach(pendingRead -> pendingRead.future.completeExceptionally(e));
+        }
+    }
+
+    private void checkActive() {
+        if (!active.get()) {
+            throw new IllegalStateException("AsyncSimpleCache is closed");
+        }
+    }
+
+    /**
+     * Check if closed
+     * @return true if closed
+     */
+    public boolean isClosed() {
+        return !active.get();
+    }
+
+    /**
+     * Stops the dispatcher lanes; the reads not yet sent are completed with an error
+     * If the executor is owned, it's shut down after the operations in progress
+     * The SimpleCache is not closed
+     */
+    @Override
+    public void close() {
+        if (!active.getAndSet(false)) {
+            return;
+        }
+        for(Thread lane: lanes) {
+            try {
+                lane.join();
+            } catch (InterruptedException e) {
+                LOGGER.debug("interrupted", e);
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<PendingRead> notSent = new ArrayList<>();
+        pendingReads.drainTo(notSent);
+        IllegalStateException closed = new IllegalStateException("AsyncSimpleCache is closed");
+        notSent.forEach(pendingRead -> pendingRead.future.completeExceptionally(closed));
+        if (ownedExecutorService) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * A queued read with its future
+     */
+    private static final class PendingRead {
+
+        private final Set<String> keys;
+        private final CompletableFuture<Map<String, String>> future = new CompletableFuture<>();
+
+        private PendingRead(Set<String> keys) {
+            this.keys = keys;
+        }
+
+        private void complete(Map<String, String> found) {
+            Map<String, String> result = new HashMap<>();
+            for(String key: keys) {
+                String value = found.get(key);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+            future.complete(result);
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+package org.oba.jedis.extra.utils.cache;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts the values of a TypedCache to and from bytes
+ *
+ * Some codecs are provided
+ * - bytes: raw values, no conversion
+ * - utf8: strings encoded as UTF-8
+ * - deflate: compresses the result of another codec when it's bigger than a threshold
+ *
+ * @param <V> Type of the values
+ */
+public interface CacheCodec<V> {
+
+    /**
+     * Converts a value to bytes
+     * @param value not null value
+     * @return bytes to store
+     */
+    byte[] encode(V value);
+
+    /**
+     * Converts stored bytes to a value
+     * @param data not null bytes
+     * @return value
+     */
+    V decode(byte[] data);
+
+
+    /**
+     * Codec for raw values, bytes are stored as they are
+     * @return codec
+     */
+    static CacheCodec<byte[]> bytes() {
+        return new CacheCodec<>() {
+            @Override
+            public byte[] encode(byte[] value) {
+                return value;
+            }
+
+            @Override
+            public byte[] decode(byte[] data) {
+                return data;
+            }
+        };
+    }
+
+    /**
+     * Codec for strings, stored as UTF-8
+     * @return codec
+     */
+    static CacheCodec<String> utf8() {
+        return new CacheCodec<>() {
+            @Override
+            public byte[] encode(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String decode(byte[] data) {
+                return new String(data, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * Codec that compresses with deflate the bytes of other codec
+     * if they are bigger than the threshold
+     * @param codec Codec of the values
+     * @param thresholdBytes Minimum size to compress
+     * @param <V> Type of the values
+     * @return codec
+     */
+    static <V> CacheCodec<V> deflate(CacheCodec<V> codec, int thresholdBytes) {
+        return new DeflateCacheCodec<>(codec, thresholdBytes);
+    }
+
+}
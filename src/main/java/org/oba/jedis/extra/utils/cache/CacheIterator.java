@@ -4,21 +4,24 @@ import org.oba.jedis.extra.utils.iterators.ScanIterator;
 import org.oba.jedis.extra.utils.utils.Listable;
 import org.oba.jedis.extra.utils.utils.Mapeable;
 import org.oba.jedis.extra.utils.utils.SimpleEntry;
-import redis.clients.jedis.Jedis;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.Set;
 
 /**
  * Iterator that travels by all pairs of key-values of the cache.
- * Every entry can cause two operations on jedis, one for scan and other for get
+ * Keys are retrieved by pages with scan, and the values of every page with only one mget,
+ * so every page costs two operations on jedis
+ * Keys deleted or expired between the scan and the mget are skipped
  */
 public final class CacheIterator implements Iterator<Map.Entry<String, String>>,
         Listable<Map.Entry<String, String>>, Mapeable<String, String> {
@@ -28,35 +31,65 @@ public final class CacheIterator implements Iterator<Map.Entry<String, String>>,
 
     private final SimpleCache cache;
     private final ScanIterator scanIterator;
+    private final int resultsPerScan;
+    private final Queue<Map.Entry<String, String>> nextEntries = new LinkedList<>();
 
     /**
      * Internal constructor
      * @param cache Cache where the iterator belongs
      */
     CacheIterator(SimpleCache cache) {
+        this(cache, DEFAULT_RESULTS_PER_SCAN_ITERATORS);
+    }
+
+    /**
+     * Internal constructor
+     * @param cache Cache where the iterator belongs
+     * @param resultsPerScan Keys retrieved in each scan (hopefully), and values in each mget
+     */
+    CacheIterator(SimpleCache cache, int resultsPerScan) {
+        if (resultsPerScan <= 0) throw new IllegalArgumentException("CacheIterator resultsPerScan must be more than zero");
         this.cache = cache;
-        this.scanIterator = new ScanIterator(cache.getJedisPool(), cache.resolveKey("*"), DEFAULT_RESULTS_PER_SCAN_ITERATORS);
+        this.resultsPerScan = resultsPerScan;
+        this.scanIterator = new ScanIterator(cache.getJedisPool(), cache.resolveKey("*"), resultsPerScan);
     }
 
     @Override
     public boolean hasNext() {
-        return scanIterator.hasNext();
+        while (nextEntries.isEmpty() && scanIterator.hasNext()) {
+            retrieveNextPage();
+        }
+        return !nextEntries.isEmpty();
     }
 
     @Override
     public Map.Entry<String, String> next() {
-        String redisKey = scanIterator.next();
-        if (redisKey != null) {
-            try(Jedis jedis = cache.getJedisPool().getResource()) {
-                String value = jedis.get(redisKey);
-                String key = cache.unresolveKey(redisKey);
-                return new SimpleEntry(key, value);
-            }
+        if (hasNext()) {
+            return nextEntries.poll();
         } else {
             throw new NoSuchElementException("No next value");
         }
     }
 
+    /**
+     * Takes the next page of keys from the scan and gets their values in one mget
+     */
+    private void retrieveNextPage() {
+        List<String> redisKeys = new ArrayList<>(resultsPerScan);
+        while (redisKeys.size() < resultsPerScan && scanIterator.hasNext()) {
+            redisKeys.add(scanIterator.next());
+        }
+        if (!redisKeys.isEmpty()) {
+            List<String> values = cache.withResourceGet(jedis -> jedis.mget(redisKeys.toArray(new String[0])));
+            for (int i = 0; i < redisKeys.size(); i++) {
+                String value = values.get(i);
+                if (value != null) {
+                    nextEntries.add(new SimpleEntry(cache.unresolveKey(redisKeys.get(i)), value));
+                }
+            }
+        }
+    }
+
     /**
      * This method returns ALL values of the iterator as an unmodifiable list
      * This method consumes the iterator, no next nor hasNext method should be called
@@ -64,9 +97,14 @@ public final class CacheIterator implements Iterator<Map.Entry<String, String>>,
      * @return list with entries
      */
     public List<Map.Entry<String, String>> asList(){
-        final Set<Map.Entry<String, String>> set = new HashSet<>();
-        forEachRemaining(set::add);
-        return Collections.unmodifiableList(new ArrayList<>(set));
+        final List<Map.Entry<String, String>> list = new ArrayList<>();
+        final Set<String> seenKeys = new HashSet<>();
+        forEachRemaining(e -> {
+            if (seenKeys.add(e.getKey())) {
+                list.add(e);
+            }
+        });
+        return Collections.unmodifiableList(list);
     }
 
     /**
@@ -42,9 +42,19 @@ public final class CacheKeyIterator implements Iterator<String>, Listable<String
      * @param resolve if names should be resolved or recovered as are in redis
      */
     CacheKeyIterator(SimpleCache cache, boolean resolve) {
+        this(cache, resolve, DEFAULT_RESULTS_PER_SCAN_ITERATORS);
+    }
+
+    /**
+     * Internal constructor
+     * @param cache Cache where the iterator belongs
+     * @param resolve if names should be resolved or recovered as are in redis
+     * @param resultsPerScan Keys retrieved in each scan (hopefully)
+     */
+    CacheKeyIterator(SimpleCache cache, boolean resolve, int resultsPerScan) {
         this.cache = cache;
         this.resolve = resolve;
-        this.scanIterator = new ScanIterator(cache.getJedisPool(), cache.resolveKey("*"), DEFAULT_RESULTS_PER_SCAN_ITERATORS);
+        this.scanIterator = new ScanIterator(cache.getJedisPool(), cache.resolveKey("*"), resultsPerScan);
     }
 
     @Override
@@ -86,9 +96,14 @@ public final class CacheKeyIterator implements Iterator<String>, Listable<String
      * @return list with values
      */
     public List<String> asList(){
-        final Set<String> set = new HashSet<>();
-        forEachRemaining(set::add);
-        return Collections.unmodifiableList(new ArrayList<>(set));
+        final List<String> list = new ArrayList<>();
+        final Set<String> seenKeys = new HashSet<>();
+        forEachRemaining(e -> {
+            if (seenKeys.add(e)) {
+                list.add(e);
+            }
+        });
+        return Collections.unmodifiableList(list);
     }
 
 
@@ -0,0 +1,121 @@
+package org.oba.jedis.extra.utils.cache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key inside the JVM (single-flight)
+ * The first thread that asks for a key executes the load, and the others
+ * that ask for the same key while the load is in flight wait for its result
+ * The key of the load can include more than the cache key (as the loader), see load
+ * Several keys can be loaded in one operation, see loadAll
+ * Errors in the load are thrown to all the threads waiting
+ */
+final class CacheLoadCoalescer {
+
+    private final ConcurrentMap<Object, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Loads a value, or waits for the in-flight load of the same key
+     * @param key Key of the load, loads with equal keys are coalesced
+     * @param loader Load operation, only executed if no other load of the key is in flight
+     * @return loaded value, can be null
+     */
+    String load(Object key, Supplier<String> loader) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> current = inFlight.putIfAbsent(key, future);
+        if (current != null) {
+            return waitFor(current);
+        }
+        try {
+            String value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Loads several values in one operation, or waits for the in-flight loads of the same keys
+     * The keys not in flight are loaded together, and then the others are waited for,
+     * so two batches with common keys don't wait for each other while loading
+     * @param keys Cache keys to load
+     * @param loadKey Converts a cache key to the key of its load, loads with equal keys are coalesced
+     * @param loader Load operation of the keys not in flight, returns the found values
+     * @return loaded values, without nulls
+     */
+    Map<String, String> loadAll(Set<String> keys, Function<String, Object> loadKey, Function<Set<String>, Map<String, String>> loader) {
+        Map<String, CompletableFuture<String>> owned = new HashMap<>();
+        Map<String, CompletableFuture<String>> waited = new HashMap<>();
+        for (String key : keys) {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            CompletableFuture<String> current = inFlight.putIfAbsent(loadKey.apply(key), future);
+            if (current != null) {
+                waited.put(key, current);
+            } else {
+                owned.put(key, future);
+            }
+        }
+        Map<String, String> result = new HashMap<>();
+        if (!owned.isEmpty()) {
+            try {
+                Map<String, String> loaded = loader.apply(new HashSet<>(owned.keySet()));
+                owned.forEach((key, future) -> {
+                    String value = loaded.get(key);
+                    future.complete(value);
+                    if (value != null) {
+                        result.put(key, value);
+                    }
+                });
+            } catch (RuntimeException | Error e) {
+                owned.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                owned.forEach((key, future) -> inFlight.remove(loadKey.apply(key), future));
+            }
+        }
+        waited.forEach((key, future) -> {
+            String value = waitFor(future);
+            if (value != null) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Number of loads in flight
+     * @return loads
+     */
+    int inFlightLoads() {
+        return inFlight.size();
+    }
+
+    private String waitFor(CompletableFuture<String> current) {
+        try {
+            return current.join();
+        } catch (CompletionException ce) {
+            Throwable cause = ce.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException("Error in coalesced load", cause);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Refresh-ahead (stale-while-revalidate) of the values of a cache
+ *
+ * When a value is read near its expiration, the current value is returned
+ * and a reload is done in background, so the value doesn't expire and the next reader
+ * doesn't wait for the loader
+ *
+ * The refresh factor is the fraction of the timeout after which a read value is reloaded
+ * For example, with a factor of 0.75 and a timeout of 100 seconds, values read when they have
+ * 25 seconds or less to expire will be reloaded
+ *
+ * Only one reload of a key is done at the same time
+ */
+final class CacheRefresher implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheRefresher.class);
+
+    private static final AtomicLong num = new AtomicLong();
+
+    public static final int DEFAULT_REFRESH_THREADS = 2;
+
+    private final double refreshFactor;
+    private final ExecutorService executorService;
+    private final boolean ownedExecutorService;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a refresher with its own background threads
+     * @param refreshFactor Fraction of the timeout, more than zero and less than one
+     */
+    CacheRefresher(double refreshFactor) {
+        this(refreshFactor, Executors.newFixedThreadPool(DEFAULT_REFRESH_THREADS, CacheRefresher::newThread), true);
+    }
+
+    /**
+     * Creates a refresher
+     * @param refreshFactor Fraction of the timeout, more than zero and less than one
+     * @param executorService Executor for the reloads
+     * @param ownedExecutorService If the executor must be shut down on close
+     */
+    CacheRefresher(double refreshFactor, ExecutorService executorService, boolean ownedExecutorService) {
+        if (refreshFactor <= 0.0 || refreshFactor >= 1.0) throw new IllegalArgumentException("Refresh factor must be between zero and one");
+        if (executorService == null) throw new IllegalArgumentException("Refresh executorService is null");
+        this.refreshFactor = refreshFactor;
+        this.executorService = executorService;
+        this.ownedExecutorService = ownedExecutorService;
+    }
+
+    private static Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        thread.setName("CacheRefresher_Thread_" + num.incrementAndGet());
+        return thread;
+    }
+
+    /**
+     * Checks if a value must be reloaded
+     * @param remainingMs Remaining time to live of the value, as PTTL returns (negative if no expiration)
+     * @param timeOutMs Time to live of the values
+     * @return true if the value is near its expiration
+     */
+    boolean needsRefresh(Long remainingMs, long timeOutMs) {
+        return remainingMs != null && remainingMs >= 0 &&
+                remainingMs <= (long) (timeOutMs * (1.0 - refreshFactor));
+    }
+
+    /**
+     * Executes the reload in background, if no other reload of the key is in progress
+     * Errors are logged
+     * @param key Key to reload
+     * @param reload Reload operation
+     */
+    void refresh(String key, Runnable reload) {
+        if (refreshing.add(key)) {
+            try {
+                executorService.execute(() -> doRefresh(key, reload));
+            } catch (RejectedExecutionException e) {
+                refreshing.remove(key);
+                LOGGER.warn("refresh-ahead rejected for key {}", key, e);
+            }
+        }
+    }
+
+    private void doRefresh(String key, Runnable reload) {
+        try {
+            LOGGER.debug("refresh-ahead key {}", key);
+            reload.run();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Error in refresh-ahead of key {}", key, e);
+        } finally {
+            refreshing.remove(key);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutorService) {
+            executorService.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+package org.oba.jedis.extra.utils.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Statistics of a SimpleCache or a HashCache
+ *
+ * All the counters are LongAdders and LatencyHistograms, so recording from many threads
+ * has low overhead and no contention
+ * It can be read directly, as a consistent-enough snapshot, or by JMX
+ *
+ * Recorded data
+ * - hits and misses of the reads (near cache hits included)
+ * - loads of the cacheloader, successful and failed, and their time
+ * - calls to the cachewriter and their time
+ * - evictions seen by the cache
+ * - time of the calls to redis, by operation
+ */
+public final class CacheStatistics implements CacheStatisticsMXBean {
+
+    public static final String OPERATION_GET = "get";
+    public static final String OPERATION_GET_ALL = "getAll";
+    public static final String OPERATION_CONTAINS_KEY = "containsKey";
+    public static final String OPERATION_PUT = "put";
+    public static final String OPERATION_PUT_ALL = "putAll";
+    public static final String OPERATION_PUT_IF_ABSENT = "putIfAbsent";
+    public static final String OPERATION_REMOVE = "remove";
+    public static final String OPERATION_REMOVE_ALL = "removeAll";
+    public static final String OPERATION_REPLACE = "replace";
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LatencyHistogram loadTime = new LatencyHistogram();
+    private final LatencyHistogram writerTime = new LatencyHistogram();
+    private final LongAdder evictions = new LongAdder();
+    private final LatencyHistogram roundTripTime = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> roundTripTimeByOperation = new ConcurrentHashMap<>();
+
+    void recordHits(long count) {
+        hits.add(count);
+    }
+
+    void recordMisses(long count) {
+        misses.add(count);
+    }
+
+    void recordLoad(boolean success, long nanos) {
+        if (success) {
+            loadSuccesses.increment();
+        } else {
+            loadFailures.increment();
+        }
+        loadTime.record(nanos);
+    }
+
+    void recordWriter(long nanos) {
+        writerTime.record(nanos);
+    }
+
+    void recordEvictions(long count) {
+        evictions.add(count);
+    }
+
+    void recordRoundTrip(String operation, long nanos) {
+        roundTripTime.record(nanos);
+        roundTripTimeByOperation.computeIfAbsent(operation, k -> new LatencyHistogram()).record(nanos);
+    }
+
+    @Override
+    public void clear() {
+        hits.reset();
+        misses.reset();
+        loadSuccesses.reset();
+        loadFailures.reset();
+        loadTime.reset();
+        writerTime.reset();
+        evictions.reset();
+        roundTripTime.reset();
+        roundTripTimeByOperation.clear();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getCacheHitPercentage() {
+        long currentHits = hits.sum();
+        long total = currentHits + misses.sum();
+        return total == 0 ? 0.0 : currentHits * 100.0 / total;
+    }
+
+    @Override
+    public long getCacheLoadSuccesses() {
+        return loadSuccesses.sum();
+    }
+
+    @Override
+    public long getCacheLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    @Override
+    public double getAverageLoadTime() {
+        return loadTime.getAverageMs();
+    }
+
+    @Override
+    public long getCacheWriterCalls() {
+        return writerTime.getCount();
+    }
+
+    @Override
+    public double getAverageWriterTime() {
+        return writerTime.getAverageMs();
+    }
+
+    @Override
+    public long getCacheEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public double getAverageRoundTripTime() {
+        return roundTripTime.getAverageMs();
+    }
+
+    @Override
+    public double getRoundTripTime99Percentile() {
+        return roundTripTime.getPercentileMs(99.0);
+    }
+
+    @Override
+    public Map<String, Double> getAverageRoundTripTimeByOperation() {
+        Map<String, Double> result = new HashMap<>();
+        roundTripTimeByOperation.forEach((operation, histogram) -> result.put(operation, histogram.getAverageMs()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Time histogram of the loads
+     * @return histogram
+     */
+    public LatencyHistogram getLoadTimeHistogram() {
+        return loadTime;
+    }
+
+    /**
+     * Time histogram of the writer calls
+     * @return histogram
+     */
+    public LatencyHistogram getWriterTimeHistogram() {
+        return writerTime;
+    }
+
+    /**
+     * Time histogram of the calls to redis of an operation
+     * @param operation name of the operation, see OPERATION_ constants
+     * @return histogram, null if no call has been recorded
+     */
+    public LatencyHistogram getRoundTripTimeHistogram(String operation) {
+        return roundTripTimeByOperation.get(operation);
+    }
+
+    /**
+     * Copy of the current values
+     * Every value is read atomically, but not all of them at the same time
+     * @return snapshot
+     */
+    public CacheStatisticsSnapshot snapshot() {
+        return new CacheStatisticsSnapshot(getCacheHits(), getCacheMisses(),
+                getCacheLoadSuccesses(), getCacheLoadFailures(), getAverageLoadTime(),
+                getCacheWriterCalls(), getAverageWriterTime(), getCacheEvictions(),
+                getAverageRoundTripTime(), getRoundTripTime99Percentile(), getAverageRoundTripTimeByOperation());
+    }
+
+    /**
+     * Executes a call to redis, recording its time by operation if statistics are enabled
+     * @param statistics statistics, null if not enabled
+     * @param operation name of the operation, see OPERATION_ constants
+     * @param redisCall call to redis
+     * @param <T> type of the result
+     * @return result of the call
+     */
+    static <T> T timedRoundTrip(CacheStatistics statistics, String operation, Supplier<T> redisCall) {
+        if (statistics == null) {
+            return redisCall.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return redisCall.get();
+        } finally {
+            statistics.recordRoundTrip(operation, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executes a load from the cache loader, recording its time and result if statistics are enabled
+     * A load that throws an exception counts as a failure
+     * @param statistics statistics, null if not enabled
+     * @param load call to the cache loader
+     * @param <T> type of the result
+     * @return loaded result
+     */
+    static <T> T timedLoad(CacheStatistics statistics, Supplier<T> load) {
+        if (statistics == null) {
+            return load.get();
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = load.get();
+            success = true;
+            return result;
+        } finally {
+            statistics.recordLoad(success, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executes a call to the cache writer, recording its time if statistics are enabled
+     * @param statistics statistics, null if not enabled
+     * @param write call to the cache writer
+     */
+    static void timedWrite(CacheStatistics statistics, Runnable write) {
+        if (statistics == null) {
+            write.run();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            write.run();
+        } finally {
+            statistics.recordWriter(System.nanoTime() - start);
+        }
+    }
+
+}
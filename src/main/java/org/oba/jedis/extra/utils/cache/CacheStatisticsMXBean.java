@@ -0,0 +1,44 @@
+package org.oba.jedis.extra.utils.cache;
+
+import java.util.Map;
+
+/**
+ * JMX view of the statistics of a SimpleCache, in a javax.cache.management.CacheStatisticsMXBean fashion
+ * Times are in milliseconds
+ */
+public interface CacheStatisticsMXBean {
+
+    /**
+     * Removes all the statistics
+     */
+    void clear();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    double getCacheHitPercentage();
+
+    long getCacheLoadSuccesses();
+
+    long getCacheLoadFailures();
+
+    double getAverageLoadTime();
+
+    long getCacheWriterCalls();
+
+    double getAverageWriterTime();
+
+    long getCacheEvictions();
+
+    double getAverageRoundTripTime();
+
+    double getRoundTripTime99Percentile();
+
+    /**
+     * Average time of the calls to redis, by operation
+     * @return map operation - milliseconds
+     */
+    Map<String, Double> getAverageRoundTripTimeByOperation();
+
+}
@@ -0,0 +1,110 @@
+package org.oba.jedis.extra.utils.cache;
+
+import java.util.Map;
+
+/**
+ * Immutable copy of the statistics of a cache in a moment
+ * Times are in milliseconds
+ */
+public final class CacheStatisticsSnapshot {
+
+    private final long hits;
+    private final long misses;
+    private final long loadSuccesses;
+    private final long loadFailures;
+    private final double averageLoadTime;
+    private final long writerCalls;
+    private final double averageWriterTime;
+    private final long evictions;
+    private final double averageRoundTripTime;
+    private final double roundTripTime99Percentile;
+    private final Map<String, Double> averageRoundTripTimeByOperation;
+
+    CacheStatisticsSnapshot(long hits, long misses, long loadSuccesses, long loadFailures, double averageLoadTime,
+                            long writerCalls, double averageWriterTime, long evictions,
+                            double averageRoundTripTime, double roundTripTime99Percentile,
+                            Map<String, Double> averageRoundTripTimeByOperation) {
+        this.hits = hits;
+        this.misses = misses;
+        this.loadSuccesses = loadSuccesses;
+        this.loadFailures = loadFailures;
+        this.averageLoadTime = averageLoadTime;
+        this.writerCalls = writerCalls;
+        this.averageWriterTime = averageWriterTime;
+        this.evictions = evictions;
+        this.averageRoundTripTime = averageRoundTripTime;
+        this.roundTripTime99Percentile = roundTripTime99Percentile;
+        this.averageRoundTripTimeByOperation = averageRoundTripTimeByOperation;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitPercentage() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : hits * 100.0 / total;
+    }
+
+    public long getLoadSuccesses() {
+        return loadSuccesses;
+    }
+
+    public long getLoadFailures() {
+        return loadFailures;
+    }
+
+    public double getAverageLoadTime() {
+        return averageLoadTime;
+    }
+
+    public long getWriterCalls() {
+        return writerCalls;
+    }
+
+    public double getAverageWriterTime() {
+        return averageWriterTime;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public double getAverageRoundTripTime() {
+        return averageRoundTripTime;
+    }
+
+    public double getRoundTripTime99Percentile() {
+        return roundTripTime99Percentile;
+    }
+
+    /**
+     * Average time of the calls to redis, by operation
+     * @return unmodifiable map operation - milliseconds
+     */
+    public Map<String, Double> getAverageRoundTripTimeByOperation() {
+        return averageRoundTripTimeByOperation;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatisticsSnapshot{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", loadSuccesses=" + loadSuccesses +
+                ", loadFailures=" + loadFailures +
+                ", averageLoadTime=" + averageLoadTime +
+                ", writerCalls=" + writerCalls +
+                ", averageWriterTime=" + averageWriterTime +
+                ", evictions=" + evictions +
+                ", averageRoundTripTime=" + averageRoundTripTime +
+                ", roundTripTime99Percentile=" + roundTripTime99Percentile +
+                ", averageRoundTripTimeByOperation=" + averageRoundTripTimeByOperation +
+                '}';
+    }
+
+}
@@ -0,0 +1,133 @@
+package org.oba.jedis.extra.utils.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codec that compresses with deflate the bytes of other codec
+ *
+ * Only values with more bytes than the threshold are compressed, and only if
+ * the result is smaller; small values don't pay the cost
+ * A first byte tells how the rest is stored, so both kinds can be read
+ *
+ * @param <V> Type of the values
+ */
+public final class DeflateCacheCodec<V> implements CacheCodec<V> {
+
+    public static final int DEFAULT_THRESHOLD_BYTES = 1024;
+
+    static final byte RAW = 0;
+    static final byte DEFLATED = 1;
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private final CacheCodec<V> codec;
+    private final int thresholdBytes;
+    private final int level;
+
+    /**
+     * Creates a compressing codec with the default threshold
+     * @param codec Codec of the values
+     */
+    public DeflateCacheCodec(CacheCodec<V> codec) {
+        this(codec, DEFAULT_THRESHOLD_BYTES);
+    }
+
+    /**
+     * Creates a compressing codec with the fastest compression
+     * @param codec Codec of the values
+     * @param thresholdBytes Minimum size to compress
+     */
+    public DeflateCacheCodec(CacheCodec<V> codec, int thresholdBytes) {
+        this(codec, thresholdBytes, Deflater.BEST_SPEED);
+    }
+
+    /**
+     * Creates a compressing codec
+     * @param codec Codec of the values
+     * @param thresholdBytes Minimum size to compress
+     * @param level Compression level of Deflater, from 0 to 9
+     */
+    public DeflateCacheCodec(CacheCodec<V> codec, int thresholdBytes, int level) {
+        if (codec == null) throw new IllegalArgumentException("DeflateCacheCodec codec is null");
+        if (thresholdBytes < 0) throw new IllegalArgumentException("DeflateCacheCodec thresholdBytes must be zero or more");
+        if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) throw new IllegalArgumentException("DeflateCacheCodec level must be between 0 and 9");
+        this.codec = codec;
+        this.thresholdBytes = thresholdBytes;
+        this.level = level;
+    }
+
+    @Override
+    public byte[] encode(V value) {
+        byte[] data = codec.encode(value);
+        if (data.length > thresholdBytes) {
+            byte[] compressed = compress(data);
+            if (compressed.length < data.length) {
+                return withHeader(DEFLATED, compressed);
+            }
+        }
+        return withHeader(RAW, data);
+    }
+
+    @Override
+    public V decode(byte[] data) {
+        if (data.length == 0) throw new IllegalStateException("DeflateCacheCodec data without header");
+        byte[] content = new byte[data.length - 1];
+        System.arraycopy(data, 1, content, 0, content.length);
+        if (data[0] == RAW) {
+            return codec.decode(content);
+        } else if (data[0] == DEFLATED) {
+            return codec.decode(decompress(content));
+        } else {
+            throw new IllegalStateException("DeflateCacheCodec data with unknown header " + data[0]);
+        }
+    }
+
+    private static byte[] withHeader(byte header, byte[] content) {
+        byte[] result = new byte[content.length + 1];
+        result[0] = header;
+        System.arraycopy(content, 0, result, 1, content.length);
+        return result;
+    }
+
+    private byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 2);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("DeflateCacheCodec truncated data");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("DeflateCacheCodec wrong data", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
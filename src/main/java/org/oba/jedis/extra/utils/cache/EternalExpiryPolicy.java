@@ -0,0 +1,33 @@
+package org.oba.jedis.extra.utils.cache;
+
+/**
+ * ExpiryPolicy of values without time to live, see ExpiryPolicy.eternal
+ */
+final class EternalExpiryPolicy implements ExpiryPolicy {
+
+    static final EternalExpiryPolicy INSTANCE = new EternalExpiryPolicy();
+
+    private EternalExpiryPolicy() {
+    }
+
+    @Override
+    public long getExpiryForCreation() {
+        return NO_EXPIRY;
+    }
+
+    @Override
+    public long getExpiryForUpdate() {
+        return NO_EXPIRY;
+    }
+
+    @Override
+    public long getExpiryForAccess() {
+        return UNCHANGED;
+    }
+
+    @Override
+    public String toString() {
+        return "EternalExpiryPolicy{}";
+    }
+
+}
@@ -0,0 +1,33 @@
+package org.oba.jedis.extra.utils.cache;
+
+import java.util.Locale;
+
+/**
+ * Defines which entries are evicted first when a size bounded cache is full
+ *
+ * Every entry has a score in an access index (a redis sorted set) that is updated
+ * when the entry is written or read, and the entries with the lowest score are evicted
+ */
+public enum EvictionPolicy {
+
+    /**
+     * Least recently used, the score is the last time the entry was written or read
+     */
+    LRU,
+
+    /**
+     * Least frequently used, the score is the number of writes and reads
+     * New entries start with the score of the last evicted one, so entries that were
+     * frequently used long ago don't stay forever
+     */
+    LFU;
+
+    /**
+     * Name of the policy in the bounded put script
+     * @return argument of the script
+     */
+    String toScriptArgument() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+}
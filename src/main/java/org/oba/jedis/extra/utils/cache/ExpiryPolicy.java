@@ -0,0 +1,91 @@
+package org.oba.jedis.extra.utils.cache;
+
+/**
+ * Defines the time to live of the cache values, in a javax.cache.expiry.ExpiryPolicy fashion
+ * but with milliseconds
+ *
+ * There are three moments when the time to live can be set
+ * - creation: a value is stored for a key that doesn't exist (put, load)
+ * - update: a value is stored for a key that already exists (put, replace)
+ * - access: a value is read (get), this gives sliding expiration
+ * Update and access can return UNCHANGED to keep the current time to live
+ * Creation and update can return NO_EXPIRY to store the value without time to live, see eternal
+ */
+public interface ExpiryPolicy {
+
+    /**
+     * The current time to live of the value is not modified
+     */
+    long UNCHANGED = -1L;
+
+    /**
+     * The value is stored without time to live
+     */
+    long NO_EXPIRY = 0L;
+
+    /**
+     * Time to live of a new value
+     * @return milliseconds, more than zero, or NO_EXPIRY
+     */
+    long getExpiryForCreation();
+
+    /**
+     * Time to live of an updated value
+     * @return milliseconds, UNCHANGED or NO_EXPIRY
+     */
+    long getExpiryForUpdate();
+
+    /**
+     * Time to live of a value after it's read
+     * @return milliseconds, or UNCHANGED
+     */
+    long getExpiryForAccess();
+
+
+    /**
+     * Values never expire
+     * This is the policy of a SimpleCache created with a timeout of zero or less
+     * @return policy
+     */
+    static ExpiryPolicy eternal() {
+        return EternalExpiryPolicy.INSTANCE;
+    }
+
+    /**
+     * Values expire after the time since they were created
+     * @param timeOutMs time to live
+     * @return policy
+     */
+    static ExpiryPolicy created(long timeOutMs) {
+        return new SimpleExpiryPolicy(timeOutMs, UNCHANGED, UNCHANGED);
+    }
+
+    /**
+     * Values expire after the time since they were created or updated
+     * This is the default policy of SimpleCache
+     * @param timeOutMs time to live
+     * @return policy
+     */
+    static ExpiryPolicy modified(long timeOutMs) {
+        return new SimpleExpiryPolicy(timeOutMs, timeOutMs, UNCHANGED);
+    }
+
+    /**
+     * Values expire after the time since they were created or read (sliding expiration)
+     * @param timeOutMs time to live
+     * @return policy
+     */
+    static ExpiryPolicy accessed(long timeOutMs) {
+        return new SimpleExpiryPolicy(timeOutMs, UNCHANGED, timeOutMs);
+    }
+
+    /**
+     * Values expire after the time since they were created, updated or read
+     * @param timeOutMs time to live
+     * @return policy
+     */
+    static ExpiryPolicy touched(long timeOutMs) {
+        return new SimpleExpiryPolicy(timeOutMs, timeOutMs, timeOutMs);
+    }
+
+}
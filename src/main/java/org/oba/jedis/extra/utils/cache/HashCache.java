@@ -0,0 +1,826 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.oba.jedis.extra.utils.iterators.HScanIterator;
+import org.oba.jedis.extra.utils.utils.JedisPoolUser;
+import org.oba.jedis.extra.utils.utils.Named;
+import org.oba.jedis.extra.utils.utils.ScriptEvalSha1;
+import org.oba.jedis.extra.utils.utils.UniversalReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Transaction;
+import redis.clients.jedis.args.ExpiryOption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A cache like SimpleCache, but with a compact storage in redis
+ *
+ * Instead of a redis key for every entry, the entries are distributed in a fixed number
+ * of hashes (buckets), named name:{bucket}, and every entry is a field of its bucket
+ * This saves the per-key overhead of redis for many small entries, and the operations
+ * over all the cache (iteration, clear, size) only walk the buckets of this cache
+ * instead of scanning all the keyspace
+ *
+ * Every field has its own timeout with HPEXPIRE (redis 7.4 or later), which is detected
+ * from the server version. In older servers the timeout is applied to the whole bucket,
+ * and it is renewed in every write to the bucket, so entries can live longer than their timeout
+ *
+ * Values are replaced and removed by comparison atomically with scripts
+ * Statistics can be enabled as in SimpleCache, see withStatistics
+ *
+ * The number of buckets must be the same in all the instances with the same name
+ * Do not use a SimpleCache and a HashCache with the same name, as values are stored differently
+ *
+ * Unlike maps, null keys or values aren't allowed.
+ */
+public class HashCache implements Iterable<Map.Entry<String, String>>, Named, JedisPoolUser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashCache.class);
+
+    public static final int DEFAULT_BUCKETS = 64;
+    public static final int DEFAULT_RESULTS_PER_SCAN = 100;
+
+    static final int FIELD_EXPIRATION_MAJOR_VERSION = 7;
+    static final int FIELD_EXPIRATION_MINOR_VERSION = 4;
+
+    public static final String SCRIPT_NAME_REPLACE = "cache.hashReplace.lua";
+    public static final String FILE_PATH_REPLACE = "./src/main/resources/cache.hashReplace.lua";
+
+    public static final String SCRIPT_NAME_COMPARE_AND_REMOVE = "cache.hashCompareAndRemove.lua";
+    public static final String FILE_PATH_COMPARE_AND_REMOVE = "./src/main/resources/cache.hashCompareAndRemove.lua";
+
+    private final JedisPool jedisPool;
+    private final String name;
+    private final long timeOutMs;
+
+    private int buckets = DEFAULT_BUCKETS;
+    private int resultsPerScan = DEFAULT_RESULTS_PER_SCAN;
+    private CacheLoader cacheLoader;
+    private CacheWriter cacheWriter;
+    private volatile Boolean fieldExpiration;
+    private volatile CacheStatistics statistics;
+
+    private final ScriptEvalSha1 scriptReplace;
+    private final ScriptEvalSha1 scriptCompareAndRemove;
+
+    private final AtomicBoolean isClosed = new AtomicBoolean(false);
+
+    /**
+     * Create a hash cache
+     * @param jedisPool Connection pool
+     * @param name Name shared across instances
+     * @param timeOutMs Default timeout for every entry
+     */
+    public HashCache(JedisPool jedisPool, String name, long timeOutMs) {
+        if (timeOutMs <= 0) throw new IllegalArgumentException("HashCache timeOutMs must be more than zero");
+        this.jedisPool = jedisPool;
+        this.name = name;
+        this.timeOutMs = timeOutMs;
+        this.scriptReplace = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_REPLACE).
+                withFile(FILE_PATH_REPLACE));
+        this.scriptCompareAndRemove = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_COMPARE_AND_REMOVE).
+                withFile(FILE_PATH_COMPARE_AND_REMOVE));
+    }
+
+    /**
+     * Sets the number of buckets (hashes) of this cache
+     * It must be the same in all the instances with the same name, and not changed with data stored
+     * @param buckets number of buckets, more than zero
+     * @return cache
+     */
+    public HashCache withBuckets(int buckets) {
+        if (buckets <= 0) throw new IllegalArgumentException("HashCache.withBuckets must be more than zero");
+        this.buckets = buckets;
+        return this;
+    }
+
+    /**
+     * Sets the page size of the iterations over the buckets
+     * @param resultsPerScan Fields per HSCAN call, more than zero
+     * @return cache
+     */
+    public HashCache withResultsPerScan(int resultsPerScan) {
+        if (resultsPerScan <= 0) throw new IllegalArgumentException("HashCache.withResultsPerScan must be more than zero");
+        this.resultsPerScan = resultsPerScan;
+        return this;
+    }
+
+    /**
+     * Adds a cache loader to this cache
+     * @param cacheLoader Default cacheloader readthrougth
+     * @return cache
+     */
+    public HashCache withCacheLoader(CacheLoader cacheLoader) {
+        this.cacheLoader = cacheLoader;
+        return this;
+    }
+
+    /**
+     * Adds a cache writer to this cache
+     * @param cacheWriter Default cachewriter writethrough
+     * @return cache
+     */
+    public HashCache withCacheWriter(CacheWriter cacheWriter) {
+        this.cacheWriter = cacheWriter;
+        return this;
+    }
+
+    /**
+     * Sets if every field has its own timeout (HPEXPIRE) or the timeout is set to the whole bucket
+     * By default, it's detected from the server version
+     * @param fieldExpiration true to use field expiration
+     * @return cache
+     */
+    public HashCache withFieldExpiration(boolean fieldExpiration) {
+        this.fieldExpiration = fieldExpiration;
+        return this;
+    }
+
+    /**
+     * Enables the statistics of this cache, see getStatistics
+     * Evictions are not counted, as redis expires the fields by itself
+     * @return cache
+     */
+    public HashCache withStatistics() {
+        checkClosed();
+        if (statistics == null) {
+            statistics = new CacheStatistics();
+        }
+        return this;
+    }
+
+    /**
+     * Statistics of this cache
+     * @return statistics, null if not enabled
+     */
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public JedisPool getJedisPool() {
+        return jedisPool;
+    }
+
+    /**
+     * Current name
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Number of buckets
+     * @return buckets
+     */
+    public int getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Redis key of the bucket of a key
+     * No null accepted
+     * @param key key
+     * @return bucket key
+     */
+    public String resolveBucket(String key) {
+        if (key == null) throw new IllegalArgumentException("Key must be not null");
+        return bucketKey(Math.floorMod(key.hashCode(), buckets));
+    }
+
+    /**
+     * Redis key of a bucket
+     * @param bucket number of bucket
+     * @return bucket key
+     */
+    String bucketKey(int bucket) {
+        return name + ":{" + bucket + "}";
+    }
+
+    /**
+     * If every field has its own timeout
+     * If not set, it's detected from the server version the first time
+     * @return true if field expiration is used
+     */
+    public boolean isFieldExpiration() {
+        Boolean current = fieldExpiration;
+        if (current == null) {
+            current = withResourceGet(jedis -> isVersionWithFieldExpiration(jedis.info("server")));
+            LOGGER.debug("HashCache {} field expiration {}", name, current);
+            fieldExpiration = current;
+        }
+        return current;
+    }
+
+    /**
+     * Checks the version of the INFO server data
+     * @param info server information
+     * @return true if version is 7.4 or later
+     */
+    static boolean isVersionWithFieldExpiration(String info) {
+        if (info == null) {
+            return false;
+        }
+        for(String line: info.split("\r?\n")) {
+            if (line.startsWith("redis_version:")) {
+                String[] version = line.substring("redis_version:".length()).trim().split("\\.");
+                try {
+                    int major = Integer.parseInt(version[0]);
+                    int minor = version.length > 1 ? Integer.parseInt(version[1]) : 0;
+                    return major > FIELD_EXPIRATION_MAJOR_VERSION ||
+                            (major == FIELD_EXPIRATION_MAJOR_VERSION && minor >= FIELD_EXPIRATION_MINOR_VERSION);
+                } catch (NumberFormatException e) {
+                    LOGGER.warn("Unknown redis version {}", line, e);
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Groups the keys by bucket
+     * @param keys keys
+     * @return map of bucket key to keys in the bucket
+     */
+    private Map<String, List<String>> groupByBucket(Iterable<String> keys) {
+        Map<String, List<String>> grouped = new HashMap<>();
+        keys.forEach(key -> grouped.computeIfAbsent(resolveBucket(key), k -> new ArrayList<>()).add(key));
+        return grouped;
+    }
+
+    /**
+     * Gets current value from redis cache
+     * read-through: If there is not a value in redis and there is a cacheloader,
+     * the value is loaded and stored in redis
+     * @param key not null key
+     * @return value, or null if no exists
+     */
+    public String get(String key) {
+        checkClosed();
+        if (key == null) throw new IllegalArgumentException("HashCache.get key is null");
+        String value = timedRoundTrip(CacheStatistics.OPERATION_GET, () -> withResourceGet(jedis -> jedis.hget(resolveBucket(key), key)));
+        if (value != null) {
+            recordHits(1);
+        } else {
+            recordMisses(1);
+        }
+        if (value == null && cacheLoader != null) {
+            LOGGER.debug("read-through load key {}", key);
+            value = CacheStatistics.timedLoad(statistics, () -> cacheLoader.load(key));
+            if (value != null) {
+                store(Collections.singletonMap(key, value), timeOutMs);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Gets values from redis cache, with one HMGET by bucket in one transaction
+     * read-through: If there is a cacheloader, the values not found are loaded and stored in redis
+     * Not found values will not be present in result map
+     * @param keys not null set of keys
+     * @return map with values from cache (no nulls)
+     */
+    public Map<String, String> getAll(Set<String> keys) {
+        checkClosed();
+        if (keys == null) throw new IllegalArgumentException("HashCache.getAll keys is null");
+        Map<String, String> result = new HashMap<>();
+        if (keys.isEmpty()) {
+            return result;
+        }
+        Map<String, List<String>> grouped = groupByBucket(keys);
+        Map<String, Response<List<String>>> responses = new HashMap<>();
+        timedRoundTrip(CacheStatistics.OPERATION_GET_ALL, () -> {
+            try (Jedis jedis = jedisPool.getResource()) {
+                Transaction t = jedis.multi();
+                grouped.forEach((bucket, fields) -> responses.put(bucket, t.hmget(bucket, fields.toArray(new String[0]))));
+                return t.exec();
+            }
+        });
+        List<String> notFoundKeys = new ArrayList<>();
+        grouped.forEach((bucket, fields) -> {
+            List<String> values = responses.get(bucket).get();
+            for(int i = 0; i < fields.size(); i++) {
+                if (values.get(i) != null) {
+                    result.put(fields.get(i), values.get(i));
+                } else {
+                    notFoundKeys.add(fields.get(i));
+                }
+            }
+        });
+        recordHits(result.size());
+        recordMisses(notFoundKeys.size());
+        if (!notFoundKeys.isEmpty() && cacheLoader != null) {
+            LOGGER.debug("read-through load keys {}", notFoundKeys);
+            Map<String, String> loaded = CacheStatistics.timedLoad(statistics, () -> cacheLoader.loadAll(notFoundKeys));
+            Map<String, String> values = new HashMap<>();
+            if (loaded != null) {
+                loaded.forEach((k, v) -> {
+                    if (k != null && v != null) {
+                        values.put(k, v);
+                    }
+                });
+            }
+            if (!values.isEmpty()) {
+                store(values, timeOutMs);
+                result.putAll(values);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks if a key exists in redis
+     * @param key Key
+     * @return true if a value is bound to this key
+     */
+    public boolean containsKey(String key) {
+        checkClosed();
+        if (key == null) throw new IllegalArgumentException("HashCache.containsKey key is null");
+        return timedRoundTrip(CacheStatistics.OPERATION_CONTAINS_KEY, () -> withResourceGet(jedis -> jedis.hexists(resolveBucket(key), key)));
+    }
+
+    /**
+     * Inserts a new value for given key in redis, with the default timeout
+     * If the value exists, it will be overwritten
+     * write-through: If a cacheWriter is present, it will be stored in external sources
+     * @param key Key of the value
+     * @param value Data of the value
+     */
+    public void put(String key, String value) {
+        put(key, value, timeOutMs);
+    }
+
+    /**
+     * Inserts a new value for given key in redis, with the given timeout
+     * If the value exists, it will be overwritten
+     * write-through: If a cacheWriter is present, it will be stored in external sources
+     * @param key Key of the value
+     * @param value Data of the value
+     * @param timeOutMs Time to live
+     */
+    public void put(String key, String value, long timeOutMs) {
+        checkClosed();
+        if (key == null) throw new IllegalArgumentException("HashCache.put key is null");
+        if (value == null) throw new IllegalArgumentException("HashCache.put value is null");
+        timedRoundTrip(CacheStatistics.OPERATION_PUT, () -> store(Collections.singletonMap(key, value), timeOutMs));
+        if (cacheWriter != null) {
+            LOGGER.debug("write-through store key {} value {}", key, value);
+            writeThrough(() -> cacheWriter.write(key, value));
+        }
+    }
+
+    /**
+     * Inserts a new value for given key in redis, with the default timeout,
+     * and returns the previous one, in one transaction
+     * write-through: If a cacheWriter is present, it will be stored in external sources
+     * @param key Key of the value
+     * @param value Data of the value
+     * @return previous value, null if there was no one
+     */
+    public String getAndPut(String key, String value) {
+        checkClosed();
+        if (key == null) throw new IllegalArgumentException("HashCache.getAndPut key is null");
+        if (value == null) throw new IllegalArgumentException("HashCache.getAndPut value is null");
+        boolean useFieldExpiration = isFieldExpiration();
+        String bucket = resolveBucket(key);
+        String previous = timedRoundTrip(CacheStatistics.OPERATION_PUT, () -> {
+            try (Jedis jedis = jedisPool.getResource()) {
+                Transaction t = jedis.multi();
+                Response<String> response = t.hget(bucket, key);
+                t.hset(bucket, Collections.singletonMap(key, value));
+                if (useFieldExpiration) {
+                    t.hpexpire(bucket, timeOutMs, key);
+                } else {
+                    t.pexpire(bucket, timeOutMs);
+                }
+                t.exec();
+                return response.get();
+            }
+        });
+        if (cacheWriter != null) {
+            LOGGER.debug("write-through store key {} value {}", key, value);
+            writeThrough(() -> cacheWriter.write(key, value));
+        }
+        return previous;
+    }
+
+    /**
+     * Inserts a list of new key-values in cache, in one transaction
+     * with one HSET (and HPEXPIRE) by bucket
+     * write-through: If a cacheWriter is present, all values will be stored in external sources
+     * @param values map of the key-values data
+     */
+    public void putAll(Map<String, String> values) {
+        checkClosed();
+        if (values == null) throw new IllegalArgumentException("HashCache.putAll map is null");
+        if (values.isEmpty()) {
+            return;
+        }
+        timedRoundTrip(CacheStatistics.OPERATION_PUT_ALL, () -> store(values, timeOutMs));
+        if (cacheWriter != null) {
+            LOGGER.debug("write-through store values {}", values);
+            writeThrough(() -> cacheWriter.writeAll(values));
+        }
+    }
+
+    /**
+     * Stores the values in their buckets, in one transaction
+     * @param values key-values, not null
+     * @param timeOutMs Time to live
+     * @return results of the transaction
+     */
+    private List<Object> store(Map<String, String> values, long timeOutMs) {
+        boolean useFieldExpiration = isFieldExpiration();
+        Map<String, List<String>> grouped = groupByBucket(values.keySet());
+        try (Jedis jedis = jedisPool.getResource()) {
+            Transaction t = jedis.multi();
+            grouped.forEach((bucket, fields) -> {
+                Map<String, String> bucketValues = new HashMap<>();
+                fields.forEach(field -> bucketValues.put(field, values.get(field)));
+                t.hset(bucket, bucketValues);
+                if (useFieldExpiration) {
+                    t.hpexpire(bucket, timeOutMs, fields.toArray(new String[0]));
+                } else {
+                    t.pexpire(bucket, timeOutMs);
+                }
+            });
+            return t.exec();
+        }
+    }
+
+    /**
+     * Inserts a new value for given key in redis if no previous value is present
+     * The new value will use the default timeout
+     * The timeout of a previous value is not changed
+     * write-through: If a cacheWriter is present and the value is inserted, it will be stored in external sources
+     * @param key Key of the value
+     * @param value Data of the value
+     * @return true if inserted
+     */
+    public boolean putIfAbsent(String key, String value) {
+        checkClosed();
+        if (key == null) throw new IllegalArgumentException("HashCache.putIfAbsent key is null");
+        if (value == null) throw new IllegalArgumentException("HashCache.putIfAbsent value is null");
+        boolean useFieldExpiration = isFieldExpiration();
+        String bucket = resolveBucket(key);
+        boolean inserted = timedRoundTrip(CacheStatistics.OPERATION_PUT_IF_ABSENT, () -> {
+            try (Jedis jedis = jedisPool.getResource()) {
+                Transaction t = jedis.multi();
+                Response<Long> response = t.hsetnx(bucket, key, value);
+                if (useFieldExpiration) {
+                    // NX: only a field without timeout, the new one, gets it
+                    t.hpexpire(bucket, timeOutMs, ExpiryOption.NX, key);
+                } else {
+                    t.pexpire(bucket, timeOutMs);
+                }
+                t.exec();
+                return response.get() != null && response.get() > 0L;
+            }
+        });
+        if (inserted && cacheWriter != null) {
+            LOGGER.debug("write-through store key {} value {}", key, value);
+            writeThrough(() -> cacheWriter.write(key, value));
+        }
+        return inserted;
+    }
+
+    /**
+     * Removes for given key in redis
+     * write-through: If a cacheWriter is present, it will be removed in external sources
+     * @param key Key of the value
+     * @return true if a values has been removed
+     */
+    public boolean remove(String key) {
+        checkClosed();
+        if (key == null) throw new IllegalArgumentException("HashCache.remove key is null");
+        long removed = timedRoundTrip(CacheStatistics.OPERATION_REMOVE, () -> withResourceGet(jedis -> jedis.hdel(resolveBucket(key), key)));
+        if (removed > 0 && cacheWriter != null) {
+            LOGGER.debug("write-through remove key {} ", key);
+            writeThrough(() -> cacheWriter.delete(key));
+        }
+        return removed > 0;
+    }
+
+    /**
+     * Removes for given key in redis if the value matches
+     * The check and the deletion are done atomically in redis
+     * write-through: If a cacheWriter is present and the deletion is done,
+     * it will be removed in external sources
+     * @param key Key of the value
+     * @param oldValue value that must equal to redis one to execute deletion
+     * @return true if deleted
+     */
+    public boolean remove(String key, String oldValue) {
+        checkClosed();
+        if (key == null) throw new IllegalArgumentException("HashCache.remove key is null");
+        if (oldValue == null) throw new IllegalArgumentException("HashCache.remove oldValue is null");
+        Object result = timedRoundTrip(CacheStatistics.OPERATION_REMOVE, () ->
+                scriptCompareAndRemove.evalSha(Collections.singletonList(resolveBucket(key)), Arrays.asList(key, oldValue)));
+        boolean removed = result instanceof Number && ((Number) result).longValue() > 0;
+        if (removed && cacheWriter != null) {
+            LOGGER.debug("write-through remove key {} ", key);
+            writeThrough(() -> cacheWriter.delete(key));
+        }
+        return removed;
+    }
+
+    /**
+     * Removes for given key in redis and returns the current redis value
+     * write-through: If a cacheWriter is present, it will be removed in external sources
+     * @param key Key of the value
+     * @return previous value or null if there wasn't one
+     */
+    public String getAndRemove(String key) {
+        checkClosed();
+        if (key == null) throw new IllegalArgumentException("HashCache.getAndRemove key is null");
+        String bucket = resolveBucket(key);
+        String previous = timedRoundTrip(CacheStatistics.OPERATION_REMOVE, () -> {
+            try (Jedis jedis = jedisPool.getResource()) {
+                Transaction t = jedis.multi();
+                Response<String> response = t.hget(bucket, key);
+                t.hdel(bucket, key);
+                t.exec();
+                return response.get();
+            }
+        });
+        if (previous != null && cacheWriter != null) {
+            LOGGER.debug("write-through remove key {} ", key);
+            writeThrough(() -> cacheWriter.delete(key));
+        }
+        return previous;
+    }
+
+    /**
+     * Replaces key value with new value if current redis value is equals to given oldValue
+     * The check and the replacement are done atomically in redis, with the default timeout
+     * write-through: If value is replaced and a cachewriter exits, external source is updated too
+     * @param key Key to have replacement
+     * @param oldValue Value to be matched
+     * @param newValue New value to update in redis
+     * @return true if replaced
+     */
+    public boolean replace(String key, String oldValue, String newValue) {
+        checkClosed();
+        if (key == null) throw new IllegalArgumentException("HashCache.replace key is null");
+        if (oldValue == null) throw new IllegalArgumentException("HashCache.replace oldValue is null");
+        if (newValue == null) throw new IllegalArgumentException("HashCache.replace newValue is null");
+        return oldValue.equals(replace(key, newValue, Collections.singletonList(oldValue)));
+    }
+
+    /**
+     * Replaces key value with new value if key exists, with the default timeout
+     * write-through: If value is replaced and a cachewriter exits, external source is updated too
+     * @param key Key to have replacement
+     * @param value New value to update in redis
+     * @return true if replaced
+     */
+    public boolean replace(String key, String value) {
+        checkClosed();
+        if (key == null) throw new IllegalArgumentException("HashCache.replace key is null");
+        if (value == null) throw new IllegalArgumentException("HashCache.replace value is null");
+        return replace(key, value, Collections.emptyList()) != null;
+    }
+
+    /**
+     * Replaces key value with new value if key exists, with the default timeout,
+     * and returns the previous value
+     * write-through: If value is replaced and a cachewriter exits, external source is updated too
+     * @param key Key to have replacement
+     * @param value New value to update in redis
+     * @return previous value, null if not exists (and not replaced)
+     */
+    public String getAndReplace(String key, String value) {
+        checkClosed();
+        if (key == null) throw new IllegalArgumentException("HashCache.getAndReplace key is null");
+        if (value == null) throw new IllegalArgumentException("HashCache.getAndReplace value is null");
+        return replace(key, value, Collections.emptyList());
+    }
+
+    /**
+     * Replaces atomically with the replace script, if the key exists
+     * and, if given, its value is the expected one
+     * write-through: If value is replaced and a cachewriter exits, external source is updated too
+     * @param key Key to have replacement
+     * @param value New value
+     * @param expected empty, or the value that must match the current one
+     * @return previous value, null if not exists
+     */
+    private String replace(String key, String value, List<String> expected) {
+        List<String> args = new ArrayList<>(Arrays.asList(key, value, Long.toString(timeOutMs), isFieldExpiration() ? "1" : "0"));
+        args.addAll(expected);
+        String previous = timedRoundTrip(CacheStatistics.OPERATION_REPLACE, () ->
+                (String) scriptReplace.evalSha(Collections.singletonList(resolveBucket(key)), args));
+        boolean replaced = previous != null && (expected.isEmpty() || expected.get(0).equals(previous));
+        if (replaced && cacheWriter != null) {
+            LOGGER.debug("write-through replace key {} value {}", key, value);
+            writeThrough(() -> cacheWriter.write(key, value));
+        }
+        return previous;
+    }
+
+    /**
+     * Will remove entries from redis with the given keys, with one HDEL by bucket in one transaction
+     * write-through: If a cacheWriter is present, all external values wil be deleted
+     * @param keys keys to remove
+     */
+    public void removeAll(Set<String> keys) {
+        checkClosed();
+        if (keys == null) throw new IllegalArgumentException("HashCache.removeAll keys is null");
+        if (keys.isEmpty()) {
+            return;
+        }
+        timedRoundTrip(CacheStatistics.OPERATION_REMOVE_ALL, () -> {
+            try (Jedis jedis = jedisPool.getResource()) {
+                Transaction t = jedis.multi();
+                groupByBucket(keys).forEach((bucket, fields) -> t.hdel(bucket, fields.toArray(new String[0])));
+                return t.exec();
+            }
+        });
+        if (cacheWriter != null) {
+            LOGGER.debug("write-through delete keys {} ", keys);
+            writeThrough(() -> cacheWriter.deleteAll(keys));
+        }
+    }
+
+    /**
+     * Will remove ALL entries from redis, by removing all the buckets
+     * It will not affect external values
+     */
+    public void clear() {
+        checkClosed();
+        String[] bucketKeys = new String[buckets];
+        for(int i = 0; i < buckets; i++) {
+            bucketKeys[i] = bucketKey(i);
+        }
+        withResource(jedis -> jedis.unlink(bucketKeys));
+    }
+
+    /**
+     * Will remove ALL entries from redis
+     * write-through: If a cacheWriter is present, all external values wil be deleted
+     * The keys of every bucket are sent to the writer before the bucket is removed
+     */
+    public void removeAll() {
+        checkClosed();
+        for(int i = 0; i < buckets; i++) {
+            String bucket = bucketKey(i);
+            if (cacheWriter != null) {
+                List<String> keys = new ArrayList<>(new HScanIterator(jedisPool, bucket, resultsPerScan).asMap().keySet());
+                if (!keys.isEmpty()) {
+                    LOGGER.debug("write-through delete keys {} ", keys);
+                    writeThrough(() -> cacheWriter.deleteAll(keys));
+                }
+            }
+            withResource(jedis -> jedis.unlink(bucket));
+        }
+    }
+
+    /**
+     * Number of entries in the cache, with one HLEN by bucket in one transaction
+     * Expired fields not yet removed by redis may be counted
+     * @return number of entries
+     */
+    public long size() {
+        checkClosed();
+        List<Response<Long>> responses = new ArrayList<>(buckets);
+        try (Jedis jedis = jedisPool.getResource()) {
+            Transaction t = jedis.multi();
+            for(int i = 0; i < buckets; i++) {
+                responses.add(t.hlen(bucketKey(i)));
+            }
+            t.exec();
+        }
+        return responses.stream().
+                mapToLong(response -> response.get() != null ? response.get() : 0L).
+                sum();
+    }
+
+    /**
+     * Return an iterator for current key-value pairs
+     * The buckets are walked one by one with HSCAN, see withResultsPerScan
+     * Until hasNext / next is called, no data is retrieved from redis
+     * @return iterator
+     */
+    @Override
+    public Iterator<Map.Entry<String, String>> iterator() {
+        checkClosed();
+        return new BucketsIterator();
+    }
+
+    /**
+     * A sequential stream over the current key-value pairs, see iterator
+     * As HSCAN, it can return a pair more than once if the cache changes
+     * @return stream of entries
+     */
+    public Stream<Map.Entry<String, String>> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.NONNULL), false);
+    }
+
+    /**
+     * All the current key-value pairs of the cache
+     * @return map with the entries
+     */
+    public Map<String, String> asMap() {
+        Map<String, String> result = new HashMap<>();
+        iterator().forEachRemaining(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    private <T> T timedRoundTrip(String operation, Supplier<T> redisCall) {
+        return CacheStatistics.timedRoundTrip(statistics, operation, redisCall);
+    }
+
+    private void writeThrough(Runnable write) {
+        CacheStatistics.timedWrite(statistics, write);
+    }
+
+    private void recordHits(long count) {
+        CacheStatistics currentStatistics = statistics;
+        if (currentStatistics != null && count > 0) {
+            currentStatistics.recordHits(count);
+        }
+    }
+
+    private void recordMisses(long count) {
+        CacheStatistics currentStatistics = statistics;
+        if (currentStatistics != null && count > 0) {
+            currentStatistics.recordMisses(count);
+        }
+    }
+
+    /**
+     * Close this instance of hash cache
+     * Does not affect redis data
+     */
+    public void close() {
+        isClosed.set(true);
+    }
+
+    /**
+     * Check if closed
+     * @return true if closed
+     */
+    public boolean isClosed() {
+        return isClosed.get();
+    }
+
+    /**
+     * If cache is closed, an exception will abort any operation
+     */
+    void checkClosed() {
+        if (isClosed.get()) {
+            throw new IllegalStateException("HashCache is closed");
+        }
+    }
+
+    /**
+     * Iterates all the buckets, one after another, with an HSCAN iterator
+     */
+    private final class BucketsIterator implements Iterator<Map.Entry<String, String>> {
+
+        private int nextBucket = 0;
+        private Iterator<Map.Entry<String, String>> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && nextBucket < buckets) {
+                current = new HScanIterator(jedisPool, bucketKey(nextBucket), resultsPerScan);
+                nextBucket++;
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("HashCache has no more elements");
+            }
+            return current.next();
+        }
+
+    }
+
+}
@@ -0,0 +1,133 @@
+package org.oba.jedis.extra.utils.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations, made to be updated concurrently with low overhead
+ *
+ * Durations are counted in buckets whose limits are powers of two of microseconds
+ * (less than 1us, less than 2us, less than 4us...), so percentiles are approximated
+ * by the upper limit of their bucket
+ * Counters are LongAdders, so there is no contention between updating threads
+ */
+public final class LatencyHistogram {
+
+    static final int BUCKETS = 40;
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+
+    /**
+     * Creates an empty histogram
+     */
+    public LatencyHistogram() {
+        for(int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Adds a duration
+     * @param nanos duration in nanoseconds, negatives are taken as zero
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        buckets[bucketOf(value)].increment();
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * Bucket of a duration
+     * @param nanos duration in nanoseconds
+     * @return bucket index
+     */
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1_000L;
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /**
+     * Upper limit of a bucket
+     * @param bucket bucket index
+     * @return upper limit in nanoseconds
+     */
+    static long upperLimitNanos(int bucket) {
+        return (1L << bucket) * 1_000L;
+    }
+
+    /**
+     * Number of durations recorded
+     * @return count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Average of the durations recorded
+     * @return milliseconds, zero if none
+     */
+    public double getAverageMs() {
+        long currentCount = count.sum();
+        return currentCount == 0 ? 0.0 : totalNanos.sum() / NANOS_PER_MILLI / currentCount;
+    }
+
+    /**
+     * Maximum duration recorded
+     * @return milliseconds, zero if none
+     */
+    public double getMaxMs() {
+        return maxNanos.get() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Approximated percentile of the durations recorded
+     * @param percentile value between 0 and 100
+     * @return milliseconds, upper limit of the bucket of the percentile (never more than the maximum), zero if none
+     */
+    public double getPercentileMs(double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) throw new IllegalArgumentException("LatencyHistogram percentile must be between 0 and 100");
+        long[] counts = new long[BUCKETS];
+        long total = 0L;
+        for(int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0L) {
+            return 0.0;
+        }
+        long target = Math.max(1L, (long) Math.ceil(total * percentile / 100.0));
+        long accumulated = 0L;
+        int bucket = BUCKETS - 1;
+        for(int i = 0; i < BUCKETS; i++) {
+            accumulated += counts[i];
+            if (accumulated >= target) {
+                bucket = i;
+                break;
+            }
+        }
+        return Math.min(upperLimitNanos(bucket), maxNanos.get()) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Removes all the durations recorded
+     */
+    public void reset() {
+        for(LongAdder bucket: buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+}
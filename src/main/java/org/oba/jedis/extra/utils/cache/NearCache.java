@@ -0,0 +1,165 @@
+package org.oba.jedis.extra.utils.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Local, in-process, tier of a SimpleCache
+ * It stores a bounded number of recently used entries (LRU) with a local time to live,
+ * so hot reads are resolved in the JVM without a call to redis
+ *
+ * The data is only a copy of the redis data, it is invalidated when
+ * - the local time to live expires
+ * - the cache modifies the entry
+ * - redis notifies that the key has changed (see NearCacheInvalidator)
+ *
+ * Every invalidation changes a version number; values read from redis are only stored
+ * if no invalidation has happened since the read began, so a stale value is not stored
+ * after its notification
+ */
+final class NearCache {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int maxEntries;
+    private final long timeToLiveMs;
+    private final Runnable evictionListener;
+    private final Map<String, NearCacheEntry> entries;
+
+    private long version = 0L;
+    private boolean enabled = true;
+
+    /**
+     * Creates a near cache
+     * @param maxEntries Maximum number of entries stored locally
+     * @param timeToLiveMs Maximum time an entry is stored locally
+     */
+    NearCache(int maxEntries, long timeToLiveMs) {
+        this(maxEntries, timeToLiveMs, null);
+    }
+
+    /**
+     * Creates a near cache
+     * @param maxEntries Maximum number of entries stored locally
+     * @param timeToLiveMs Maximum time an entry is stored locally
+     * @param evictionListener Called when an entry is evicted to make room, can be null
+     */
+    NearCache(int maxEntries, long timeToLiveMs, Runnable evictionListener) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("NearCache maxEntries must be more than zero");
+        if (timeToLiveMs <= 0) throw new IllegalArgumentException("NearCache timeToLiveMs must be more than zero");
+        this.maxEntries = maxEntries;
+        this.timeToLiveMs = timeToLiveMs;
+        this.evictionListener = evictionListener;
+        this.entries = new LinkedHashMap<>(Math.min(maxEntries, 1024), LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NearCacheEntry> eldest) {
+                boolean evict = size() > NearCache.this.maxEntries;
+                if (evict && evictionListener != null) {
+                    evictionListener.run();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Gets a local value if present and not expired
+     * @param key key (not resolved)
+     * @return value or null if not present
+     */
+    synchronized String get(String key) {
+        NearCacheEntry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        } else if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key);
+            return null;
+        } else {
+            return entry.value;
+        }
+    }
+
+    /**
+     * Current version of the near cache, it changes with every invalidation
+     * Get it before reading from redis, and use it to store the read value
+     * @return version
+     */
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Stores a value read from redis
+     * It will be stored only if no invalidation has been made from given version
+     * @param key key (not resolved)
+     * @param value value, if null nothing is stored
+     * @param readVersion version obtained before reading the value
+     */
+    synchronized void put(String key, String value, long readVersion) {
+        if (enabled && value != null && readVersion == version) {
+            entries.put(key, new NearCacheEntry(value, System.currentTimeMillis() + timeToLiveMs));
+        }
+    }
+
+    /**
+     * Removes a local value
+     * @param key key (not resolved)
+     */
+    synchronized void invalidate(String key) {
+        version++;
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all local values
+     */
+    synchronized void invalidateAll() {
+        version++;
+        entries.clear();
+    }
+
+    /**
+     * Removes all local values and doesn't store any more
+     * Used when invalidations can not be assured
+     */
+    synchronized void disable() {
+        enabled = false;
+        invalidateAll();
+    }
+
+    /**
+     * If the near cache stores values
+     * @return true if enabled
+     */
+    synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Number of local entries, expired included
+     * @return size
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Local value with its expiration moment
+     */
+    private static final class NearCacheEntry {
+
+        private final String value;
+        private final long expiresAt;
+
+        private NearCacheEntry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+    }
+
+}
@@ -0,0 +1,157 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Invalidates the entries of a NearCache using redis client side caching
+ * https://redis.io/docs/manual/client-side-caching/
+ *
+ * Two connections are taken from the pool and held until close
+ * - One is subscribed to the __redis__:invalidate channel, and a background thread reads the messages
+ * - Other enables CLIENT TRACKING in broadcasting mode for the prefix of the cache, redirecting to the first one
+ * So every change on a key of the cache, made by any client, removes the local copy
+ * The pool must have room for them besides the connections of the operations
+ * On close the subscribed connection is disconnected and discarded from the pool, as is
+ * the tracking one if tracking can not be turned off, so no other user gets them
+ *
+ * RESP2 is used, so it works with the usual pools
+ * If the subscribed connection fails, the near cache is disabled as invalidations can not be assured
+ */
+final class NearCacheInvalidator implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NearCacheInvalidator.class);
+
+    private static final AtomicLong num = new AtomicLong();
+
+    public static final String INVALIDATE_CHANNEL = "__redis__:invalidate";
+    private static final String MESSAGE = "message";
+
+    private final JedisPool jedisPool;
+    private final NearCache nearCache;
+    private final Function<String, String> keyUnresolver;
+    private final Jedis listenerJedis;
+    private final Jedis trackingJedis;
+    private final Thread listenerThread;
+    private final AtomicBoolean active = new AtomicBoolean(true);
+
+    /**
+     * Starts the invalidation of the near cache
+     * @param jedisPool Connection pool, two connections will be held
+     * @param prefix Prefix of the redis keys to track
+     * @param keyUnresolver Converts from redis key to near cache key
+     * @param nearCache Near cache to invalidate
+     */
+    NearCacheInvalidator(JedisPool jedisPool, String prefix, Function<String, String> keyUnresolver, NearCache nearCache) {
+        this.jedisPool = jedisPool;
+        this.nearCache = nearCache;
+        this.keyUnresolver = keyUnresolver;
+        this.listenerJedis = jedisPool.getResource();
+        try {
+            this.trackingJedis = jedisPool.getResource();
+        } catch (RuntimeException e) {
+            listenerJedis.close();
+            throw e;
+        }
+        try {
+            long listenerId = listenerJedis.clientId();
+            Connection connection = listenerJedis.getConnection();
+            connection.setTimeoutInfinite();
+            connection.sendCommand(Protocol.Command.SUBSCRIBE, INVALIDATE_CHANNEL);
+            LOGGER.debug("subscribed {}", connection.getObjectMultiBulkReply());
+            trackingJedis.sendCommand(Protocol.Command.CLIENT, "TRACKING", "ON", "REDIRECT",
+                    Long.toString(listenerId), "BCAST", "PREFIX", prefix);
+        } catch (RuntimeException e) {
+            // the connections can be subscribed or tracking, they are not reusable
+            jedisPool.returnBrokenResource(trackingJedis);
+            jedisPool.returnBrokenResource(listenerJedis);
+            throw e;
+        }
+        this.listenerThread = new Thread(this::listenInvalidations);
+        this.listenerThread.setDaemon(true);
+        this.listenerThread.setName("NearCacheInvalidator_" + prefix + "_" + num.incrementAndGet());
+        this.listenerThread.start();
+    }
+
+    /**
+     * Internal method of thread
+     */
+    void listenInvalidations() {
+        try {
+            Connection connection = listenerJedis.getConnection();
+            while (active.get()) {
+                processReply(connection.getObjectMultiBulkReply());
+            }
+        } catch (Exception e) {
+            if (active.get()) {
+                LOGGER.error("Error in invalidation thread, near cache disabled", e);
+                nearCache.disable();
+            }
+        }
+    }
+
+    /**
+     * Process a message from the invalidation channel
+     * A null payload means that all keys must be invalidated (like FLUSHALL)
+     * @param reply message
+     */
+    @SuppressWarnings("unchecked")
+    void processReply(List<Object> reply) {
+        if (reply == null || reply.size() < 3 || !MESSAGE.equals(SafeEncoder.encode((byte[]) reply.get(0)))) {
+            return;
+        }
+        Object payload = reply.get(2);
+        if (payload == null) {
+            LOGGER.debug("invalidate all");
+            nearCache.invalidateAll();
+        } else if (payload instanceof List) {
+            for (Object redisKey : (List<Object>) payload) {
+                invalidate(SafeEncoder.encode((byte[]) redisKey));
+            }
+        } else if (payload instanceof byte[]) {
+            invalidate(SafeEncoder.encode((byte[]) payload));
+        }
+    }
+
+    private void invalidate(String redisKey) {
+        LOGGER.debug("invalidate key {}", redisKey);
+        nearCache.invalidate(keyUnresolver.apply(redisKey));
+    }
+
+    @Override
+    public void close() {
+        if (active.getAndSet(false)) {
+            boolean trackingOff = false;
+            try {
+                trackingJedis.sendCommand(Protocol.Command.CLIENT, "TRACKING", "OFF");
+                trackingOff = true;
+            } catch (Exception e) {
+                LOGGER.warn("Error in tracking off", e);
+            }
+            if (trackingOff) {
+                trackingJedis.close();
+            } else {
+                jedisPool.returnBrokenResource(trackingJedis);
+            }
+            listenerJedis.getConnection().disconnect();
+            try {
+                listenerThread.join(1000L);
+            } catch (InterruptedException e) {
+                LOGGER.debug("interrupted", e);
+                Thread.currentThread().interrupt();
+            }
+            jedisPool.returnBrokenResource(listenerJedis);
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+package org.oba.jedis.extra.utils.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A local Bloom filter of keys known to be missing in the external source
+ *
+ * Keys are added when a load returns nothing, and a key that might be contained
+ * is answered as missing without going to redis
+ * As a Bloom filter can't remove keys, it has two generations: keys are added to the current one,
+ * and every half of the time to live the current one becomes the previous one and the old previous
+ * one is discarded; so a key is remembered at least half and at most all the time to live
+ *
+ * False positives (keys taken as missing that aren't) are possible, with the given probability,
+ * and last until the generation is discarded
+ * Reads don't block, only the rotation of generations is synchronized
+ */
+final class NegativeKeyFilter {
+
+    private final int numBits;
+    private final int numHashes;
+    private final long rotationMs;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    /**
+     * Creates a filter
+     * @param expectedKeys Expected number of missing keys in a generation, more than zero
+     * @param falsePositiveProbability Probability of false positives, between zero and one
+     * @param timeToLiveMs Maximum time a key is remembered, more than zero
+     */
+    NegativeKeyFilter(int expectedKeys, double falsePositiveProbability, long timeToLiveMs) {
+        if (expectedKeys <= 0) throw new IllegalArgumentException("NegativeKeyFilter expectedKeys must be more than zero");
+        if (falsePositiveProbability <= 0.0 || falsePositiveProbability >= 1.0) throw new IllegalArgumentException("NegativeKeyFilter falsePositiveProbability must be between zero and one");
+        if (timeToLiveMs <= 0) throw new IllegalArgumentException("NegativeKeyFilter timeToLiveMs must be more than zero");
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveProbability) / (ln2 * ln2));
+        this.numBits = (int) Math.max(Long.SIZE, Math.min(bits, Integer.MAX_VALUE - Long.SIZE));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedKeys * ln2));
+        this.rotationMs = Math.max(1L, timeToLiveMs / 2);
+        long now = System.currentTimeMillis();
+        this.current = new Generation(numBits, now);
+        this.previous = new Generation(numBits, now);
+    }
+
+    /**
+     * Checks if a key might be missing
+     * @param key key
+     * @return true if the key has been added recently (or a false positive), false if not
+     */
+    boolean mightContain(String key) {
+        rotateIfNeeded();
+        long hash = hash(key);
+        return current.contains(hash, numHashes) || previous.contains(hash, numHashes);
+    }
+
+    /**
+     * Adds a missing key
+     * @param key key
+     */
+    void add(String key) {
+        rotateIfNeeded();
+        current.add(hash(key), numHashes);
+    }
+
+    /**
+     * Removes a key that is not missing anymore
+     * As the filter can't remove one key, all of them are forgotten if the key might be contained
+     * @param key key
+     */
+    void invalidate(String key) {
+        if (mightContain(key)) {
+            clear();
+        }
+    }
+
+    /**
+     * Forgets all the keys
+     */
+    synchronized void clear() {
+        long now = System.currentTimeMillis();
+        previous = new Generation(numBits, now);
+        current = new Generation(numBits, now);
+    }
+
+    int getNumBits() {
+        return numBits;
+    }
+
+    int getNumHashes() {
+        return numHashes;
+    }
+
+    private void rotateIfNeeded() {
+        Generation generation = current;
+        long now = System.currentTimeMillis();
+        if (now - generation.createdMs >= rotationMs) {
+            synchronized (this) {
+                if (current == generation) {
+                    previous = generation;
+                    current = new Generation(numBits, now);
+                }
+            }
+        }
+    }
+
+    /**
+     * 64 bit hash of the key, two 32 bit hashes for double hashing
+     * Every char is mixed as a block of murmur3 (x64), so keys with the same String.hashCode
+     * get different hashes
+     * @param key key
+     * @return hash
+     */
+    private static long hash(String key) {
+        long h = 0x9E3779B97F4A7C15L ^ key.length();
+        for(int i = 0; i < key.length(); i++) {
+            long k = key.charAt(i) * 0x87C37B91114253D5L;
+            k = Long.rotateLeft(k, 31) * 0x4CF5AD432745937FL;
+            h ^= k;
+            h = Long.rotateLeft(h, 27) * 5 + 0x52DCE729L;
+        }
+        h ^= key.length();
+        h ^= (h >>> 33);
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= (h >>> 33);
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= (h >>> 33);
+        return h;
+    }
+
+    /**
+     * Bits of a generation
+     */
+    private static final class Generation {
+
+        private final AtomicLongArray words;
+        private final int numBits;
+        private final long createdMs;
+
+        private Generation(int numBits, long createdMs) {
+            this.words = new AtomicLongArray((numBits + Long.SIZE - 1) / Long.SIZE);
+            this.numBits = numBits;
+            this.createdMs = createdMs;
+        }
+
+        private int bitIndex(long hash, int i) {
+            int hash1 = (int) hash;
+            int hash2 = (int) (hash >>> 32);
+            return Math.floorMod(hash1 + i * hash2, numBits);
+        }
+
+        private boolean contains(long hash, int numHashes) {
+            for(int i = 0; i < numHashes; i++) {
+                int bit = bitIndex(hash, i);
+                if ((words.get(bit / Long.SIZE) & (1L << (bit % Long.SIZE))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void add(long hash, int numHashes) {
+            for(int i = 0; i < numHashes; i++) {
+                int bit = bitIndex(hash, i);
+                int word = bit / Long.SIZE;
+                long mask = 1L << (bit % Long.SIZE);
+                long value = words.get(word);
+                while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    value = words.get(word);
+                }
+            }
+        }
+
+    }
+
+}
@@ -1,23 +1,46 @@
 package org.oba.jedis.extra.utils.cache;
 
+import org.oba.jedis.extra.utils.iterators.ScanIterator;
 import org.oba.jedis.extra.utils.utils.JedisPoolUser;
 import org.oba.jedis.extra.utils.utils.Listable;
 import org.oba.jedis.extra.utils.utils.Mapeable;
 import org.oba.jedis.extra.utils.utils.Named;
+import org.oba.jedis.extra.utils.utils.ScriptEvalSha1;
+import org.oba.jedis.extra.utils.utils.TimeLimit;
+import org.oba.jedis.extra.utils.utils.UniversalReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.Response;
 import redis.clients.jedis.Transaction;
+import redis.clients.jedis.params.GetExParams;
 import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.params.ZAddParams;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.oba.jedis.extra.utils.lock.UniqueTokenValueGenerator.generateUniqueTokenValue;
 
 /**
  * A cache is a Map-like data structure that provides temporary storage
@@ -35,33 +58,137 @@ import java.util.stream.Collectors;
  *
  * You can use a CacheLoader to give read-through caching, that is
  * the ability to search externally for a value not present in the cache
+ * Concurrent loads of the same key with the same loader in the same instance are done only once,
+ * and a load lease can be used to do them once between all the instances
  *
  * You can use a CacheWriter to give write-through caching, that is
  * the ability to insert/update or delete a value when it's modified in the cache
+ * The writer can be made write-behind, so the external operations are queued and sent
+ * in batches by a background thread
  *
  * This cache works like a javax.cache.Cache
- * but simpler and fewer options (no factories, events, mxbeans, statistics included)
+ * but simpler and fewer options (no factories, events included)
+ * Statistics can be enabled, and also published as a JMX MBean
  *
  * The cache must have a Jedis connection pool
  * Also a name, every instance with the same name will access the same redis data
  * And a timeout that will be applied to all data by default
+ * Instead of a fixed timeout, an ExpiryPolicy can give different times to live
+ * when a value is created, updated or read (sliding expiration), for all the cache or per call
+ *
+ * Refresh-ahead can be enabled, so values read near their expiration are reloaded
+ * in background with the cacheloader, and the readers don't wait for the load
+ *
+ * The cache can be bounded by number of entries or bytes, and the least recently
+ * or frequently used entries are evicted by redis when a write goes over the bound
+ *
+ * Optionally, a near cache can be added, so the most used values are also stored in the JVM
+ * with a local timeout, and invalidated when they change in redis (by client side caching)
+ * This is the only case where cache data is stored inside the class
  */
 public class SimpleCache implements Iterable<Map.Entry<String,String>>,
         Listable<Map.Entry<String,String>>, Mapeable<String, String>, Named, JedisPoolUser {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SimpleCache.class);
 
+    public static final String SCRIPT_NAME_COMPARE_AND_REPLACE = "cache.compareAndReplace.lua";
+    public static final String FILE_PATH_COMPARE_AND_REPLACE = "./src/main/resources/cache.compareAndReplace.lua";
+
+    public static final String SCRIPT_NAME_REPLACE_IF_EXISTS = "cache.replaceIfExists.lua";
+    public static final String FILE_PATH_REPLACE_IF_EXISTS = "./src/main/resources/cache.replaceIfExists.lua";
+
+    public static final String SCRIPT_NAME_COMPARE_AND_REMOVE = "cache.compareAndRemove.lua";
+    public static final String FILE_PATH_COMPARE_AND_REMOVE = "./src/main/resources/cache.compareAndRemove.lua";
+
+    public static final String SCRIPT_NAME_PUT_WITH_EXPIRY = "cache.putWithExpiry.lua";
+    public static final String FILE_PATH_PUT_WITH_EXPIRY = "./src/main/resources/cache.putWithExpiry.lua";
+
+    public static final String SCRIPT_NAME_BOUNDED_PUT = "cache.boundedPut.lua";
+    public static final String FILE_PATH_BOUNDED_PUT = "./src/main/resources/cache.boundedPut.lua";
+
+    public static final String SCRIPT_NAME_BOUNDED_REMOVE = "cache.boundedRemove.lua";
+    public static final String FILE_PATH_BOUNDED_REMOVE = "./src/main/resources/cache.boundedRemove.lua";
+
+    public static final String SCRIPT_NAME_BOUNDED_COMPARE_AND_REMOVE = "cache.boundedCompareAndRemove.lua";
+    public static final String FILE_PATH_BOUNDED_COMPARE_AND_REMOVE = "./src/main/resources/cache.boundedCompareAndRemove.lua";
+
+    private static final String LEASE_SUFFIX = "~lease:";
+
+    private static final long LEASE_MIN_POLL_MS = 5L;
+
+    private static final String NEGATIVE_SUFFIX = "~missing:";
+
+    private static final String NEGATIVE_VALUE = "1";
+
+    public static final double DEFAULT_NEGATIVE_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private static final String INDEX_SUFFIX = "~index";
+
+    private static final String META_SUFFIX = "~meta";
+
+    private static final String META_FIELD_BYTES = "~bytes";
+
+    private static final String BOUNDED_PUT_ALL = "all";
+
+    private static final String BOUNDED_PUT_NX = "nx";
+
+    private static final String BOUNDED_PUT_XX = "xx";
+
+    private static final String BOUNDED_PUT_EQ = "eq";
+
+    public static final String STATISTICS_MBEAN_DOMAIN = "org.oba.jedis.extra.utils.cache";
+
 
     private final JedisPool jedisPool;
 
     private final String name;
 
-    private final long timeOutMs;
+    private final ScriptEvalSha1 scriptCompareAndReplace;
+
+    private final ScriptEvalSha1 scriptReplaceIfExists;
+
+    private final ScriptEvalSha1 scriptCompareAndRemove;
+
+    private final ScriptEvalSha1 scriptPutWithExpiry;
+
+    private final ScriptEvalSha1 scriptBoundedPut;
+
+    private final ScriptEvalSha1 scriptBoundedRemove;
+
+    private final ScriptEvalSha1 scriptBoundedCompareAndRemove;
+
+    private ExpiryPolicy expiryPolicy;
 
     private CacheLoader cacheLoader;
 
     private CacheWriter cacheWriter;
 
+    private final CacheLoadCoalescer loadCoalescer = new CacheLoadCoalescer();
+
+    private long loadLeaseMs = 0L;
+
+    private long negativeCacheTtlMs = 0L;
+
+    private NegativeKeyFilter negativeKeyFilter;
+
+    private long maxEntries = 0L;
+
+    private long maxBytes = 0L;
+
+    private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+    private int resultsPerScan = CacheIterator.DEFAULT_RESULTS_PER_SCAN_ITERATORS;
+
+    private CacheRefresher cacheRefresher;
+
+    private volatile NearCache nearCache;
+
+    private NearCacheInvalidator nearCacheInvalidator;
+
+    private volatile CacheStatistics statistics;
+
+    private ObjectName statisticsObjectName;
+
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
 
 
@@ -69,7 +196,7 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
      * Create a simple cache
      * @param jedisPool Connection pool
      * @param name Name shared across instances
-     * @param timeOutMs Default timeout for every entry
+     * @param timeOutMs Default timeout for every entry, zero or less for entries without expiration
      */
     public SimpleCache(JedisPool jedisPool, String name, long timeOutMs) {
         this(jedisPool, name, timeOutMs, null);
@@ -79,14 +206,35 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
      * Create a simple cache
      * @param jedisPool Connection pool
      * @param name Name shared across instances
-     * @param timeOutMs Default timeout for every entry
+     * @param timeOutMs Default timeout for every entry, zero or less for entries without expiration
      * @param cacheLoader Default cacheloader readthrougth
      */
     public SimpleCache(JedisPool jedisPool, String name, long timeOutMs, CacheLoader cacheLoader) {
         this.jedisPool = jedisPool;
         this.name = name;
-        this.timeOutMs = timeOutMs;
         this.cacheLoader = cacheLoader;
+        this.expiryPolicy = timeOutMs > 0 ? ExpiryPolicy.modified(timeOutMs) : ExpiryPolicy.eternal();
+        this.scriptCompareAndReplace = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_COMPARE_AND_REPLACE).
+                withFile(FILE_PATH_COMPARE_AND_REPLACE));
+        this.scriptReplaceIfExists = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_REPLACE_IF_EXISTS).
+                withFile(FILE_PATH_REPLACE_IF_EXISTS));
+        this.scriptCompareAndRemove = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_COMPARE_AND_REMOVE).
+                withFile(FILE_PATH_COMPARE_AND_REMOVE));
+        this.scriptPutWithExpiry = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_PUT_WITH_EXPIRY).
+                withFile(FILE_PATH_PUT_WITH_EXPIRY));
+        this.scriptBoundedPut = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_BOUNDED_PUT).
+                withFile(FILE_PATH_BOUNDED_PUT));
+        this.scriptBoundedRemove = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_BOUNDED_REMOVE).
+                withFile(FILE_PATH_BOUNDED_REMOVE));
+        this.scriptBoundedCompareAndRemove = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_BOUNDED_COMPARE_AND_REMOVE).
+                withFile(FILE_PATH_BOUNDED_COMPARE_AND_REMOVE));
     }
 
 
@@ -102,11 +250,288 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
 
     /**
      * Adds a cache writer to this cache
+     * If the current writer is write-behind, it's closed, so its queued operations are sent
+     * and its background thread ends
      * @param cacheWriter Default cachewriter writethrough
      * @return cache
      */
     public SimpleCache withCacheWriter(CacheWriter cacheWriter) {
+        CacheWriter previous = this.cacheWriter;
         this.cacheWriter = cacheWriter;
+        if (previous instanceof WriteBehindCacheWriter && previous != cacheWriter) {
+            ((WriteBehindCacheWriter) previous).close();
+        }
+        return this;
+    }
+
+    /**
+     * Sets the default expiry policy of this cache
+     * By default, values expire after the timeout since they were created or updated
+     * @param expiryPolicy Default expiry policy
+     * @return cache
+     */
+    public SimpleCache withExpiryPolicy(ExpiryPolicy expiryPolicy) {
+        if (expiryPolicy == null) throw new IllegalArgumentException("RedisCache.withExpiryPolicy expiryPolicy is null");
+        this.expiryPolicy = expiryPolicy;
+        return this;
+    }
+
+    /**
+     * Makes the current cache writer write-behind
+     * The writes and deletes will be queued and sent in batches by a background thread,
+     * and all of them will be sent when the cache is closed
+     * @param batchSize Maximum number of operations sent in one call
+     * @param flushIntervalMs Maximum time an operation waits to be sent
+     * @param maxPending Maximum number of queued operations before cache operations wait
+     * @return cache
+     */
+    public SimpleCache withWriteBehind(int batchSize, long flushIntervalMs, int maxPending) {
+        if (cacheWriter == null) throw new IllegalStateException("RedisCache.withWriteBehind needs a cacheWriter");
+        if (cacheWriter instanceof WriteBehindCacheWriter) throw new IllegalStateException("RedisCache.withWriteBehind already is write-behind");
+        this.cacheWriter = new WriteBehindCacheWriter(cacheWriter, batchSize, flushIntervalMs, maxPending);
+        return this;
+    }
+
+    /**
+     * Adds a load lease to this cache
+     * When a value is not found, only the instance that gets the lease (a short-lived redis key)
+     * will use the cacheloader; the others will wait for the value to be stored in redis,
+     * up to the lease time, before loading it themselves
+     * @param loadLeaseMs Time of the lease, zero or less to not use it
+     * @return cache
+     */
+    public SimpleCache withLoadLease(long loadLeaseMs) {
+        this.loadLeaseMs = loadLeaseMs;
+        return this;
+    }
+
+    /**
+     * Enables negative caching for read-through
+     * When the cacheloader has no value for a key, a tombstone (a small redis key apart of the cache values)
+     * is stored with the given time to live; while it exists, reads of the key will not use the cacheloader
+     * A value put in the cache is found before looking for the tombstone
+     * Every write or remove of a key deletes its tombstone in the same transaction or script,
+     * and clear and removeAll delete all of them; all the instances with the same name should enable it
+     * @param tombstoneTtlMs Time to live of the tombstones, zero or less to disable negative caching
+     * @return cache
+     */
+    public SimpleCache withNegativeCache(long tombstoneTtlMs) {
+        this.negativeCacheTtlMs = tombstoneTtlMs;
+        this.negativeKeyFilter = null;
+        return this;
+    }
+
+    /**
+     * Enables negative caching for read-through, with a local filter of missing keys
+     * Besides the tombstones in redis, see withNegativeCache(long), the missing keys are remembered
+     * in a local Bloom filter
+     * The value is always read from redis first; when it's not found and the key is in the filter,
+     * the tombstone is not read and the cacheloader is not used
+     * The filter can give false positives with the given probability, for up to the tombstone time to live;
+     * a key wrongly taken as missing is not loaded, but a value in redis is always returned
+     * Local writes of a key in the filter reset the filter
+     * @param tombstoneTtlMs Time to live of the tombstones and the local filter entries, more than zero
+     * @param expectedMissingKeys Expected number of missing keys read in the tombstone time to live
+     * @param falsePositiveProbability Probability of a key wrongly taken as missing, between zero and one
+     * @return cache
+     */
+    public SimpleCache withNegativeCache(long tombstoneTtlMs, int expectedMissingKeys, double falsePositiveProbability) {
+        if (tombstoneTtlMs <= 0) throw new IllegalArgumentException("RedisCache.withNegativeCache tombstoneTtlMs must be more than zero");
+        this.negativeKeyFilter = new NegativeKeyFilter(expectedMissingKeys, falsePositiveProbability, tombstoneTtlMs);
+        this.negativeCacheTtlMs = tombstoneTtlMs;
+        return this;
+    }
+
+    /**
+     * Bounds the number of entries of the cache, for all the instances with the same name
+     * Every write updates an access index in redis (a sorted set apart of the cache values),
+     * and when the cache is over its bound the same write script evicts the least used entries,
+     * see withEvictionPolicy; reads update the index in the same round trip
+     * Entries that expire leave the index lazily:
+     * every write checks a small sample of the index, and eviction drops them without counting them
+     * So a cache can't fill redis until its maxmemory policy evicts other data
+     * The evicted keys are read from the index inside the script, not declared as its keys,
+     * so a bounded cache can't be used with Redis Cluster
+     * @param maxEntries Maximum number of entries, zero for no bound
+     * @return cache
+     */
+    public SimpleCache withMaxEntries(long maxEntries) {
+        if (maxEntries < 0) throw new IllegalArgumentException("RedisCache.withMaxEntries must not be negative");
+        this.maxEntries = maxEntries;
+        return this;
+    }
+
+    /**
+     * Bounds the size of the cache, for all the instances with the same name
+     * The size of an entry is the length of its redis key plus the length of its value,
+     * it's stored in redis when the entry is written or replaced, see withMaxEntries
+     * @param maxBytes Maximum sum of sizes of the entries, zero for no bound
+     * @return cache
+     */
+    public SimpleCache withMaxBytes(long maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException("RedisCache.withMaxBytes must not be negative");
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * Sets which entries are evicted first when the cache is over its bounds
+     * By default, the least recently used
+     * All the instances with the same name should use the same policy
+     * @param evictionPolicy eviction policy
+     * @return cache
+     */
+    public SimpleCache withEvictionPolicy(EvictionPolicy evictionPolicy) {
+        if (evictionPolicy == null) throw new IllegalArgumentException("RedisCache.withEvictionPolicy evictionPolicy is null");
+        this.evictionPolicy = evictionPolicy;
+        return this;
+    }
+
+    /**
+     * Sets the page size of the iterations over the cache
+     * Every page is retrieved with one scan (the number is a hint to redis)
+     * and the values of the page with one mget
+     * Used by the iterators, asList, asMap, keys and removeAll
+     * @param resultsPerScan Keys per page, more than zero
+     * @return cache
+     */
+    public SimpleCache withResultsPerScan(int resultsPerScan) {
+        if (resultsPerScan <= 0) throw new IllegalArgumentException("RedisCache.withResultsPerScan must be more than zero");
+        this.resultsPerScan = resultsPerScan;
+        return this;
+    }
+
+    /**
+     * Enables refresh-ahead in this cache
+     * When a value is read with a cacheloader and it has been in the cache more than
+     * the given fraction of the timeout, it is returned and reloaded in background
+     * For example, a factor of 0.75 reloads values read in the last quarter of their life
+     * @param refreshFactor Fraction of the timeout, more than zero and less than one
+     * @return cache
+     */
+    public SimpleCache withRefreshAhead(double refreshFactor) {
+        return withRefreshAhead(new CacheRefresher(refreshFactor));
+    }
+
+    /**
+     * Enables refresh-ahead in this cache, with the given executor for the reloads
+     * The executor will not be shut down when the cache is closed
+     * @param refreshFactor Fraction of the timeout, more than zero and less than one
+     * @param executorService Executor for the background reloads
+     * @return cache
+     */
+    public SimpleCache withRefreshAhead(double refreshFactor, ExecutorService executorService) {
+        return withRefreshAhead(new CacheRefresher(refreshFactor, executorService, false));
+    }
+
+    private SimpleCache withRefreshAhead(CacheRefresher newCacheRefresher) {
+        checkClosed();
+        if (cacheRefresher != null) {
+            cacheRefresher.close();
+        }
+        this.cacheRefresher = newCacheRefresher;
+        return this;
+    }
+
+    /**
+     * Enables the statistics of this cache, see getStatistics
+     * @return cache
+     */
+    public SimpleCache withStatistics() {
+        return withStatistics(false);
+    }
+
+    /**
+     * Enables the statistics of this cache, see getStatistics
+     * They can be also registered as a JMX MBean, with the name
+     * org.oba.jedis.extra.utils.cache:type=CacheStatistics,name=(cache name)
+     * and it will be unregistered when the cache is closed
+     * If other instance with the same name has registered its statistics, this will not be registered
+     * @param registerMBean if the statistics will be registered in the platform MBean server
+     * @return cache
+     */
+    public SimpleCache withStatistics(boolean registerMBean) {
+        checkClosed();
+        if (statistics == null) {
+            statistics = new CacheStatistics();
+        }
+        if (registerMBean && statisticsObjectName == null) {
+            registerStatisticsMBean();
+        }
+        return this;
+    }
+
+    /**
+     * Registers the statistics in the platform MBean server
+     */
+    private void registerStatisticsMBean() {
+        try {
+            ObjectName objectName = new ObjectName(STATISTICS_MBEAN_DOMAIN + ":type=CacheStatistics,name=" + ObjectName.quote(name));
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            if (mBeanServer.isRegistered(objectName)) {
+                LOGGER.warn("Statistics MBean {} is already registered, not registered again", objectName);
+            } else {
+                mBeanServer.registerMBean(statistics, objectName);
+                statisticsObjectName = objectName;
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Error registering statistics MBean of cache " + name, e);
+        }
+    }
+
+    /**
+     * Unregisters the statistics from the platform MBean server, if registered
+     */
+    private void unregisterStatisticsMBean() {
+        if (statisticsObjectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(statisticsObjectName);
+            } catch (JMException e) {
+                LOGGER.warn("Error unregistering statistics MBean {}", statisticsObjectName, e);
+            }
+            statisticsObjectName = null;
+        }
+    }
+
+    /**
+     * Statistics of this cache
+     * @return statistics, null if not enabled
+     */
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Adds a near cache to this cache, a local copy of the most recently used values
+     * Local values are invalidated when they change in redis, by using client side caching
+     * (two connections of the pool will be held until the cache is closed)
+     * @param maxEntries Maximum number of local entries
+     * @param timeToLiveMs Maximum time a local entry lives
+     * @return cache
+     */
+    public SimpleCache withNearCache(int maxEntries, long timeToLiveMs) {
+        return withNearCache(maxEntries, timeToLiveMs, true);
+    }
+
+    /**
+     * Adds a near cache to this cache, a local copy of the most recently used values
+     * If trackInvalidations is false, changes made by other instances will be seen
+     * only when the local entry expires
+     * If trackInvalidations is true, two connections of the pool will be held until the cache is closed,
+     * and then discarded from the pool
+     * @param maxEntries Maximum number of local entries
+     * @param timeToLiveMs Maximum time a local entry lives
+     * @param trackInvalidations Use client side caching to invalidate local values
+     * @return cache
+     */
+    public SimpleCache withNearCache(int maxEntries, long timeToLiveMs, boolean trackInvalidations) {
+        checkClosed();
+        closeNearCache();
+        NearCache newNearCache = new NearCache(maxEntries, timeToLiveMs, () -> recordEvictions(1));
+        if (trackInvalidations) {
+            this.nearCacheInvalidator = new NearCacheInvalidator(jedisPool, resolveKey(""), this::unresolveKey, newNearCache);
+        }
+        this.nearCache = newNearCache;
         return this;
     }
 
@@ -115,6 +540,58 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
         return jedisPool;
     }
 
+    /**
+     * If there is a default cache loader
+     * @return true if read-through is possible without a given loader
+     */
+    boolean hasCacheLoader() {
+        return cacheLoader != null;
+    }
+
+    /**
+     * Loads with the default cacheloader the keys already read from redis and not found
+     * The keys are not read from redis again, so they are not counted as misses again
+     * Keys known as missing by the negative cache are not loaded
+     * The loads are coalesced with the concurrent ones of the same keys, and with a load lease
+     * every key is loaded under its lease, as in get
+     * @param keys keys not found in redis
+     * @return loaded values, without nulls
+     */
+    Map<String, String> loadNotFound(Set<String> keys) {
+        checkClosed();
+        CacheLoader currentCacheLoader = cacheLoader;
+        ExpiryPolicy currentExpiryPolicy = expiryPolicy;
+        if (keys.isEmpty() || currentCacheLoader == null) {
+            return new HashMap<>();
+        }
+        Set<String> toLoad = new HashSet<>(keys);
+        if (isNegativeCacheEnabled()) {
+            withResource(jedis -> removeNegativeCached(jedis, toLoad));
+        }
+        if (toLoad.isEmpty()) {
+            return new HashMap<>();
+        }
+        NearCache currentNearCache = nearCache;
+        long readVersion = currentNearCache != null ? currentNearCache.version() : 0L;
+        Map<String, String> loaded;
+        if (loadLeaseMs > 0) {
+            loaded = new HashMap<>();
+            for (String key : toLoad) {
+                String value = readThrougthCoalescedUnderLease(key, currentCacheLoader, currentExpiryPolicy);
+                if (value != null) {
+                    loaded.put(key, value);
+                }
+            }
+        } else {
+            loaded = loadCoalescer.loadAll(toLoad, key -> loadKey(key, currentCacheLoader, currentExpiryPolicy),
+                    keysToLoad -> withResourceGet(jedis -> readThrougthAll(jedis, keysToLoad, currentCacheLoader)));
+        }
+        if (currentNearCache != null) {
+            loaded.forEach((key, value) -> currentNearCache.put(key, value, readVersion));
+        }
+        return loaded;
+    }
+
     /**
      * Current name
      * @return name
@@ -129,47 +606,451 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
      * @param key key to convert
      * @return key converted
      */
-    public String resolveKey(String key) {
-        if (key == null) throw new IllegalArgumentException("Key must be not null");
-        return name + ":" + key;
+    public String resolveKey(String key) {
+        if (key == null) throw new IllegalArgumentException("Key must be not null");
+        return name + ":" + key;
+    }
+
+    /**
+     * Converts the key from internal (redis) representation to external one
+     * No null accepted
+     * @param key key to un-convert
+     * @return key un-converted
+     */
+    public String unresolveKey(String key) {
+        if (key == null) throw new IllegalArgumentException("Key must be not null");
+        return key.replace(name + ":", "");
+    }
+
+    /**
+     * Gets current value from redis cache
+     * read-through: If not found, it can use the default cacheloader if present
+     * @param key not null key
+     * @return value from cache or loaded, or null if no exists
+     */
+    public String get(String key) {
+        return get(key, cacheLoader, expiryPolicy);
+    }
+
+    /**
+     * Gets current value from redis cache
+     * read-through: If not found, it can use the default cacheloader if present
+     * The given expiry policy is used instead of the default one
+     * @param key not null key
+     * @param expiryPolicy expiry policy of the operation
+     * @return value from cache or loaded, or null if no exists
+     */
+    public String get(String key, ExpiryPolicy expiryPolicy) {
+        return get(key, cacheLoader, expiryPolicy);
+    }
+
+    /**
+     * Gets current value from redis cache
+     * read-through: If not found, it can use the provided cacheloader
+     * The default cacheloader is overridden
+     * @param key not null key
+     * @param cacheLoader cacheloader of the operation
+     * @return value from cache or loaded, or null if no exists
+     */
+    public String get(String key, CacheLoader cacheLoader) {
+        return get(key, cacheLoader, expiryPolicy);
+    }
+
+    /**
+     * Gets current value from redis cache
+     * read-through: If not found, it can use the provided cacheloader
+     * The default cacheloader and expiry policy are overridden
+     * If the policy has expiry for access, the time to live is updated in the same read (sliding expiration),
+     * but not when the value is found in the near cache
+     * @param key not null key
+     * @param cacheLoader cacheloader of the operation
+     * @param expiryPolicy expiry policy of the operation
+     * @return value from cache or loaded, or null if no exists
+     */
+    public String get(String key, CacheLoader cacheLoader, ExpiryPolicy expiryPolicy) {
+        checkClosed();
+        if (key == null) throw new IllegalArgumentException("RedisCache.get key is null");
+        if (expiryPolicy == null) throw new IllegalArgumentException("RedisCache.get expiryPolicy is null");
+        NearCache currentNearCache = nearCache;
+        if (currentNearCache != null) {
+            String localValue = currentNearCache.get(key);
+            if (localValue != null) {
+                recordHits(1);
+                return localValue;
+            }
+            long readVersion = currentNearCache.version();
+            String value = getOrReadThrougth(key, cacheLoader, expiryPolicy);
+            currentNearCache.put(key, value, readVersion);
+            return value;
+        } else {
+            return getOrReadThrougth(key, cacheLoader, expiryPolicy);
+        }
+    }
+
+    /**
+     * Gets current value from redis, and if not found from the cacheloader
+     * Without load lease, all in the same connection
+     * Concurrent loads of the same key, with the same cacheloader and expiry policy, are coalesced in one
+     * @param key Key
+     * @param cacheLoader Current cache loader of operation
+     * @param expiryPolicy Current expiry policy of operation
+     * @return value, null if not exists
+     */
+    private String getOrReadThrougth(String key, CacheLoader cacheLoader, ExpiryPolicy expiryPolicy) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            String value = timedRoundTrip(CacheStatistics.OPERATION_GET, () -> readValue(jedis, key, cacheLoader, expiryPolicy));
+            if (value != null) {
+                recordHits(1);
+                return value;
+            }
+            recordMisses(1);
+            if (cacheLoader == null || (isNegativeCacheEnabled() && isNegativeCached(jedis, key))) {
+                return null;
+            }
+            if (loadLeaseMs <= 0) {
+                return loadCoalescer.load(loadKey(key, cacheLoader, expiryPolicy), () ->
+                        readThrougth(jedis, key, cacheLoader, expiryPolicy));
+            }
+        }
+        // the lease is waited for without holding a connection
+        return readThrougthCoalescedUnderLease(key, cacheLoader, expiryPolicy);
+    }
+
+    /**
+     * Key of a load in the coalescer
+     * Loads are coalesced only if they have the same key, cacheloader and expiry policy
+     * @param key Key
+     * @param cacheLoader Current cache loader of operation
+     * @param expiryPolicy Current expiry policy of operation
+     * @return load key
+     */
+    private static Object loadKey(String key, CacheLoader cacheLoader, ExpiryPolicy expiryPolicy) {
+        return Arrays.asList(key, cacheLoader, expiryPolicy);
+    }
+
+    /**
+     * Gets a value from the external source under the load lease,
+     * coalesced with the concurrent loads of the same key
+     * @param key Key
+     * @param cacheLoader Current cache loader of operation
+     * @param expiryPolicy Current expiry policy of operation
+     * @return external value, null if not exists
+     */
+    private String readThrougthCoalescedUnderLease(String key, CacheLoader cacheLoader, ExpiryPolicy expiryPolicy) {
+        return loadCoalescer.load(loadKey(key, cacheLoader, expiryPolicy), () ->
+                readThrougthUnderLease(key, cacheLoader, expiryPolicy));
+    }
+
+    /**
+     * Gets current value from redis
+     * With access expiry, the time to live is updated
+     * With a size bound, the access index is updated in the same transaction
+     * With refresh-ahead, the remaining time is read with the value, and if it's near
+     * expiration a background reload is started
+     * @param jedis Jedis connection
+     * @param key Key
+     * @param cacheLoader Current cache loader of operation
+     * @param expiryPolicy Current expiry policy of operation
+     * @return value, null if not exists
+     */
+    private String readValue(Jedis jedis, String key, CacheLoader cacheLoader, ExpiryPolicy expiryPolicy) {
+        String value;
+        CacheRefresher currentCacheRefresher = cacheRefresher;
+        if (currentCacheRefresher != null && cacheLoader != null) {
+            Transaction t = jedis.multi();
+            Response<Long> remainingMs = t.pttl(resolveKey(key));
+            Response<String> response = isExpiryForAccess(expiryPolicy) ?
+                    t.getEx(resolveKey(key), getExParamsForAccess(expiryPolicy)) :
+                    t.get(resolveKey(key));
+            if (isBounded()) {
+                touchIndex(t, key);
+            }
+            t.exec();
+            value = response.get();
+            if (value != null && currentCacheRefresher.needsRefresh(remainingMs.get(), expiryPolicy.getExpiryForCreation())) {
+                currentCacheRefresher.refresh(key, () -> refreshAhead(key, cacheLoader, expiryPolicy));
+            }
+        } else if (isBounded()) {
+            Transaction t = jedis.multi();
+            Response<String> response = isExpiryForAccess(expiryPolicy) ?
+                    t.getEx(resolveKey(key), getExParamsForAccess(expiryPolicy)) :
+                    t.get(resolveKey(key));
+            touchIndex(t, key);
+            t.exec();
+            value = response.get();
+        } else if (isExpiryForAccess(expiryPolicy)) {
+            value = jedis.getEx(resolveKey(key), getExParamsForAccess(expiryPolicy));
+        } else {
+            value = jedis.get(resolveKey(key));
+        }
+        return value;
+    }
+
+    /**
+     * If the policy changes the time to live when a value is read
+     * @param expiryPolicy expiry policy
+     * @return true if it has expiry for access
+     */
+    private static boolean isExpiryForAccess(ExpiryPolicy expiryPolicy) {
+        return expiryPolicy.getExpiryForAccess() != ExpiryPolicy.UNCHANGED;
+    }
+
+    /**
+     * Params to store a value with a time to live
+     * @param expiryMs milliseconds, or NO_EXPIRY to store it without time to live
+     * @return SET params
+     */
+    private static SetParams setParamsWithExpiry(long expiryMs) {
+        return expiryMs != ExpiryPolicy.NO_EXPIRY ? new SetParams().px(expiryMs) : new SetParams();
+    }
+
+    /**
+     * Params to update the time to live on a read
+     * @param expiryPolicy expiry policy, with expiry for access
+     * @return GETEX params
+     */
+    private static GetExParams getExParamsForAccess(ExpiryPolicy expiryPolicy) {
+        return new GetExParams().px(expiryPolicy.getExpiryForAccess());
+    }
+
+    /**
+     * Reloads a value from the external source, in background
+     * If the source has no value, the current one is left to expire
+     * @param key Key
+     * @param cacheLoader Current cache loader of operation
+     * @param expiryPolicy Current expiry policy of operation
+     */
+    private void refreshAhead(String key, CacheLoader cacheLoader, ExpiryPolicy expiryPolicy) {
+        if (isClosed.get()) {
+            return;
+        }
+        withResource(jedis -> readThrougth(jedis, key, cacheLoader, expiryPolicy));
+        nearCacheInvalidate(key);
+    }
+
+    /**
+     * Gets a value from the external source if the load lease is obtained
+     * If other instance has the lease, waits for its value up to the lease time
+     * The lease holds a unique token, and it's released only if it still has it
+     * The lease holder loads and releases the lease with the same connection,
+     * and the others don't hold a connection while they wait
+     * @param key Key
+     * @param cacheLoader Current cache loader of operation
+     * @param expiryPolicy Current expiry policy of operation
+     * @return external value, null if not exists
+     */
+    private String readThrougthUnderLease(String key, CacheLoader cacheLoader, ExpiryPolicy expiryPolicy) {
+        String leaseKey = resolveLeaseKey(key);
+        String leaseToken = generateUniqueTokenValue(leaseKey);
+        try (Jedis jedis = jedisPool.getResource()) {
+            if (jedis.set(leaseKey, leaseToken, new SetParams().nx().px(loadLeaseMs)) != null) {
+                try {
+                    return readThrougth(jedis, key, cacheLoader, expiryPolicy);
+                } finally {
+                    // if the load took longer than the lease, other instance can hold it now
+                    scriptCompareAndRemove.evalSha(jedis, Collections.singletonList(leaseKey), Collections.singletonList(leaseToken));
+                }
+            }
+        }
+        String value = waitForLeasedValue(key, leaseKey);
+        if (value == null) {
+            value = withResourceGet(jedis -> readThrougth(jedis, key, cacheLoader, expiryPolicy));
+        }
+        return value;
+    }
+
+    /**
+     * Waits for the value loaded by the lease holder
+     * Ends when the value is found, the lease is released or the lease time passes
+     * Every probe takes a connection, so none is held while sleeping
+     * @param key Key
+     * @param leaseKey Key of the lease
+     * @return value in redis, null if not found
+     */
+    private String waitForLeasedValue(String key, String leaseKey) {
+        long pollMs = Math.max(LEASE_MIN_POLL_MS, loadLeaseMs / 10);
+        TimeLimit timeLimit = new TimeLimit(loadLeaseMs);
+        String value = null;
+        boolean leaseActive = true;
+        while (value == null && leaseActive && timeLimit.checkInLimit()) {
+            try {
+                Thread.sleep(pollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            try (Jedis jedis = jedisPool.getResource()) {
+                value = jedis.get(resolveKey(key));
+                if (value == null) {
+                    leaseActive = jedis.exists(leaseKey);
+                }
+            }
+        }
+        LOGGER.debug("waited for leased key {} found {}", key, value != null);
+        return value;
+    }
+
+    /**
+     * Converts the key to the redis key of its load lease
+     * It's outside the keys of the cache, so it's not iterated
+     * @param key key to convert
+     * @return lease key
+     */
+    String resolveLeaseKey(String key) {
+        return name + LEASE_SUFFIX + key;
+    }
+
+    /**
+     * Converts the key to the redis key of its tombstone
+     * Tombstone keys are outside of the values keys, so they are not iterated
+     * @param key key to convert
+     * @return tombstone key
+     */
+    String resolveNegativeKey(String key) {
+        return name + NEGATIVE_SUFFIX + key;
+    }
+
+    /**
+     * If negative caching is enabled
+     * @return true if enabled
+     */
+    private boolean isNegativeCacheEnabled() {
+        return negativeCacheTtlMs > 0;
+    }
+
+    /**
+     * Checks if a key is known as missing in the external source,
+     * first in the local filter and then by its tombstone
+     * @param jedis Jedis connection
+     * @param key Key
+     * @return true if missing
+     */
+    private boolean isNegativeCached(Jedis jedis, String key) {
+        NegativeKeyFilter currentFilter = negativeKeyFilter;
+        if (currentFilter != null && currentFilter.mightContain(key)) {
+            return true;
+        }
+        boolean tombstone = jedis.exists(resolveNegativeKey(key));
+        if (tombstone && currentFilter != null) {
+            currentFilter.add(key);
+        }
+        return tombstone;
+    }
+
+    /**
+     * Removes the keys known as missing in the external source
+     * The local filter is checked first, and the tombstones of the rest are read with one MGET
+     * @param jedis Jedis connection
+     * @param keys Keys, the missing ones are removed
+     */
+    private void removeNegativeCached(Jedis jedis, Set<String> keys) {
+        NegativeKeyFilter currentFilter = negativeKeyFilter;
+        if (currentFilter != null) {
+            keys.removeIf(currentFilter::mightContain);
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> keyList = new ArrayList<>(keys);
+        String[] negativeKeys = keyList.stream().
+                map(this::resolveNegativeKey).
+                toArray(String[]::new);
+        List<String> tombstones = jedis.mget(negativeKeys);
+        for(int i = 0; i < keyList.size(); i++) {
+            if (tombstones.get(i) != null) {
+                keys.remove(keyList.get(i));
+                if (currentFilter != null) {
+                    currentFilter.add(keyList.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the tombstones of the keys not found in the external source
+     * @param t Transaction
+     * @param keys missing keys
+     */
+    private void storeNegative(Transaction t, Collection<String> keys) {
+        SetParams setParams = new SetParams().px(negativeCacheTtlMs);
+        NegativeKeyFilter currentFilter = negativeKeyFilter;
+        for(String key: keys) {
+            t.set(resolveNegativeKey(key), NEGATIVE_VALUE, setParams);
+            if (currentFilter != null) {
+                currentFilter.add(key);
+            }
+        }
+    }
+
+    /**
+     * Tombstone keys of the given keys, in the same order,
+     * to be deleted in the same transaction or script that writes or removes their values
+     * @param keys Keys
+     * @return tombstone keys, empty if negative cache is not enabled
+     */
+    private List<String> resolveNegativeKeys(Collection<String> keys) {
+        if (!isNegativeCacheEnabled()) {
+            return Collections.emptyList();
+        }
+        return keys.stream().
+                map(this::resolveNegativeKey).
+                collect(Collectors.toList());
     }
 
     /**
-     * Converts the key from internal (redis) representation to external one
-     * No null accepted
-     * @param key key to un-convert
-     * @return key un-converted
+     * Deletes the tombstones of the keys in a transaction, if negative cache is enabled
+     * @param t Transaction
+     * @param keys Keys written or removed
      */
-    public String unresolveKey(String key) {
-        if (key == null) throw new IllegalArgumentException("Key must be not null");
-        return key.replace(name + ":", "");
+    private void removeNegative(Transaction t, Collection<String> keys) {
+        List<String> negativeKeys = resolveNegativeKeys(keys);
+        if (!negativeKeys.isEmpty()) {
+            t.del(negativeKeys.toArray(new String[0]));
+        }
     }
 
     /**
-     * Gets current value from redis cache
-     * read-through: If not found, it can use the default cacheloader if present
-     * @param key not null key
-     * @return value from cache or loaded, or null if no exists
+     * Sets a value, and deletes its tombstone in the same transaction if negative cache is enabled
+     * @param jedis Jedis connection
+     * @param key Key
+     * @param value Value
+     * @param setParams Set parameters
+     * @return result of set, null if not set
      */
-    public String get(String key) {
-        return get(key, cacheLoader);
+    private String set(Jedis jedis, String key, String value, SetParams setParams) {
+        if (!isNegativeCacheEnabled()) {
+            return jedis.set(resolveKey(key), value, setParams);
+        }
+        Transaction t = jedis.multi();
+        Response<String> response = t.set(resolveKey(key), value, setParams);
+        removeNegative(t, Collections.singletonList(key));
+        t.exec();
+        return response.get();
     }
 
     /**
-     * Gets current value from redis cache
-     * read-through: If not found, it can use the provided cacheloader
-     * The default cacheloader is overridden
-     * @param key not null key
-     * @return value from cache or loaded, or null if no exists
+     * Deletes all the tombstones of the cache, scanned and unlinked page by page
+     * and forgets the local filter
      */
-    public String get(String key, CacheLoader cacheLoader) {
-        checkClosed();
-        if (key == null) throw new IllegalArgumentException("RedisCache.get key is null");
-        String value = withResourceGet(jedis -> jedis.get(resolveKey(key)));
-        if (value == null) {
-            value = withResourceGet(jedis -> readThrougth(jedis, key, cacheLoader));
+    private void removeAllNegative() {
+        ScanIterator scanned = new ScanIterator(jedisPool, resolveNegativeKey("*"), resultsPerScan);
+        List<String> batch = new ArrayList<>(resultsPerScan);
+        while (scanned.hasNext()) {
+            batch.add(scanned.next());
+            if (batch.size() >= resultsPerScan) {
+                String[] negativeKeys = batch.toArray(new String[0]);
+                withResource(jedis -> jedis.unlink(negativeKeys));
+                batch = new ArrayList<>(resultsPerScan);
+            }
+        }
+        if (!batch.isEmpty()) {
+            String[] negativeKeys = batch.toArray(new String[0]);
+            withResource(jedis -> jedis.unlink(negativeKeys));
+        }
+        NegativeKeyFilter currentFilter = negativeKeyFilter;
+        if (currentFilter != null) {
+            currentFilter.clear();
         }
-        return value;
     }
 
     /**
@@ -192,21 +1073,105 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
      * @return map with values from cache or loaded, (no nulls)
      */
     public Map<String, String> getAll(Set<String> keys, CacheLoader cacheLoader) {
+        return getAll(keys, cacheLoader, true);
+    }
+
+    /**
+     * Gets values from redis cache, without read-through
+     * The not found keys can be loaded later with loadNotFound,
+     * and the found ones near expiration are refreshed ahead with the default cacheloader
+     * @param keys not null set of keys
+     * @return map with values from cache, (no nulls)
+     */
+    Map<String, String> getAllFound(Set<String> keys) {
+        return getAll(keys, cacheLoader, false);
+    }
+
+    /**
+     * Gets values from redis cache
+     * @param keys not null set of keys
+     * @param cacheLoader current cache loader of the operation
+     * @param readThrough if the not found keys are loaded with the cacheloader
+     * @return map with values from cache or loaded, (no nulls)
+     */
+    private Map<String, String> getAll(Set<String> keys, CacheLoader cacheLoader, boolean readThrough) {
         checkClosed();
+        NearCache currentNearCache = nearCache;
+        if (currentNearCache == null) {
+            return getAllFromRedis(keys, cacheLoader, readThrough);
+        }
+        Map<String, String> localResults = new HashMap<>();
+        Set<String> remoteKeys = new HashSet<>();
+        for(String key: keys) {
+            String localValue = currentNearCache.get(key);
+            if (localValue != null) {
+                localResults.put(key, localValue);
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        recordHits(localResults.size());
+        if (remoteKeys.isEmpty()) {
+            return localResults;
+        }
+        long readVersion = currentNearCache.version();
+        Map<String, String> result = getAllFromRedis(remoteKeys, cacheLoader, readThrough);
+        for(Map.Entry<String, String> entry: result.entrySet()) {
+            currentNearCache.put(entry.getKey(), entry.getValue(), readVersion);
+        }
+        result.putAll(localResults);
+        return result;
+    }
+
+    /**
+     * Gets values from redis cache, and the not found ones from the cacheloader
+     * With refresh-ahead, the remaining times are read with the values, and the ones near
+     * expiration are reloaded in background
+     * @param keys not null set of keys
+     * @param cacheLoader current cache loader of the operation
+     * @param readThrough if the not found keys are loaded with the cacheloader
+     * @return map with values from cache or loaded, (no nulls)
+     */
+    private Map<String, String> getAllFromRedis(Set<String> keys, CacheLoader cacheLoader, boolean readThrough) {
+        CacheRefresher currentCacheRefresher = cacheLoader != null ? cacheRefresher : null;
+        ExpiryPolicy currentExpiryPolicy = expiryPolicy;
+        Map<String, Response<Long>> remainingMs = new HashMap<>();
         try (Jedis jedis = jedisPool.getResource()) {
-            Map<String, Response<String>> responses = new HashMap<>();
-            Transaction t = jedis.multi();
-            for(String key: keys) {
-                responses.put(key, t.get(resolveKey(key)));
+            Map<String, Response<String>> responses = timedRoundTrip(CacheStatistics.OPERATION_GET_ALL, () -> {
+                Map<String, Response<String>> transactionResponses = new HashMap<>();
+                Transaction t = jedis.multi();
+                for(String key: keys) {
+                    if (currentCacheRefresher != null) {
+                        remainingMs.put(key, t.pttl(resolveKey(key)));
+                    }
+                    if (isExpiryForAccess(currentExpiryPolicy)) {
+                        transactionResponses.put(key, t.getEx(resolveKey(key), getExParamsForAccess(currentExpiryPolicy)));
+                    } else {
+                        transactionResponses.put(key, t.get(resolveKey(key)));
+                    }
+                    if (isBounded()) {
+                        touchIndex(t, key);
+                    }
+                }
+                t.exec();
+                return transactionResponses;
+            });
+            if (currentCacheRefresher != null) {
+                remainingMs.forEach((key, remaining) -> {
+                    if (responses.get(key).get() != null &&
+                            currentCacheRefresher.needsRefresh(remaining.get(), currentExpiryPolicy.getExpiryForCreation())) {
+                        currentCacheRefresher.refresh(key, () -> refreshAhead(key, cacheLoader, currentExpiryPolicy));
+                    }
+                });
             }
-            t.exec();
-            return resolveTransactionEntries(jedis, responses, cacheLoader);
+            return resolveTransactionEntries(jedis, responses, readThrough ? cacheLoader : null);
         }
     }
 
     /**
      * Covert data from trasnaction to a map value
-     * read-through: if theres a cacheloader, data is returned from external
+     * read-through: if theres a cacheloader, not found data is returned from external
+     * All the not found keys are loaded in one call
      * @param jedis connection
      * @param responses Map of key reponses
      * @param cacheLoader current cache loader of the operation
@@ -214,36 +1179,101 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
      */
     private Map<String, String> resolveTransactionEntries(Jedis jedis, Map<String, Response<String>> responses, CacheLoader cacheLoader) {
         Map<String, String> result = new HashMap<>();
+        Set<String> notFoundKeys = new HashSet<>();
         for (Map.Entry<String, Response<String>> entry: responses.entrySet()) {
-            String resolvedValue;
             if (entry.getValue() != null && entry.getValue().get() != null) {
-                resolvedValue = entry.getValue().get();
+                result.put(entry.getKey(), entry.getValue().get());
             } else {
-                //TODO use a loadAll ?
-                resolvedValue = readThrougth(jedis, entry.getKey(), cacheLoader);
-            }
-            if (resolvedValue != null) {
-                result.put(entry.getKey(), resolvedValue);
+                notFoundKeys.add(entry.getKey());
             }
         }
+        recordHits(result.size());
+        recordMisses(notFoundKeys.size());
+        if (!notFoundKeys.isEmpty() && cacheLoader != null && isNegativeCacheEnabled()) {
+            removeNegativeCached(jedis, notFoundKeys);
+        }
+        if (!notFoundKeys.isEmpty()) {
+            result.putAll(readThrougthAll(jedis, notFoundKeys, cacheLoader));
+        }
         return result;
     }
 
+    /**
+     * Gets values from the external source in one call,
+     * and updates the not null ones in jedis in one transaction
+     * @param jedis Jedis connnection
+     * @param keys Keys to load
+     * @param cacheLoader Current cache loader of operation
+     * @return external values, without nulls
+     */
+    private Map<String, String> readThrougthAll(Jedis jedis, Set<String> keys, CacheLoader cacheLoader) {
+        Map<String, String> values = new HashMap<>();
+        if (cacheLoader != null) {
+            LOGGER.debug("read-through load keys {}", keys);
+            Map<String, String> loaded = timedLoad(() -> cacheLoader.loadAll(keys));
+            if (loaded != null) {
+                loaded.forEach((k, v) -> {
+                    if (k != null && v != null) {
+                        values.put(k, v);
+                    }
+                });
+            }
+            Set<String> missingKeys = new HashSet<>();
+            if (isNegativeCacheEnabled()) {
+                keys.stream().
+                        filter(k -> !values.containsKey(k)).
+                        forEach(missingKeys::add);
+            }
+            boolean bounded = isBounded();
+            if (bounded && !values.isEmpty()) {
+                timedRoundTrip(CacheStatistics.OPERATION_PUT_ALL, () ->
+                        putBounded(jedis, values, expiryPolicy.getExpiryForCreation(), expiryPolicy.getExpiryForCreation(), false));
+            }
+            if ((!bounded && !values.isEmpty()) || !missingKeys.isEmpty()) {
+                SetParams setParams = setParamsWithExpiry(expiryPolicy.getExpiryForCreation());
+                timedRoundTrip(CacheStatistics.OPERATION_PUT_ALL, () -> {
+                    Transaction t = jedis.multi();
+                    if (!bounded) {
+                        values.forEach((k, v) -> t.set(resolveKey(k), v, setParams));
+                    }
+                    storeNegative(t, missingKeys);
+                    return t.exec();
+                });
+            }
+        }
+        return values;
+    }
+
     /**
      * Gets a value from the external source,
      * and updates it in jedis if not null
      * @param jedis  Jedis connnection
-     * @param key Keyº
+     * @param key Key
      * @param cacheLoader Current cache loader of operation
+     * @param expiryPolicy Current expiry policy of operation, the value is stored as created
      * @return external value, null if not exists
      */
-    private String readThrougth(Jedis jedis, String key, CacheLoader cacheLoader) {
+    private String readThrougth(Jedis jedis, String key, CacheLoader cacheLoader, ExpiryPolicy expiryPolicy) {
         String value = null;
         if (cacheLoader != null) {
             LOGGER.debug("read-through load key {}", key);
-            value = cacheLoader.load(key);
+            value = timedLoad(() -> cacheLoader.load(key));
             if (value != null) {
-                jedis.set(resolveKey(key), value);
+                String loadedValue = value;
+                if (isBounded()) {
+                    timedRoundTrip(CacheStatistics.OPERATION_PUT, () -> putBounded(jedis, Collections.singletonMap(key, loadedValue),
+                            expiryPolicy.getExpiryForCreation(), expiryPolicy.getExpiryForCreation(), false));
+                } else {
+                    timedRoundTrip(CacheStatistics.OPERATION_PUT, () ->
+                            jedis.set(resolveKey(key), loadedValue, setParamsWithExpiry(expiryPolicy.getExpiryForCreation())));
+                }
+            } else if (isNegativeCacheEnabled()) {
+                LOGGER.debug("read-through negative key {}", key);
+                timedRoundTrip(CacheStatistics.OPERATION_PUT, () -> {
+                    Transaction t = jedis.multi();
+                    storeNegative(t, Collections.singletonList(key));
+                    return t.exec();
+                });
             }
         }
         return value;
@@ -256,7 +1286,11 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
      */
     public boolean containsKey(String key) {
         checkClosed();
-        return withResourceGet(jedis -> jedis.exists(resolveKey(key)));
+        NearCache currentNearCache = nearCache;
+        if (key != null && currentNearCache != null && currentNearCache.get(key) != null) {
+            return true;
+        }
+        return timedRoundTrip(CacheStatistics.OPERATION_CONTAINS_KEY, () -> withResourceGet(jedis -> jedis.exists(resolveKey(key))));
     }
 
     /**
@@ -278,7 +1312,7 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
                 toBeLoadedKeys = keys;
             }
             LOGGER.debug("read-through load keys {}", toBeLoadedKeys);
-            Map<String, String> newKeyValues = cacheLoader.loadAll(toBeLoadedKeys);
+            Map<String, String> newKeyValues = timedLoad(() -> cacheLoader.loadAll(toBeLoadedKeys));
             putAll(newKeyValues, false);
         }
     }
@@ -292,7 +1326,33 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
      * @param value Data of the value
      */
     public void put(String key, String value) {
-        put(key, value, timeOutMs);
+        put(key, value, expiryPolicy);
+    }
+
+    /**
+     * Inserts a new value for given key in redis
+     * The new value will use the creation or update time of the given expiry policy
+     * If the value exists, it will be overwritten
+     * write-through: If a cacheWriter is present, it will be updated in external sources
+     * @param key Key of the value
+     * @param value Data of the value
+     * @param expiryPolicy expiry policy of the operation
+     */
+    public void put(String key, String value, ExpiryPolicy expiryPolicy) {
+        if (expiryPolicy == null) throw new IllegalArgumentException("RedisCache.put expiryPolicy is null");
+        if (isSameExpiryForCreationAndUpdate(expiryPolicy)) {
+            put(key, value, expiryPolicy.getExpiryForCreation());
+        } else {
+            checkClosed();
+            if (key == null) throw new IllegalArgumentException("RedisCache.put key is null");
+            if (value == null) throw new IllegalArgumentException("RedisCache.put value is null");
+            timedRoundTrip(CacheStatistics.OPERATION_PUT, () -> putWithExpiry(Collections.singletonMap(key, value), expiryPolicy));
+            nearCacheInvalidate(key);
+            if (cacheWriter != null) {
+                LOGGER.debug("write-through store key {} value {}", key, value);
+                writeThrough(() -> cacheWriter.write(key, value));
+            }
+        }
     }
 
     /**
@@ -302,17 +1362,24 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
      * write-through: If a cacheWriter is present, it will be updated in external sources
      * @param key Key of the value
      * @param value Data of the value
-     * @param timeOutMs Time to live
+     * @param timeOutMs Time to live, zero or less for no expiration
      */
     public void put(String key, String value, long timeOutMs) {
         checkClosed();
         if (key == null) throw new IllegalArgumentException("RedisCache.put key is null");
         if (value == null) throw new IllegalArgumentException("RedisCache.put value is null");
-        SetParams setParams = new SetParams().px(timeOutMs);
-        withResource(jedis -> jedis.set(resolveKey(key), value, setParams));
+        long expiry = timeOutMs > 0 ? timeOutMs : ExpiryPolicy.NO_EXPIRY;
+        if (isBounded()) {
+            timedRoundTrip(CacheStatistics.OPERATION_PUT, () -> withResourceGet(jedis ->
+                    putBounded(jedis, Collections.singletonMap(key, value), expiry, expiry, false)));
+        } else {
+            SetParams setParams = setParamsWithExpiry(expiry);
+            timedRoundTrip(CacheStatistics.OPERATION_PUT, () -> withResourceGet(jedis -> set(jedis, key, value, setParams)));
+        }
+        nearCacheInvalidate(key);
         if (cacheWriter != null) {
             LOGGER.debug("write-through store key {} value {}", key, value);
-            cacheWriter.write(key, value);
+            writeThrough(() -> cacheWriter.write(key, value));
         }
     }
 
@@ -329,18 +1396,27 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
         checkClosed();
         if (key == null) throw new IllegalArgumentException("RedisCache.getAndPut key is null");
         if (value == null) throw new IllegalArgumentException("RedisCache.getAndPut value is null");
-        try (Jedis jedis = jedisPool.getResource()) {
-            SetParams setParams = new SetParams().px(timeOutMs);
-            Transaction t = jedis.multi();
-            Response<String> response = t.get(resolveKey(key));
-            t.set(resolveKey(key), value, setParams);
-            t.exec();
-            if (cacheWriter != null) {
-                LOGGER.debug("write-through store key {} value {}", key, value);
-                cacheWriter.write(key, value);
+        String previous = timedRoundTrip(CacheStatistics.OPERATION_PUT, () -> {
+            if (isSameExpiryForCreationAndUpdate(expiryPolicy) && !isBounded()) {
+                try (Jedis jedis = jedisPool.getResource()) {
+                    SetParams setParams = setParamsWithExpiry(expiryPolicy.getExpiryForCreation());
+                    Transaction t = jedis.multi();
+                    Response<String> response = t.get(resolveKey(key));
+                    t.set(resolveKey(key), value, setParams);
+                    removeNegative(t, Collections.singletonList(key));
+                    t.exec();
+                    return response.get();
+                }
+            } else {
+                return putWithExpiry(Collections.singletonMap(key, value), expiryPolicy).get(0);
             }
-            return response.get();
+        });
+        nearCacheInvalidate(key);
+        if (cacheWriter != null) {
+            LOGGER.debug("write-through store key {} value {}", key, value);
+            writeThrough(() -> cacheWriter.write(key, value));
         }
+        return previous;
     }
 
     /**
@@ -366,18 +1442,194 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
     private void putAll(Map<String,String> values, boolean allowWriteThrougth) {
         checkClosed();
         if (values == null) throw new IllegalArgumentException("RedisCache.putAll map is null");
-        try (Jedis jedis = jedisPool.getResource()) {
-            SetParams setParams = new SetParams().px(timeOutMs);
-            Transaction t = jedis.multi();
-            values.forEach( (k,v) -> t.set(resolveKey(k),v, setParams));
-            t.exec();
-            if (allowWriteThrougth && cacheWriter != null) {
-                LOGGER.debug("write-through store values {}", values);
-                cacheWriter.writeAll(values);
+        if (isSameExpiryForCreationAndUpdate(expiryPolicy) && !isBounded()) {
+            try (Jedis jedis = jedisPool.getResource()) {
+                SetParams setParams = setParamsWithExpiry(expiryPolicy.getExpiryForCreation());
+                timedRoundTrip(CacheStatistics.OPERATION_PUT_ALL, () -> {
+                    Transaction t = jedis.multi();
+                    values.forEach( (k,v) -> t.set(resolveKey(k),v, setParams));
+                    removeNegative(t, values.keySet());
+                    return t.exec();
+                });
             }
+        } else if (!values.isEmpty()) {
+            timedRoundTrip(CacheStatistics.OPERATION_PUT_ALL, () -> putWithExpiry(values, expiryPolicy));
+        }
+        values.keySet().forEach(this::nearCacheInvalidate);
+        if (allowWriteThrougth && cacheWriter != null) {
+            LOGGER.debug("write-through store values {}", values);
+            writeThrough(() -> cacheWriter.writeAll(values));
+        }
+    }
+
+    /**
+     * If the policy gives the same time to live to new and updated values,
+     * so a simple set can be used
+     * @param expiryPolicy expiry policy
+     * @return true if creation and update times are equal
+     */
+    private static boolean isSameExpiryForCreationAndUpdate(ExpiryPolicy expiryPolicy) {
+        return expiryPolicy.getExpiryForCreation() == expiryPolicy.getExpiryForUpdate();
+    }
+
+    /**
+     * Stores the values atomically with a script, using the creation time for new keys
+     * and the update time for the existing ones
+     * If the cache is bounded, the bounded put script is used
+     * @param values values to store, not empty
+     * @param expiryPolicy expiry policy of the operation
+     * @return previous values, in the order of the map iteration
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> putWithExpiry(Map<String, String> values, ExpiryPolicy expiryPolicy) {
+        if (isBounded()) {
+            return withResourceGet(jedis -> putBounded(jedis, values, expiryPolicy.getExpiryForCreation(), expiryPolicy.getExpiryForUpdate(), false));
+        }
+        List<String> keys = new ArrayList<>(values.size() * 2);
+        List<String> args = new ArrayList<>(values.size() + 2);
+        args.add(Long.toString(expiryPolicy.getExpiryForCreation()));
+        args.add(Long.toString(expiryPolicy.getExpiryForUpdate()));
+        values.forEach((k, v) -> {
+            keys.add(resolveKey(k));
+            args.add(v);
+        });
+        keys.addAll(resolveNegativeKeys(values.keySet()));
+        return (List<String>) scriptPutWithExpiry.evalSha(keys, args);
+    }
+
+    /**
+     * If the cache has a bound of entries or bytes
+     * @return true if bounded
+     */
+    private boolean isBounded() {
+        return maxEntries > 0 || maxBytes > 0;
+    }
+
+    /**
+     * Redis key of the access index of a bounded cache, a sorted set of the redis keys of the entries
+     * It's outside the keys of the cache, so it's not iterated
+     * @return index key
+     */
+    String resolveIndexKey() {
+        return name + INDEX_SUFFIX;
+    }
+
+    /**
+     * Redis key of the metadata of a bounded cache, a hash with the size of every entry and the total
+     * It's outside the keys of the cache, so it's not iterated
+     * @return metadata key
+     */
+    String resolveMetaKey() {
+        return name + META_SUFFIX;
+    }
+
+    /**
+     * Current sum of the sizes of the entries of a bounded cache, as stored in redis
+     * @return bytes
+     */
+    long getCurrentBytes() {
+        checkClosed();
+        String bytes = withResourceGet(jedis -> jedis.hget(resolveMetaKey(), META_FIELD_BYTES));
+        return bytes != null ? Long.parseLong(bytes) : 0L;
+    }
+
+    /**
+     * Updates the score of a read key in the access index, in a transaction
+     * Keys not in the index are not added
+     * @param t Transaction
+     * @param key Key
+     */
+    private void touchIndex(Transaction t, String key) {
+        ZAddParams zAddParams = ZAddParams.zAddParams().xx();
+        if (evictionPolicy == EvictionPolicy.LFU) {
+            t.zaddIncr(resolveIndexKey(), 1.0, resolveKey(key), zAddParams);
+        } else {
+            t.zadd(resolveIndexKey(), System.currentTimeMillis(), resolveKey(key), zAddParams);
+        }
+    }
+
+    /**
+     * Stores the values atomically with the bounded put script, that also updates the access index
+     * and evicts the least used entries (never the stored ones) while the cache is over its bounds
+     * Evicted entries are removed from the near cache and counted in the statistics
+     * The script runs on the given connection, so no other is taken from the pool
+     * @param jedis Jedis connection
+     * @param values values to store, not empty
+     * @param createdMs time to live of new values
+     * @param updatedMs time to live of existing values, or UNCHANGED
+     * @param onlyIfAbsent if true, existing values are not modified
+     * @return previous values, in the order of the map iteration
+     */
+    private List<String> putBounded(Jedis jedis, Map<String, String> values, long createdMs, long updatedMs, boolean onlyIfAbsent) {
+        return putBounded(jedis, values, createdMs, updatedMs, onlyIfAbsent ? BOUNDED_PUT_NX : BOUNDED_PUT_ALL, Collections.emptyList());
+    }
+
+    /**
+     * Stores the values with the bounded put script in the given mode
+     * The script runs on the given connection, so no other is taken from the pool
+     * @param jedis Jedis connection
+     * @param values values to store, not empty
+     * @param createdMs time to live of new values
+     * @param updatedMs time to live of existing values, or UNCHANGED
+     * @param mode 'all', 'nx' only absent keys, 'xx' only existing keys or 'eq' only keys with the expected value
+     * @param expectedValues with 'eq' mode, the expected current values in the order of the map iteration
+     * @return previous values, in the order of the map iteration
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> putBounded(Jedis jedis, Map<String, String> values, long createdMs, long updatedMs, String mode,
+                                    List<String> expectedValues) {
+        List<String> keys = new ArrayList<>(values.size() * 2 + 2);
+        List<String> args = new ArrayList<>(values.size() + expectedValues.size() + 7);
+        keys.add(resolveIndexKey());
+        keys.add(resolveMetaKey());
+        args.add(Long.toString(createdMs));
+        args.add(Long.toString(updatedMs));
+        args.add(mode);
+        args.add(evictionPolicy.toScriptArgument());
+        args.add(Long.toString(System.currentTimeMillis()));
+        args.add(Long.toString(maxEntries));
+        args.add(Long.toString(maxBytes));
+        values.forEach((k, v) -> {
+            keys.add(resolveKey(k));
+            args.add(v);
+        });
+        args.addAll(expectedValues);
+        keys.addAll(resolveNegativeKeys(values.keySet()));
+        List<Object> result = (List<Object>) scriptBoundedPut.evalSha(jedis, keys, args);
+        onEvicted((List<String>) result.get(1));
+        return (List<String>) result.get(0);
+    }
+
+    /**
+     * Removes the evicted entries from the near cache and counts them in the statistics
+     * @param evicted evicted keys as are in redis
+     */
+    private void onEvicted(List<String> evicted) {
+        if (!evicted.isEmpty()) {
+            LOGGER.debug("evicted keys {}", evicted);
+            evicted.forEach(redisKey -> nearCacheInvalidate(unresolveKey(redisKey)));
+            recordEvictions(evicted.size());
         }
     }
 
+    /**
+     * Removes the keys atomically with the bounded remove script, that also removes them from the access index
+     * @param jedis Jedis connection
+     * @param redisKeys keys as are in redis
+     * @return previous values, in the order of the keys
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> removeBounded(Jedis jedis, List<String> redisKeys) {
+        List<String> keys = new ArrayList<>(redisKeys.size() * 2 + 2);
+        keys.add(resolveIndexKey());
+        keys.add(resolveMetaKey());
+        keys.addAll(redisKeys);
+        keys.addAll(resolveNegativeKeys(redisKeys.stream().
+                map(this::unresolveKey).
+                collect(Collectors.toList())));
+        return (List<String>) scriptBoundedRemove.evalSha(jedis, keys, Collections.singletonList(Integer.toString(redisKeys.size())));
+    }
+
     /**
      * Inserts a new value for given key in redis if no previous value is present
      * Nothing will be done otherwise
@@ -391,13 +1643,19 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
         checkClosed();
         if (key == null) throw new IllegalArgumentException("RedisCache.putIfAbsent key is null");
         if (value == null) throw new IllegalArgumentException("RedisCache.putIfAbsent value is null");
-        SetParams setParams = new SetParams().nx().px(timeOutMs);
-        String result = withResourceGet(jedis -> jedis.set(resolveKey(key), value, setParams));
-        if (result!= null && cacheWriter != null) {
+        SetParams setParams = setParamsWithExpiry(expiryPolicy.getExpiryForCreation()).nx();
+        boolean stored = timedRoundTrip(CacheStatistics.OPERATION_PUT_IF_ABSENT, () -> isBounded() ?
+                withResourceGet(jedis -> putBounded(jedis, Collections.singletonMap(key, value),
+                        expiryPolicy.getExpiryForCreation(), ExpiryPolicy.UNCHANGED, true).get(0)) == null :
+                withResourceGet(jedis -> set(jedis, key, value, setParams)) != null);
+        if (stored) {
+            nearCacheInvalidate(key);
+        }
+        if (stored && cacheWriter != null) {
             LOGGER.debug("write-through store key {} value {}", key, value);
-            cacheWriter.write(key, value);
+            writeThrough(() -> cacheWriter.write(key, value));
         }
-        return result != null;
+        return stored;
     }
 
     /**
@@ -410,22 +1668,19 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
     public boolean remove(String key) {
         checkClosed();
         if (key == null) throw new IllegalArgumentException("RedisCache.remove key is null");
-        try (Jedis jedis = jedisPool.getResource()) {
-            Transaction t = jedis.multi();
-            Response<String> previous = t.get(resolveKey(key));
-            t.del(resolveKey(key));
-            t.exec();
-            if (previous.get() != null && cacheWriter != null) {
-                LOGGER.debug("write-through remove key {} ", key);
-                cacheWriter.delete(key);
-            }
-            return previous.get() != null;
+        String previous = timedRoundTrip(CacheStatistics.OPERATION_REMOVE, () -> withResourceGet(jedis -> getAndDelete(jedis, key)));
+        nearCacheInvalidate(key);
+        if (previous != null && cacheWriter != null) {
+            LOGGER.debug("write-through remove key {} ", key);
+            writeThrough(() -> cacheWriter.delete(key));
         }
+        return previous != null;
     }
 
     /**
      * Removes for given key in redis if the value matches
      * The deletion will happen if current value matches with given value
+     * The check and the deletion are done atomically in redis
      * write-through: If a cacheWriter is present and the deletion is done,
      * it will be removed in external sources
      * @param key Key of the value
@@ -434,15 +1689,18 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
      */
     public boolean remove(String key, String oldValue) {
         checkClosed();
-        //Better with script
         if (key == null) throw new IllegalArgumentException("RedisCache.remove key is null");
         if (oldValue == null) throw new IllegalArgumentException("RedisCache.remove oldValue is null");
-        String current = withResourceGet(jedis -> jedis.get(resolveKey(key)));
-        if (current != null && current.equals(oldValue)) {
-            withResource(jedis -> jedis.del(resolveKey(key)));
+        List<String> keys = new ArrayList<>(Arrays.asList(resolveIndexKey(), resolveMetaKey(), resolveKey(key)));
+        keys.addAll(resolveNegativeKeys(Collections.singletonList(key)));
+        Object result = timedRoundTrip(CacheStatistics.OPERATION_REMOVE, () -> isBounded() ?
+                scriptBoundedCompareAndRemove.evalSha(keys, Collections.singletonList(oldValue)) :
+                scriptCompareAndRemove.evalSha(keys.subList(2, keys.size()), Collections.singletonList(oldValue)));
+        if (isScriptTrue(result)) {
+            nearCacheInvalidate(key);
             if (cacheWriter != null) {
                 LOGGER.debug("write-through remove key {} ", key);
-                cacheWriter.delete(key);
+                writeThrough(() -> cacheWriter.delete(key));
             }
             return true;
         }  else {
@@ -460,21 +1718,37 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
     public String getAndRemove(String key) {
         checkClosed();
         if (key == null) throw new IllegalArgumentException("RedisCache.getAndRemove key is null");
-        try (Jedis jedis = jedisPool.getResource()) {
-            Transaction t = jedis.multi();
-            Response<String> previous = t.get(resolveKey(key));
-            t.del(resolveKey(key));
-            t.exec();
-            if (previous.get() != null && cacheWriter != null) {
-                LOGGER.debug("write-through remove key {} ", key);
-                cacheWriter.delete(key);
-            }
-            return previous.get();
+        String previous = timedRoundTrip(CacheStatistics.OPERATION_REMOVE, () -> withResourceGet(jedis -> getAndDelete(jedis, key)));
+        nearCacheInvalidate(key);
+        if (previous != null && cacheWriter != null) {
+            LOGGER.debug("write-through remove key {} ", key);
+            writeThrough(() -> cacheWriter.delete(key));
+        }
+        return previous;
+    }
+
+    /**
+     * Gets and deletes a value in one round trip
+     * If the cache is bounded, it's also removed from the access index
+     * @param jedis Jedis connection
+     * @param key Key
+     * @return previous value, null if not exists
+     */
+    private String getAndDelete(Jedis jedis, String key) {
+        if (isBounded()) {
+            return removeBounded(jedis, Collections.singletonList(resolveKey(key))).get(0);
         }
+        Transaction t = jedis.multi();
+        Response<String> response = t.get(resolveKey(key));
+        t.del(resolveKey(key));
+        removeNegative(t, Collections.singletonList(key));
+        t.exec();
+        return response.get();
     }
 
     /**
      * Replaces key value with new value if current redis value is equals to given oldValue
+     * The check and the replacement are done atomically in redis, with the update time of the expiry policy
      * write-through: If value is replaced and a cachewriter exits, external source is updated too
      * @param key Key to have replacement
      * @param oldValue Value to be matched
@@ -486,25 +1760,27 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
         if (key == null) throw new IllegalArgumentException("RedisCache.replace key is null");
         if (oldValue == null) throw new IllegalArgumentException("RedisCache.replace oldValue is null");
         if (newValue == null) throw new IllegalArgumentException("RedisCache.replace newValue is null");
-        //Better with script
-        try (Jedis jedis = jedisPool.getResource()) {
-            String current = jedis.get(resolveKey(key));
-            if (current != null && current.equals(oldValue)) {
-                SetParams setParams = new SetParams().px(timeOutMs);
-                jedis.set(resolveKey(key), newValue, setParams);
-                if (cacheWriter != null) {
-                    LOGGER.debug("write-through replace key {} value {}", key, newValue);
-                    cacheWriter.write(key, newValue);
-                }
-                return true;
-            }  else {
-                return false;
+        long expiryForUpdate = expiryPolicy.getExpiryForUpdate();
+        boolean replaced = timedRoundTrip(CacheStatistics.OPERATION_REPLACE, () -> isBounded() ?
+                oldValue.equals(withResourceGet(jedis -> putBounded(jedis, Collections.singletonMap(key, newValue),
+                        expiryForUpdate, expiryForUpdate, BOUNDED_PUT_EQ, Collections.singletonList(oldValue)).get(0))) :
+                isScriptTrue(scriptCompareAndReplace.evalSha(resolveKeyAndNegativeKey(key),
+                        Arrays.asList(oldValue, newValue, Long.toString(expiryForUpdate)))));
+        if (replaced) {
+            nearCacheInvalidate(key);
+            if (cacheWriter != null) {
+                LOGGER.debug("write-through replace key {} value {}", key, newValue);
+                writeThrough(() -> cacheWriter.write(key, newValue));
             }
+            return true;
+        }  else {
+            return false;
         }
     }
 
     /**
      * Replaces key value with new value if key exists
+     * The check and the replacement are done atomically in redis, with the update time of the expiry policy
      * write-through: If value is replaced and a cachewriter exits, external source is updated too
      * @param key Key to have replacement
      * @param value New value to update in redis
@@ -514,21 +1790,7 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
         checkClosed();
         if (key == null) throw new IllegalArgumentException("RedisCache.replace key is null");
         if (value == null) throw new IllegalArgumentException("RedisCache.replace value is null");
-        //Better with script
-        try (Jedis jedis = jedisPool.getResource()) {
-            String current = jedis.get(resolveKey(key));
-            if (current != null) {
-                SetParams setParams = new SetParams().px(timeOutMs);
-                jedis.set(resolveKey(key), value, setParams);
-                if (cacheWriter != null) {
-                    LOGGER.debug("write-through replace key {} value {}", key, value);
-                    cacheWriter.write(key, value);
-                }
-                return true;
-            }  else {
-                return false;
-            }
-        }
+        return replaceIfExists(key, value) != null;
     }
 
     /**
@@ -552,21 +1814,104 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
         checkClosed();
         if (key == null) throw new IllegalArgumentException("RedisCache.getAndReplace key is null");
         if (value == null) throw new IllegalArgumentException("RedisCache.getAndReplace value is null");
-        //Better with script
-        try (Jedis jedis = jedisPool.getResource()) {
-            String current = jedis.get(resolveKey(key));
-            if (current != null) {
-                SetParams setParams = new SetParams().px(timeOutMs);
-                jedis.set(resolveKey(key), value, setParams);
-                if (cacheWriter != null) {
-                    LOGGER.debug("write-through replace key {} value {}", key, value);
-                    cacheWriter.write(key, value);
-                }
-                return current;
-            }  else {
-                return null;
+        return replaceIfExists(key, value);
+    }
+
+    /**
+     * Replaces atomically the key value with new value if key exists, with the update time of the expiry policy
+     * write-through: If value is replaced and a cachewriter exits, external source is updated too
+     * @param key Key to have replacement
+     * @param value New value to update in redis
+     * @return previous value, null if not exists (and not replaced)
+     */
+    private String replaceIfExists(String key, String value) {
+        long expiryForUpdate = expiryPolicy.getExpiryForUpdate();
+        String current = timedRoundTrip(CacheStatistics.OPERATION_REPLACE, () -> isBounded() ?
+                withResourceGet(jedis -> putBounded(jedis, Collections.singletonMap(key, value),
+                        expiryForUpdate, expiryForUpdate, BOUNDED_PUT_XX, Collections.emptyList()).get(0)) :
+                (String) scriptReplaceIfExists.evalSha(resolveKeyAndNegativeKey(key),
+                        Arrays.asList(value, Long.toString(expiryForUpdate))));
+        if (current != null) {
+            nearCacheInvalidate(key);
+            if (cacheWriter != null) {
+                LOGGER.debug("write-through replace key {} value {}", key, value);
+                writeThrough(() -> cacheWriter.write(key, value));
             }
         }
+        return current;
+    }
+
+    /**
+     * Redis key of the value followed by the key of its tombstone if negative cache is enabled,
+     * as the single key scripts expect them
+     * @param key Key
+     * @return redis keys
+     */
+    private List<String> resolveKeyAndNegativeKey(String key) {
+        List<String> keys = new ArrayList<>(2);
+        keys.add(resolveKey(key));
+        keys.addAll(resolveNegativeKeys(Collections.singletonList(key)));
+        return keys;
+    }
+
+    /**
+     * Checks if the numeric result of a script is true (one or more)
+     * @param result script result
+     * @return true if is a number greater than zero
+     */
+    private static boolean isScriptTrue(Object result) {
+        return result instanceof Long && (Long) result > 0L;
+    }
+
+    /**
+     * Executes the redis part of an operation, recording its round trip time if statistics are enabled
+     * @param operation name of the operation, see CacheStatistics
+     * @param redisCall redis call
+     * @param <T> type of the result
+     * @return result of the call
+     */
+    private <T> T timedRoundTrip(String operation, Supplier<T> redisCall) {
+        return CacheStatistics.timedRoundTrip(statistics, operation, redisCall);
+    }
+
+    /**
+     * Executes a load from the cache loader, recording its time and result if statistics are enabled
+     * A load that throws an exception counts as a failure
+     * @param load call to the cache loader
+     * @param <T> type of the result
+     * @return loaded result
+     */
+    private <T> T timedLoad(Supplier<T> load) {
+        return CacheStatistics.timedLoad(statistics, load);
+    }
+
+    /**
+     * Executes a call to the cache writer, recording its time if statistics are enabled
+     * @param write call to the cache writer
+     */
+    private void writeThrough(Runnable write) {
+        CacheStatistics.timedWrite(statistics, write);
+    }
+
+    private void recordHits(long count) {
+        CacheStatistics currentStatistics = statistics;
+        if (currentStatistics != null && count > 0) {
+            currentStatistics.recordHits(count);
+        }
+    }
+
+    private void recordMisses(long count) {
+        CacheStatistics currentStatistics = statistics;
+        if (currentStatistics != null && count > 0) {
+            currentStatistics.recordMisses(count);
+        }
+    }
+
+    private void recordEvictions(long count) {
+        CacheStatistics currentStatistics = statistics;
+        if (currentStatistics != null) {
+            currentStatistics.recordEvictions(count);
+        }
     }
 
     /**
@@ -581,12 +1926,17 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
         for(int i=0; i < keysAsArray.length; i++) {
             keysAsArray[i] = resolveKey(keysAsArray[i]);
         }
-        try (Jedis jedis = jedisPool.getResource()) {
-            jedis.del(keysAsArray);
+        if (isBounded()) {
+            timedRoundTrip(CacheStatistics.OPERATION_REMOVE_ALL, () -> withResourceGet(jedis -> removeBounded(jedis, Arrays.asList(keysAsArray))));
+        } else {
+            List<String> redisKeys = new ArrayList<>(Arrays.asList(keysAsArray));
+            redisKeys.addAll(resolveNegativeKeys(keys));
+            timedRoundTrip(CacheStatistics.OPERATION_REMOVE_ALL, () -> withResourceGet(jedis -> jedis.del(redisKeys.toArray(new String[0]))));
         }
+        keys.forEach(this::nearCacheInvalidate);
         if (cacheWriter != null) {
             LOGGER.debug("write-through delete keys {} ", keys);
-            cacheWriter.deleteAll(keys);
+            writeThrough(() -> cacheWriter.deleteAll(keys));
         }
     }
 
@@ -608,33 +1958,73 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
 
 
     /**
-     * Will remove ALL entries from redis
-     * @param allowCacheWriter use cacheWriter if present
+     * Will remove ALL entries from redis, and the tombstones if negative cache is enabled
+     * The keys are scanned and removed page by page, with UNLINK, so the whole
+     * key space is never held in memory nor deleted in one command
+     * @param allowCacheWriter use cacheWriter if present, it will receive the keys page by page
      */
     private void removeAll(boolean allowCacheWriter) {
         checkClosed();
-        List<String> scanned = new CacheKeyIterator(this, false).asList();
         // No need to convert here
-        if (!scanned.isEmpty()) {
-            withResource(jedis -> jedis.del(scanned.toArray(new String[]{})));
-            if (allowCacheWriter && cacheWriter != null) {
-                List<String> unresolved = scanned.stream().
-                        map(this::unresolveKey).
-                        collect(Collectors.toList());
-                LOGGER.debug("write-through delete key {} ", unresolved);
-                cacheWriter.deleteAll(unresolved);
+        CacheKeyIterator scanned = new CacheKeyIterator(this, false, resultsPerScan);
+        List<String> batch = new ArrayList<>(resultsPerScan);
+        while (scanned.hasNext()) {
+            batch.add(scanned.next());
+            if (batch.size() >= resultsPerScan) {
+                removeBatch(batch, allowCacheWriter);
+                batch = new ArrayList<>(resultsPerScan);
             }
         }
+        if (!batch.isEmpty()) {
+            removeBatch(batch, allowCacheWriter);
+        }
+        if (isNegativeCacheEnabled()) {
+            removeAllNegative();
+        }
+    }
+
+    /**
+     * Removes a page of redis keys with one UNLINK, or the bounded remove script if the cache is bounded
+     * @param redisKeys keys as are in redis
+     * @param allowCacheWriter use cacheWriter if present
+     */
+    private void removeBatch(List<String> redisKeys, boolean allowCacheWriter) {
+        if (isBounded()) {
+            timedRoundTrip(CacheStatistics.OPERATION_REMOVE_ALL, () -> withResourceGet(jedis -> removeBounded(jedis, redisKeys)));
+        } else {
+            timedRoundTrip(CacheStatistics.OPERATION_REMOVE_ALL, () -> withResourceGet(jedis -> jedis.unlink(redisKeys.toArray(new String[0]))));
+        }
+        List<String> unresolved = redisKeys.stream().
+                map(this::unresolveKey).
+                collect(Collectors.toList());
+        unresolved.forEach(this::nearCacheInvalidate);
+        if (allowCacheWriter && cacheWriter != null) {
+            LOGGER.debug("write-through delete key {} ", unresolved);
+            writeThrough(() -> cacheWriter.deleteAll(unresolved));
+        }
     }
 
     /**
      * Return an iterator for current key-value pairs
      * Until hasNext / next is called, no data is retrieved from redis
-     * @return CacheKeyIterator
+     * Values are retrieved page by page, see withResultsPerScan
+     * @return CacheIterator
      */
     public CacheIterator iterator() {
         checkClosed();
-        return new CacheIterator(this);
+        return new CacheIterator(this, resultsPerScan);
+    }
+
+    /**
+     * Return a sequential stream of the current key-value pairs
+     * Data is retrieved lazily from redis, page by page, as the stream is consumed,
+     * so the whole cache is never held in memory
+     * As with scan, an entry can be returned more than once (rarely)
+     * @return stream of entries
+     */
+    public Stream<Map.Entry<String, String>> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(),
+                Spliterator.NONNULL), false);
     }
 
     /**
@@ -644,7 +2034,7 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
      */
     public CacheKeyIterator keysIterator() {
         checkClosed();
-        return new CacheKeyIterator(this);
+        return new CacheKeyIterator(this, true, resultsPerScan);
     }
 
     /**
@@ -658,7 +2048,7 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
 
     /**
      * Return all the current key-value pairs in the cache into a local unmodifiable entry list
-     * This will make N access to redis and make a copy of the remote data
+     * This will make two access to redis per page and make a copy of the remote data
      * @return list with data
      */
     @Override
@@ -668,7 +2058,7 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
 
     /**
      * Return all the current key-value pairs in the cache into a local unmodifiable map
-     * This will make N access to redis and make a copy of the remote data
+     * This will make two access to redis per page and make a copy of the remote data
      * @return map with data
      */
     public Map<String, String> asMap() {
@@ -676,12 +2066,50 @@ public class SimpleCache implements Iterable<Map.Entry<String,String>>,
     }
 
 
+    /**
+     * Removes a local value from the near cache, and the key from the local negative filter, if present
+     * @param key Key of the value
+     */
+    private void nearCacheInvalidate(String key) {
+        NearCache currentNearCache = nearCache;
+        if (currentNearCache != null) {
+            currentNearCache.invalidate(key);
+        }
+        NegativeKeyFilter currentFilter = negativeKeyFilter;
+        if (currentFilter != null) {
+            currentFilter.invalidate(key);
+        }
+    }
+
+    /**
+     * Stops the near cache and its invalidations, if present
+     */
+    private void closeNearCache() {
+        if (nearCacheInvalidator != null) {
+            nearCacheInvalidator.close();
+            nearCacheInvalidator = null;
+        }
+        if (nearCache != null) {
+            nearCache.disable();
+            nearCache = null;
+        }
+    }
+
     /**
      * Close this instance of redis cache
      * Does not affect redis of extenal data
+     * If the cache writer is write-behind, waits until all pending operations are sent
      */
     public void close() {
         isClosed.set(true);
+        closeNearCache();
+        unregisterStatisticsMBean();
+        if (cacheRefresher != null) {
+            cacheRefresher.close();
+        }
+        if (cacheWriter instanceof WriteBehindCacheWriter) {
+            ((WriteBehindCacheWriter) cacheWriter).close();
+        }
     }
 
     /**
@@ -0,0 +1,51 @@
+package org.oba.jedis.extra.utils.cache;
+
+/**
+ * ExpiryPolicy with fixed times
+ */
+public final class SimpleExpiryPolicy implements ExpiryPolicy {
+
+    private final long expiryForCreation;
+    private final long expiryForUpdate;
+    private final long expiryForAccess;
+
+    /**
+     * Creates a policy
+     * @param expiryForCreation milliseconds for new values
+     * @param expiryForUpdate milliseconds for updated values, or UNCHANGED
+     * @param expiryForAccess milliseconds for read values, or UNCHANGED
+     */
+    public SimpleExpiryPolicy(long expiryForCreation, long expiryForUpdate, long expiryForAccess) {
+        if (expiryForCreation <= 0) throw new IllegalArgumentException("SimpleExpiryPolicy expiryForCreation must be more than zero");
+        if (expiryForUpdate <= 0 && expiryForUpdate != UNCHANGED) throw new IllegalArgumentException("SimpleExpiryPolicy expiryForUpdate must be more than zero or UNCHANGED");
+        if (expiryForAccess <= 0 && expiryForAccess != UNCHANGED) throw new IllegalArgumentException("SimpleExpiryPolicy expiryForAccess must be more than zero or UNCHANGED");
+        this.expiryForCreation = expiryForCreation;
+        this.expiryForUpdate = expiryForUpdate;
+        this.expiryForAccess = expiryForAccess;
+    }
+
+    @Override
+    public long getExpiryForCreation() {
+        return expiryForCreation;
+    }
+
+    @Override
+    public long getExpiryForUpdate() {
+        return expiryForUpdate;
+    }
+
+    @Override
+    public long getExpiryForAccess() {
+        return expiryForAccess;
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleExpiryPolicy{" +
+                "expiryForCreation=" + expiryForCreation +
+                ", expiryForUpdate=" + expiryForUpdate +
+                ", expiryForAccess=" + expiryForAccess +
+                '}';
+    }
+
+}
@@ -0,0 +1,427 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.oba.jedis.extra.utils.utils.JedisPoolUser;
+import org.oba.jedis.extra.utils.utils.Named;
+import redis.clients.jedis.JedisPool;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Facade of a SimpleCache with typed values
+ *
+ * The values are converted to bytes with a CacheCodec (that can compress them),
+ * and the bytes are stored with the String operations of the SimpleCache
+ * So expiry policies, bounds, near cache, negative cache and statistics are configured
+ * in the SimpleCache, see getSimpleCache
+ * Bytes that are valid UTF-8 are stored as text, and the others in Base64;
+ * a first character tells how the rest is stored
+ * Codecs must be deterministic, as replace and remove compare the stored values
+ *
+ * Do not use a SimpleCache and a TypedCache with the same name, as values are stored differently
+ *
+ * Unlike maps, null keys or values aren't allowed.
+ *
+ * @param <V> Type of the values
+ */
+public class TypedCache<V> implements Named, JedisPoolUser {
+
+    static final char TEXT = 't';
+    static final char BASE64 = 'b';
+
+    private final SimpleCache simpleCache;
+
+    private final CacheCodec<V> codec;
+
+    private final boolean ownedSimpleCache;
+
+    private final AtomicBoolean isClosed = new AtomicBoolean(false);
+
+    /**
+     * Create a typed cache, with its own SimpleCache
+     * @param jedisPool Connection pool
+     * @param name Name shared across instances
+     * @param timeOutMs Default timeout for every entry, zero or less for entries without expiration
+     * @param codec Codec of the values
+     */
+    public TypedCache(JedisPool jedisPool, String name, long timeOutMs, CacheCodec<V> codec) {
+        this(new SimpleCache(jedisPool, name, timeOutMs), codec, true);
+    }
+
+    /**
+     * Create a typed cache over a SimpleCache
+     * Closing this facade doesn't close the SimpleCache
+     * @param simpleCache cache to use, it should not have a cacheloader or cachewriter of strings
+     * @param codec Codec of the values
+     */
+    public TypedCache(SimpleCache simpleCache, CacheCodec<V> codec) {
+        this(simpleCache, codec, false);
+    }
+
+    private TypedCache(SimpleCache simpleCache, CacheCodec<V> codec, boolean ownedSimpleCache) {
+        if (simpleCache == null) throw new IllegalArgumentException("TypedCache simpleCache is null");
+        if (codec == null) throw new IllegalArgumentException("TypedCache codec is null");
+        this.simpleCache = simpleCache;
+        this.codec = codec;
+        this.ownedSimpleCache = ownedSimpleCache;
+    }
+
+    /**
+     * Sets a typed cacheloader for read-through
+     * @param cacheLoader Function that gives the external value of a key, or null if missing
+     * @return cache
+     */
+    public TypedCache<V> withCacheLoader(Function<String, V> cacheLoader) {
+        simpleCache.withCacheLoader(cacheLoader != null ? key -> encode(cacheLoader.apply(key)) : null);
+        return this;
+    }
+
+    /**
+     * Sets a typed cachewriter for write-through
+     * @param write Writes a value in the external source
+     * @param delete Deletes a key in the external source
+     * @return cache
+     */
+    public TypedCache<V> withCacheWriter(BiConsumer<String, V> write, Consumer<String> delete) {
+        if (write == null) throw new IllegalArgumentException("TypedCache.withCacheWriter write is null");
+        if (delete == null) throw new IllegalArgumentException("TypedCache.withCacheWriter delete is null");
+        simpleCache.withCacheWriter(new CacheWriter() {
+            @Override
+            public void write(String key, String value) {
+                write.accept(key, decode(value));
+            }
+
+            @Override
+            public void delete(String key) {
+                delete.accept(key);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Underlying cache
+     * @return simple cache
+     */
+    public SimpleCache getSimpleCache() {
+        return simpleCache;
+    }
+
+    @Override
+    public JedisPool getJedisPool() {
+        return simpleCache.getJedisPool();
+    }
+
+    /**
+     * Current name
+     * @return name
+     */
+    public String getName() {
+        return simpleCache.getName();
+    }
+
+    /**
+     * Converts the key from external representation to internal (redis) one
+     * No null accepted
+     * @param key key to convert
+     * @return key converted
+     */
+    public String resolveKey(String key) {
+        return simpleCache.resolveKey(key);
+    }
+
+    /**
+     * Statistics of the underlying cache, see SimpleCache.withStatistics
+     * @return statistics, null if not enabled
+     */
+    public CacheStatistics getStatistics() {
+        return simpleCache.getStatistics();
+    }
+
+    /**
+     * Converts a value to the string stored by the SimpleCache
+     * @param value value, can be null
+     * @return stored string, null if the value is null
+     */
+    String encode(V value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] data = codec.encode(value);
+        try {
+            return TEXT + StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(data)).toString();
+        } catch (CharacterCodingException e) {
+            return BASE64 + Base64.getEncoder().encodeToString(data);
+        }
+    }
+
+    /**
+     * Converts a string stored by the SimpleCache to a value
+     * @param stored stored string, can be null
+     * @return value, null if the string is null
+     */
+    V decode(String stored) {
+        if (stored == null) {
+            return null;
+        }
+        String rest = stored.substring(1);
+        byte[] data = stored.charAt(0) == TEXT ? rest.getBytes(StandardCharsets.UTF_8) : Base64.getDecoder().decode(rest);
+        return codec.decode(data);
+    }
+
+    private Map<String, V> decodeAll(Map<String, String> stored) {
+        Map<String, V> result = new HashMap<>();
+        stored.forEach((k, v) -> result.put(k, decode(v)));
+        return result;
+    }
+
+    private Map<String, String> encodeAll(Map<String, V> values) {
+        if (values == null) throw new IllegalArgumentException("TypedCache.putAll map is null");
+        Map<String, String> result = new HashMap<>();
+        values.forEach((k, v) -> {
+            if (v == null) throw new IllegalArgumentException("TypedCache.putAll value is null");
+            result.put(k, encode(v));
+        });
+        return result;
+    }
+
+    private String encodeNotNull(V value, String operation) {
+        if (value == null) throw new IllegalArgumentException("TypedCache." + operation + " value is null");
+        return encode(value);
+    }
+
+    /**
+     * Gets current value from redis cache
+     * read-through: if not found, it can use the cacheloader if present
+     * @param key not null key
+     * @return value, or null if no exists
+     */
+    public V get(String key) {
+        checkClosed();
+        return decode(simpleCache.get(key));
+    }
+
+    /**
+     * Gets values from redis cache, with one call
+     * read-through: if not found, it can use the cacheloader if present
+     * Not found values will not be present in result map
+     * @param keys not null set of keys
+     * @return map with values from cache (no nulls)
+     */
+    public Map<String, V> getAll(Set<String> keys) {
+        checkClosed();
+        return decodeAll(simpleCache.getAll(keys));
+    }
+
+    /**
+     * Checks if a key exists in redis
+     * @param key Key
+     * @return true if a value is bound to this key
+     */
+    public boolean containsKey(String key) {
+        checkClosed();
+        return simpleCache.containsKey(key);
+    }
+
+    /**
+     * Inserts a new value for given key in redis, with the expiry policy of the SimpleCache
+     * If the value exists, it will be overwritten
+     * @param key Key of the value
+     * @param value Data of the value
+     */
+    public void put(String key, V value) {
+        checkClosed();
+        simpleCache.put(key, encodeNotNull(value, "put"));
+    }
+
+    /**
+     * Inserts a new value for given key in redis, with the given timeout
+     * If the value exists, it will be overwritten
+     * @param key Key of the value
+     * @param value Data of the value
+     * @param timeOutMs Time to live
+     */
+    public void put(String key, V value, long timeOutMs) {
+        checkClosed();
+        simpleCache.put(key, encodeNotNull(value, "put"), timeOutMs);
+    }
+
+    /**
+     * Inserts a new value for given key in redis, and returns the previous one
+     * @param key Key of the value
+     * @param value Data of the value
+     * @return previous value, null if there was no one
+     */
+    public V getAndPut(String key, V value) {
+        checkClosed();
+        return decode(simpleCache.getAndPut(key, encodeNotNull(value, "getAndPut")));
+    }
+
+    /**
+     * Inserts a list of new key-values in cache
+     * @param values map of the key-values data
+     */
+    public void putAll(Map<String, V> values) {
+        checkClosed();
+        simpleCache.putAll(encodeAll(values));
+    }
+
+    /**
+     * Inserts a new value for given key in redis if no previous value is present
+     * @param key Key of the value
+     * @param value Data of the value
+     * @return true if inserted
+     */
+    public boolean putIfAbsent(String key, V value) {
+        checkClosed();
+        return simpleCache.putIfAbsent(key, encodeNotNull(value, "putIfAbsent"));
+    }
+
+    /**
+     * Replaces key value with new value if current value is equals to given oldValue
+     * @param key Key to have replacement
+     * @param oldValue Value to be matched
+     * @param newValue New value
+     * @return true if replaced
+     */
+    public boolean replace(String key, V oldValue, V newValue) {
+        checkClosed();
+        return simpleCache.replace(key, encodeNotNull(oldValue, "replace"), encodeNotNull(newValue, "replace"));
+    }
+
+    /**
+     * Replaces key value with new value if key exists
+     * @param key Key to have replacement
+     * @param value New value
+     * @return true if replaced
+     */
+    public boolean replace(String key, V value) {
+        checkClosed();
+        return simpleCache.replace(key, encodeNotNull(value, "replace"));
+    }
+
+    /**
+     * Replaces key value with new value if key exists, and returns the previous one
+     * @param key Key to have replacement
+     * @param value New value
+     * @return previous value, null if not exists (and not replaced)
+     */
+    public V getAndReplace(String key, V value) {
+        checkClosed();
+        return decode(simpleCache.getAndReplace(key, encodeNotNull(value, "getAndReplace")));
+    }
+
+    /**
+     * Removes for given key in redis
+     * @param key Key of the value
+     * @return true if a values has been removed
+     */
+    public boolean remove(String key) {
+        checkClosed();
+        return simpleCache.remove(key);
+    }
+
+    /**
+     * Removes for given key in redis if the value matches
+     * @param key Key of the value
+     * @param oldValue value that must equal to redis one to execute deletion
+     * @return true if deleted
+     */
+    public boolean remove(String key, V oldValue) {
+        checkClosed();
+        return simpleCache.remove(key, encodeNotNull(oldValue, "remove"));
+    }
+
+    /**
+     * Removes for given key in redis and returns the current redis value
+     * @param key Key of the value
+     * @return previous value or null if there wasn't one
+     */
+    public V getAndRemove(String key) {
+        checkClosed();
+        return decode(simpleCache.getAndRemove(key));
+    }
+
+    /**
+     * Removes the entries with the given keys
+     * @param keys keys to remove
+     */
+    public void removeAll(Set<String> keys) {
+        checkClosed();
+        simpleCache.removeAll(keys);
+    }
+
+    /**
+     * Removes ALL entries from redis, with write-through if there is a cachewriter
+     */
+    public void removeAll() {
+        checkClosed();
+        simpleCache.removeAll();
+    }
+
+    /**
+     * Removes ALL entries from redis, without write-through
+     */
+    public void clear() {
+        checkClosed();
+        simpleCache.clear();
+    }
+
+    /**
+     * Return all the current keys in the cache into a local unmodifiable list
+     * @return list with keys
+     */
+    public List<String> keys() {
+        checkClosed();
+        return simpleCache.keys();
+    }
+
+    /**
+     * Return all the current key-value pairs in the cache into a local map
+     * Data is read page by page, see SimpleCache.withResultsPerScan
+     * @return map with data
+     */
+    public Map<String, V> asMap() {
+        checkClosed();
+        return decodeAll(simpleCache.asMap());
+    }
+
+    /**
+     * Close this instance of typed cache, and the SimpleCache if it was created by this one
+     * Does not affect redis data
+     */
+    public void close() {
+        isClosed.set(true);
+        if (ownedSimpleCache) {
+            simpleCache.close();
+        }
+    }
+
+    /**
+     * Check if closed
+     * @return true if closed
+     */
+    public boolean isClosed() {
+        return isClosed.get();
+    }
+
+    /**
+     * If cache is closed, an exception will abort any operation
+     */
+    void checkClosed() {
+        if (isClosed.get()) {
+            throw new IllegalStateException("TypedCache is closed");
+        }
+    }
+
+}
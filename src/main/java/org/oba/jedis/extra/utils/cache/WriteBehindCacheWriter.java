@@ -0,0 +1,296 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A CacheWriter that gives write-behind capabilities to another CacheWriter
+ *
+ * Writes and deletes are queued and returned immediately; a background thread
+ * sends them to the delegate with writeAll and deleteAll, in batches,
+ * when a batch is full or when the flush interval passes
+ * Repeated operations on the same key are coalesced, only the last one is sent
+ *
+ * The queue is bounded, if it's full the callers wait until there is room (backpressure)
+ * On close, all the queued operations are sent before returning
+ *
+ * Errors of the delegate are logged and the failed batch is discarded,
+ * as the caller that made the operation has already returned
+ */
+public final class WriteBehindCacheWriter implements CacheWriter, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindCacheWriter.class);
+
+    private static final AtomicLong num = new AtomicLong();
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1_000L;
+    public static final int DEFAULT_MAX_PENDING = 10_000;
+
+    private final CacheWriter delegate;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int maxPending;
+
+    private final Map<String, WriteOperation> pending = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushNeeded = lock.newCondition();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Thread flushThread;
+    private boolean active = true;
+
+    /**
+     * Creates a write-behind writer with default values
+     * @param delegate CacheWriter that will receive the operations
+     */
+    public WriteBehindCacheWriter(CacheWriter delegate) {
+        this(delegate, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MS, DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * Creates a write-behind writer
+     * @param delegate CacheWriter that will receive the operations
+     * @param batchSize Maximum number of operations sent in one call, a full batch is sent immediately
+     * @param flushIntervalMs Maximum time an operation waits to be sent
+     * @param maxPending Maximum number of queued operations before callers wait
+     */
+    public WriteBehindCacheWriter(CacheWriter delegate, int batchSize, long flushIntervalMs, int maxPending) {
+        if (delegate == null) throw new IllegalArgumentException("WriteBehindCacheWriter delegate is null");
+        if (batchSize <= 0) throw new IllegalArgumentException("WriteBehindCacheWriter batchSize must be more than zero");
+        if (flushIntervalMs <= 0) throw new IllegalArgumentException("WriteBehindCacheWriter flushIntervalMs must be more than zero");
+        if (maxPending < batchSize) throw new IllegalArgumentException("WriteBehindCacheWriter maxPending must be equal or more than batchSize");
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxPending = maxPending;
+        this.flushThread = new Thread(this::flushPeriodically);
+        this.flushThread.setDaemon(true);
+        this.flushThread.setName("WriteBehindCacheWriter_FlushThread_" + num.incrementAndGet());
+        this.flushThread.start();
+    }
+
+    @Override
+    public void write(String key, String value) {
+        if (value == null) throw new IllegalArgumentException("WriteBehindCacheWriter.write value is null");
+        enqueue(key, new WriteOperation(value));
+    }
+
+    @Override
+    public void writeAll(Map<String, String> values) {
+        values.forEach(this::write);
+    }
+
+    @Override
+    public void delete(String key) {
+        enqueue(key, WriteOperation.DELETE);
+    }
+
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        keys.forEach(this::delete);
+    }
+
+    /**
+     * Number of queued operations not sent yet
+     * @return pending operations
+     */
+    public int pendingOperations() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends now all the queued operations to the delegate, in this thread
+     */
+    public void flush() {
+        flushPending();
+    }
+
+    /**
+     * Stops the background thread and sends all the queued operations before returning
+     * Later operations will throw an exception
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!active) {
+                return;
+            }
+            active = false;
+            flushNeeded.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flushThread.join();
+        } catch (InterruptedException e) {
+            LOGGER.debug("interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+        flushPending();
+    }
+
+    /**
+     * Queues an operation, coalescing it with a previous one of the same key
+     * Waits if the queue is full
+     * @param key key of the operation
+     * @param operation operation
+     */
+    private void enqueue(String key, WriteOperation operation) {
+        lock.lock();
+        try {
+            checkActive();
+            while (pending.size() >= maxPending && !pending.containsKey(key)) {
+                notFull.await();
+                checkActive();
+            }
+            pending.put(key, operation);
+            if (pending.size() >= batchSize) {
+                flushNeeded.signal();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting to queue write-behind operation", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkActive() {
+        if (!active) {
+            throw new IllegalStateException("WriteBehindCacheWriter is closed");
+        }
+    }
+
+    /**
+     * Internal method of thread
+     */
+    void flushPeriodically() {
+        boolean running = true;
+        while (running) {
+            lock.lock();
+            try {
+                if (active && pending.size() < batchSize) {
+                    flushNeeded.await(flushIntervalMs, TimeUnit.MILLISECONDS);
+                }
+                running = active;
+            } catch (InterruptedException e) {
+                LOGGER.debug("interrupted", e);
+                running = false;
+            } finally {
+                lock.unlock();
+            }
+            if (running) {
+                flushPending();
+            }
+        }
+    }
+
+    /**
+     * Sends all the queued operations to the delegate, batch by batch
+     * Only one thread sends at a time, so the order of the operations is kept
+     */
+    private void flushPending() {
+        flushLock.lock();
+        try {
+            List<Map.Entry<String, WriteOperation>> batch = nextBatch();
+            while (!batch.isEmpty()) {
+                sendBatch(batch);
+                batch = nextBatch();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Takes the oldest operations from the queue, up to a batch
+     * @return operations, empty if none
+     */
+    private List<Map.Entry<String, WriteOperation>> nextBatch() {
+        lock.lock();
+        try {
+            List<Map.Entry<String, WriteOperation>> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            Iterator<Map.Entry<String, WriteOperation>> iterator = pending.entrySet().iterator();
+            while (batch.size() < batchSize && iterator.hasNext()) {
+                Map.Entry<String, WriteOperation> entry = iterator.next();
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+                iterator.remove();
+            }
+            if (!batch.isEmpty()) {
+                notFull.signalAll();
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends a batch of operations, writes and deletes, to the delegate
+     * @param batch operations, keys are not repeated
+     */
+    private void sendBatch(List<Map.Entry<String, WriteOperation>> batch) {
+        Map<String, String> toWrite = new HashMap<>();
+        List<String> toDelete = new ArrayList<>();
+        for (Map.Entry<String, WriteOperation> entry : batch) {
+            if (entry.getValue().isDelete()) {
+                toDelete.add(entry.getKey());
+            } else {
+                toWrite.put(entry.getKey(), entry.getValue().value);
+            }
+        }
+        try {
+            if (!toWrite.isEmpty()) {
+                LOGGER.debug("write-behind store values {}", toWrite);
+                delegate.writeAll(toWrite);
+            }
+            if (!toDelete.isEmpty()) {
+                LOGGER.debug("write-behind delete keys {}", toDelete);
+                delegate.deleteAll(toDelete);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Error in write-behind batch, operations discarded for keys {} and {}",
+                    toWrite.keySet(), toDelete, e);
+        }
+    }
+
+    /**
+     * A queued operation, a write with its value or a delete
+     */
+    private static final class WriteOperation {
+
+        private static final WriteOperation DELETE = new WriteOperation(null);
+
+        private final String value;
+
+        private WriteOperation(String value) {
+            this.value = value;
+        }
+
+        private boolean isDelete() {
+            return value == null;
+        }
+
+    }
+
+}
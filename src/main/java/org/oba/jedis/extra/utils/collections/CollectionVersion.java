@@ -0,0 +1,68 @@
+package org.oba.jedis.extra.utils.collections;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Transaction;
+
+/**
+ * Version stamp of a jedis collection
+ *
+ * It is a counter in a companion key (the name of the collection with the '~version' suffix)
+ * that the write methods of the collection increment after every change, so a snapshot
+ * can check if it's still current with only one GET call
+ * The counter is never deleted, not even when the collection is cleared, so versions don't go back
+ * Changes made by other redis clients or commands are not tracked
+ */
+final class CollectionVersion {
+
+    static final String VERSION_SUFFIX = "~version";
+
+    private final JedisPool jedisPool;
+    private final String versionName;
+
+    /**
+     * Creates the version of a collection
+     * @param jedisPool Jedis pool connection
+     * @param name Name of the collection on server
+     */
+    CollectionVersion(JedisPool jedisPool, String name) {
+        this.jedisPool = jedisPool;
+        this.versionName = name + VERSION_SUFFIX;
+    }
+
+    /**
+     * Name of the companion key
+     * @return redis name
+     */
+    String getVersionName() {
+        return versionName;
+    }
+
+    /**
+     * Current version on the server
+     * @return version, zero if the collection has never been changed
+     */
+    long current() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            String value = jedis.get(versionName);
+            return value != null ? Long.parseLong(value) : 0L;
+        }
+    }
+
+    /**
+     * Increments the version after a change
+     * @param jedis connection used for the change
+     */
+    void increment(Jedis jedis) {
+        jedis.incr(versionName);
+    }
+
+    /**
+     * Increments the version in the transaction of a change
+     * @param transaction transaction used for the change
+     */
+    void increment(Transaction transaction) {
+        transaction.incr(versionName);
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.oba.jedis.extra.utils.collections;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Read-only open addressing hash table of strings, used by snapshots of maps and sets
+ *
+ * Keys (and values, if any) are stored in two plain arrays with linear probing,
+ * at most half full, so there are no entry or node objects
+ */
+final class CompactStringTable {
+
+    private final String[] keys;
+    private final String[] values;
+    private final int mask;
+    private int size;
+
+    private CompactStringTable(int expectedSize, boolean withValues) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize * 2 - 1)) << 1;
+        this.keys = new String[capacity];
+        this.values = withValues ? new String[capacity] : null;
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Creates a table with keys only
+     * @param keys keys, repeated ones are stored once
+     * @return table
+     */
+    static CompactStringTable ofKeys(Collection<String> keys) {
+        CompactStringTable table = new CompactStringTable(keys.size(), false);
+        for(String key: keys) {
+            table.put(key, null);
+        }
+        return table;
+    }
+
+    /**
+     * Creates a table with keys and values
+     * @param entries entries, the last value of a repeated key is stored
+     * @return table
+     */
+    static CompactStringTable ofEntries(Collection<Map.Entry<String, String>> entries) {
+        CompactStringTable table = new CompactStringTable(entries.size(), true);
+        for(Map.Entry<String, String> entry: entries) {
+            table.put(entry.getKey(), entry.getValue());
+        }
+        return table;
+    }
+
+    private void put(String key, String value) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == null) {
+            keys[slot] = key;
+            size++;
+        }
+        if (values != null) {
+            values[slot] = value;
+        }
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Number of keys
+     * @return size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Number of slots, to iterate with nextSlot
+     * @return capacity
+     */
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Slot of a key
+     * @param key key
+     * @return slot, or -1 if not found
+     */
+    int find(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        int slot = hash(key) & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * First used slot from the given one
+     * @param from first slot to check
+     * @return used slot, or capacity if there are no more
+     */
+    int nextSlot(int from) {
+        int slot = from;
+        while (slot < keys.length && keys[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    String keyAt(int slot) {
+        return keys[slot];
+    }
+
+    String valueAt(int slot) {
+        return values != null ? values[slot] : null;
+    }
+
+}
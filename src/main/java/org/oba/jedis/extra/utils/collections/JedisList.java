@@ -1,6 +1,5 @@
 package org.oba.jedis.extra.utils.collections;
 
-import org.oba.jedis.extra.utils.lock.UniqueTokenValueGenerator;
 import org.oba.jedis.extra.utils.utils.Named;
 import org.oba.jedis.extra.utils.utils.ScriptEvalSha1;
 import org.oba.jedis.extra.utils.utils.UniversalReader;
@@ -10,14 +9,25 @@ import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.Response;
 import redis.clients.jedis.Transaction;
-import redis.clients.jedis.args.ListPosition;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * A Jedis-based implementation of a List interface backed on Redis list on server
@@ -39,6 +49,8 @@ import java.util.concurrent.ThreadLocalRandom;
  *
  * Scripts from stackoverflow for indexof
  * https://stackoverflow.com/questions/8899111/get-the-index-of-an-item-by-value-in-a-redis-list
+ *
+ * It needs redis 6.2 or later (LPOS in indexOf and lastIndexOf, LPOP with count in removeAll and retainAll)
  */
 public final class JedisList implements List<String>, Named {
 
@@ -51,12 +63,39 @@ public final class JedisList implements List<String>, Named {
     public static final String SCRIPT_NAME_LAST_INDEX_OF = "list.lastIndexOf.lua";
     public static final String FILE_PATH_LAST_INDEX_OF = "./src/main/resources/list.lastIndexOf.lua";
 
+    public static final String SCRIPT_NAME_INSERT_ALL = "list.insertAll.lua";
+    public static final String FILE_PATH_INSERT_ALL = "./src/main/resources/list.insertAll.lua";
+
+    public static final String SCRIPT_NAME_FILTER = "list.filter.lua";
+    public static final String FILE_PATH_FILTER = "./src/main/resources/list.filter.lua";
+
+    public static final String SCRIPT_NAME_SET_ALL = "list.setAll.lua";
+    public static final String FILE_PATH_SET_ALL = "./src/main/resources/list.setAll.lua";
+
+    public static final String SCRIPT_NAME_REMOVE_AT = "list.removeAt.lua";
+    public static final String FILE_PATH_REMOVE_AT = "./src/main/resources/list.removeAt.lua";
+
+    public static final String SCRIPT_NAME_CONTAINS_ALL = "list.containsAll.lua";
+    public static final String FILE_PATH_CONTAINS_ALL = "./src/main/resources/list.containsAll.lua";
+
+    public static final int DEFAULT_ITERATOR_WINDOW_SIZE = 100;
+
     private static final String TO_DELETE = "TO_DELETE";
 
+    private static final String FILTER_REMOVE = "remove";
+    private static final String FILTER_KEEP = "keep";
+
     private final JedisPool jedisPool;
     private final String name;
     private final ScriptEvalSha1 scriptIndexOf;
     private final ScriptEvalSha1 scriptLastIndexOf;
+    private final ScriptEvalSha1 scriptInsertAll;
+    private final ScriptEvalSha1 scriptFilter;
+    private final ScriptEvalSha1 scriptSetAll;
+    private final ScriptEvalSha1 scriptContainsAll;
+    private final ScriptEvalSha1 scriptRemoveAt;
+    private final CollectionVersion version;
+    private int iteratorWindowSize = DEFAULT_ITERATOR_WINDOW_SIZE;
 
     /**
      * Creates a new list in jedis with given name, or references an existing one
@@ -69,13 +108,28 @@ public final class JedisList implements List<String>, Named {
     public JedisList(JedisPool jedisPool, String name){
         this.jedisPool = jedisPool;
         this.name = name;
+        this.version = new CollectionVersion(jedisPool, name);
         this.scriptIndexOf = new ScriptEvalSha1(jedisPool, new UniversalReader().
                 withResoruce(SCRIPT_NAME_INDEX_OF).
                 withFile(FILE_PATH_INDEX_OF));
         this.scriptLastIndexOf = new ScriptEvalSha1(jedisPool, new UniversalReader().
                 withResoruce(SCRIPT_NAME_LAST_INDEX_OF).
                 withFile(FILE_PATH_LAST_INDEX_OF));
-
+        this.scriptInsertAll = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_INSERT_ALL).
+                withFile(FILE_PATH_INSERT_ALL));
+        this.scriptFilter = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_FILTER).
+                withFile(FILE_PATH_FILTER));
+        this.scriptSetAll = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_SET_ALL).
+                withFile(FILE_PATH_SET_ALL));
+        this.scriptContainsAll = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_CONTAINS_ALL).
+                withFile(FILE_PATH_CONTAINS_ALL));
+        this.scriptRemoveAt = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_REMOVE_AT).
+                withFile(FILE_PATH_REMOVE_AT));
     }
 
     /**
@@ -91,6 +145,27 @@ public final class JedisList implements List<String>, Named {
         this.addAll(from);
     }
 
+    /**
+     * Sets the number of elements read in one LRANGE call by iterators, spliterators and streams
+     * The next window is read when the current one is consumed, so a bigger window means
+     * fewer calls to the server and more elements in memory
+     * @param iteratorWindowSize elements by window, more than zero
+     * @return this
+     */
+    public JedisList withIteratorWindowSize(int iteratorWindowSize) {
+        if (iteratorWindowSize <= 0) throw new IllegalArgumentException("JedisList.withIteratorWindowSize iteratorWindowSize must be more than zero");
+        this.iteratorWindowSize = iteratorWindowSize;
+        return this;
+    }
+
+    /**
+     * Number of elements read in one call by iterators
+     * @return window size
+     */
+    public int getIteratorWindowSize() {
+        return iteratorWindowSize;
+    }
+
     /**
      * Name of the redis list
      * @return redis name
@@ -119,6 +194,25 @@ public final class JedisList implements List<String>, Named {
         }
     }
 
+    /**
+     * Current version of the list, incremented by every change made with JedisList methods
+     * It's stored in a companion key, the name of the list with the '~version' suffix
+     * @return version, zero if never changed
+     */
+    public long getVersion() {
+        return version.current();
+    }
+
+    /**
+     * Takes a read-only local copy of the list, with its version
+     * Reads are served locally, and the snapshot can be refreshed with one call
+     * if the list has not changed
+     * @return snapshot
+     */
+    public JedisListSnapshot snapshot() {
+        return new JedisListSnapshot(this, version);
+    }
+
     /**
      * Returns a list in java memory with the data of the list on redis
      * It copies the redis data in java process
@@ -178,6 +272,17 @@ public final class JedisList implements List<String>, Named {
         return new JedisListIterator();
     }
 
+    /**
+     * Spliterator that reads the list in windows of elements
+     * It covers the indexes up to the size of the list when it's created, and it's splitted
+     * by index ranges, so every part of a parallel stream reads its own windows with its own connection
+     * @return spliterator
+     */
+    @Override
+    public Spliterator<String> spliterator() {
+        return new JedisListSpliterator(0, size());
+    }
+
     @Override
     public Object[] toArray() {
         return asList().toArray();
@@ -192,6 +297,7 @@ public final class JedisList implements List<String>, Named {
     public boolean add(String s) {
         try (Jedis jedis = jedisPool.getResource()) {
             long result = jedis.rpush(name, s);
+            version.increment(jedis);
             return result > 0;
         }
     }
@@ -200,17 +306,32 @@ public final class JedisList implements List<String>, Named {
     public boolean remove(Object o) {
         try (Jedis jedis = jedisPool.getResource()) {
             long result = jedis.lrem(name, 1L, (String) o);
+            if (result > 0) {
+                version.increment(jedis);
+            }
             return result > 0;
         }
     }
 
+    /**
+     * Checks all the elements in one script call
+     * The list is read once on the server, chunk by chunk, until all the elements are found
+     * @param c elements to check
+     * @return true if all the elements are in the list
+     */
     @Override
     public boolean containsAll(Collection<?> c) {
-        boolean contains = true;
+        if (c.isEmpty()) {
+            return true;
+        }
+        Set<String> elements = new LinkedHashSet<>();
         for(Object o: c) {
-            contains = contains && contains(o);
+            elements.add((String) o);
         }
-        return contains;
+        List<String> args = new ArrayList<>(elements);
+        Object result = scriptContainsAll.evalSha(Collections.singletonList(name), args);
+        LOGGER.debug("containsAll result {}", result);
+        return (Long) result == 1L;
     }
 
     @Override
@@ -218,49 +339,98 @@ public final class JedisList implements List<String>, Named {
         try (Jedis jedis = jedisPool.getResource()) {
             String[] toAdd = c.toArray(new String[0]);
             long result = jedis.rpush(name, toAdd);
+            version.increment(jedis);
             return result > 0;
         }
     }
 
+    /**
+     * Inserts all the elements at the index, in one script call
+     * Only the elements on the shorter side of the index are moved in the server
+     * @param index position of the first inserted element, from zero to the list size
+     * @param c elements to insert
+     * @return true if the list changed
+     * @throws IndexOutOfBoundsException if index is less than zero or more than list size
+     */
     @Override
     public boolean addAll(int index, Collection<? extends String> c) {
-        int pos = 0;
-        for(String s: c){
-            add(index + pos, s);
-            pos++;
+        if (c.isEmpty()) {
+            return false;
+        }
+        List<String> args = new ArrayList<>(c.size() + 1);
+        args.add(Integer.toString(index));
+        args.addAll(c);
+        Object result = scriptInsertAll.evalSha(Arrays.asList(name, version.getVersionName()), args);
+        LOGGER.debug("addAll result {}", result);
+        if ((Long) result < 0) {
+            throw new IndexOutOfBoundsException("Current index out of bounds, value: " + index + " (size 0 is Jedis non existen list)");
         }
         return true;
     }
 
+    /**
+     * Removes all the occurrences of the elements, in one script call
+     * The list is filtered in one pass on the server, chunk by chunk
+     * @param c elements to remove
+     * @return true if the list changed
+     */
     @Override
     public boolean removeAll(Collection<?> c) {
-        boolean changed = false;
+        if (c.isEmpty()) {
+            return false;
+        }
+        List<String> args = new ArrayList<>(c.size() + 1);
+        args.add(FILTER_REMOVE);
         for(Object o: c) {
-            boolean lastValueChanged = remove(o);
-            changed = changed || lastValueChanged;
+            args.add((String) o);
         }
-        return changed;
+        Object result = scriptFilter.evalSha(Arrays.asList(name, version.getVersionName()), args);
+        LOGGER.debug("removeAll result {}", result);
+        return (Long) result > 0;
     }
 
-    //TODO check mock
+    /**
+     * Removes all the elements not contained in the collection, in one script call
+     * The list is filtered in one pass on the server, chunk by chunk
+     * @param c elements to keep
+     * @return true if the list changed
+     */
     @Override
     public boolean retainAll(Collection<?> c) {
-        boolean changed = false;
-        ListIterator<String> iterator = this.listIterator();
-        while(iterator.hasNext()) {
-            String data = iterator.next();
-            if (!c.contains(data)){
-                iterator.remove();
-                changed = true;
-            }
+        Set<String> elements = new HashSet<>();
+        for(Object o: c) {
+            elements.add((String) o);
         }
-        return changed;
+        List<String> args = new ArrayList<>(elements.size() + 1);
+        args.add(FILTER_KEEP);
+        args.addAll(elements);
+        Object result = scriptFilter.evalSha(Arrays.asList(name, version.getVersionName()), args);
+        LOGGER.debug("retainAll result {}", result);
+        return (Long) result > 0;
+    }
+
+    /**
+     * Removes all the elements that satisfy the filter
+     * The list is read in windows to test the elements, and then all the occurrences
+     * of the matching ones are removed in one script call (as removeAll)
+     * so the filter must depend only on the value of the element
+     * @param filter predicate of the elements to remove
+     * @return true if the list changed
+     */
+    @Override
+    public boolean removeIf(Predicate<? super String> filter) {
+        Objects.requireNonNull(filter);
+        Set<String> toRemove = stream().
+                filter(filter).
+                collect(Collectors.toSet());
+        return removeAll(toRemove);
     }
 
     @Override
     public void clear() {
         try (Jedis jedis = jedisPool.getResource()) {
             jedis.del(name);
+            version.increment(jedis);
         }
     }
 
@@ -278,34 +448,72 @@ public final class JedisList implements List<String>, Named {
             Transaction tjedis = jedis.multi();
             Response<String> futureReplaced = tjedis.lindex(name, index);
             tjedis.lset(name, index, element);
+            version.increment(tjedis);
             tjedis.exec();
             return futureReplaced.get();
         }
     }
 
+    /**
+     * Sets the elements at the given indexes, in one script call
+     * All the indexes are checked before any element is changed
+     * @param elements map of index and new element
+     * @return map of index and previous element
+     * @throws IndexOutOfBoundsException if any index is less than zero or more_or_equal to list size,
+     *      and then no element is changed
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Integer, String> setAll(Map<Integer, String> elements) {
+        if (elements.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Integer> indexes = new ArrayList<>(elements.keySet());
+        List<String> args = new ArrayList<>(elements.size() * 2);
+        for(Integer index: indexes) {
+            args.add(index.toString());
+            args.add(elements.get(index));
+        }
+        Object result = scriptSetAll.evalSha(Arrays.asList(name, version.getVersionName()), args);
+        if (result instanceof Long) {
+            throw new IndexOutOfBoundsException("Current index out of bounds, value: " + result + " (size 0 is Jedis non existen list)");
+        }
+        List<String> previous = (List<String>) result;
+        Map<Integer, String> replaced = new HashMap<>();
+        for(int i = 0; i < indexes.size(); i++) {
+            replaced.put(indexes.get(i), previous.get(i));
+        }
+        return replaced;
+    }
+
     @Override
     public void add(int index, String element) {
-        try (Jedis jedis = jedisPool.getResource()) {
-            String pivot = get(index);
-            jedis.linsert(name, ListPosition.BEFORE, pivot, element);
-        }
+        addAll(index, Collections.singletonList(element));
     }
 
+    /**
+     * Removes the element at the index, in one script call
+     * Only the elements on the shorter side of the index are moved in the server
+     * @param index position of the element
+     * @return removed element
+     * @throws IndexOutOfBoundsException if index is less than zero or more_or_equal to list size
+     */
     @Override
     public String remove(int index) {
-        try (Jedis jedis = jedisPool.getResource()) {
-            /* https://stackoverflow.com/questions/31580535/remove-element-at-specific-index-from-redis-list */
-            checkIndex(index);
-            String toDeleteTempName = UniqueTokenValueGenerator.generateUniqueTokenValue(name);
-            Transaction jedisMulti = jedis.multi();
-            Response<String> futureDeleted = jedisMulti.lindex(name, index);
-            jedisMulti.lset(name, index, toDeleteTempName);
-            jedisMulti.lrem(name, 1, toDeleteTempName);
-            jedisMulti.exec();
-            return futureDeleted.get();
+        Object result = scriptRemoveAt.evalSha(Arrays.asList(name, version.getVersionName()),
+                Collections.singletonList(Integer.toString(index)));
+        LOGGER.debug("remove result {}", result);
+        if (result instanceof Long) {
+            throw new IndexOutOfBoundsException("Current index out of bounds, value: " + index + " (size 0 is Jedis non existen list)");
         }
+        return (String) result;
     }
 
+    /**
+     * Index of the first occurrence of the element, in one script call
+     * It uses LPOS on the server
+     * @param o element
+     * @return index or -1 if not found
+     */
     @Override
     public int indexOf(Object o) {
         String element = (String) o;
@@ -314,6 +522,12 @@ public final class JedisList implements List<String>, Named {
         return ((Long) result).intValue();
     }
 
+    /**
+     * Index of the last occurrence of the element, in one script call
+     * It uses LPOS with RANK -1 on the server
+     * @param o element
+     * @return index or -1 if not found
+     */
     @Override
     public int lastIndexOf(Object o) {
         String element = (String) o;
@@ -346,13 +560,30 @@ public final class JedisList implements List<String>, Named {
     }
 
 
+    /**
+     * Reads a range of the list
+     * @param fromIndex first index
+     * @param toIndex last index, included
+     * @return elements, less than expected (or none) if the list is shorter
+     */
+    private List<String> readRange(int fromIndex, int toIndex) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.lrange(name, fromIndex, toIndex);
+        }
+    }
+
     /**
      * Implementation of ListIterator and Iterator for JedisList
+     * Elements are read from the server in windows; the window is discarded when the
+     * list is changed by the iterator
      */
     private class JedisListIterator implements ListIterator<String> {
 
         private int currentIndex = 0;
         private int lastReturned = -1;
+        private List<String> window = Collections.emptyList();
+        private int windowStart = 0;
+        private boolean windowAtEnd = false;
 
         /**
          * Set an initial index to the iterator
@@ -366,16 +597,39 @@ public final class JedisList implements List<String>, Named {
             return this;
         }
 
+        private boolean inWindow(int index) {
+            return index >= windowStart && index < windowStart + window.size();
+        }
+
+        private void loadWindow(int fromIndex) {
+            windowStart = Math.max(0, fromIndex);
+            window = readRange(windowStart, windowStart + iteratorWindowSize - 1);
+            // a window shorter than the size reaches the end of the list
+            windowAtEnd = window.size() < iteratorWindowSize;
+        }
+
+        private void discardWindow() {
+            window = Collections.emptyList();
+            windowStart = 0;
+            windowAtEnd = false;
+        }
+
         @Override
         public boolean hasNext() {
-            return currentIndex < size();
+            if (windowAtEnd && currentIndex >= windowStart + window.size()) {
+                return false;
+            }
+            if (!inWindow(currentIndex)) {
+                loadWindow(currentIndex);
+            }
+            return inWindow(currentIndex);
         }
 
         @Override
         public String next() {
             String value = null;
             if (hasNext()) {
-                value = get(currentIndex);
+                value = window.get(currentIndex - windowStart);
                 lastReturned = currentIndex;
                 currentIndex++;
             }
@@ -392,7 +646,10 @@ public final class JedisList implements List<String>, Named {
             if (hasPrevious()) {
                 currentIndex--;
                 lastReturned = currentIndex;
-                return get(currentIndex);
+                if (!inWindow(currentIndex)) {
+                    loadWindow(currentIndex - iteratorWindowSize + 1);
+                }
+                return inWindow(currentIndex) ? window.get(currentIndex - windowStart) : get(currentIndex);
             } else {
                 return null;
             }
@@ -410,6 +667,7 @@ public final class JedisList implements List<String>, Named {
 
         @Override
         public void remove() {
+            discardWindow();
             JedisList.this.remove(lastReturned);
             int currentSize = size();
             if (currentSize == 0) {
@@ -423,14 +681,89 @@ public final class JedisList implements List<String>, Named {
 
         @Override
         public void set(String s) {
+            discardWindow();
             JedisList.this.set(lastReturned, s);
         }
 
         @Override
         public void add(String s) {
+            discardWindow();
             JedisList.this.add(currentIndex, s);
         }
 
     }
 
+    /**
+     * Spliterator for JedisList over a range of indexes
+     * Elements are read in windows, and the range is splitted in halves while it's
+     * bigger than a window
+     * If the list is shortened on the server, the spliterator ends when there are no more elements
+     */
+    private class JedisListSpliterator implements Spliterator<String> {
+
+        private int currentIndex;
+        private final int endIndex;
+        private List<String> window;
+        private int windowStart;
+
+        /**
+         * Creates a spliterator
+         * @param fromIndex first index
+         * @param endIndex last index, excluded
+         */
+        private JedisListSpliterator(int fromIndex, int endIndex) {
+            this(fromIndex, endIndex, Collections.emptyList(), fromIndex);
+        }
+
+        private JedisListSpliterator(int fromIndex, int endIndex, List<String> window, int windowStart) {
+            this.currentIndex = fromIndex;
+            this.endIndex = endIndex;
+            this.window = window;
+            this.windowStart = windowStart;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if (currentIndex >= endIndex) {
+                return false;
+            }
+            if (currentIndex >= windowStart + window.size()) {
+                windowStart = currentIndex;
+                window = readRange(currentIndex, Math.min(endIndex, currentIndex + iteratorWindowSize) - 1);
+                if (window.isEmpty()) {
+                    currentIndex = endIndex;
+                    return false;
+                }
+            }
+            action.accept(window.get(currentIndex - windowStart));
+            currentIndex++;
+            return true;
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            int remaining = endIndex - currentIndex;
+            if (remaining <= iteratorWindowSize) {
+                return null;
+            }
+            int middleIndex = currentIndex + remaining / 2;
+            JedisListSpliterator prefix = new JedisListSpliterator(currentIndex, middleIndex, window, windowStart);
+            currentIndex = middleIndex;
+            window = Collections.emptyList();
+            windowStart = middleIndex;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Math.max(0, endIndex - currentIndex);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+
+    }
+
 }
@@ -0,0 +1,66 @@
+package org.oba.jedis.extra.utils.collections;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only local copy of a JedisList, stored in an array
+ *
+ * It's created with the version of the list, and all reads are served locally;
+ * refresh checks the version with one call to the server and reads the list again
+ * only if it has changed
+ * A snapshot never changes, refresh returns a new one if needed
+ */
+public final class JedisListSnapshot extends AbstractList<String> implements RandomAccess {
+
+    private final JedisList jedisList;
+    private final long version;
+    private final String[] elements;
+
+    /**
+     * Reads the list, the version is read before the elements
+     * so any change made after that makes the snapshot outdated
+     * @param jedisList list
+     * @param version version of the list
+     */
+    JedisListSnapshot(JedisList jedisList, CollectionVersion version) {
+        this.jedisList = jedisList;
+        this.version = version.current();
+        this.elements = jedisList.asList().toArray(new String[0]);
+    }
+
+    /**
+     * Version of the list when the snapshot was taken
+     * @return version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks if the list has not changed since the snapshot was taken, with one call to the server
+     * @return true if the snapshot is current
+     */
+    public boolean isCurrent() {
+        return jedisList.getVersion() == version;
+    }
+
+    /**
+     * Returns a current snapshot
+     * @return this if the list has not changed, a new snapshot otherwise
+     */
+    public JedisListSnapshot refresh() {
+        return isCurrent() ? this : jedisList.snapshot();
+    }
+
+    @Override
+    public String get(int index) {
+        return elements[index];
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+}
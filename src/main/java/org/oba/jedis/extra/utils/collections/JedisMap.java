@@ -2,22 +2,54 @@ package org.oba.jedis.extra.utils.collections;
 
 import org.oba.jedis.extra.utils.iterators.HScanIterator;
 import org.oba.jedis.extra.utils.utils.Named;
+import org.oba.jedis.extra.utils.utils.ScriptEvalSha1;
+import org.oba.jedis.extra.utils.utils.UniversalReader;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.Response;
 import redis.clients.jedis.Transaction;
 
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class JedisMap implements Map<String, String>, Named {
 
+    /**
+     * Maximum number of fields sent in one HSET or HMGET command
+     */
+    public static final int CHUNK_SIZE = 1000;
+
+    public static final String SCRIPT_NAME_CONTAINS_VALUE = "map.containsValue.lua";
+    public static final String FILE_PATH_CONTAINS_VALUE = "./src/main/resources/map.containsValue.lua";
+
+    public static final String SCRIPT_NAME_PUT_IF_ABSENT = "map.putIfAbsent.lua";
+    public static final String FILE_PATH_PUT_IF_ABSENT = "./src/main/resources/map.putIfAbsent.lua";
+
+    public static final String SCRIPT_NAME_COMPARE_AND_SET = "map.compareAndSet.lua";
+    public static final String FILE_PATH_COMPARE_AND_SET = "./src/main/resources/map.compareAndSet.lua";
+
     private final JedisPool jedisPool;
     private final String name;
+    private final CollectionVersion version;
+    private final ScriptEvalSha1 scriptContainsValue;
+    private final ScriptEvalSha1 scriptPutIfAbsent;
+    private final ScriptEvalSha1 scriptCompareAndSet;
 
     /**
      * Creates a new list in jedis with given name, or references an existing one
@@ -30,6 +62,16 @@ public class JedisMap implements Map<String, String>, Named {
     public JedisMap(JedisPool jedisPool, String name){
         this.jedisPool = jedisPool;
         this.name = name;
+        this.version = new CollectionVersion(jedisPool, name);
+        this.scriptContainsValue = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_CONTAINS_VALUE).
+                withFile(FILE_PATH_CONTAINS_VALUE));
+        this.scriptPutIfAbsent = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_PUT_IF_ABSENT).
+                withFile(FILE_PATH_PUT_IF_ABSENT));
+        this.scriptCompareAndSet = new ScriptEvalSha1(jedisPool, new UniversalReader().
+                withResoruce(SCRIPT_NAME_COMPARE_AND_SET).
+                withFile(FILE_PATH_COMPARE_AND_SET));
     }
 
     /**
@@ -75,6 +117,25 @@ public class JedisMap implements Map<String, String>, Named {
     }
 
 
+    /**
+     * Current version of the map, incremented by every change made with JedisMap methods
+     * It's stored in a companion key, the name of the map with the '~version' suffix
+     * @return version, zero if never changed
+     */
+    public long getVersion() {
+        return version.current();
+    }
+
+    /**
+     * Takes a read-only local copy of the map, with its version
+     * Reads are served locally, and the snapshot can be refreshed with one call
+     * if the map has not changed
+     * @return snapshot
+     */
+    public JedisMapSnapshot snapshot() {
+        return new JedisMapSnapshot(this, version);
+    }
+
     /**
      * Returns a map in java memory with the data of the map on redis
      * It copies the redis data in java process
@@ -110,10 +171,16 @@ public class JedisMap implements Map<String, String>, Named {
         }
     }
 
+    /**
+     * Checks the value in one script call
+     * The hash is scanned on the server by chunks, until the value is found
+     * @param value value
+     * @return true if any key has the value
+     */
     @Override
     public boolean containsValue(Object value) {
-        // Could be lua optimized ?
-        return values().contains(value);
+        Object result = scriptContainsValue.evalSha(Collections.singletonList(name), Collections.singletonList((String) value));
+        return (Long) result == 1L;
     }
 
     @Override
@@ -129,6 +196,7 @@ public class JedisMap implements Map<String, String>, Named {
             Transaction t = jedis.multi();
             Response<String> previous = t.hget(name, key);
             t.hset(name, key, value);
+            version.increment(t);
             t.exec();
             return previous.get();
         }
@@ -141,70 +209,429 @@ public class JedisMap implements Map<String, String>, Named {
             Transaction t = jedis.multi();
             Response<String> previous = t.hget(name, (String) key);
             t.hdel(name, (String) key);
+            version.increment(t);
             t.exec();
             return previous.get();
         }
     }
 
+    /**
+     * Puts all the entries with multi-field HSET commands of CHUNK_SIZE fields at most,
+     * so a big map doesn't block the server in one command
+     * The chunks are not written atomically
+     * @param m entries to put
+     */
     @Override
     public void putAll(Map<? extends String, ? extends String> m) {
-        // Quick dirty way
-//        for(Entry<? extends String, ? extends String> data : m.entrySet()){
-//            put(data.getKey(), data.getValue());
-//        }
-        // better way
+        if (m.isEmpty()) {
+            return;
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            try {
+                Map<String, String> chunk = new HashMap<>();
+                for(Entry<? extends String, ? extends String> entry : m.entrySet()){
+                    chunk.put(entry.getKey(), entry.getValue());
+                    if (chunk.size() == CHUNK_SIZE) {
+                        jedis.hset(name, chunk);
+                        chunk = new HashMap<>();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    jedis.hset(name, chunk);
+                }
+            } finally {
+                version.increment(jedis);
+            }
+        }
+    }
+
+    /**
+     * Puts the value without reading the previous one
+     * @param key key
+     * @param value value
+     * @return true if the key is new, false if its value was replaced
+     */
+    public boolean fastPut(String key, String value) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            Transaction t = jedis.multi();
+            Response<Long> added = t.hset(name, key, value);
+            version.increment(t);
+            t.exec();
+            return added.get() == 1L;
+        }
+    }
+
+    /**
+     * Removes the keys without reading the previous values
+     * @param keys keys to remove
+     * @return number of removed keys
+     */
+    public long fastRemove(String... keys) {
+        if (keys.length == 0) {
+            return 0L;
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            Transaction t = jedis.multi();
+            Response<Long> removed = t.hdel(name, keys);
+            version.increment(t);
+            t.exec();
+            return removed.get();
+        }
+    }
+
+    /**
+     * Gets the values of the keys with HMGET commands of CHUNK_SIZE fields at most
+     * @param keys keys to get
+     * @return map with the keys that have a value, and their values
+     */
+    public Map<String, String> getAll(Collection<String> keys) {
+        Map<String, String> result = new HashMap<>();
+        if (keys.isEmpty()) {
+            return result;
+        }
+        List<String> fields = new ArrayList<>(keys);
+        try (Jedis jedis = jedisPool.getResource()) {
+            for(int from = 0; from < fields.size(); from += CHUNK_SIZE) {
+                List<String> chunk = fields.subList(from, Math.min(fields.size(), from + CHUNK_SIZE));
+                List<String> values = jedis.hmget(name, chunk.toArray(new String[0]));
+                for(int i = 0; i < chunk.size(); i++) {
+                    if (values.get(i) != null) {
+                        result.put(chunk.get(i), values.get(i));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the increment to the numeric value of the key, atomically on the server
+     * A missing key counts as zero
+     * @param key key
+     * @param increment value to add, can be negative
+     * @return new value
+     */
+    public long incrementBy(String key, long increment) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            Transaction t = jedis.multi();
+            Response<Long> result = t.hincrBy(name, key, increment);
+            version.increment(t);
+            t.exec();
+            return result.get();
+        }
+    }
+
+    /**
+     * Adds the increment to the decimal value of the key, atomically on the server
+     * A missing key counts as zero
+     * @param key key
+     * @param increment value to add, can be negative
+     * @return new value
+     */
+    public double incrementByFloat(String key, double increment) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            Transaction t = jedis.multi();
+            Response<Double> result = t.hincrByFloat(name, key, increment);
+            version.increment(t);
+            t.exec();
+            return result.get();
+        }
+    }
+
+    /**
+     * Adds the increments to the numeric values of the keys, in one transaction
+     * @param increments keys and values to add
+     * @return keys and new values
+     */
+    public Map<String, Long> incrementAll(Map<String, Long> increments) {
+        Map<String, Long> result = new HashMap<>();
+        if (increments.isEmpty()) {
+            return result;
+        }
         try (Jedis jedis = jedisPool.getResource()) {
-            final Transaction t = jedis.multi();
-            for(Entry<? extends String, ? extends String> entry : m.entrySet()){
-                t.hset(name, entry.getKey(), entry.getValue());
+            Transaction t = jedis.multi();
+            Map<String, Response<Long>> responses = new HashMap<>();
+            for(Entry<String, Long> entry: increments.entrySet()) {
+                responses.put(entry.getKey(), t.hincrBy(name, entry.getKey(), entry.getValue()));
             }
-//            m.entrySet().
-//                    forEach( entry ->
-//                            t.hset(name, entry.getKey(), entry.getValue())
-//                    );
+            version.increment(t);
             t.exec();
+            responses.forEach((key, response) -> result.put(key, response.get()));
+        }
+        return result;
+    }
+
+    /**
+     * Puts the value if the key is missing, in one script call
+     * @param key key
+     * @param value value
+     * @return current value if the key exists (and the map is not changed), null if the value has been put
+     */
+    @Override
+    public String putIfAbsent(String key, String value) {
+        Object result = scriptPutIfAbsent.evalSha(Arrays.asList(name, version.getVersionName()), Arrays.asList(key, value));
+        return (String) result;
+    }
+
+    /**
+     * Computes and puts the value if the key is missing
+     * The function is called in this process when the key is missing, and the value is put
+     * only if the key is still missing (with putIfAbsent); if not, the current value is returned
+     * @param key key
+     * @param mappingFunction function to compute the value, null to put nothing
+     * @return current or computed value
+     */
+    @Override
+    public String computeIfAbsent(String key, Function<? super String, ? extends String> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        String current = get(key);
+        if (current != null) {
+            return current;
         }
+        String value = mappingFunction.apply(key);
+        if (value == null) {
+            return null;
+        }
+        String previous = putIfAbsent(key, value);
+        return previous != null ? previous : value;
+    }
+
+    /**
+     * Merges the value with the current one
+     * The function is called in this process, and the result is set only if the current value
+     * has not changed meanwhile (with compareAndSet); if it has changed, it's tried again
+     * For numeric values, incrementBy does the same on the server in one call
+     * @param key key
+     * @param value value to put if missing, or to merge with the current one
+     * @param remappingFunction function to merge the current and given values, null result removes the key
+     * @return new value, or null if removed
+     */
+    @Override
+    public String merge(String key, String value, BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        while (true) {
+            String current = get(key);
+            String merged = current == null ? value : remappingFunction.apply(current, value);
+            if (compareAndSet(key, current, merged)) {
+                return merged;
+            }
+        }
+    }
+
+    @Override
+    public boolean replace(String key, String oldValue, String newValue) {
+        Objects.requireNonNull(newValue);
+        return oldValue != null && compareAndSet(key, oldValue, newValue);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        return value != null && compareAndSet((String) key, (String) value, null);
+    }
+
+    /**
+     * Changes the value of the key if it has the expected value, in one script call
+     * @param key key
+     * @param expected expected value, null if the key must be missing
+     * @param newValue new value, null to remove the key
+     * @return true if changed, false if the key has not the expected value
+     */
+    public boolean compareAndSet(String key, String expected, String newValue) {
+        List<String> args = Arrays.asList(key,
+                expected != null ? "1" : "0", expected != null ? expected : "",
+                newValue != null ? "1" : "0", newValue != null ? newValue : "");
+        Object result = scriptCompareAndSet.evalSha(Arrays.asList(name, version.getVersionName()), args);
+        return (Long) result == 1L;
     }
 
     @Override
     public void clear() {
         try (Jedis jedis = jedisPool.getResource()) {
             jedis.del(name);
+            version.increment(jedis);
         }
     }
 
+    /**
+     * View of the keys, backed by the map
+     * Its iterator reads the map with HSCAN, so no copy of the map is made,
+     * and skips the keys that HSCAN returns more than once (only the returned keys are kept)
+     * @return keys
+     */
     @Override
     public Set<String> keySet() {
-        // I was thinking in using hkeys,
-        // but I don't want to block the main thread
-        Set<Entry<String, String>> keyValues = doHscan();
-        return keyValues.stream().
-                map(Entry::getKey).
-                collect(Collectors.toSet());
+        return new KeySetView();
     }
 
+    /**
+     * View of the values, backed by the map
+     * Its iterator reads the map with HSCAN, so no copy of the values is made,
+     * and skips the entries that HSCAN returns more than once
+     * @return values
+     */
     @Override
     public Collection<String> values() {
-        // I was thinking in using hvals,
-        // but I don't want to block the main thread
-        Set<Entry<String, String>> keyValues = doHscan();
-        return keyValues.stream().
-                map(Entry::getValue).
-                collect(Collectors.toList());
+        return new ValuesView();
     }
 
+    /**
+     * View of the entries, backed by the map
+     * Its iterator reads the map with HSCAN, so no copy of the entries is made,
+     * and skips the entries that HSCAN returns more than once (only the returned keys are kept)
+     * @return entries
+     */
     @Override
     public Set<Entry<String, String>> entrySet() {
-        return doHscan();
+        return new EntrySetView();
+    }
+
+    /**
+     * Iterator with HSCAN that removes with the map methods
+     * HSCAN can return a field more than once, so the returned keys are kept
+     * and the repeated ones are skipped; every key is returned once, as in a set
+     * @param <T> type of the returned elements
+     */
+    private class JedisMapIterator<T> implements Iterator<T> {
+
+        private final HScanIterator hScanIterator = new HScanIterator(jedisPool, name);
+        private final Function<Entry<String, String>, T> mapper;
+        private final Set<String> returnedKeys = new HashSet<>();
+        private Entry<String, String> nextEntry;
+        private String lastKey;
+
+        private JedisMapIterator(Function<Entry<String, String>, T> mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextEntry == null && hScanIterator.hasNext()) {
+                Entry<String, String> entry = hScanIterator.next();
+                if (returnedKeys.add(entry.getKey())) {
+                    nextEntry = entry;
+                }
+            }
+            return nextEntry != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, String> entry = nextEntry;
+            nextEntry = null;
+            lastKey = entry.getKey();
+            return mapper.apply(entry);
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException("Next not called or other error");
+            }
+            fastRemove(lastKey);
+            lastKey = null;
+        }
+
+    }
+
+    private class KeySetView extends AbstractSet<String> {
+
+        @Override
+        public Iterator<String> iterator() {
+            return new JedisMapIterator<>(Entry::getKey);
+        }
+
+        @Override
+        public Spliterator<String> spliterator() {
+            return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.NONNULL);
+        }
+
+        @Override
+        public int size() {
+            return JedisMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return fastRemove((String) o) > 0;
+        }
+
+        @Override
+        public void clear() {
+            JedisMap.this.clear();
+        }
+
+    }
+
+    private class ValuesView extends AbstractCollection<String> {
+
+        @Override
+        public Iterator<String> iterator() {
+            return new JedisMapIterator<>(Entry::getValue);
+        }
+
+        @Override
+        public Spliterator<String> spliterator() {
+            return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.NONNULL);
+        }
+
+        @Override
+        public int size() {
+            return JedisMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public void clear() {
+            JedisMap.this.clear();
+        }
+
     }
 
-    private Set<Entry<String, String>> doHscan() {
-        Set<Entry<String, String>> keyValues = new HashSet<>();
-        HScanIterator hScanIterator = new HScanIterator(jedisPool, name);
-        while (hScanIterator.hasNext()){
-            keyValues.add(hScanIterator.next());
+    private class EntrySetView extends AbstractSet<Entry<String, String>> {
+
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new JedisMapIterator<>(Function.identity());
         }
-        return keyValues;
+
+        @Override
+        public Spliterator<Entry<String, String>> spliterator() {
+            return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.NONNULL);
+        }
+
+        @Override
+        public int size() {
+            return JedisMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            Object value = entry.getValue();
+            return value != null && value.equals(get(entry.getKey()));
+        }
+
+        @Override
+        public void clear() {
+            JedisMap.this.clear();
+        }
+
     }
 
 }
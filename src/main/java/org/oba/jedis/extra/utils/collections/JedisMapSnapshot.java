@@ -0,0 +1,115 @@
+package org.oba.jedis.extra.utils.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only local copy of a JedisMap, stored in an open addressing table
+ *
+ * It's created with the version of the map, and all reads are served locally;
+ * refresh checks the version with one call to the server and reads the map again
+ * only if it has changed
+ * A snapshot never changes, refresh returns a new one if needed
+ */
+public final class JedisMapSnapshot extends AbstractMap<String, String> {
+
+    private final JedisMap jedisMap;
+    private final long version;
+    private final CompactStringTable table;
+
+    /**
+     * Reads the map, the version is read before the entries
+     * so any change made after that makes the snapshot outdated
+     * @param jedisMap map
+     * @param version version of the map
+     */
+    JedisMapSnapshot(JedisMap jedisMap, CollectionVersion version) {
+        this.jedisMap = jedisMap;
+        this.version = version.current();
+        List<Entry<String, String>> entries = new ArrayList<>();
+        jedisMap.entrySet().forEach(entries::add);
+        this.table = CompactStringTable.ofEntries(entries);
+    }
+
+    /**
+     * Version of the map when the snapshot was taken
+     * @return version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks if the map has not changed since the snapshot was taken, with one call to the server
+     * @return true if the snapshot is current
+     */
+    public boolean isCurrent() {
+        return jedisMap.getVersion() == version;
+    }
+
+    /**
+     * Returns a current snapshot
+     * @return this if the map has not changed, a new snapshot otherwise
+     */
+    public JedisMapSnapshot refresh() {
+        return isCurrent() ? this : jedisMap.snapshot();
+    }
+
+    @Override
+    public String get(Object key) {
+        int slot = table.find(key);
+        return slot >= 0 ? table.valueAt(slot) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return table.find(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<Entry<String, String>>() {
+
+                    private int slot = table.nextSlot(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return slot < table.capacity();
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, String> entry = new SimpleImmutableEntry<>(table.keyAt(slot), table.valueAt(slot));
+                        slot = table.nextSlot(slot + 1);
+                        return entry;
+                    }
+
+                };
+            }
+
+            @Override
+            public int size() {
+                return table.size();
+            }
+
+        };
+    }
+
+}
@@ -4,21 +4,33 @@ import org.oba.jedis.extra.utils.iterators.SScanIterator;
 import org.oba.jedis.extra.utils.utils.Named;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.Transaction;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
+import static org.oba.jedis.extra.utils.lock.UniqueTokenValueGenerator.generateUniqueTokenValue;
+
 public class JedisSet implements Set<String>, Named {
 
+    /**
+     * Maximum number of values sent in one multi-member command
+     */
+    static final int CHUNK_SIZE = 1000;
+
     private final JedisPool jedisPool;
     private final String name;
+    private final CollectionVersion version;
 
     public JedisSet(JedisPool jedisPool, String name){
         this.jedisPool = jedisPool;
         this.name = name;
+        this.version = new CollectionVersion(jedisPool, name);
     }
 
     /**
@@ -50,6 +62,25 @@ public class JedisSet implements Set<String>, Named {
         }
     }
 
+    /**
+     * Current version of the set, incremented by every change made with JedisSet methods
+     * It's stored in a companion key, the name of the set with the '~version' suffix
+     * @return version, zero if never changed
+     */
+    public long getVersion() {
+        return version.current();
+    }
+
+    /**
+     * Takes a read-only local copy of the set, with its version
+     * Reads are served locally, and the snapshot can be refreshed with one call
+     * if the set has not changed
+     * @return snapshot
+     */
+    public JedisSetSnapshot snapshot() {
+        return new JedisSetSnapshot(this, version);
+    }
+
     /**
      * Returns a set in java memory with the data of the set on redis
      * It copies the redis data in java process
@@ -82,7 +113,7 @@ public class JedisSet implements Set<String>, Named {
 
     @Override
     public Iterator<String> iterator() {
-        return new SScanIterator(jedisPool, name);
+        return new JedisSetIterator();
     }
 
     @Override
@@ -99,6 +130,9 @@ public class JedisSet implements Set<String>, Named {
     public boolean add(String value) {
         try (Jedis jedis = jedisPool.getResource()) {
             long result = jedis.sadd(name, value);
+            if (result != 0L) {
+                version.increment(jedis);
+            }
             return result != 0L;
         }
     }
@@ -107,19 +141,35 @@ public class JedisSet implements Set<String>, Named {
     public boolean remove(Object o) {
         try (Jedis jedis = jedisPool.getResource()) {
             long result = jedis.srem(name, (String) o);
+            if (result != 0L) {
+                version.increment(jedis);
+            }
             return result != 0L;
         }
     }
 
+    /**
+     * Checks the values with SMISMEMBER, in chunks, and stops at the first chunk with a missing value
+     * @param c values to check
+     * @return true if all the values are in the set
+     */
     @Override
     public boolean containsAll(Collection<?> c) {
+        for(Object o: c) {
+            if (!(o instanceof String)) {
+                return false;
+            }
+        }
+        List<String> values = toStringList(c);
         try (Jedis jedis = jedisPool.getResource()) {
-            boolean result = true;
-            Iterator<?> it = c.iterator();
-            while (result && it.hasNext()){
-                result = jedis.sismember(name, (String) it.next());
+            for(int from = 0; from < values.size(); from += CHUNK_SIZE) {
+                List<String> chunk = values.subList(from, Math.min(from + CHUNK_SIZE, values.size()));
+                List<Boolean> result = jedis.smismember(name, chunk.toArray(new String[0]));
+                if (result.contains(Boolean.FALSE)) {
+                    return false;
+                }
             }
-            return result;
+            return true;
         }
     }
 
@@ -133,21 +183,38 @@ public class JedisSet implements Set<String>, Named {
             String[] arrayValues = values.toArray(new String[0]);
             try (Jedis jedis = jedisPool.getResource()) {
                 long result = jedis.sadd(name, arrayValues);
+                if (result != 0L) {
+                    version.increment(jedis);
+                }
                 return result != 0L;
             }
         }
     }
 
+    /**
+     * Retains the values on the server
+     * The values are written in a temporary key, and the set is intersected with it
+     * with SINTERSTORE, all in one transaction; so the set is not read by this process
+     * @param c values to retain
+     * @return true if the set has changed
+     */
     @Override
     public boolean retainAll(Collection<?> c) {
+        List<String> values = toStringList(c);
+        String tempName = generateUniqueTokenValue(name + "~retain");
         try (Jedis jedis = jedisPool.getResource()) {
-            Set<String> retained = new HashSet<>(doSscan());
-            boolean result = retained.retainAll(c);
+            Transaction t = jedis.multi();
+            for(int from = 0; from < values.size(); from += CHUNK_SIZE) {
+                List<String> chunk = values.subList(from, Math.min(from + CHUNK_SIZE, values.size()));
+                t.sadd(tempName, chunk.toArray(new String[0]));
+            }
+            Response<Long> before = t.scard(name);
+            Response<Long> after = t.sinterstore(name, name, tempName);
+            t.del(tempName);
+            t.exec();
+            boolean result = !before.get().equals(after.get());
             if (result) {
-                Transaction t = jedis.multi();
-                t.del(name);
-                retained.forEach( s -> t.sadd(name, s));
-                t.exec();
+                version.increment(jedis);
             }
             return result;
         }
@@ -158,6 +225,9 @@ public class JedisSet implements Set<String>, Named {
         try (Jedis jedis = jedisPool.getResource()) {
             String[] a = c.toArray(new String[0]);
             long result = jedis.srem(name, a);
+            if (result != 0L) {
+                version.increment(jedis);
+            }
             return result != 0L;
         }
     }
@@ -166,9 +236,136 @@ public class JedisSet implements Set<String>, Named {
     public void clear() {
         try (Jedis jedis = jedisPool.getResource()) {
             jedis.del(name);
+            version.increment(jedis);
+        }
+    }
+
+    /**
+     * Union of this set and the others, computed on the server
+     * All the sets must be on the same redis server
+     * @param others other sets
+     * @return values that are in any of the sets
+     */
+    public Set<String> union(JedisSet... others) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.sunion(names(others));
+        }
+    }
+
+    /**
+     * Intersection of this set and the others, computed on the server
+     * All the sets must be on the same redis server
+     * @param others other sets
+     * @return values that are in all the sets
+     */
+    public Set<String> intersect(JedisSet... others) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.sinter(names(others));
+        }
+    }
+
+    /**
+     * Difference of this set and the others, computed on the server
+     * All the sets must be on the same redis server
+     * @param others other sets
+     * @return values of this set that are in none of the others
+     */
+    public Set<String> difference(JedisSet... others) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.sdiff(names(others));
+        }
+    }
+
+    /**
+     * Size of the intersection of this set and the others, computed on the server
+     * with SINTERCARD, so no value is returned
+     * All the sets must be on the same redis server
+     * @param others other sets
+     * @return number of values that are in all the sets
+     */
+    public long intersectCardinality(JedisSet... others) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.sintercard(names(others));
         }
     }
 
+    /**
+     * Stores the union of this set and the others in the destination, on the server
+     * The previous values of the destination are replaced
+     * All the sets must be on the same redis server
+     * @param destination set to store the result, can be this set or one of the others
+     * @param others other sets
+     * @return size of the destination
+     */
+    public long unionStore(JedisSet destination, JedisSet... others) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            long result = jedis.sunionstore(destination.name, names(others));
+            destination.version.increment(jedis);
+            return result;
+        }
+    }
+
+    /**
+     * Stores the intersection of this set and the others in the destination, on the server
+     * The previous values of the destination are replaced
+     * All the sets must be on the same redis server
+     * @param destination set to store the result, can be this set or one of the others
+     * @param others other sets
+     * @return size of the destination
+     */
+    public long intersectStore(JedisSet destination, JedisSet... others) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            long result = jedis.sinterstore(destination.name, names(others));
+            destination.version.increment(jedis);
+            return result;
+        }
+    }
+
+    /**
+     * Stores the difference of this set and the others in the destination, on the server
+     * The previous values of the destination are replaced
+     * All the sets must be on the same redis server
+     * @param destination set to store the result, can be this set or one of the others
+     * @param others other sets
+     * @return size of the destination
+     */
+    public long differenceStore(JedisSet destination, JedisSet... others) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            long result = jedis.sdiffstore(destination.name, names(others));
+            destination.version.increment(jedis);
+            return result;
+        }
+    }
+
+    /**
+     * Names of this set and the others, this one first
+     * @param others other sets
+     * @return redis names
+     */
+    private String[] names(JedisSet... others) {
+        String[] names = new String[others.length + 1];
+        names[0] = name;
+        for(int i = 0; i < others.length; i++) {
+            names[i + 1] = others[i].name;
+        }
+        return names;
+    }
+
+    /**
+     * Distinct string values of the collection, as other values can't be in the set
+     * @param c collection
+     * @return string values
+     */
+    private static List<String> toStringList(Collection<?> c) {
+        Set<String> values = new HashSet<>();
+        for(Object o: c) {
+            if (o instanceof String) {
+                values.add((String) o);
+            }
+        }
+        return new ArrayList<>(values);
+    }
+
     private Set<String> doSscan() {
         Set<String> values = new HashSet<>();
         SScanIterator sScanIterator = new SScanIterator(jedisPool, name);
@@ -178,4 +375,34 @@ public class JedisSet implements Set<String>, Named {
         return values;
     }
 
+    /**
+     * Iterator of the set with SSCAN, that removes with the set methods
+     */
+    private class JedisSetIterator implements Iterator<String> {
+
+        private final SScanIterator sScanIterator = new SScanIterator(jedisPool, name);
+        private String lastReturned;
+
+        @Override
+        public boolean hasNext() {
+            return sScanIterator.hasNext();
+        }
+
+        @Override
+        public String next() {
+            lastReturned = sScanIterator.next();
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException("Next not called or other error");
+            }
+            JedisSet.this.remove(lastReturned);
+            lastReturned = null;
+        }
+
+    }
+
 }
\ No newline at end of file
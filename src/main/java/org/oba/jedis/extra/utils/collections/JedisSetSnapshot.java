@@ -0,0 +1,91 @@
+package org.oba.jedis.extra.utils.collections;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only local copy of a JedisSet, stored in an open addressing table
+ *
+ * It's created with the version of the set, and all reads are served locally;
+ * refresh checks the version with one call to the server and reads the set again
+ * only if it has changed
+ * A snapshot never changes, refresh returns a new one if needed
+ */
+public final class JedisSetSnapshot extends AbstractSet<String> {
+
+    private final JedisSet jedisSet;
+    private final long version;
+    private final CompactStringTable table;
+
+    /**
+     * Reads the set, the version is read before the elements
+     * so any change made after that makes the snapshot outdated
+     * @param jedisSet set
+     * @param version version of the set
+     */
+    JedisSetSnapshot(JedisSet jedisSet, CollectionVersion version) {
+        this.jedisSet = jedisSet;
+        this.version = version.current();
+        this.table = CompactStringTable.ofKeys(jedisSet.asSet());
+    }
+
+    /**
+     * Version of the set when the snapshot was taken
+     * @return version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks if the set has not changed since the snapshot was taken, with one call to the server
+     * @return true if the snapshot is current
+     */
+    public boolean isCurrent() {
+        return jedisSet.getVersion() == version;
+    }
+
+    /**
+     * Returns a current snapshot
+     * @return this if the set has not changed, a new snapshot otherwise
+     */
+    public JedisSetSnapshot refresh() {
+        return isCurrent() ? this : jedisSet.snapshot();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return table.find(o) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return table.size();
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+
+            private int slot = table.nextSlot(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < table.capacity();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String key = table.keyAt(slot);
+                slot = table.nextSlot(slot + 1);
+                return key;
+            }
+
+        };
+    }
+
+}
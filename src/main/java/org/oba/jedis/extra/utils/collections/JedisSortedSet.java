@@ -0,0 +1,610 @@
+package org.oba.jedis.extra.utils.collections;
+
+import org.oba.jedis.extra.utils.utils.Named;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Transaction;
+import redis.clients.jedis.params.ZAddParams;
+import redis.clients.jedis.params.ZParams;
+import redis.clients.jedis.resps.Tuple;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.oba.jedis.extra.utils.collections.JedisSortedSetRange.MAX_LEX;
+import static org.oba.jedis.extra.utils.collections.JedisSortedSetRange.MAX_SCORE;
+import static org.oba.jedis.extra.utils.collections.JedisSortedSetRange.MIN_LEX;
+import static org.oba.jedis.extra.utils.collections.JedisSortedSetRange.MIN_SCORE;
+import static org.oba.jedis.extra.utils.collections.JedisSortedSetRange.lexBound;
+import static org.oba.jedis.extra.utils.collections.JedisSortedSetRange.scoreBound;
+import static org.oba.jedis.extra.utils.lock.UniqueTokenValueGenerator.generateUniqueTokenValue;
+
+/**
+ * A Jedis-based implementation of a Set interface backed on a Redis sorted set on server
+ * Values are ordered by score, and by value (lexicographically) between equal scores
+ *
+ * As JedisSet, there is no local data in the class, and every operation goes to the server
+ * Values added with the Set methods get a score of zero (or keep their current score)
+ *
+ * Ranges by score or by value (head, tail and sub, as in NavigableSet) are views that
+ * read the server in pages, so top-N and time-window queries only read the needed values
+ * Ranges by value are only meaningful if all the values have the same score, as in redis
+ */
+public class JedisSortedSet implements Set<String>, Named {
+
+    /**
+     * Maximum number of values sent in one multi-member command
+     */
+    static final int CHUNK_SIZE = 1000;
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final JedisPool jedisPool;
+    private final String name;
+    private final CollectionVersion version;
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    public JedisSortedSet(JedisPool jedisPool, String name){
+        this.jedisPool = jedisPool;
+        this.name = name;
+        this.version = new CollectionVersion(jedisPool, name);
+    }
+
+    /**
+     * Sets the number of values read from the server in every call by iterators and ranges
+     * @param pageSize number of values, more than zero
+     * @return this
+     */
+    public JedisSortedSet withPageSize(int pageSize) {
+        if (pageSize <= 0) throw new IllegalArgumentException("JedisSortedSet.withPageSize pageSize must be more than zero");
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Number of values read from the server in every call by iterators and ranges
+     * @return page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Name of the redis sorted set
+     * @return redis name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * If sorted set exist in Redis namespace
+     * @return true if there is a reference in redis namespace, false otherwise
+     */
+    public boolean exists() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.exists(name);
+        }
+    }
+
+    /**
+     * Checks if sorted set exist in Redis namespace
+     * @throws IllegalStateException if there is not a reference in redis namespace
+     */
+    public void checkExists() {
+        if (!exists()) {
+            throw new IllegalStateException("Current sorted set  " + name + " not found in redis server");
+        }
+    }
+
+    /**
+     * Current version of the sorted set, incremented by every change made with JedisSortedSet methods
+     * It's stored in a companion key, the name of the sorted set with the '~version' suffix
+     * @return version, zero if never changed
+     */
+    public long getVersion() {
+        return version.current();
+    }
+
+    /**
+     * Returns a list in java memory with the values of the sorted set, in order
+     * It copies the redis data in java process, reading it in pages
+     * @return list of values
+     */
+    public List<String> asList() {
+        List<String> values = new ArrayList<>();
+        iterator().forEachRemaining(values::add);
+        return values;
+    }
+
+    @Override
+    public int size() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            long value = jedis.zcard(name);
+            return Long.valueOf(value).intValue();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof String && score((String) o) != null;
+    }
+
+    /**
+     * Iterator of the values in order, that reads the sorted set by rank in pages
+     * @return iterator
+     */
+    @Override
+    public Iterator<String> iterator() {
+        return new JedisSortedSetIterator();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return asList().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return asList().toArray(a);
+    }
+
+    /**
+     * Adds the value with a score of zero, if it's not in the sorted set
+     * The score of a value already in the sorted set is not changed
+     * @param value value
+     * @return true if added
+     */
+    @Override
+    public boolean add(String value) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            long result = jedis.zadd(name, 0.0, value, ZAddParams.zAddParams().nx());
+            if (result != 0L) {
+                version.increment(jedis);
+            }
+            return result != 0L;
+        }
+    }
+
+    /**
+     * Adds the value with the score, or changes the score of the value
+     * @param value value
+     * @param score score
+     * @return true if added or the score has changed
+     */
+    public boolean add(String value, double score) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            long result = jedis.zadd(name, score, value, ZAddParams.zAddParams().ch());
+            if (result != 0L) {
+                version.increment(jedis);
+            }
+            return result != 0L;
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof String)) {
+            return false;
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            long result = jedis.zrem(name, (String) o);
+            if (result != 0L) {
+                version.increment(jedis);
+            }
+            return result != 0L;
+        }
+    }
+
+    /**
+     * Checks the values with ZMSCORE, in chunks, and stops at the first chunk with a missing value
+     * @param c values to check
+     * @return true if all the values are in the sorted set
+     */
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for(Object o: c) {
+            if (!(o instanceof String)) {
+                return false;
+            }
+        }
+        List<String> values = toStringList(c);
+        try (Jedis jedis = jedisPool.getResource()) {
+            for(int from = 0; from < values.size(); from += CHUNK_SIZE) {
+                List<String> chunk = values.subList(from, Math.min(from + CHUNK_SIZE, values.size()));
+                List<Double> result = jedis.zmscore(name, chunk.toArray(new String[0]));
+                if (result.contains(null)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Adds the values with a score of zero, with ZADD in chunks
+     * The score of values already in the sorted set is not changed
+     * @param values values
+     * @return true if any value has been added
+     */
+    @Override
+    public boolean addAll(Collection<? extends String> values) {
+        if (values == null) {
+            throw new IllegalArgumentException("values is null");
+        }
+        Map<String, Double> scores = new HashMap<>();
+        values.forEach(value -> scores.put(value, 0.0));
+        return doAddAll(scores, ZAddParams.zAddParams().nx()) != 0L;
+    }
+
+    /**
+     * Adds the values with their scores, or changes the scores of the values,
+     * with ZADD in chunks
+     * @param scores values and scores
+     * @return number of values added or with a changed score
+     */
+    public long addAll(Map<String, Double> scores) {
+        if (scores == null) {
+            throw new IllegalArgumentException("scores is null");
+        }
+        return doAddAll(scores, ZAddParams.zAddParams().ch());
+    }
+
+    private long doAddAll(Map<String, Double> scores, ZAddParams params) {
+        long result = 0L;
+        if (scores.isEmpty()) {
+            return result;
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            try {
+                Map<String, Double> chunk = new HashMap<>();
+                for(Map.Entry<String, Double> entry: scores.entrySet()) {
+                    chunk.put(entry.getKey(), entry.getValue());
+                    if (chunk.size() == CHUNK_SIZE) {
+                        result += jedis.zadd(name, chunk, params);
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    result += jedis.zadd(name, chunk, params);
+                }
+            } finally {
+                if (result != 0L) {
+                    version.increment(jedis);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retains the values on the server
+     * The values are written in a temporary key, and the sorted set is intersected with it
+     * with ZINTERSTORE (keeping the scores), all in one transaction; so the sorted set is not read by this process
+     * @param c values to retain
+     * @return true if the sorted set has changed
+     */
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        List<String> values = toStringList(c);
+        String tempName = generateUniqueTokenValue(name + "~retain");
+        try (Jedis jedis = jedisPool.getResource()) {
+            Transaction t = jedis.multi();
+            for(int from = 0; from < values.size(); from += CHUNK_SIZE) {
+                List<String> chunk = values.subList(from, Math.min(from + CHUNK_SIZE, values.size()));
+                t.sadd(tempName, chunk.toArray(new String[0]));
+            }
+            Response<Long> before = t.zcard(name);
+            Response<Long> after = t.zinterstore(name, new ZParams().weights(1, 0), name, tempName);
+            t.del(tempName);
+            t.exec();
+            boolean result = !before.get().equals(after.get());
+            if (result) {
+                version.increment(jedis);
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        List<String> values = toStringList(c);
+        long result = 0L;
+        try (Jedis jedis = jedisPool.getResource()) {
+            for(int from = 0; from < values.size(); from += CHUNK_SIZE) {
+                List<String> chunk = values.subList(from, Math.min(from + CHUNK_SIZE, values.size()));
+                result += jedis.zrem(name, chunk.toArray(new String[0]));
+            }
+            if (result != 0L) {
+                version.increment(jedis);
+            }
+        }
+        return result != 0L;
+    }
+
+    @Override
+    public void clear() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.del(name);
+            version.increment(jedis);
+        }
+    }
+
+    /**
+     * Score of the value
+     * @param value value
+     * @return score, null if the value is not in the sorted set
+     */
+    public Double score(String value) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.zscore(name, value);
+        }
+    }
+
+    /**
+     * Adds the increment to the score of the value, atomically on the server
+     * A missing value is added with the increment as score
+     * @param value value
+     * @param increment value to add to the score, can be negative
+     * @return new score
+     */
+    public double incrementScore(String value, double increment) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            double result = jedis.zincrby(name, increment, value);
+            version.increment(jedis);
+            return result;
+        }
+    }
+
+    /**
+     * Position of the value, from the lowest score
+     * @param value value
+     * @return rank from zero, null if the value is not in the sorted set
+     */
+    public Long rank(String value) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.zrank(name, value);
+        }
+    }
+
+    /**
+     * Position of the value, from the highest score
+     * @param value value
+     * @return rank from zero, null if the value is not in the sorted set
+     */
+    public Long reverseRank(String value) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.zrevrank(name, value);
+        }
+    }
+
+    /**
+     * Values between two ranks (both included), from the lowest score
+     * Negative ranks count from the highest score, as in redis
+     * @param fromRank first rank
+     * @param toRank last rank
+     * @return values in order
+     */
+    public List<String> range(long fromRank, long toRank) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.zrange(name, fromRank, toRank);
+        }
+    }
+
+    /**
+     * Values with the highest scores, from the highest
+     * @param count number of values
+     * @return values, at most count
+     */
+    public List<String> top(int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.zrevrange(name, 0, count - 1L);
+        }
+    }
+
+    /**
+     * Value with the lowest score
+     * @return value
+     * @throws NoSuchElementException if the sorted set is empty
+     */
+    public String first() {
+        return firstOf(range(0, 0));
+    }
+
+    /**
+     * Value with the highest score
+     * @return value
+     * @throws NoSuchElementException if the sorted set is empty
+     */
+    public String last() {
+        return firstOf(range(-1, -1));
+    }
+
+    /**
+     * Removes and returns the value with the lowest score
+     * @return value, null if the sorted set is empty
+     */
+    public String pollFirst() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return polled(jedis, jedis.zpopmin(name));
+        }
+    }
+
+    /**
+     * Removes and returns the value with the highest score
+     * @return value, null if the sorted set is empty
+     */
+    public String pollLast() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return polled(jedis, jedis.zpopmax(name));
+        }
+    }
+
+    /**
+     * Values with a score lower than the maximum
+     * @param max maximum score
+     * @param inclusive if the maximum is included
+     * @return range view
+     */
+    public JedisSortedSetRange headSetByScore(double max, boolean inclusive) {
+        return byScore(MIN_SCORE, scoreBound(max, inclusive));
+    }
+
+    /**
+     * Values with a score higher than the minimum
+     * @param min minimum score
+     * @param inclusive if the minimum is included
+     * @return range view
+     */
+    public JedisSortedSetRange tailSetByScore(double min, boolean inclusive) {
+        return byScore(scoreBound(min, inclusive), MAX_SCORE);
+    }
+
+    /**
+     * Values with a score between the minimum and the maximum
+     * @param min minimum score
+     * @param minInclusive if the minimum is included
+     * @param max maximum score
+     * @param maxInclusive if the maximum is included
+     * @return range view
+     */
+    public JedisSortedSetRange subSetByScore(double min, boolean minInclusive, double max, boolean maxInclusive) {
+        return byScore(scoreBound(min, minInclusive), scoreBound(max, maxInclusive));
+    }
+
+    /**
+     * Values lower than the maximum, for sorted sets with the same score for all values
+     * @param max maximum value
+     * @param inclusive if the maximum is included
+     * @return range view
+     */
+    public JedisSortedSetRange headSetByLex(String max, boolean inclusive) {
+        return byLex(MIN_LEX, lexBound(max, inclusive));
+    }
+
+    /**
+     * Values higher than the minimum, for sorted sets with the same score for all values
+     * @param min minimum value
+     * @param inclusive if the minimum is included
+     * @return range view
+     */
+    public JedisSortedSetRange tailSetByLex(String min, boolean inclusive) {
+        return byLex(lexBound(min, inclusive), MAX_LEX);
+    }
+
+    /**
+     * Values between the minimum and the maximum, for sorted sets with the same score for all values
+     * @param min minimum value
+     * @param minInclusive if the minimum is included
+     * @param max maximum value
+     * @param maxInclusive if the maximum is included
+     * @return range view
+     */
+    public JedisSortedSetRange subSetByLex(String min, boolean minInclusive, String max, boolean maxInclusive) {
+        return byLex(lexBound(min, minInclusive), lexBound(max, maxInclusive));
+    }
+
+    private JedisSortedSetRange byScore(String min, String max) {
+        return new JedisSortedSetRange(jedisPool, name, version, pageSize, false, min, max);
+    }
+
+    private JedisSortedSetRange byLex(String min, String max) {
+        return new JedisSortedSetRange(jedisPool, name, version, pageSize, true, min, max);
+    }
+
+    private String polled(Jedis jedis, Tuple tuple) {
+        if (tuple == null) {
+            return null;
+        }
+        version.increment(jedis);
+        return tuple.getElement();
+    }
+
+    private static String firstOf(List<String> values) {
+        if (values.isEmpty()) {
+            throw new NoSuchElementException("Sorted set is empty");
+        }
+        return values.get(0);
+    }
+
+    /**
+     * Distinct string values of the collection, as other values can't be in the sorted set
+     * @param c collection
+     * @return string values
+     */
+    private static List<String> toStringList(Collection<?> c) {
+        Set<String> values = new HashSet<>();
+        for(Object o: c) {
+            if (o instanceof String) {
+                values.add((String) o);
+            }
+        }
+        return new ArrayList<>(values);
+    }
+
+    /**
+     * Iterator of the sorted set by rank, reading a page of values with ZRANGE when needed
+     * Removing a value moves the next rank back, so no value is skipped
+     */
+    private class JedisSortedSetIterator implements Iterator<String> {
+
+        private List<String> page = Collections.emptyList();
+        private int pageIndex = 0;
+        private long nextRank = 0;
+        private boolean finished = false;
+        private String lastReturned;
+
+        @Override
+        public boolean hasNext() {
+            if (pageIndex < page.size()) {
+                return true;
+            } else if (finished) {
+                return false;
+            }
+            page = range(nextRank, nextRank + pageSize - 1);
+            pageIndex = 0;
+            nextRank += page.size();
+            finished = page.size() < pageSize;
+            return !page.isEmpty();
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements");
+            }
+            lastReturned = page.get(pageIndex++);
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException("Next not called or other error");
+            }
+            if (JedisSortedSet.this.remove(lastReturned)) {
+                nextRank--;
+            }
+            lastReturned = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,264 @@
+package org.oba.jedis.extra.utils.collections;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.resps.Tuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Range of a JedisSortedSet, by score or by value, backed by the sorted set
+ *
+ * Nothing is read when the range is created; the iterator reads the values in pages
+ * that start where the previous one ended (not with an offset from the start of the range),
+ * so every page costs O(log n) on the server plus the values read
+ * The range reflects the changes of the sorted set, and its iterator can't remove values
+ */
+public final class JedisSortedSetRange implements Iterable<String> {
+
+    static final String MIN_SCORE = "-inf";
+    static final String MAX_SCORE = "+inf";
+    static final String MIN_LEX = "-";
+    static final String MAX_LEX = "+";
+
+    private final JedisPool jedisPool;
+    private final String name;
+    private final CollectionVersion version;
+    private final int pageSize;
+    private final boolean lex;
+    private final String min;
+    private final String max;
+
+    /**
+     * Creates a range view
+     * @param jedisPool Jedis connection pool
+     * @param name name of the sorted set
+     * @param version version of the sorted set
+     * @param pageSize number of values read in every call
+     * @param lex true if the range is by value, false if by score
+     * @param min minimum, in redis syntax
+     * @param max maximum, in redis syntax
+     */
+    JedisSortedSetRange(JedisPool jedisPool, String name, CollectionVersion version, int pageSize, boolean lex, String min, String max) {
+        this.jedisPool = jedisPool;
+        this.name = name;
+        this.version = version;
+        this.pageSize = pageSize;
+        this.lex = lex;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Number of values in the range, counted on the server without reading them
+     * @return number of values
+     */
+    public long count() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return lex ? jedis.zlexcount(name, min, max) : jedis.zcount(name, min, max);
+        }
+    }
+
+    /**
+     * First values of the range, in one call
+     * @param count number of values
+     * @return values from the lowest, at most count
+     */
+    public List<String> first(int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            return lex ? jedis.zrangeByLex(name, min, max, 0, count) : jedis.zrangeByScore(name, min, max, 0, count);
+        }
+    }
+
+    /**
+     * Last values of the range, in one call
+     * @param count number of values
+     * @return values from the highest, at most count
+     */
+    public List<String> last(int count) {
+        if (count <= 0) {
+            return Collections.emptyList();
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            return lex ? jedis.zrevrangeByLex(name, max, min, 0, count) : jedis.zrevrangeByScore(name, max, min, 0, count);
+        }
+    }
+
+    /**
+     * Removes the values of the range on the server, without reading them
+     * @return number of values removed
+     */
+    public long clear() {
+        try (Jedis jedis = jedisPool.getResource()) {
+            long result = lex ? jedis.zremrangeByLex(name, min, max) : jedis.zremrangeByScore(name, min, max);
+            if (result != 0L) {
+                version.increment(jedis);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns a list in java memory with the values of the range, in order
+     * @return list of values
+     */
+    public List<String> asList() {
+        List<String> values = new ArrayList<>();
+        iterator().forEachRemaining(values::add);
+        return values;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return lex ? new LexRangeIterator() : new ScoreRangeIterator();
+    }
+
+    @Override
+    public Spliterator<String> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    /**
+     * Stream of the values of the range, read in pages as it's consumed
+     * @return stream
+     */
+    public Stream<String> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Score limit in redis syntax
+     * @param score score
+     * @param inclusive if the limit is included
+     * @return limit
+     */
+    static String scoreBound(double score, boolean inclusive) {
+        if (Double.isNaN(score)) throw new IllegalArgumentException("JedisSortedSet score is not a number");
+        String value;
+        if (score == Double.POSITIVE_INFINITY) {
+            value = MAX_SCORE;
+        } else if (score == Double.NEGATIVE_INFINITY) {
+            value = MIN_SCORE;
+        } else {
+            value = Double.toString(score);
+        }
+        return inclusive ? value : "(" + value;
+    }
+
+    /**
+     * Value limit in redis syntax
+     * @param value value
+     * @param inclusive if the limit is included
+     * @return limit
+     */
+    static String lexBound(String value, boolean inclusive) {
+        if (value == null) throw new IllegalArgumentException("JedisSortedSet value limit is null");
+        return (inclusive ? "[" : "(") + value;
+    }
+
+    /**
+     * Iterator that reads a page when the previous one is consumed
+     */
+    private abstract class RangeIterator implements Iterator<String> {
+
+        private List<String> page = Collections.emptyList();
+        private int pageIndex = 0;
+        private boolean finished = false;
+
+        @Override
+        public boolean hasNext() {
+            if (pageIndex < page.size()) {
+                return true;
+            } else if (finished) {
+                return false;
+            }
+            try (Jedis jedis = jedisPool.getResource()) {
+                page = nextPage(jedis);
+            }
+            pageIndex = 0;
+            finished = page.size() < pageSize;
+            return !page.isEmpty();
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements");
+            }
+            return page.get(pageIndex++);
+        }
+
+        /**
+         * Reads the page after the last one
+         * @param jedis connection
+         * @return values, less than a page size if the range has ended
+         */
+        abstract List<String> nextPage(Jedis jedis);
+
+    }
+
+    /**
+     * Pages by value start after the last value read
+     */
+    private class LexRangeIterator extends RangeIterator {
+
+        private String from = min;
+
+        @Override
+        List<String> nextPage(Jedis jedis) {
+            List<String> values = jedis.zrangeByLex(name, from, max, 0, pageSize);
+            if (!values.isEmpty()) {
+                from = lexBound(values.get(values.size() - 1), false);
+            }
+            return values;
+        }
+
+    }
+
+    /**
+     * Pages by score start at the last score read, skipping the values with that score already read
+     * (there can be many values with the same score, so the offset is the number of them)
+     */
+    private class ScoreRangeIterator extends RangeIterator {
+
+        private String from = min;
+        private Double fromScore = null;
+        private int skip = 0;
+
+        @Override
+        List<String> nextPage(Jedis jedis) {
+            List<Tuple> tuples = jedis.zrangeByScoreWithScores(name, from, max, skip, pageSize);
+            List<String> values = new ArrayList<>(tuples.size());
+            tuples.forEach(tuple -> values.add(tuple.getElement()));
+            if (!tuples.isEmpty()) {
+                double lastScore = tuples.get(tuples.size() - 1).getScore();
+                if (fromScore != null && fromScore == lastScore) {
+                    // all the page has the same score as the previous one
+                    skip += tuples.size();
+                } else {
+                    int ties = 0;
+                    for(int i = tuples.size() - 1; i >= 0 && tuples.get(i).getScore() == lastScore; i--) {
+                        ties++;
+                    }
+                    from = scoreBound(lastScore, true);
+                    fromScore = lastScore;
+                    skip = ties;
+                }
+            }
+            return values;
+        }
+
+    }
+
+}
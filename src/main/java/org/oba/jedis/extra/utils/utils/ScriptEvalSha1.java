@@ -2,7 +2,9 @@ package org.oba.jedis.extra.utils.utils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
 
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
@@ -30,7 +32,7 @@ public class ScriptEvalSha1 implements JedisPoolUser {
 
     private final JedisPool jedisPool;
     private final UniversalReader scriptSource;
-    private String sha1Digest;
+    private volatile String sha1Digest;
 
     public ScriptEvalSha1(JedisPool jedisPool, UniversalReader scriptSource) {
         this(jedisPool, scriptSource, false);
@@ -60,13 +62,24 @@ public class ScriptEvalSha1 implements JedisPoolUser {
         return sha1Digest != null;
     }
 
-    private synchronized void syncLoad() {
+    private void syncLoad() {
+        if (sha1Digest == null) {
+            // the connection is taken before the lock, so a thread waiting for the lock doesn't hold one
+            withResource(this::syncLoad);
+        }
+    }
+
+    /**
+     * Loads the script with the given connection
+     * @param jedis connection
+     */
+    private synchronized void syncLoad(Jedis jedis) {
         if (sha1Digest == null) {
             String scriptToLoad = scriptSource.read();
             if (scriptToLoad == null || scriptToLoad.isBlank()) {
                 throw new IllegalArgumentException("Script to load cannot be null nor empty");
             }
-            sha1Digest = withResourceGet(jedis -> jedis.scriptLoad(scriptToLoad));
+            sha1Digest = jedis.scriptLoad(scriptToLoad);
             LOGGER.debug("SHA1 load from script {}", sha1Digest);
             if (sha1Digest == null || sha1Digest.isBlank()) {
                 LOGGER.error("SHA1 from reddit is null or empty !");
@@ -90,6 +103,41 @@ public class ScriptEvalSha1 implements JedisPoolUser {
         return withResourceGet(jedis -> jedis.evalsha(sha1Digest, keys, params));
     }
 
+    /**
+     * Executes the script with sha1 digest from redis, with the given connection
+     * So no other connection is taken from the pool while the caller holds one
+     * If redis doesn't know the script (it has been flushed or restarted), it's loaded again
+     * with the same connection and executed
+     * @param jedis Connection
+     * @param keys List of keys
+     * @param params List of value
+     * @return Result of execution
+     */
+    public Object evalSha(Jedis jedis, List<String> keys, List<String> params) {
+        if (sha1Digest == null) {
+            syncLoad(jedis);
+        }
+        String currentSha1Digest = sha1Digest;
+        LOGGER.debug("SHA1 eval {}", currentSha1Digest);
+        try {
+            return jedis.evalsha(currentSha1Digest, keys, params);
+        } catch (JedisNoScriptException e) {
+            LOGGER.debug("SHA1 {} not in redis, loading again", currentSha1Digest);
+            return jedis.evalsha(reload(jedis), keys, params);
+        }
+    }
+
+    /**
+     * Loads the script again with the given connection
+     * @param jedis connection
+     * @return sha1 digest
+     */
+    private synchronized String reload(Jedis jedis) {
+        sha1Digest = null;
+        syncLoad(jedis);
+        return sha1Digest;
+    }
+
     /**
      * As seen in http://oliviertech.com/es/java/generate-SHA1-hash-from-a-String/
      * Pure Java SHA-1 hash code
@@ -1,6 +1,9 @@
 package org.oba.jedis.extra.utils.utils;
 
+import org.oba.jedis.extra.utils.cache.HashCache;
+import org.oba.jedis.extra.utils.cache.SimpleCache;
 import org.oba.jedis.extra.utils.collections.JedisList;
+import org.oba.jedis.extra.utils.collections.JedisMap;
 import org.oba.jedis.extra.utils.cycle.CycleData;
 import org.oba.jedis.extra.utils.interruptinglocks.JedisLock;
 import org.oba.jedis.extra.utils.rateLimiter.BucketRateLimiter;
@@ -20,8 +23,25 @@ public class ScriptHolder implements JedisPoolUser {
         ScriptHolder scriptHolder = new ScriptHolder(jedisPool);
         scriptHolder.addScriptWithResourceAndFile(BucketRateLimiter.SCRIPT_NAME, BucketRateLimiter.FILE_PATH);
         scriptHolder.addScriptWithResourceAndFile(CycleData.SCRIPT_NAME, CycleData.FILE_PATH);
+        scriptHolder.addScriptWithResourceAndFile(SimpleCache.SCRIPT_NAME_COMPARE_AND_REPLACE, SimpleCache.FILE_PATH_COMPARE_AND_REPLACE);
+        scriptHolder.addScriptWithResourceAndFile(SimpleCache.SCRIPT_NAME_REPLACE_IF_EXISTS, SimpleCache.FILE_PATH_REPLACE_IF_EXISTS);
+        scriptHolder.addScriptWithResourceAndFile(SimpleCache.SCRIPT_NAME_COMPARE_AND_REMOVE, SimpleCache.FILE_PATH_COMPARE_AND_REMOVE);
+        scriptHolder.addScriptWithResourceAndFile(SimpleCache.SCRIPT_NAME_PUT_WITH_EXPIRY, SimpleCache.FILE_PATH_PUT_WITH_EXPIRY);
+        scriptHolder.addScriptWithResourceAndFile(SimpleCache.SCRIPT_NAME_BOUNDED_PUT, SimpleCache.FILE_PATH_BOUNDED_PUT);
+        scriptHolder.addScriptWithResourceAndFile(SimpleCache.SCRIPT_NAME_BOUNDED_REMOVE, SimpleCache.FILE_PATH_BOUNDED_REMOVE);
+        scriptHolder.addScriptWithResourceAndFile(SimpleCache.SCRIPT_NAME_BOUNDED_COMPARE_AND_REMOVE, SimpleCache.FILE_PATH_BOUNDED_COMPARE_AND_REMOVE);
+        scriptHolder.addScriptWithResourceAndFile(HashCache.SCRIPT_NAME_REPLACE, HashCache.FILE_PATH_REPLACE);
+        scriptHolder.addScriptWithResourceAndFile(HashCache.SCRIPT_NAME_COMPARE_AND_REMOVE, HashCache.FILE_PATH_COMPARE_AND_REMOVE);
         scriptHolder.addScriptWithResourceAndFile(JedisList.SCRIPT_NAME_INDEX_OF, JedisList.FILE_PATH_INDEX_OF);
         scriptHolder.addScriptWithResourceAndFile(JedisList.SCRIPT_NAME_LAST_INDEX_OF, JedisList.FILE_PATH_LAST_INDEX_OF);
+        scriptHolder.addScriptWithResourceAndFile(JedisList.SCRIPT_NAME_INSERT_ALL, JedisList.FILE_PATH_INSERT_ALL);
+        scriptHolder.addScriptWithResourceAndFile(JedisList.SCRIPT_NAME_FILTER, JedisList.FILE_PATH_FILTER);
+        scriptHolder.addScriptWithResourceAndFile(JedisList.SCRIPT_NAME_SET_ALL, JedisList.FILE_PATH_SET_ALL);
+        scriptHolder.addScriptWithResourceAndFile(JedisList.SCRIPT_NAME_CONTAINS_ALL, JedisList.FILE_PATH_CONTAINS_ALL);
+        scriptHolder.addScriptWithResourceAndFile(JedisList.SCRIPT_NAME_REMOVE_AT, JedisList.FILE_PATH_REMOVE_AT);
+        scriptHolder.addScriptWithResourceAndFile(JedisMap.SCRIPT_NAME_CONTAINS_VALUE, JedisMap.FILE_PATH_CONTAINS_VALUE);
+        scriptHolder.addScriptWithResourceAndFile(JedisMap.SCRIPT_NAME_PUT_IF_ABSENT, JedisMap.FILE_PATH_PUT_IF_ABSENT);
+        scriptHolder.addScriptWithResourceAndFile(JedisMap.SCRIPT_NAME_COMPARE_AND_SET, JedisMap.FILE_PATH_COMPARE_AND_SET);
         scriptHolder.addScriptWithResourceAndFile(JedisLock.SCRIPT_NAME, JedisLock.FILE_PATH);
         scriptHolder.addScriptWithResourceAndFile(JedisSemaphore.SCRIPT_NAME, JedisSemaphore.FILE_PATH);
         return scriptHolder;
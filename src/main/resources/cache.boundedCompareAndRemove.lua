@@ -0,0 +1,24 @@
+-- org.oba.jedis.extra.utils.cache.SimpleCache boundedCompareAndRemove
+-- KEYS[1] access index (sorted set), KEYS[2] metadata (hash with the size of every key and the '~bytes' total),
+-- KEYS[3] key to remove, KEYS[4] optional tombstone of the key, deleted if removed
+-- ARGV[1] value that must match the current one
+-- Removes the key if its value matches and forgets it in the index
+-- Returns 1 if removed, 0 otherwise
+local index = KEYS[1]
+local meta = KEYS[2]
+local key = KEYS[3]
+local oldValue = ARGV[1]
+if redis.call('get', key) ~= oldValue then
+    return 0
+end
+redis.call('unlink', key)
+if KEYS[4] then
+    redis.call('del', KEYS[4])
+end
+redis.call('zrem', index, key)
+local size = tonumber(redis.call('hget', meta, key) or '0')
+if size > 0 then
+    redis.call('hdel', meta, key)
+    redis.call('hincrby', meta, '~bytes', -size)
+end
+return 1
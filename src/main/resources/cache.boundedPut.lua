@@ -0,0 +1,125 @@
+-- org.oba.jedis.extra.utils.cache.SimpleCache boundedPut
+-- KEYS[1] access index (sorted set), KEYS[2] metadata (hash with the size of every key, the '~bytes' total and the lfu '~age'),
+-- KEYS[3..] keys to store, optionally followed by their tombstones in the same order, deleted if stored
+-- ARGV[1] creation ms, ARGV[2] update ms ('-1' to keep ttl, '0' for no expiration in both),
+-- ARGV[3] 'all' to store every key, 'nx' only the absent keys, 'xx' only the existing keys
+-- or 'eq' only the keys whose current value is the expected one,
+-- ARGV[4] eviction policy 'lru' or 'lfu', ARGV[5] current time ms, ARGV[6] max entries (0 no limit),
+-- ARGV[7] max bytes (0 no limit), ARGV[8..] values, and with 'eq' the expected values after them
+-- Returns the previous values and the evicted keys
+-- The evicted keys are read from the index, they aren't declared in KEYS,
+-- so this script can't run in a Redis Cluster
+local index = KEYS[1]
+local meta = KEYS[2]
+local createdMs = ARGV[1]
+local updatedMs = ARGV[2]
+local mode = ARGV[3]
+local lfu = ARGV[4] == 'lfu'
+local now = ARGV[5]
+local maxEntries = tonumber(ARGV[6])
+local maxBytes = tonumber(ARGV[7])
+local sampleSize = 5
+local count = #ARGV - 7
+if mode == 'eq' then
+    count = count / 2
+end
+
+local function unindex(key)
+    redis.call('zrem', index, key)
+    local size = tonumber(redis.call('hget', meta, key) or '0')
+    if size > 0 then
+        redis.call('hdel', meta, key)
+        redis.call('hincrby', meta, '~bytes', -size)
+    end
+end
+
+local function store(key, value, ms)
+    if ms == '-1' then
+        redis.call('set', key, value, 'keepttl')
+    elseif ms == '0' then
+        redis.call('set', key, value)
+    else
+        redis.call('set', key, value, 'px', ms)
+    end
+end
+
+local function mustStore(current, i)
+    if mode == 'nx' then
+        return not current
+    elseif mode == 'xx' then
+        return current ~= false
+    elseif mode == 'eq' then
+        return current == ARGV[i + 5 + count]
+    end
+    return true
+end
+
+local function overLimit()
+    if maxEntries > 0 and redis.call('zcard', index) > maxEntries then
+        return true
+    end
+    return maxBytes > 0 and tonumber(redis.call('hget', meta, '~bytes') or '0') > maxBytes
+end
+
+-- a sample of the index is checked, to forget the keys expired by redis
+local sample = redis.call('zrandmember', index, sampleSize)
+for _, key in ipairs(sample) do
+    if redis.call('exists', key) == 0 then
+        unindex(key)
+    end
+end
+
+local previous = {}
+local written = {}
+for i = 3, count + 2 do
+    local key = KEYS[i]
+    local value = ARGV[i + 5]
+    local current = redis.call('get', key)
+    if mustStore(current, i) then
+        if not current then
+            store(key, value, createdMs)
+        else
+            store(key, value, updatedMs)
+        end
+        local size = string.len(key) + string.len(value)
+        local oldSize = tonumber(redis.call('hget', meta, key) or '0')
+        redis.call('hset', meta, key, size)
+        redis.call('hincrby', meta, '~bytes', size - oldSize)
+        if not lfu then
+            redis.call('zadd', index, now, key)
+        elseif redis.call('zscore', index, key) then
+            redis.call('zincrby', index, 1, key)
+        else
+            -- new entries start from the score of the last evicted one, so old counts age
+            redis.call('zadd', index, tonumber(redis.call('hget', meta, '~age') or '0') + 1, key)
+        end
+        if KEYS[i + count] then
+            redis.call('del', KEYS[i + count])
+        end
+        written[key] = true
+    end
+    previous[i - 2] = current
+end
+
+-- the least used entries are evicted until the cache is in its bounds, never the ones just written
+local evicted = {}
+local offset = 0
+while overLimit() do
+    local candidate = redis.call('zrange', index, offset, offset, 'withscores')
+    if #candidate == 0 then
+        break
+    end
+    local key = candidate[1]
+    if written[key] then
+        offset = offset + 1
+    else
+        unindex(key)
+        if redis.call('unlink', key) == 1 then
+            evicted[#evicted + 1] = key
+        end
+        if lfu then
+            redis.call('hset', meta, '~age', candidate[2])
+        end
+    end
+end
+return { previous, evicted }
@@ -0,0 +1,25 @@
+-- org.oba.jedis.extra.utils.cache.SimpleCache boundedRemove
+-- KEYS[1] access index (sorted set), KEYS[2] metadata (hash with the size of every key and the '~bytes' total),
+-- KEYS[3..] keys to remove, optionally followed by their tombstones in the same order
+-- ARGV[1] number of keys to remove
+-- Removes the keys and forgets them in the index
+-- Returns the previous values
+local index = KEYS[1]
+local meta = KEYS[2]
+local count = tonumber(ARGV[1])
+local previous = {}
+for i = 3, count + 2 do
+    local key = KEYS[i]
+    previous[i - 2] = redis.call('get', key)
+    redis.call('unlink', key)
+    redis.call('zrem', index, key)
+    local size = tonumber(redis.call('hget', meta, key) or '0')
+    if size > 0 then
+        redis.call('hdel', meta, key)
+        redis.call('hincrby', meta, '~bytes', -size)
+    end
+    if KEYS[i + count] then
+        redis.call('del', KEYS[i + count])
+    end
+end
+return previous
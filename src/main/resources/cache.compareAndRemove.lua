@@ -0,0 +1,12 @@
+-- org.oba.jedis.extra.utils.cache.SimpleCache compareAndRemove
+-- KEYS[1] key, KEYS[2] optional tombstone of the key, deleted if removed
+local key = KEYS[1]
+local oldValue = ARGV[1]
+if redis.call('get', key) == oldValue then
+    if KEYS[2] then
+        redis.call('del', KEYS[2])
+    end
+    return redis.call('del', key)
+else
+    return 0
+end
@@ -0,0 +1,22 @@
+-- org.oba.jedis.extra.utils.cache.SimpleCache compareAndReplace
+-- KEYS[1] key, KEYS[2] optional tombstone of the key, deleted if replaced
+-- The time out ms is '-1' to keep ttl, or '0' for no expiration
+local key = KEYS[1]
+local oldValue = ARGV[1]
+local newValue = ARGV[2]
+local timeOutMs = ARGV[3]
+if redis.call('get', key) == oldValue then
+    if timeOutMs == '-1' then
+        redis.call('set', key, newValue, 'keepttl')
+    elseif timeOutMs == '0' then
+        redis.call('set', key, newValue)
+    else
+        redis.call('set', key, newValue, 'px', timeOutMs)
+    end
+    if KEYS[2] then
+        redis.call('del', KEYS[2])
+    end
+    return 1
+else
+    return 0
+end
@@ -0,0 +1,8 @@
+-- org.oba.jedis.extra.utils.cache.HashCache hashCompareAndRemove
+-- KEYS[1] bucket, ARGV[1] field, ARGV[2] value that must match the current one
+-- Returns 1 if removed, 0 otherwise
+if redis.call('hget', KEYS[1], ARGV[1]) == ARGV[2] then
+    return redis.call('hdel', KEYS[1], ARGV[1])
+else
+    return 0
+end
@@ -0,0 +1,19 @@
+-- org.oba.jedis.extra.utils.cache.HashCache hashReplace
+-- KEYS[1] bucket
+-- ARGV[1] field, ARGV[2] new value, ARGV[3] time to live ms,
+-- ARGV[4] '1' to set the time to live to the field (HPEXPIRE) or '0' to the whole bucket,
+-- ARGV[5] optional value that must match the current one; without it, the field is replaced if it exists
+-- Returns the previous value, false if the field doesn't exist
+local bucket = KEYS[1]
+local field = ARGV[1]
+local current = redis.call('hget', bucket, field)
+if not current or (ARGV[5] and current ~= ARGV[5]) then
+    return current
+end
+redis.call('hset', bucket, field, ARGV[2])
+if ARGV[4] == '1' then
+    redis.call('hpexpire', bucket, ARGV[3], 'FIELDS', 1, field)
+else
+    redis.call('pexpire', bucket, ARGV[3])
+end
+return current
@@ -0,0 +1,32 @@
+-- org.oba.jedis.extra.utils.cache.SimpleCache putWithExpiry
+-- KEYS are the keys to store, optionally followed by their tombstones in the same order
+-- ARGV[1] creation ms, ARGV[2] update ms ('-1' to keep ttl, '0' for no expiration in both), ARGV[3..] values
+-- Returns the previous values
+local createdMs = ARGV[1]
+local updatedMs = ARGV[2]
+local count = #ARGV - 2
+local function store(key, value, ms)
+    if ms == '-1' then
+        redis.call('set', key, value, 'keepttl')
+    elseif ms == '0' then
+        redis.call('set', key, value)
+    else
+        redis.call('set', key, value, 'px', ms)
+    end
+end
+local previous = {}
+for i = 1, count do
+    local key = KEYS[i]
+    local value = ARGV[i + 2]
+    local current = redis.call('get', key)
+    if not current then
+        store(key, value, createdMs)
+    else
+        store(key, value, updatedMs)
+    end
+    if KEYS[i + count] then
+        redis.call('del', KEYS[i + count])
+    end
+    previous[i] = current
+end
+return previous
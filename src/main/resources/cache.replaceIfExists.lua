@@ -0,0 +1,20 @@
+-- org.oba.jedis.extra.utils.cache.SimpleCache replaceIfExists
+-- KEYS[1] key, KEYS[2] optional tombstone of the key, deleted if replaced
+-- The time out ms is '-1' to keep ttl, or '0' for no expiration
+local key = KEYS[1]
+local newValue = ARGV[1]
+local timeOutMs = ARGV[2]
+local current = redis.call('get', key)
+if current then
+    if timeOutMs == '-1' then
+        redis.call('set', key, newValue, 'keepttl')
+    elseif timeOutMs == '0' then
+        redis.call('set', key, newValue)
+    else
+        redis.call('set', key, newValue, 'px', timeOutMs)
+    end
+    if KEYS[2] then
+        redis.call('del', KEYS[2])
+    end
+end
+return current
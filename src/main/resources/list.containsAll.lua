@@ -0,0 +1,28 @@
+-- org.oba.jedis.extra.utils.collections.JedisList containsAll
+local key = KEYS[1]
+local chunk = 1000
+local missing = {}
+local numMissing = 0
+for i=1,#ARGV do
+    if not missing[ARGV[i]] then
+        missing[ARGV[i]] = true
+        numMissing = numMissing + 1
+    end
+end
+-- one pass over the list by chunks, until all the elements are found
+local len = redis.call('llen', key)
+local start = 0
+while start < len and numMissing > 0 do
+    local items = redis.call('lrange', key, start, start + chunk - 1)
+    for i=1,#items do
+        if missing[items[i]] then
+            missing[items[i]] = nil
+            numMissing = numMissing - 1
+        end
+    end
+    start = start + chunk
+end
+if numMissing == 0 then
+    return 1
+end
+return 0
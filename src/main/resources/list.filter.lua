@@ -0,0 +1,35 @@
+-- org.oba.jedis.extra.utils.collections.JedisList filter
+-- KEYS[1] list, KEYS[2] version counter of the list
+-- ARGV[1] 'remove' to remove the given elements or 'keep' to remove the others, ARGV[2..] elements (all their occurrences)
+-- The list is rotated once: chunks are popped from the head and the kept elements pushed to the tail,
+-- so the order is kept and only one chunk is in memory (LPOP with count needs redis 6.2)
+-- Returns the number of removed elements
+local key = KEYS[1]
+local chunkSize = 1000
+local keepGiven = ARGV[1] == 'keep'
+local given = {}
+for i = 2, #ARGV do
+    given[ARGV[i]] = true
+end
+local remaining = redis.call('llen', key)
+local removed = 0
+while remaining > 0 do
+    local count = math.min(chunkSize, remaining)
+    local items = redis.call('lpop', key, count)
+    remaining = remaining - count
+    local kept = {}
+    for _, item in ipairs(items) do
+        if (given[item] == true) == keepGiven then
+            kept[#kept + 1] = item
+        else
+            removed = removed + 1
+        end
+    end
+    if #kept > 0 then
+        redis.call('rpush', key, unpack(kept))
+    end
+end
+if removed > 0 then
+    redis.call('incr', KEYS[2])
+end
+return removed
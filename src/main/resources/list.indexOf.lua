@@ -1,10 +1,8 @@
 -- org.oba.jedis.extra.utils.collections.JedisList indexOf
-local key = KEYS[1]
-local obj = ARGV[1]
-local items = redis.call('lrange', key, 0, -1)
-for i=1,#items do
-    if items[i] == obj then
-        return i - 1
-    end
+-- KEYS[1] list, ARGV[1] element
+-- Returns the index of the first occurrence, or -1 (LPOS needs redis 6.0.6)
+local pos = redis.call('lpos', KEYS[1], ARGV[1])
+if pos then
+    return pos
 end
-return -1
\ No newline at end of file
+return -1
@@ -0,0 +1,47 @@
+-- org.oba.jedis.extra.utils.collections.JedisList insertAll
+-- KEYS[1] list, KEYS[2] version counter of the list, ARGV[1] position, ARGV[2..] elements to insert, in this order, at the position
+-- Only the elements on the shorter side of the position are taken out and pushed again
+-- Returns the new size of the list, or -1 if the position is out of bounds
+local key = KEYS[1]
+local position = tonumber(ARGV[1])
+local size = redis.call('llen', key)
+local chunkSize = 1000
+if position < 0 or position > size then
+    return -1
+end
+if #ARGV < 2 then
+    return size
+end
+
+local function pushAll(command, items, from, to, step)
+    local chunk = {}
+    for i = from, to, step do
+        chunk[#chunk + 1] = items[i]
+        if #chunk == chunkSize then
+            redis.call(command, key, unpack(chunk))
+            chunk = {}
+        end
+    end
+    if #chunk > 0 then
+        redis.call(command, key, unpack(chunk))
+    end
+end
+
+if position == size then
+    pushAll('rpush', ARGV, 2, #ARGV, 1)
+elseif position <= size / 2 then
+    local head = {}
+    if position > 0 then
+        head = redis.call('lrange', key, 0, position - 1)
+        redis.call('ltrim', key, position, -1)
+    end
+    pushAll('lpush', ARGV, #ARGV, 2, -1)
+    pushAll('lpush', head, #head, 1, -1)
+else
+    local tail = redis.call('lrange', key, position, -1)
+    redis.call('ltrim', key, 0, position - 1)
+    pushAll('rpush', ARGV, 2, #ARGV, 1)
+    pushAll('rpush', tail, 1, #tail, 1)
+end
+redis.call('incr', KEYS[2])
+return redis.call('llen', key)
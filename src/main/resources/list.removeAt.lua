@@ -0,0 +1,40 @@
+-- org.oba.jedis.extra.utils.collections.JedisList removeAt
+-- KEYS[1] list, KEYS[2] version counter of the list, ARGV[1] position
+-- Only the elements on the shorter side of the position are taken out and pushed again
+-- Returns the removed element, or -1 if the position is out of bounds
+local key = KEYS[1]
+local position = tonumber(ARGV[1])
+local size = redis.call('llen', key)
+local chunkSize = 1000
+if position < 0 or position >= size then
+    return -1
+end
+
+local function pushAll(command, items, from, to, step)
+    local chunk = {}
+    for i = from, to, step do
+        chunk[#chunk + 1] = items[i]
+        if #chunk == chunkSize then
+            redis.call(command, key, unpack(chunk))
+            chunk = {}
+        end
+    end
+    if #chunk > 0 then
+        redis.call(command, key, unpack(chunk))
+    end
+end
+
+local removed
+if position < size / 2 then
+    local head = redis.call('lrange', key, 0, position)
+    redis.call('ltrim', key, position + 1, -1)
+    removed = head[#head]
+    pushAll('lpush', head, #head - 1, 1, -1)
+else
+    local tail = redis.call('lrange', key, position, -1)
+    redis.call('ltrim', key, 0, position - 1)
+    removed = tail[1]
+    pushAll('rpush', tail, 2, #tail, 1)
+end
+redis.call('incr', KEYS[2])
+return removed
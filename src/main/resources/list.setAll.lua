@@ -0,0 +1,19 @@
+-- org.oba.jedis.extra.utils.collections.JedisList setAll
+-- KEYS[1] list, KEYS[2] version counter of the list, ARGV pairs of position and new element
+-- All the positions are checked before any change
+-- Returns the previous elements in the order of the pairs, or the first position out of bounds as a number
+local key = KEYS[1]
+local size = redis.call('llen', key)
+for i = 1, #ARGV, 2 do
+    local position = tonumber(ARGV[i])
+    if position < 0 or position >= size then
+        return position
+    end
+end
+local previous = {}
+for i = 1, #ARGV, 2 do
+    previous[#previous + 1] = redis.call('lindex', key, ARGV[i])
+    redis.call('lset', key, ARGV[i], ARGV[i + 1])
+end
+redis.call('incr', KEYS[2])
+return previous
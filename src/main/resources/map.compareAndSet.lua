@@ -0,0 +1,20 @@
+-- org.oba.jedis.extra.utils.collections.JedisMap compareAndSet
+-- KEYS[1] hash, KEYS[2] version counter of the hash
+-- ARGV[1] field, ARGV[2] '1' if a current value is expected or '0' if the field must not exist, ARGV[3] expected value,
+-- ARGV[4] '1' to set the new value or '0' to delete the field, ARGV[5] new value
+-- Returns 1 if the field was as expected and has been changed, 0 otherwise
+local current = redis.call('hget', KEYS[1], ARGV[1])
+if ARGV[2] == '1' then
+    if current ~= ARGV[3] then
+        return 0
+    end
+elseif current then
+    return 0
+end
+if ARGV[4] == '1' then
+    redis.call('hset', KEYS[1], ARGV[1], ARGV[5])
+else
+    redis.call('hdel', KEYS[1], ARGV[1])
+end
+redis.call('incr', KEYS[2])
+return 1
@@ -0,0 +1,19 @@
+-- org.oba.jedis.extra.utils.collections.JedisMap containsValue
+-- KEYS[1] hash, ARGV[1] value
+-- The hash is scanned with HSCAN in chunks, and the scan stops at the first field with the value
+-- so only one chunk is in memory
+-- Returns 1 if found, 0 otherwise
+local key = KEYS[1]
+local value = ARGV[1]
+local cursor = '0'
+repeat
+    local result = redis.call('hscan', key, cursor, 'COUNT', 1000)
+    cursor = result[1]
+    local items = result[2]
+    for i = 2, #items, 2 do
+        if items[i] == value then
+            return 1
+        end
+    end
+until cursor == '0'
+return 0
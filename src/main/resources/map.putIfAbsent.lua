@@ -0,0 +1,10 @@
+-- org.oba.jedis.extra.utils.collections.JedisMap putIfAbsent
+-- KEYS[1] hash, KEYS[2] version counter of the hash, ARGV[1] field, ARGV[2] value
+-- Returns the current value if the field exists (and nothing is changed), or nil if the value has been set
+local current = redis.call('hget', KEYS[1], ARGV[1])
+if current then
+    return current
+end
+redis.call('hset', KEYS[1], ARGV[1], ARGV[2])
+redis.call('incr', KEYS[2])
+return false
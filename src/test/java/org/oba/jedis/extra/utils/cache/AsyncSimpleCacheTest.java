@@ -0,0 +1,254 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import redis.clients.jedis.Transaction;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.oba.jedis.extra.utils.cache.MockOfJedisForSimpleCache.unitTestEnabledForSimpleCache;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Transaction.class})
+public class AsyncSimpleCacheTest {
+
+    private MockOfJedisForSimpleCache mockOfJedisForSimpleCache;
+
+    private AsyncSimpleCache asyncSimpleCache;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(unitTestEnabledForSimpleCache());
+        if (!unitTestEnabledForSimpleCache()) return;
+        mockOfJedisForSimpleCache = new MockOfJedisForSimpleCache();
+    }
+
+    @After
+    public void tearDown() {
+        if (asyncSimpleCache != null) {
+            asyncSimpleCache.close();
+        }
+        if (mockOfJedisForSimpleCache != null) {
+            mockOfJedisForSimpleCache.clearData();
+        }
+    }
+
+    SimpleCache createNewCache() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        return new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), name, 3_600_000);
+    }
+
+    @Test
+    public void putGetTest() throws ExecutionException, InterruptedException {
+        asyncSimpleCache = new AsyncSimpleCache(createNewCache());
+        asyncSimpleCache.put("a", "A1").get();
+        assertEquals("A1", asyncSimpleCache.get("a").get());
+        assertNull(asyncSimpleCache.get("b").get());
+        assertEquals("A1", asyncSimpleCache.getSimpleCache().get("a"));
+    }
+
+    @Test
+    public void getAllTest() throws ExecutionException, InterruptedException {
+        asyncSimpleCache = new AsyncSimpleCache(createNewCache());
+        Map<String, String> values = new HashMap<>();
+        values.put("a", "A1");
+        values.put("b", "B1");
+        asyncSimpleCache.putAll(values).get();
+        Map<String, String> result = asyncSimpleCache.getAll(new HashSet<>(Arrays.asList("a", "b", "c"))).get();
+        assertEquals(values, result);
+        assertTrue(asyncSimpleCache.getAll(Collections.emptySet()).get().isEmpty());
+    }
+
+    @Test
+    public void concurrentReadsTest() throws ExecutionException, InterruptedException {
+        SimpleCache simpleCache = createNewCache();
+        for(int i = 0; i < 50; i++) {
+            simpleCache.put("k" + i, "V" + i);
+        }
+        asyncSimpleCache = new AsyncSimpleCache(simpleCache, Executors.newFixedThreadPool(4), 1, 10);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for(int i = 0; i < 100; i++) {
+            futures.add(asyncSimpleCache.get("k" + i));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        for(int i = 0; i < 100; i++) {
+            if (i < 50) {
+                assertEquals("V" + i, futures.get(i).get());
+            } else {
+                assertNull(futures.get(i).get());
+            }
+        }
+    }
+
+    @Test
+    public void readThroughTest() throws ExecutionException, InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        SimpleCache simpleCache = createNewCache().
+                withCacheLoader(key -> {
+                    loads.incrementAndGet();
+                    return key.startsWith("x") ? null : key.toUpperCase();
+                });
+        simpleCache.put("a", "A1");
+        asyncSimpleCache = new AsyncSimpleCache(simpleCache);
+        assertEquals("A1", asyncSimpleCache.get("a").get());
+        assertEquals(0, loads.get());
+        assertEquals("B", asyncSimpleCache.get("b").get());
+        assertNull(asyncSimpleCache.get("x").get());
+        assertEquals("B", simpleCache.get("b"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void readThroughCountedOnceTest() throws ExecutionException, InterruptedException {
+        SimpleCache simpleCache = createNewCache().
+                withCacheLoader(String::toUpperCase).
+                withStatistics();
+        simpleCache.put("a", "A1");
+        asyncSimpleCache = new AsyncSimpleCache(simpleCache);
+        Map<String, String> result = asyncSimpleCache.getAll(new HashSet<>(Arrays.asList("a", "b", "c"))).get();
+        assertEquals("A1", result.get("a"));
+        assertEquals("B", result.get("b"));
+        assertEquals("C", result.get("c"));
+        assertEquals(1L, simpleCache.getStatistics().getCacheHits());
+        assertEquals(2L, simpleCache.getStatistics().getCacheMisses());
+    }
+
+    @Test
+    public void readThroughCoalescedTest() throws ExecutionException, InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch inLoad = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SimpleCache simpleCache = createNewCache().
+                withCacheLoader(key -> {
+                    loads.incrementAndGet();
+                    inLoad.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return key.toUpperCase();
+                });
+        asyncSimpleCache = new AsyncSimpleCache(simpleCache);
+        List<String> results = Collections.synchronizedList(new ArrayList<>());
+        Thread thread = new Thread(() -> results.add(simpleCache.get("a")));
+        thread.start();
+        inLoad.await();
+        CompletableFuture<String> future = asyncSimpleCache.get("a");
+        Thread.sleep(100);
+        release.countDown();
+        thread.join();
+        assertEquals("A", future.get());
+        assertEquals(Collections.singletonList("A"), results);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void readThroughWithLoadLeaseTest() throws ExecutionException, InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        SimpleCache simpleCache = createNewCache().
+                withCacheLoader(key -> key + ":" + loads.incrementAndGet()).
+                withLoadLease(500);
+        mockOfJedisForSimpleCache.put(simpleCache.resolveLeaseKey("a"), "1");
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                // Eat this
+            }
+            mockOfJedisForSimpleCache.put(simpleCache.resolveKey("a"), "A1");
+        }).start();
+        asyncSimpleCache = new AsyncSimpleCache(simpleCache);
+        Map<String, String> result = asyncSimpleCache.getAll(new HashSet<>(Arrays.asList("a", "b"))).get();
+        assertEquals("A1", result.get("a"));
+        assertEquals("b:1", result.get("b"));
+        assertEquals(1, loads.get());
+        assertFalse(mockOfJedisForSimpleCache.getCurrentData().containsKey(simpleCache.resolveLeaseKey("b")));
+    }
+
+    @Test
+    public void readWithRefreshAheadTest() throws ExecutionException, InterruptedException {
+        AtomicInteger loads = new AtomicInteger(0);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        SimpleCache simpleCache = new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), name, 10_000).
+                withCacheLoader(key -> key + ":" + loads.incrementAndGet()).
+                withRefreshAhead(0.5, executorService);
+        simpleCache.put("a", "A1", 1_000);
+        simpleCache.put("b", "B1");
+        asyncSimpleCache = new AsyncSimpleCache(simpleCache);
+        Map<String, String> result = asyncSimpleCache.getAll(new HashSet<>(Arrays.asList("a", "b"))).get();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals("A1", result.get("a"));
+        assertEquals("B1", result.get("b"));
+        assertEquals(1, loads.get());
+        assertEquals("a:1", simpleCache.get("a"));
+    }
+
+    @Test
+    public void removeAndReplaceTest() throws ExecutionException, InterruptedException {
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            asyncSimpleCache = new AsyncSimpleCache(createNewCache(), executorService);
+            assertTrue(asyncSimpleCache.putIfAbsent("a", "A1").get());
+            assertFalse(asyncSimpleCache.putIfAbsent("a", "A2").get());
+            assertTrue(asyncSimpleCache.replace("a", "A1", "A2").get());
+            assertFalse(asyncSimpleCache.replace("a", "A1", "A3").get());
+            assertTrue(asyncSimpleCache.replace("a", "A3").get());
+            assertEquals("A3", asyncSimpleCache.getAndReplace("a", "A4").get());
+            assertEquals("A4", asyncSimpleCache.getAndPut("a", "A5").get());
+            assertFalse(asyncSimpleCache.remove("a", "A4").get());
+            assertTrue(asyncSimpleCache.remove("a", "A5").get());
+            asyncSimpleCache.put("b", "B1").get();
+            assertEquals("B1", asyncSimpleCache.getAndRemove("b").get());
+            asyncSimpleCache.put("c", "C1").get();
+            assertTrue(asyncSimpleCache.remove("c").get());
+            assertFalse(asyncSimpleCache.remove("c").get());
+            asyncSimpleCache.put("d", "D1").get();
+            asyncSimpleCache.removeAll(Collections.singleton("d")).get();
+            assertNull(asyncSimpleCache.get("d").get());
+            asyncSimpleCache.close();
+            assertFalse(executorService.isShutdown());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void errorTest() throws InterruptedException {
+        asyncSimpleCache = new AsyncSimpleCache(createNewCache());
+        try {
+            asyncSimpleCache.put("a", null).get();
+            fail("Error expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedTest() {
+        asyncSimpleCache = new AsyncSimpleCache(createNewCache());
+        asyncSimpleCache.close();
+        assertTrue(asyncSimpleCache.isClosed());
+        asyncSimpleCache.get("a");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void newErrorTest() {
+        new AsyncSimpleCache(createNewCache(), Executors.newSingleThreadExecutor(), 0, 10);
+    }
+
+}
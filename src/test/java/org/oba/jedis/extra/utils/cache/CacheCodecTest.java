@@ -0,0 +1,78 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class CacheCodecTest {
+
+    @Test
+    public void bytesTest() {
+        CacheCodec<byte[]> codec = CacheCodec.bytes();
+        byte[] data = new byte[]{1, 2, 3};
+        assertArrayEquals(data, codec.encode(data));
+        assertArrayEquals(data, codec.decode(data));
+    }
+
+    @Test
+    public void utf8Test() {
+        CacheCodec<String> codec = CacheCodec.utf8();
+        String value = "añb€c";
+        assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), codec.encode(value));
+        assertEquals(value, codec.decode(codec.encode(value)));
+    }
+
+    @Test
+    public void deflateSmallTest() {
+        CacheCodec<String> codec = CacheCodec.deflate(CacheCodec.utf8(), 100);
+        String value = "abc";
+        byte[] data = codec.encode(value);
+        assertEquals(DeflateCacheCodec.RAW, data[0]);
+        assertEquals(4, data.length);
+        assertEquals(value, codec.decode(data));
+    }
+
+    @Test
+    public void deflateBigTest() {
+        CacheCodec<String> codec = CacheCodec.deflate(CacheCodec.utf8(), 100);
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < 1000; i++) {
+            sb.append("value").append(i % 10);
+        }
+        String value = sb.toString();
+        byte[] data = codec.encode(value);
+        assertEquals(DeflateCacheCodec.DEFLATED, data[0]);
+        assertTrue(data.length < value.length() / 2);
+        assertEquals(value, codec.decode(data));
+    }
+
+    @Test
+    public void deflateNotCompressibleTest() {
+        CacheCodec<byte[]> codec = new DeflateCacheCodec<>(CacheCodec.bytes(), 10);
+        byte[] value = new byte[200];
+        new java.util.Random(7L).nextBytes(value);
+        byte[] data = codec.encode(value);
+        assertEquals(DeflateCacheCodec.RAW, data[0]);
+        assertArrayEquals(value, codec.decode(data));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void deflateWrongDataTest() {
+        CacheCodec<String> codec = CacheCodec.deflate(CacheCodec.utf8(), 100);
+        codec.decode(new byte[]{DeflateCacheCodec.DEFLATED, 7, 7, 7});
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void deflateWrongHeaderTest() {
+        CacheCodec<String> codec = CacheCodec.deflate(CacheCodec.utf8(), 100);
+        codec.decode(new byte[]{9, 7, 7, 7});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void deflateErrorTest() {
+        new DeflateCacheCodec<>(CacheCodec.utf8(), -1);
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CacheLoadCoalescerTest {
+
+    @Test
+    public void loadTest() {
+        CacheLoadCoalescer coalescer = new CacheLoadCoalescer();
+        assertEquals("A1", coalescer.load("a", () -> "A1"));
+        assertNull(coalescer.load("b", () -> null));
+        assertEquals(0, coalescer.inFlightLoads());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void loadWithErrorTest() {
+        CacheLoadCoalescer coalescer = new CacheLoadCoalescer();
+        try {
+            coalescer.load("a", () -> {
+                throw new IllegalStateException("Test exception");
+            });
+        } finally {
+            assertEquals(0, coalescer.inFlightLoads());
+        }
+    }
+
+    @Test
+    public void concurrentLoadTest() throws InterruptedException {
+        CacheLoadCoalescer coalescer = new CacheLoadCoalescer();
+        AtomicInteger loads = new AtomicInteger(0);
+        CountDownLatch inLoad = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> results = new ArrayList<>();
+        Thread leader = new Thread(() -> {
+            String value = coalescer.load("a", () -> {
+                loads.incrementAndGet();
+                inLoad.countDown();
+                await(release);
+                return "A1";
+            });
+            synchronized (results) {
+                results.add(value);
+            }
+        });
+        leader.start();
+        inLoad.await();
+        List<Thread> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Thread follower = new Thread(() -> {
+                String value = coalescer.load("a", () -> {
+                    loads.incrementAndGet();
+                    return "A2";
+                });
+                synchronized (results) {
+                    results.add(value);
+                }
+            });
+            followers.add(follower);
+            follower.start();
+        }
+        Thread.sleep(100);
+        release.countDown();
+        leader.join();
+        for (Thread follower : followers) {
+            follower.join();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(6, results.size());
+        assertTrue(results.stream().allMatch("A1"::equals));
+        assertEquals(0, coalescer.inFlightLoads());
+    }
+
+    @Test
+    public void loadAllTest() throws InterruptedException {
+        CacheLoadCoalescer coalescer = new CacheLoadCoalescer();
+        List<Set<String>> loadedKeys = new ArrayList<>();
+        CountDownLatch inLoad = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        String[] result = new String[1];
+        Thread leader = new Thread(() -> result[0] = coalescer.load("a", () -> {
+            inLoad.countDown();
+            await(release);
+            return "A1";
+        }));
+        leader.start();
+        inLoad.await();
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        }).start();
+        Map<String, String> values = coalescer.loadAll(new HashSet<>(Arrays.asList("a", "b", "c")), key -> key, keys -> {
+            loadedKeys.add(keys);
+            Map<String, String> loaded = new HashMap<>();
+            loaded.put("b", "B1");
+            return loaded;
+        });
+        leader.join();
+        assertEquals(Collections.singletonList(new HashSet<>(Arrays.asList("b", "c"))), loadedKeys);
+        Map<String, String> expected = new HashMap<>();
+        expected.put("a", "A1");
+        expected.put("b", "B1");
+        assertEquals(expected, values);
+        assertEquals("A1", result[0]);
+        assertEquals(0, coalescer.inFlightLoads());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
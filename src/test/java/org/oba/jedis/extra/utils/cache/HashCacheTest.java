@@ -0,0 +1,288 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import redis.clients.jedis.Transaction;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.oba.jedis.extra.utils.cache.MockOfJedisForSimpleCache.unitTestEnabledForSimpleCache;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Transaction.class})
+public class HashCacheTest {
+
+    private MockOfJedisForHashCache mockOfJedisForHashCache;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(unitTestEnabledForSimpleCache());
+        if (!unitTestEnabledForSimpleCache()) return;
+        mockOfJedisForHashCache = new MockOfJedisForHashCache();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockOfJedisForHashCache != null) {
+            mockOfJedisForHashCache.clearData();
+        }
+    }
+
+    HashCache createNewCache() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        return new HashCache(mockOfJedisForHashCache.getJedisPool(), name, 3_600_000).
+                withBuckets(4);
+    }
+
+    @Test
+    public void versionTest() {
+        assertTrue(HashCache.isVersionWithFieldExpiration(MockOfJedisForHashCache.REDIS_INFO_7_4));
+        assertTrue(HashCache.isVersionWithFieldExpiration("redis_version:8.0.0"));
+        assertFalse(HashCache.isVersionWithFieldExpiration(MockOfJedisForHashCache.REDIS_INFO_7_2));
+        assertFalse(HashCache.isVersionWithFieldExpiration("redis_version:6.2.14"));
+        assertFalse(HashCache.isVersionWithFieldExpiration("other:1"));
+        assertFalse(HashCache.isVersionWithFieldExpiration(null));
+    }
+
+    @Test
+    public void bucketsTest() {
+        HashCache hashCache = createNewCache();
+        for(int i = 0; i < 100; i++) {
+            hashCache.put("k" + i, "V" + i);
+        }
+        Set<String> keys = mockOfJedisForHashCache.getKeys();
+        assertTrue(keys.size() <= 4);
+        assertTrue(keys.stream().allMatch(key -> key.matches(".*:\\{[0-3]}")));
+        assertEquals(hashCache.bucketKey(Math.floorMod("k1".hashCode(), 4)), hashCache.resolveBucket("k1"));
+        assertEquals(100L, hashCache.size());
+    }
+
+    @Test
+    public void putGetTest() {
+        HashCache hashCache = createNewCache();
+        hashCache.put("a", "A1");
+        assertEquals("A1", hashCache.get("a"));
+        assertNull(hashCache.get("b"));
+        assertTrue(hashCache.containsKey("a"));
+        assertFalse(hashCache.containsKey("b"));
+        hashCache.put("a", "A2");
+        assertEquals("A2", hashCache.get("a"));
+    }
+
+    @Test
+    public void fieldExpirationTest() throws InterruptedException {
+        HashCache hashCache = createNewCache();
+        assertTrue(hashCache.isFieldExpiration());
+        hashCache.put("a", "A1", 100);
+        hashCache.put("b", "B1");
+        long pttl = mockOfJedisForHashCache.mockHpttl(hashCache.resolveBucket("b"), "b");
+        assertTrue(pttl > 3_500_000L);
+        Thread.sleep(200);
+        assertNull(hashCache.get("a"));
+        assertEquals("B1", hashCache.get("b"));
+    }
+
+    @Test
+    public void bucketExpirationTest() {
+        mockOfJedisForHashCache.setServerInfo(MockOfJedisForHashCache.REDIS_INFO_7_2);
+        HashCache hashCache = createNewCache();
+        assertFalse(hashCache.isFieldExpiration());
+        hashCache.put("a", "A1");
+        assertEquals(-1L, mockOfJedisForHashCache.mockHpttl(hashCache.resolveBucket("a"), "a"));
+        assertTrue(mockOfJedisForHashCache.mockPttl(hashCache.resolveBucket("a")) > 3_500_000L);
+        assertTrue(hashCache.putIfAbsent("b", "B1"));
+        assertEquals("B1", hashCache.get("b"));
+    }
+
+    @Test
+    public void withFieldExpirationTest() {
+        HashCache hashCache = createNewCache().withFieldExpiration(false);
+        hashCache.put("a", "A1");
+        assertFalse(hashCache.isFieldExpiration());
+        assertEquals(-1L, mockOfJedisForHashCache.mockHpttl(hashCache.resolveBucket("a"), "a"));
+    }
+
+    @Test
+    public void getAllTest() {
+        HashCache hashCache = createNewCache();
+        Map<String, String> values = new HashMap<>();
+        for(int i = 0; i < 20; i++) {
+            values.put("k" + i, "V" + i);
+        }
+        hashCache.putAll(values);
+        int transactions = mockOfJedisForHashCache.getTransactionCalls();
+        Set<String> keys = new HashSet<>(Arrays.asList("k1", "k5", "k12", "x1"));
+        Map<String, String> result = hashCache.getAll(keys);
+        assertEquals(transactions + 1, mockOfJedisForHashCache.getTransactionCalls());
+        assertEquals(3, result.size());
+        assertEquals("V1", result.get("k1"));
+        assertEquals("V5", result.get("k5"));
+        assertEquals("V12", result.get("k12"));
+        assertFalse(result.containsKey("x1"));
+    }
+
+    @Test
+    public void putIfAbsentTest() {
+        HashCache hashCache = createNewCache();
+        assertTrue(hashCache.putIfAbsent("a", "A1"));
+        assertFalse(hashCache.putIfAbsent("a", "A2"));
+        assertEquals("A1", hashCache.get("a"));
+        assertTrue(mockOfJedisForHashCache.mockHpttl(hashCache.resolveBucket("a"), "a") > 3_500_000L);
+    }
+
+    @Test
+    public void removeTest() {
+        HashCache hashCache = createNewCache();
+        hashCache.put("a", "A1");
+        hashCache.put("b", "B1");
+        hashCache.put("c", "C1");
+        assertTrue(hashCache.remove("a"));
+        assertFalse(hashCache.remove("a"));
+        assertEquals("B1", hashCache.getAndRemove("b"));
+        assertNull(hashCache.getAndRemove("b"));
+        hashCache.removeAll(new HashSet<>(Arrays.asList("c", "d")));
+        assertEquals(0L, hashCache.size());
+    }
+
+    @Test
+    public void replaceTest() {
+        HashCache hashCache = createNewCache();
+        hashCache.put("a", "A1");
+        assertFalse(hashCache.replace("a", "A0", "A2"));
+        assertTrue(hashCache.replace("a", "A1", "A2"));
+        assertEquals("A2", hashCache.get("a"));
+        assertTrue(hashCache.replace("a", "A3"));
+        assertFalse(hashCache.replace("b", "B1"));
+        assertEquals("A3", hashCache.getAndReplace("a", "A4"));
+        assertNull(hashCache.getAndReplace("b", "B1"));
+        assertFalse(hashCache.containsKey("b"));
+        assertTrue(mockOfJedisForHashCache.mockHpttl(hashCache.resolveBucket("a"), "a") > 3_500_000L);
+        assertEquals("A4", hashCache.getAndPut("a", "A5"));
+        assertNull(hashCache.getAndPut("b", "B1"));
+        assertEquals("B1", hashCache.get("b"));
+        assertFalse(hashCache.remove("a", "A4"));
+        assertTrue(hashCache.remove("a", "A5"));
+        assertFalse(hashCache.containsKey("a"));
+    }
+
+    @Test
+    public void statisticsTest() {
+        HashCache hashCache = createNewCache().
+                withCacheLoader(key -> key.startsWith("x") ? null : key.toUpperCase()).
+                withStatistics();
+        hashCache.put("a", "A1");
+        assertEquals("A1", hashCache.get("a"));
+        assertEquals("B", hashCache.get("b"));
+        assertEquals(3, hashCache.getAll(new HashSet<>(Arrays.asList("a", "b", "c", "x"))).size());
+        CacheStatistics statistics = hashCache.getStatistics();
+        assertEquals(3L, statistics.getCacheHits());
+        assertEquals(3L, statistics.getCacheMisses());
+        assertEquals(2L, statistics.getCacheLoadSuccesses());
+        assertTrue(statistics.getAverageRoundTripTimeByOperation().containsKey(CacheStatistics.OPERATION_PUT));
+    }
+
+    @Test
+    public void getAllNullLoadedTest() {
+        HashCache hashCache = createNewCache().
+                withCacheLoader(new CacheLoader() {
+                    @Override
+                    public String load(String key) {
+                        return null;
+                    }
+
+                    @Override
+                    public Map<String, String> loadAll(Iterable<String> keys) {
+                        Map<String, String> result = new HashMap<>();
+                        keys.forEach(key -> result.put(key, key.equals("a") ? "A0" : null));
+                        return result;
+                    }
+                });
+        Map<String, String> result = hashCache.getAll(new HashSet<>(Arrays.asList("a", "b")));
+        assertEquals(Collections.singletonMap("a", "A0"), result);
+        assertEquals("A0", hashCache.get("a"));
+        assertFalse(hashCache.containsKey("b"));
+    }
+
+    @Test
+    public void clearTest() {
+        HashCache hashCache = createNewCache();
+        for(int i = 0; i < 20; i++) {
+            hashCache.put("k" + i, "V" + i);
+        }
+        hashCache.clear();
+        assertTrue(mockOfJedisForHashCache.getKeys().isEmpty());
+        assertEquals(0L, hashCache.size());
+    }
+
+    @Test
+    public void iteratorTest() {
+        HashCache hashCache = createNewCache();
+        Map<String, String> values = new HashMap<>();
+        for(int i = 0; i < 20; i++) {
+            values.put("k" + i, "V" + i);
+        }
+        hashCache.putAll(values);
+        Map<String, String> result = new HashMap<>();
+        hashCache.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        assertEquals(values, result);
+        assertEquals(values, hashCache.asMap());
+        assertEquals(values.keySet(), hashCache.stream().map(Map.Entry::getKey).collect(Collectors.toSet()));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iteratorEmptyTest() {
+        createNewCache().iterator().next();
+    }
+
+    @Test
+    public void loaderAndWriterTest() {
+        Map<String, String> external = new HashMap<>();
+        external.put("a", "A0");
+        external.put("b", "B0");
+        HashCache hashCache = createNewCache().
+                withCacheLoader(external::get).
+                withCacheWriter(new CacheWriter() {
+                    @Override
+                    public void write(String key, String value) {
+                        external.put(key, value);
+                    }
+
+                    @Override
+                    public void delete(String key) {
+                        external.remove(key);
+                    }
+                });
+        assertEquals("A0", hashCache.get("a"));
+        assertTrue(hashCache.containsKey("a"));
+        Map<String, String> result = hashCache.getAll(new HashSet<>(Arrays.asList("a", "b", "c")));
+        assertEquals(2, result.size());
+        assertTrue(hashCache.containsKey("b"));
+        hashCache.put("c", "C1");
+        assertEquals("C1", external.get("c"));
+        hashCache.remove("a");
+        assertFalse(external.containsKey("a"));
+        hashCache.removeAll();
+        assertTrue(external.isEmpty());
+        assertEquals(0L, hashCache.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedTest() {
+        HashCache hashCache = createNewCache();
+        hashCache.close();
+        assertTrue(hashCache.isClosed());
+        hashCache.get("a");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withBucketsErrorTest() {
+        createNewCache().withBuckets(0);
+    }
+
+}
@@ -0,0 +1,60 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyTest() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        assertEquals(0L, latencyHistogram.getCount());
+        assertEquals(0.0, latencyHistogram.getAverageMs(), 0.0);
+        assertEquals(0.0, latencyHistogram.getMaxMs(), 0.0);
+        assertEquals(0.0, latencyHistogram.getPercentileMs(99.0), 0.0);
+    }
+
+    @Test
+    public void bucketsTest() {
+        assertEquals(0, LatencyHistogram.bucketOf(0L));
+        assertEquals(0, LatencyHistogram.bucketOf(-5L));
+        assertEquals(1, LatencyHistogram.bucketOf(1_000L));
+        assertEquals(10, LatencyHistogram.bucketOf(TimeUnit.MILLISECONDS.toNanos(1)));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        assertTrue(LatencyHistogram.upperLimitNanos(10) > TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Test
+    public void recordTest() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        for(int i = 0; i < 99; i++) {
+            latencyHistogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        latencyHistogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(100L, latencyHistogram.getCount());
+        assertEquals(1.99, latencyHistogram.getAverageMs(), 0.001);
+        assertEquals(100.0, latencyHistogram.getMaxMs(), 0.001);
+        assertEquals(1.024, latencyHistogram.getPercentileMs(50.0), 0.001);
+        assertEquals(1.024, latencyHistogram.getPercentileMs(99.0), 0.001);
+        assertEquals(100.0, latencyHistogram.getPercentileMs(100.0), 0.001);
+    }
+
+    @Test
+    public void resetTest() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        latencyHistogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+        latencyHistogram.reset();
+        assertEquals(0L, latencyHistogram.getCount());
+        assertEquals(0.0, latencyHistogram.getMaxMs(), 0.0);
+        assertEquals(0.0, latencyHistogram.getPercentileMs(50.0), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void percentileErrorTest() {
+        new LatencyHistogram().getPercentileMs(101.0);
+    }
+
+}
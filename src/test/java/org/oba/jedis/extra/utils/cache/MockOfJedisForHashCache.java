@@ -0,0 +1,344 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.oba.jedis.extra.utils.test.TransactionOrder;
+import org.oba.jedis.extra.utils.utils.ScriptEvalSha1;
+import org.powermock.api.mockito.PowerMockito;
+import redis.clients.jedis.*;
+import redis.clients.jedis.args.ExpiryOption;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mock of jedis methods used by the hash cache
+ * Hashes with expiration by field (HPEXPIRE) and by key (PEXPIRE)
+ */
+public class MockOfJedisForHashCache {
+
+    public static final String REDIS_INFO_7_4 = "# Server\r\nredis_version:7.4.1\r\nredis_mode:standalone\r\n";
+    public static final String REDIS_INFO_7_2 = "# Server\r\nredis_version:7.2.5\r\nredis_mode:standalone\r\n";
+
+    private final Jedis jedis;
+    private final JedisPool jedisPool;
+    private final Map<String, Map<String, String>> data = Collections.synchronizedMap(new HashMap<>());
+    private final Map<String, Long> fieldExpirations = Collections.synchronizedMap(new HashMap<>());
+    private final Map<String, Long> keyExpirations = Collections.synchronizedMap(new HashMap<>());
+    private final List<TransactionOrder<?>> transactionActions = new ArrayList<>();
+    private final Map<String, String> scriptsBySha1 = Collections.synchronizedMap(new HashMap<>());
+    private String serverInfo = REDIS_INFO_7_4;
+    private int transactionCalls = 0;
+
+    public MockOfJedisForHashCache() {
+        jedis = Mockito.mock(Jedis.class);
+        jedisPool = Mockito.mock(JedisPool.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+        Transaction transaction = PowerMockito.mock(Transaction.class);
+        when(jedis.multi()).thenAnswer(ioc -> {
+            transactionCalls++;
+            return transaction;
+        });
+
+        when(jedis.info(anyString())).thenAnswer(ioc -> serverInfo);
+        when(jedis.hget(anyString(), anyString())).thenAnswer(ioc ->
+                mockHget(ioc.getArgument(0), ioc.getArgument(1)));
+        when(jedis.hexists(anyString(), anyString())).thenAnswer(ioc ->
+                mockHget(ioc.getArgument(0), ioc.getArgument(1)) != null);
+        when(jedis.hdel(anyString(), ArgumentMatchers.<String>any())).thenAnswer(ioc ->
+                mockHdel(ioc.getArgument(0), fromObjectArray(ioc.getArguments(), 1)));
+        when(jedis.unlink(anyString())).thenAnswer(ioc ->
+                mockUnlink(fromObjectArray(ioc.getArguments(), 0)));
+        when(jedis.unlink(ArgumentMatchers.<String[]>any())).thenAnswer(ioc ->
+                mockUnlink(fromObjectArray(ioc.getArguments(), 0)));
+        when(jedis.hscan(anyString(), anyString(), any(ScanParams.class))).thenAnswer(ioc ->
+                mockHscan(ioc.getArgument(0)));
+        when(jedis.scriptLoad(anyString())).thenAnswer(ioc ->
+                mockScriptLoad(ioc.getArgument(0)));
+        when(jedis.evalsha(anyString(), any(List.class), any(List.class))).thenAnswer(ioc ->
+                mockEvalSha(ioc.getArgument(0), ioc.getArgument(1), ioc.getArgument(2)));
+
+        when(transaction.hget(anyString(), anyString())).thenAnswer(ioc ->
+                transactionOrder(() -> mockHget(ioc.getArgument(0), ioc.getArgument(1))));
+        when(transaction.hmget(anyString(), ArgumentMatchers.<String>any())).thenAnswer(ioc ->
+                transactionOrder(() -> mockHmget(ioc.getArgument(0), fromObjectArray(ioc.getArguments(), 1))));
+        when(transaction.hset(anyString(), anyMap())).thenAnswer(ioc ->
+                transactionOrder(() -> mockHset(ioc.getArgument(0), ioc.getArgument(1))));
+        when(transaction.hsetnx(anyString(), anyString(), anyString())).thenAnswer(ioc ->
+                transactionOrder(() -> mockHsetnx(ioc.getArgument(0), ioc.getArgument(1), ioc.getArgument(2))));
+        when(transaction.hpexpire(anyString(), anyLong(), ArgumentMatchers.<String>any())).thenAnswer(ioc ->
+                transactionOrder(() -> mockHpexpire(ioc.getArgument(0), ioc.getArgument(1), null,
+                        fromObjectArray(ioc.getArguments(), 2))));
+        when(transaction.hpexpire(anyString(), anyLong(), any(ExpiryOption.class), ArgumentMatchers.<String>any())).thenAnswer(ioc ->
+                transactionOrder(() -> mockHpexpire(ioc.getArgument(0), ioc.getArgument(1), ioc.getArgument(2),
+                        fromObjectArray(ioc.getArguments(), 3))));
+        when(transaction.pexpire(anyString(), anyLong())).thenAnswer(ioc ->
+                transactionOrder(() -> mockPexpire(ioc.getArgument(0), ioc.getArgument(1))));
+        when(transaction.hdel(anyString(), ArgumentMatchers.<String>any())).thenAnswer(ioc ->
+                transactionOrder(() -> mockHdel(ioc.getArgument(0), fromObjectArray(ioc.getArguments(), 1))));
+        when(transaction.hlen(anyString())).thenAnswer(ioc ->
+                transactionOrder(() -> mockHlen(ioc.getArgument(0))));
+        PowerMockito.when(transaction.exec()).thenAnswer(ioc -> mockTransactionExec());
+    }
+
+    public Jedis getJedis() {
+        return jedis;
+    }
+
+    public JedisPool getJedisPool() {
+        return jedisPool;
+    }
+
+    void setServerInfo(String serverInfo) {
+        this.serverInfo = serverInfo;
+    }
+
+    int getTransactionCalls() {
+        return transactionCalls;
+    }
+
+    private static String fieldId(String key, String field) {
+        return key + "\u0000" + field;
+    }
+
+    /**
+     * Removes expired keys and fields
+     */
+    private synchronized void expire() {
+        long now = System.currentTimeMillis();
+        new ArrayList<>(keyExpirations.entrySet()).stream().
+                filter(e -> e.getValue() <= now).
+                forEach(e -> {
+                    data.remove(e.getKey());
+                    keyExpirations.remove(e.getKey());
+                });
+        new ArrayList<>(data.entrySet()).forEach(e -> {
+            e.getValue().keySet().removeIf(field -> {
+                Long expiration = fieldExpirations.get(fieldId(e.getKey(), field));
+                return expiration != null && expiration <= now;
+            });
+            if (e.getValue().isEmpty()) {
+                data.remove(e.getKey());
+            }
+        });
+    }
+
+    synchronized String mockHget(String key, String field) {
+        expire();
+        Map<String, String> hash = data.get(key);
+        return hash != null ? hash.get(field) : null;
+    }
+
+    synchronized List<String> mockHmget(String key, String... fields) {
+        List<String> result = new ArrayList<>(fields.length);
+        for(String field: fields) {
+            result.add(mockHget(key, field));
+        }
+        return result;
+    }
+
+    synchronized Long mockHset(String key, Map<String, String> values) {
+        expire();
+        Map<String, String> hash = data.computeIfAbsent(key, k -> new HashMap<>());
+        long added = values.keySet().stream().filter(field -> !hash.containsKey(field)).count();
+        values.keySet().forEach(field -> fieldExpirations.remove(fieldId(key, field)));
+        hash.putAll(values);
+        return added;
+    }
+
+    synchronized Long mockHsetnx(String key, String field, String value) {
+        if (mockHget(key, field) != null) {
+            return 0L;
+        }
+        return mockHset(key, Collections.singletonMap(field, value));
+    }
+
+    synchronized List<Long> mockHpexpire(String key, long milliseconds, ExpiryOption expiryOption, String... fields) {
+        expire();
+        Map<String, String> hash = data.get(key);
+        List<Long> result = new ArrayList<>(fields.length);
+        for(String field: fields) {
+            String id = fieldId(key, field);
+            if (hash == null || !hash.containsKey(field)) {
+                result.add(-2L);
+            } else if (expiryOption == ExpiryOption.NX && fieldExpirations.containsKey(id)) {
+                result.add(0L);
+            } else {
+                fieldExpirations.put(id, System.currentTimeMillis() + milliseconds);
+                result.add(1L);
+            }
+        }
+        return result;
+    }
+
+    synchronized Long mockPexpire(String key, long milliseconds) {
+        expire();
+        if (data.containsKey(key)) {
+            keyExpirations.put(key, System.currentTimeMillis() + milliseconds);
+            return 1L;
+        } else {
+            return 0L;
+        }
+    }
+
+    synchronized Long mockHdel(String key, String... fields) {
+        expire();
+        Map<String, String> hash = data.get(key);
+        long removed = 0L;
+        if (hash != null) {
+            for(String field: fields) {
+                if (hash.remove(field) != null) {
+                    removed++;
+                }
+                fieldExpirations.remove(fieldId(key, field));
+            }
+            if (hash.isEmpty()) {
+                data.remove(key);
+            }
+        }
+        return removed;
+    }
+
+    synchronized String mockScriptLoad(String script) {
+        String sha1 = ScriptEvalSha1.sha1(script);
+        if (script.contains(" hashReplace")) {
+            scriptsBySha1.put(sha1, "hashReplace");
+        } else if (script.contains(" hashCompareAndRemove")) {
+            scriptsBySha1.put(sha1, "hashCompareAndRemove");
+        }
+        return sha1;
+    }
+
+    /**
+     * Emulates the hash cache scripts
+     */
+    synchronized Object mockEvalSha(String sha1, List<String> keys, List<String> args) {
+        String scriptName = scriptsBySha1.get(sha1);
+        if (scriptName == null) {
+            throw new UnsupportedOperationException("Mock jedis evalsha. Unknown script " + sha1);
+        }
+        String bucket = keys.get(0);
+        String field = args.get(0);
+        String current = mockHget(bucket, field);
+        switch (scriptName) {
+            case "hashReplace":
+                if (current == null || (args.size() > 4 && !args.get(4).equals(current))) {
+                    return current;
+                }
+                mockHset(bucket, Collections.singletonMap(field, args.get(1)));
+                if ("1".equals(args.get(3))) {
+                    mockHpexpire(bucket, Long.parseLong(args.get(2)), null, field);
+                } else {
+                    mockPexpire(bucket, Long.parseLong(args.get(2)));
+                }
+                return current;
+            case "hashCompareAndRemove":
+                return args.get(1).equals(current) ? mockHdel(bucket, field) : 0L;
+            default:
+                throw new UnsupportedOperationException("Mock jedis evalsha. Unknown script " + scriptName);
+        }
+    }
+
+    synchronized Long mockHlen(String key) {
+        expire();
+        Map<String, String> hash = data.get(key);
+        return hash != null ? (long) hash.size() : 0L;
+    }
+
+    synchronized Long mockUnlink(String... keys) {
+        long removed = 0L;
+        for(String key: keys) {
+            if (data.remove(key) != null) {
+                removed++;
+            }
+            keyExpirations.remove(key);
+            fieldExpirations.keySet().removeIf(id -> id.startsWith(key + "\u0000"));
+        }
+        return removed;
+    }
+
+    synchronized ScanResult<Map.Entry<String, String>> mockHscan(String key) {
+        expire();
+        Map<String, String> hash = data.getOrDefault(key, Collections.emptyMap());
+        List<Map.Entry<String, String>> results = hash.entrySet().stream().
+                map(e -> new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue())).
+                collect(Collectors.toList());
+        return new ScanResult<>(ScanParams.SCAN_POINTER_START, results);
+    }
+
+    /**
+     * Remaining time of a field
+     * @param key hash key
+     * @param field field
+     * @return milliseconds, -1 if no field expiration, -2 if not exists
+     */
+    synchronized long mockHpttl(String key, String field) {
+        if (mockHget(key, field) == null) {
+            return -2L;
+        }
+        Long expiration = fieldExpirations.get(fieldId(key, field));
+        return expiration != null ? expiration - System.currentTimeMillis() : -1L;
+    }
+
+    /**
+     * Remaining time of a key
+     * @param key key
+     * @return milliseconds, -1 if no expiration, -2 if not exists
+     */
+    synchronized long mockPttl(String key) {
+        expire();
+        if (!data.containsKey(key)) {
+            return -2L;
+        }
+        Long expiration = keyExpirations.get(key);
+        return expiration != null ? expiration - System.currentTimeMillis() : -1L;
+    }
+
+    synchronized Set<String> getKeys() {
+        expire();
+        return new HashSet<>(data.keySet());
+    }
+
+    private synchronized <T> Response<T> transactionOrder(Supplier<T> supplier) {
+        TransactionOrder<T> transactionOrder = new TransactionOrder<>(supplier);
+        transactionActions.add(transactionOrder);
+        return transactionOrder.getResponse();
+    }
+
+    private synchronized List<Object> mockTransactionExec() {
+        transactionActions.forEach(TransactionOrder::execute);
+        List<Object> responses = transactionActions.stream().
+                map(TransactionOrder::getResponse).
+                collect(Collectors.toList());
+        transactionActions.clear();
+        return responses;
+    }
+
+    synchronized void clearData() {
+        data.clear();
+        fieldExpirations.clear();
+        keyExpirations.clear();
+    }
+
+    static String[] fromObjectArray(Object[] arguments, int from) {
+        List<String> result = new ArrayList<>();
+        for(int i = from; i < arguments.length; i++) {
+            if (arguments[i] instanceof String[]) {
+                result.addAll(Arrays.asList((String[]) arguments[i]));
+            } else if (arguments[i] != null) {
+                result.add(arguments[i].toString());
+            }
+        }
+        return result.toArray(new String[0]);
+    }
+
+}
@@ -4,21 +4,26 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.oba.jedis.extra.utils.test.TTL;
 import org.oba.jedis.extra.utils.test.TransactionOrder;
+import org.oba.jedis.extra.utils.utils.ScriptEvalSha1;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.api.support.membermodification.MemberMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.*;
+import redis.clients.jedis.params.GetExParams;
 import redis.clients.jedis.params.ScanParams;
 import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.params.ZAddParams;
 import redis.clients.jedis.resps.ScanResult;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
+import static org.oba.jedis.extra.utils.test.TestingUtils.extractGetExParamsExpireTimePX;
 import static org.oba.jedis.extra.utils.test.TestingUtils.extractSetParamsExpireTimePX;
 import static org.oba.jedis.extra.utils.test.TestingUtils.isSetParamsNX;
 
@@ -46,8 +51,14 @@ public class MockOfJedisForSimpleCache {
     private final Jedis jedis;
     private final JedisPool jedisPool;
     private final Map<String, String> data = Collections.synchronizedMap(new HashMap<>());
+    private final Map<String, Long> expirations = Collections.synchronizedMap(new HashMap<>());
     private final List<TransactionOrder<?>> transactionActions = new ArrayList<>();
     private final Timer timer;
+    private final Map<String, String> scriptsBySha1 = Collections.synchronizedMap(new HashMap<>());
+    private final Map<String, Map<String, Double>> sortedSets = Collections.synchronizedMap(new HashMap<>());
+    private final Map<String, Map<String, String>> hashes = Collections.synchronizedMap(new HashMap<>());
+    private int mgetCalls = 0;
+    private int unlinkCalls = 0;
 
 
     public MockOfJedisForSimpleCache() {
@@ -71,6 +82,11 @@ public class MockOfJedisForSimpleCache {
             String key = ioc.getArgument(0);
             return mockGet(key);
         });
+        when(jedis.getEx(anyString(), any(GetExParams.class))).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            GetExParams getExParams = ioc.getArgument(1);
+            return mockGetEx(key, getExParams);
+        });
         when(jedis.set(anyString(), anyString())).thenAnswer(ioc -> {
             String key = ioc.getArgument(0);
             String value = ioc.getArgument(1);
@@ -98,6 +114,31 @@ public class MockOfJedisForSimpleCache {
                 throw new UnsupportedOperationException("Mock jedis del. Dont know what is Object arg1: " + arg1);
             }
         });
+        when(jedis.unlink(ArgumentMatchers.<String[]>any())).thenAnswer(ioc -> {
+            Object arg1 = ioc.getArgument(0);
+            if (ioc.getArguments().length == 1 && arg1 instanceof String[]) {
+                return mockUnlink((String[]) arg1);
+            } else {
+                return mockUnlink(fromObjectArray(ioc.getArguments()));
+            }
+        });
+        when(jedis.mget(ArgumentMatchers.<String[]>any())).thenAnswer(ioc -> {
+            Object arg1 = ioc.getArgument(0);
+            if (ioc.getArguments().length == 1 && arg1 instanceof String[]) {
+                return mockMget((String[]) arg1);
+            } else {
+                return mockMget(fromObjectArray(ioc.getArguments()));
+            }
+        });
+        when(jedis.pttl(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockPttl(key);
+        });
+        when(jedis.hget(anyString(), anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String field = ioc.getArgument(1);
+            return mockHget(key, field);
+        });
         when(jedis.scan(anyString(), any(ScanParams.class))).thenAnswer(ioc -> {
             String cursor = ioc.getArgument(0);
             ScanParams scanParams = ioc.getArgument(1);
@@ -108,6 +149,15 @@ public class MockOfJedisForSimpleCache {
             String key = ioc.getArgument(0);
             return mockTransactionGet(key);
         });
+        when(transaction.getEx(anyString(), any(GetExParams.class))).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            GetExParams getExParams = ioc.getArgument(1);
+            return mockTransactionGetEx(key, getExParams);
+        });
+        when(transaction.pttl(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockTransactionPttl(key);
+        });
         when(transaction.set(anyString(), anyString())).thenAnswer(ioc -> {
             String key = ioc.getArgument(0);
             String value = ioc.getArgument(1);
@@ -135,9 +185,31 @@ public class MockOfJedisForSimpleCache {
                 throw new UnsupportedOperationException("Mock jedis transaction del. Dont know what is Object arg1: " + arg1);
             }
         });
+        when(transaction.zadd(anyString(), anyDouble(), anyString(), any(ZAddParams.class))).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            double score = ioc.getArgument(1);
+            String member = ioc.getArgument(2);
+            return mockTransactionZaddXx(key, score, member, false);
+        });
+        when(transaction.zaddIncr(anyString(), anyDouble(), anyString(), any(ZAddParams.class))).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            double score = ioc.getArgument(1);
+            String member = ioc.getArgument(2);
+            return mockTransactionZaddXx(key, score, member, true);
+        });
         PowerMockito.when(transaction.exec()).thenAnswer(ioc -> mockTransactionExec());
 
         when(jedis.eval(anyString(),any(List.class), any(List.class))).thenAnswer(ioc -> null);
+        when(jedis.scriptLoad(anyString())).thenAnswer(ioc -> {
+            String script = ioc.getArgument(0);
+            return mockScriptLoad(script);
+        });
+        when(jedis.evalsha(anyString(), any(List.class), any(List.class))).thenAnswer(ioc -> {
+            String sha1 = ioc.getArgument(0);
+            List<String> keys = ioc.getArgument(1);
+            List<String> args = ioc.getArgument(2);
+            return mockEvalSha(sha1, keys, args);
+        });
 
     }
 
@@ -160,6 +232,15 @@ public class MockOfJedisForSimpleCache {
         return data.get(key);
     }
 
+    synchronized String mockGetEx(String key, GetExParams getExParams) {
+        String value = data.get(key);
+        Long expireTime = extractGetExParamsExpireTimePX(getExParams);
+        if (value != null && expireTime != null) {
+            expire(key, expireTime);
+        }
+        return value;
+    }
+
     synchronized String mockSet(final String key, String value) {
         return mockSet(key, value, new SetParams());
     }
@@ -173,7 +254,9 @@ public class MockOfJedisForSimpleCache {
             data.put(key, value);
             Long expireTime = extractSetParamsExpireTimePX(setParams);
             if (expireTime != null){
-                timer.schedule(TTL.wrapTTL(() -> data.remove(key)),expireTime);
+                expire(key, expireTime);
+            } else {
+                expirations.remove(key);
             }
             return  CLIENT_RESPONSE_OK;
         } else {
@@ -181,6 +264,65 @@ public class MockOfJedisForSimpleCache {
         }
     }
 
+    /**
+     * Sets the expiration of a key
+     * Only the last expiration set removes the key
+     */
+    private synchronized void expire(String key, long expireTime) {
+        long expiration = System.currentTimeMillis() + expireTime;
+        expirations.put(key, expiration);
+        timer.schedule(TTL.wrapTTL(() -> expireIfNeeded(key, expiration)), expireTime);
+    }
+
+    private synchronized void expireIfNeeded(String key, long expiration) {
+        Long current = expirations.get(key);
+        if (current != null && current == expiration) {
+            data.remove(key);
+            expirations.remove(key);
+        }
+    }
+
+    /**
+     * Sets a value, keeping the current expiration
+     */
+    private synchronized void mockSetKeepTtl(String key, String value) {
+        data.put(key, value);
+    }
+
+    synchronized Long mockUnlink(String[] keys) {
+        unlinkCalls++;
+        return mockDel(keys);
+    }
+
+    synchronized int getUnlinkCalls() {
+        return unlinkCalls;
+    }
+
+    synchronized List<String> mockMget(String[] keys) {
+        mgetCalls++;
+        List<String> result = new ArrayList<>(keys.length);
+        for(String key: keys) {
+            result.add(data.get(key));
+        }
+        return result;
+    }
+
+    synchronized int getMgetCalls() {
+        return mgetCalls;
+    }
+
+    synchronized Long mockPttl(String key) {
+        if (!data.containsKey(key)) {
+            return -2L;
+        }
+        Long expiration = expirations.get(key);
+        if (expiration == null) {
+            return -1L;
+        } else {
+            return Math.max(0L, expiration - System.currentTimeMillis());
+        }
+    }
+
     synchronized Long mockDelOne(String key) {
         return mockDel( new String[]{key} );
     }
@@ -191,11 +333,254 @@ public class MockOfJedisForSimpleCache {
             if (data.containsKey(key)) {
                 data.remove(key);
                 result++;
+            } else if (sortedSets.remove(key) != null || hashes.remove(key) != null) {
+                result++;
             }
         }
         return result;
     }
 
+    synchronized String mockHget(String key, String field) {
+        Map<String, String> hash = hashes.get(key);
+        return hash != null ? hash.get(field) : null;
+    }
+
+    /**
+     * Updates the score of an existing member of a sorted set (ZADD XX)
+     */
+    synchronized Double mockZaddXx(String key, double score, String member, boolean incr) {
+        Map<String, Double> sortedSet = sortedSets.get(key);
+        if (sortedSet == null || !sortedSet.containsKey(member)) {
+            return null;
+        }
+        double newScore = incr ? sortedSet.get(member) + score : score;
+        sortedSet.put(member, newScore);
+        return newScore;
+    }
+
+    synchronized Map<String, Double> getSortedSet(String key) {
+        return new HashMap<>(sortedSets.getOrDefault(key, Collections.emptyMap()));
+    }
+
+    /**
+     * Emulates the bounded put script
+     * Every member of the index is checked for expired keys, instead of a sample
+     */
+    private synchronized List<Object> mockBoundedPut(List<String> keys, List<String> args) {
+        String index = keys.get(0);
+        String meta = keys.get(1);
+        Map<String, Double> sortedSet = sortedSets.computeIfAbsent(index, k -> new HashMap<>());
+        Map<String, String> hash = hashes.computeIfAbsent(meta, k -> new HashMap<>());
+        String mode = args.get(2);
+        boolean lfu = "lfu".equals(args.get(3));
+        double now = Double.parseDouble(args.get(4));
+        long maxEntries = Long.parseLong(args.get(5));
+        long maxBytes = Long.parseLong(args.get(6));
+        new ArrayList<>(sortedSet.keySet()).stream().
+                filter(key -> !data.containsKey(key)).
+                forEach(key -> mockUnindex(sortedSet, hash, key));
+        int count = "eq".equals(mode) ? (args.size() - 7) / 2 : args.size() - 7;
+        List<String> previous = new ArrayList<>();
+        Set<String> written = new HashSet<>();
+        for(int i = 2; i < count + 2; i++) {
+            String key = keys.get(i);
+            String value = args.get(i + 5);
+            String current = data.get(key);
+            boolean store;
+            switch (mode) {
+                case "nx":
+                    store = current == null;
+                    break;
+                case "xx":
+                    store = current != null;
+                    break;
+                case "eq":
+                    store = args.get(i + 5 + count).equals(current);
+                    break;
+                default:
+                    store = true;
+            }
+            if (store) {
+                if (current == null) {
+                    mockSetWithTtl(key, value, args.get(0));
+                } else {
+                    mockSetWithTtl(key, value, args.get(1));
+                }
+                mockIndex(sortedSet, hash, key, value, lfu, now);
+                mockDelTombstone(keys, i + count);
+                written.add(key);
+            }
+            previous.add(current);
+        }
+        return Arrays.asList(previous, mockEvict(sortedSet, hash, written, lfu, maxEntries, maxBytes));
+    }
+
+    /**
+     * Emulates the bounded compare and remove script
+     */
+    private synchronized Long mockBoundedCompareAndRemove(List<String> keys, List<String> args) {
+        if (!args.get(0).equals(data.get(keys.get(2)))) {
+            return 0L;
+        }
+        mockBoundedRemove(keys, Collections.singletonList("1"));
+        return 1L;
+    }
+
+    /**
+     * Deletes the tombstone passed to a script at the given position, if any
+     */
+    private void mockDelTombstone(List<String> keys, int position) {
+        if (position < keys.size()) {
+            mockDelOne(keys.get(position));
+        }
+    }
+
+    private void mockIndex(Map<String, Double> sortedSet, Map<String, String> hash, String key, String value, boolean lfu, double now) {
+        long size = key.length() + value.length();
+        long oldSize = Long.parseLong(hash.getOrDefault(key, "0"));
+        hash.put(key, Long.toString(size));
+        hash.put("~bytes", Long.toString(Long.parseLong(hash.getOrDefault("~bytes", "0")) + size - oldSize));
+        if (!lfu) {
+            sortedSet.put(key, now);
+        } else if (sortedSet.containsKey(key)) {
+            sortedSet.put(key, sortedSet.get(key) + 1);
+        } else {
+            sortedSet.put(key, Double.parseDouble(hash.getOrDefault("~age", "0")) + 1);
+        }
+    }
+
+    private List<String> mockEvict(Map<String, Double> sortedSet, Map<String, String> hash, Set<String> written,
+                                   boolean lfu, long maxEntries, long maxBytes) {
+        List<String> evicted = new ArrayList<>();
+        while ((maxEntries > 0 && sortedSet.size() > maxEntries) ||
+                (maxBytes > 0 && Long.parseLong(hash.getOrDefault("~bytes", "0")) > maxBytes)) {
+            Optional<Map.Entry<String, Double>> candidate = sortedSet.entrySet().stream().
+                    filter(e -> !written.contains(e.getKey())).
+                    min(Map.Entry.<String, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+            if (!candidate.isPresent()) {
+                break;
+            }
+            String key = candidate.get().getKey();
+            mockUnindex(sortedSet, hash, key);
+            if (mockDelOne(key) == 1L) {
+                evicted.add(key);
+            }
+            if (lfu) {
+                hash.put("~age", Double.toString(candidate.get().getValue()));
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Emulates the bounded remove script
+     */
+    private synchronized List<String> mockBoundedRemove(List<String> keys, List<String> args) {
+        Map<String, Double> sortedSet = sortedSets.computeIfAbsent(keys.get(0), k -> new HashMap<>());
+        Map<String, String> hash = hashes.computeIfAbsent(keys.get(1), k -> new HashMap<>());
+        int count = Integer.parseInt(args.get(0));
+        List<String> previous = new ArrayList<>();
+        for(int i = 2; i < count + 2; i++) {
+            previous.add(data.get(keys.get(i)));
+            mockDelOne(keys.get(i));
+            mockUnindex(sortedSet, hash, keys.get(i));
+            mockDelTombstone(keys, i + count);
+        }
+        return previous;
+    }
+
+    private void mockUnindex(Map<String, Double> sortedSet, Map<String, String> hash, String key) {
+        sortedSet.remove(key);
+        String size = hash.remove(key);
+        if (size != null) {
+            hash.put("~bytes", Long.toString(Long.parseLong(hash.getOrDefault("~bytes", "0")) - Long.parseLong(size)));
+        }
+    }
+
+    synchronized String mockScriptLoad(String script) {
+        String sha1 = ScriptEvalSha1.sha1(script);
+        if (script.contains(" boundedPut")) {
+            scriptsBySha1.put(sha1, "boundedPut");
+        } else if (script.contains(" boundedRemove")) {
+            scriptsBySha1.put(sha1, "boundedRemove");
+        } else if (script.contains(" boundedCompareAndRemove")) {
+            scriptsBySha1.put(sha1, "boundedCompareAndRemove");
+        } else if (script.contains(" compareAndReplace")) {
+            scriptsBySha1.put(sha1, "compareAndReplace");
+        } else if (script.contains(" replaceIfExists")) {
+            scriptsBySha1.put(sha1, "replaceIfExists");
+        } else if (script.contains(" compareAndRemove")) {
+            scriptsBySha1.put(sha1, "compareAndRemove");
+        } else if (script.contains(" putWithExpiry")) {
+            scriptsBySha1.put(sha1, "putWithExpiry");
+        }
+        return sha1;
+    }
+
+    synchronized Object mockEvalSha(String sha1, List<String> keys, List<String> args) {
+        String scriptName = scriptsBySha1.get(sha1);
+        if (scriptName == null) {
+            throw new UnsupportedOperationException("Mock jedis evalsha. Unknown script " + sha1);
+        }
+        String key = keys.get(0);
+        String current = data.get(key);
+        switch (scriptName) {
+            case "boundedPut":
+                return mockBoundedPut(keys, args);
+            case "boundedRemove":
+                return mockBoundedRemove(keys, args);
+            case "boundedCompareAndRemove":
+                return mockBoundedCompareAndRemove(keys, args);
+            case "compareAndReplace":
+                if (args.get(0).equals(current)) {
+                    mockSetWithTtl(key, args.get(1), args.get(2));
+                    mockDelTombstone(keys, 1);
+                    return 1L;
+                } else {
+                    return 0L;
+                }
+            case "replaceIfExists":
+                if (current != null) {
+                    mockSetWithTtl(key, args.get(0), args.get(1));
+                    mockDelTombstone(keys, 1);
+                }
+                return current;
+            case "compareAndRemove":
+                if (args.get(0).equals(current)) {
+                    mockDelTombstone(keys, 1);
+                    return mockDelOne(key);
+                } else {
+                    return 0L;
+                }
+            case "putWithExpiry":
+                List<String> previous = new ArrayList<>();
+                int count = args.size() - 2;
+                for(int i = 0; i < count; i++) {
+                    String previousValue = data.get(keys.get(i));
+                    if (previousValue == null) {
+                        mockSetWithTtl(keys.get(i), args.get(i + 2), args.get(0));
+                    } else {
+                        mockSetWithTtl(keys.get(i), args.get(i + 2), args.get(1));
+                    }
+                    mockDelTombstone(keys, i + count);
+                    previous.add(previousValue);
+                }
+                return previous;
+            default:
+                throw new UnsupportedOperationException("Mock jedis evalsha. Unknown script " + scriptName);
+        }
+    }
+
+    private void mockSetWithTtl(String key, String value, String timeOutMs) {
+        if ("-1".equals(timeOutMs)) {
+            mockSetKeepTtl(key, value);
+        } else if ("0".equals(timeOutMs)) {
+            mockSet(key, value);
+        } else {
+            mockSet(key, value, new SetParams().px(Long.parseLong(timeOutMs)));
+        }
+    }
+
     private ScanResult<String> mockScan(String cursor, ScanParams scanParams) {
         if (!cursor.equals("0")) {
             LOGGER.warn("Cursor inited wirh value {}", cursor);
@@ -213,6 +598,24 @@ public class MockOfJedisForSimpleCache {
         return transactionOrder.getResponse();
     }
 
+    private synchronized Response<String> mockTransactionGetEx(String key, GetExParams getExParams){
+        TransactionOrder<String> transactionOrder = new TransactionOrder<>(() -> mockGetEx(key, getExParams));
+        transactionActions.add(transactionOrder);
+        return transactionOrder.getResponse();
+    }
+
+    private synchronized Response<Double> mockTransactionZaddXx(String key, double score, String member, boolean incr){
+        TransactionOrder<Double> transactionOrder = new TransactionOrder<>(() -> mockZaddXx(key, score, member, incr));
+        transactionActions.add(transactionOrder);
+        return transactionOrder.getResponse();
+    }
+
+    private synchronized Response<Long> mockTransactionPttl(String key){
+        TransactionOrder<Long> transactionOrder = new TransactionOrder<>(() -> mockPttl(key));
+        transactionActions.add(transactionOrder);
+        return transactionOrder.getResponse();
+    }
+
     private synchronized Response<String> mockTransactionSet(String key, String value){
         return mockTransactionSet(key, value, new SetParams());
     }
@@ -247,6 +650,9 @@ public class MockOfJedisForSimpleCache {
 
     synchronized void clearData(){
         data.clear();
+        expirations.clear();
+        sortedSets.clear();
+        hashes.clear();
     }
 
     synchronized Map<String,Object> getCurrentData() {
@@ -255,6 +661,7 @@ public class MockOfJedisForSimpleCache {
 
     synchronized void put(String key, String element) {
         data.put(key, element);
+        expirations.remove(key);
     }
 
     public static String extractPatternFromScanParams(ScanParams scanParams) {
@@ -0,0 +1,110 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class NearCacheInvalidatorTest {
+
+    private JedisPool jedisPool;
+    private Jedis listenerJedis;
+    private Jedis trackingJedis;
+    private Connection listenerConnection;
+    private final CountDownLatch disconnected = new CountDownLatch(1);
+    private final AtomicInteger replies = new AtomicInteger(0);
+
+    @Before
+    public void setup() {
+        jedisPool = mock(JedisPool.class);
+        listenerJedis = mock(Jedis.class);
+        trackingJedis = mock(Jedis.class);
+        listenerConnection = mock(Connection.class);
+        when(jedisPool.getResource()).thenReturn(listenerJedis, trackingJedis);
+        when(listenerJedis.clientId()).thenReturn(7L);
+        when(listenerJedis.getConnection()).thenReturn(listenerConnection);
+        when(listenerConnection.getObjectMultiBulkReply()).thenAnswer(ioc -> {
+            if (replies.getAndIncrement() == 0) {
+                return Arrays.asList(SafeEncoder.encode("subscribe"), SafeEncoder.encode(NearCacheInvalidator.INVALIDATE_CHANNEL), 1L);
+            }
+            disconnected.await();
+            throw new JedisConnectionException("disconnected");
+        });
+        doAnswer(ioc -> {
+            disconnected.countDown();
+            return null;
+        }).when(listenerConnection).disconnect();
+    }
+
+    @Test
+    public void closeTest() {
+        NearCache nearCache = new NearCache(10, 60_000, () -> {});
+        NearCacheInvalidator invalidator = new NearCacheInvalidator(jedisPool, "cache:", key -> key.substring(6), nearCache);
+        verify(trackingJedis).sendCommand(eq(Protocol.Command.CLIENT), eq("TRACKING"), eq("ON"), eq("REDIRECT"),
+                eq("7"), eq("BCAST"), eq("PREFIX"), eq("cache:"));
+        invalidator.close();
+        verify(trackingJedis).sendCommand(Protocol.Command.CLIENT, "TRACKING", "OFF");
+        verify(trackingJedis).close();
+        verify(listenerConnection).disconnect();
+        verify(jedisPool).returnBrokenResource(listenerJedis);
+        verify(listenerJedis, never()).close();
+        assertTrue(nearCache.isEnabled());
+    }
+
+    @Test
+    public void closeWithTrackingErrorTest() {
+        NearCache nearCache = new NearCache(10, 60_000, () -> {});
+        NearCacheInvalidator invalidator = new NearCacheInvalidator(jedisPool, "cache:", key -> key.substring(6), nearCache);
+        when(trackingJedis.sendCommand(any(Protocol.Command.class), anyString(), anyString())).
+                thenThrow(new JedisConnectionException("error"));
+        invalidator.close();
+        verify(jedisPool).returnBrokenResource(trackingJedis);
+        verify(trackingJedis, never()).close();
+        verify(jedisPool).returnBrokenResource(listenerJedis);
+    }
+
+    @Test
+    public void subscribeErrorTest() {
+        when(listenerConnection.getObjectMultiBulkReply()).thenThrow(new JedisConnectionException("error"));
+        NearCache nearCache = new NearCache(10, 60_000, () -> {});
+        try {
+            new NearCacheInvalidator(jedisPool, "cache:", key -> key.substring(6), nearCache);
+            fail("Error expected");
+        } catch (JedisConnectionException e) {
+            verify(jedisPool).returnBrokenResource(listenerJedis);
+            verify(jedisPool).returnBrokenResource(trackingJedis);
+        }
+    }
+
+    @Test
+    public void processReplyTest() {
+        NearCache nearCache = new NearCache(10, 60_000, () -> {});
+        NearCacheInvalidator invalidator = new NearCacheInvalidator(jedisPool, "cache:", key -> key.substring(6), nearCache);
+        try {
+            nearCache.put("a", "A1", nearCache.version());
+            nearCache.put("b", "B1", nearCache.version());
+            invalidator.processReply(Arrays.asList(SafeEncoder.encode("message"), SafeEncoder.encode(NearCacheInvalidator.INVALIDATE_CHANNEL),
+                    Collections.singletonList(SafeEncoder.encode("cache:a"))));
+            assertNull(nearCache.get("a"));
+            assertEquals("B1", nearCache.get("b"));
+        } finally {
+            invalidator.close();
+        }
+    }
+
+}
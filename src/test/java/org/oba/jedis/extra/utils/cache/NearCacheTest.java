@@ -0,0 +1,100 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class NearCacheTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void newError1Test() {
+        new NearCache(0, 1000L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void newError2Test() {
+        new NearCache(10, 0L);
+    }
+
+    @Test
+    public void putAndGetTest() {
+        NearCache nearCache = new NearCache(10, 60_000L);
+        nearCache.put("a", "A1", nearCache.version());
+        assertEquals("A1", nearCache.get("a"));
+        assertNull(nearCache.get("b"));
+        assertEquals(1, nearCache.size());
+    }
+
+    @Test
+    public void lruEvictionTest() {
+        NearCache nearCache = new NearCache(2, 60_000L);
+        nearCache.put("a", "A1", nearCache.version());
+        nearCache.put("b", "B1", nearCache.version());
+        assertEquals("A1", nearCache.get("a"));
+        nearCache.put("c", "C1", nearCache.version());
+        assertEquals(2, nearCache.size());
+        assertEquals("A1", nearCache.get("a"));
+        assertNull(nearCache.get("b"));
+        assertEquals("C1", nearCache.get("c"));
+    }
+
+    @Test
+    public void expirationTest() throws InterruptedException {
+        NearCache nearCache = new NearCache(10, 50L);
+        nearCache.put("a", "A1", nearCache.version());
+        assertEquals("A1", nearCache.get("a"));
+        Thread.sleep(75);
+        assertNull(nearCache.get("a"));
+        assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    public void invalidateTest() {
+        NearCache nearCache = new NearCache(10, 60_000L);
+        nearCache.put("a", "A1", nearCache.version());
+        nearCache.put("b", "B1", nearCache.version());
+        nearCache.invalidate("a");
+        assertNull(nearCache.get("a"));
+        assertEquals("B1", nearCache.get("b"));
+        nearCache.invalidateAll();
+        assertNull(nearCache.get("b"));
+        assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    public void putAfterInvalidationTest() {
+        NearCache nearCache = new NearCache(10, 60_000L);
+        long readVersion = nearCache.version();
+        nearCache.invalidate("a");
+        nearCache.put("a", "A1", readVersion);
+        assertNull(nearCache.get("a"));
+        nearCache.put("a", "A2", nearCache.version());
+        assertEquals("A2", nearCache.get("a"));
+    }
+
+    @Test
+    public void disableTest() {
+        NearCache nearCache = new NearCache(10, 60_000L);
+        nearCache.put("a", "A1", nearCache.version());
+        nearCache.disable();
+        assertFalse(nearCache.isEnabled());
+        assertNull(nearCache.get("a"));
+        nearCache.put("a", "A2", nearCache.version());
+        assertNull(nearCache.get("a"));
+    }
+
+    @Test
+    public void evictionListenerTest() {
+        AtomicInteger evictions = new AtomicInteger();
+        NearCache nearCache = new NearCache(2, 60_000L, evictions::incrementAndGet);
+        nearCache.put("a", "A1", nearCache.version());
+        nearCache.put("b", "B1", nearCache.version());
+        assertEquals(0, evictions.get());
+        nearCache.put("c", "C1", nearCache.version());
+        assertEquals(1, evictions.get());
+        assertEquals(2, nearCache.size());
+    }
+
+}
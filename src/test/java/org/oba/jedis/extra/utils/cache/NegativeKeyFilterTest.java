@@ -0,0 +1,94 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NegativeKeyFilterTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void newError1Test() {
+        new NegativeKeyFilter(0, 0.01, 1000L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void newError2Test() {
+        new NegativeKeyFilter(100, 1.0, 1000L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void newError3Test() {
+        new NegativeKeyFilter(100, 0.01, 0L);
+    }
+
+    @Test
+    public void sizeTest() {
+        NegativeKeyFilter negativeKeyFilter = new NegativeKeyFilter(1000, 0.01, 60_000L);
+        assertTrue(negativeKeyFilter.getNumBits() >= 9_000);
+        assertEquals(7, negativeKeyFilter.getNumHashes());
+    }
+
+    @Test
+    public void addAndContainsTest() {
+        NegativeKeyFilter negativeKeyFilter = new NegativeKeyFilter(1000, 0.01, 60_000L);
+        for(int i = 0; i < 1000; i++) {
+            negativeKeyFilter.add("missing" + i);
+        }
+        for(int i = 0; i < 1000; i++) {
+            assertTrue(negativeKeyFilter.mightContain("missing" + i));
+        }
+        int falsePositives = 0;
+        for(int i = 0; i < 10_000; i++) {
+            if (negativeKeyFilter.mightContain("present" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 500);
+    }
+
+    @Test
+    public void sameHashCodeTest() {
+        // "Aa" and "BB" have the same String.hashCode, so all these keys have it too
+        List<String> keys = new ArrayList<>();
+        for(int i = 0; i < 1024; i++) {
+            StringBuilder sb = new StringBuilder();
+            for(int bit = 0; bit < 10; bit++) {
+                sb.append((i & (1 << bit)) != 0 ? "Aa" : "BB");
+            }
+            keys.add(sb.toString());
+        }
+        NegativeKeyFilter negativeKeyFilter = new NegativeKeyFilter(500, 0.01, 60_000L);
+        keys.subList(0, 500).forEach(negativeKeyFilter::add);
+        int falsePositives = 0;
+        for(String key: keys.subList(500, keys.size())) {
+            if (negativeKeyFilter.mightContain(key)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 50);
+    }
+
+    @Test
+    public void invalidateTest() {
+        NegativeKeyFilter negativeKeyFilter = new NegativeKeyFilter(100, 0.01, 60_000L);
+        negativeKeyFilter.add("a");
+        negativeKeyFilter.add("b");
+        negativeKeyFilter.invalidate("a");
+        assertFalse(negativeKeyFilter.mightContain("a"));
+        assertFalse(negativeKeyFilter.mightContain("b"));
+    }
+
+    @Test
+    public void rotationTest() throws InterruptedException {
+        NegativeKeyFilter negativeKeyFilter = new NegativeKeyFilter(100, 0.01, 200L);
+        negativeKeyFilter.add("a");
+        Thread.sleep(120);
+        assertTrue(negativeKeyFilter.mightContain("a"));
+        Thread.sleep(120);
+        assertFalse(negativeKeyFilter.mightContain("a"));
+    }
+
+}
@@ -0,0 +1,268 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import redis.clients.jedis.Transaction;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.oba.jedis.extra.utils.cache.MockOfJedisForSimpleCache.unitTestEnabledForSimpleCache;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Transaction.class})
+public class SimpleCacheCapacityTest {
+
+    private MockOfJedisForSimpleCache mockOfJedisForSimpleCache;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(unitTestEnabledForSimpleCache());
+        if (!unitTestEnabledForSimpleCache()) return;
+        mockOfJedisForSimpleCache = new MockOfJedisForSimpleCache();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockOfJedisForSimpleCache != null) {
+            mockOfJedisForSimpleCache.clearData();
+        }
+    }
+
+    SimpleCache createNewCache() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        return new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), name, 3_600_000);
+    }
+
+    private void putSlowly(SimpleCache simpleCache, String... keys) throws InterruptedException {
+        for(String key: keys) {
+            simpleCache.put(key, key.toUpperCase());
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void unboundedTest() {
+        SimpleCache simpleCache = createNewCache();
+        simpleCache.put("a", "A");
+        assertEquals("A", simpleCache.get("a"));
+        assertTrue(mockOfJedisForSimpleCache.getSortedSet(simpleCache.resolveIndexKey()).isEmpty());
+    }
+
+    @Test
+    public void maxEntriesLruTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache().withMaxEntries(3);
+        putSlowly(simpleCache, "a", "b", "c");
+        assertEquals("A", simpleCache.get("a"));
+        Thread.sleep(5);
+        simpleCache.put("d", "D");
+        assertTrue(simpleCache.containsKey("a"));
+        assertFalse(simpleCache.containsKey("b"));
+        assertTrue(simpleCache.containsKey("c"));
+        assertTrue(simpleCache.containsKey("d"));
+        assertEquals(new HashSet<>(Arrays.asList(simpleCache.resolveKey("a"), simpleCache.resolveKey("c"),
+                simpleCache.resolveKey("d"))),
+                mockOfJedisForSimpleCache.getSortedSet(simpleCache.resolveIndexKey()).keySet());
+    }
+
+    @Test
+    public void maxEntriesLfuTest() {
+        SimpleCache simpleCache = createNewCache().
+                withMaxEntries(3).
+                withEvictionPolicy(EvictionPolicy.LFU);
+        simpleCache.put("a", "A");
+        simpleCache.put("b", "B");
+        simpleCache.put("c", "C");
+        simpleCache.get("a");
+        simpleCache.get("a");
+        simpleCache.get("c");
+        simpleCache.put("d", "D");
+        assertFalse(simpleCache.containsKey("b"));
+        simpleCache.put("e", "E");
+        assertFalse(simpleCache.containsKey("d"));
+        assertEquals(new HashSet<>(Arrays.asList("a", "c", "e")), new HashSet<>(simpleCache.keys()));
+        Map<String, Double> index = mockOfJedisForSimpleCache.getSortedSet(simpleCache.resolveIndexKey());
+        assertEquals(3.0, index.get(simpleCache.resolveKey("a")), 0.0);
+        assertEquals(2.0, index.get(simpleCache.resolveKey("e")), 0.0);
+    }
+
+    @Test
+    public void maxBytesTest() {
+        SimpleCache simpleCache = createNewCache();
+        long entryBytes = simpleCache.resolveKey("a").length() + "A1".length();
+        simpleCache.withMaxBytes(3 * entryBytes);
+        simpleCache.put("a", "A1");
+        simpleCache.put("b", "B1");
+        simpleCache.put("c", "C1");
+        assertEquals(3 * entryBytes, simpleCache.getCurrentBytes());
+        simpleCache.put("d", "D1");
+        assertFalse(simpleCache.containsKey("a"));
+        assertEquals(3 * entryBytes, simpleCache.getCurrentBytes());
+        simpleCache.put("b", "B1234");
+        assertEquals(2 * entryBytes + 3, simpleCache.getCurrentBytes());
+        assertEquals(2, simpleCache.keys().size());
+    }
+
+    @Test
+    public void justWrittenNotEvictedTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache().withMaxEntries(3);
+        putSlowly(simpleCache, "x", "y");
+        Map<String, String> values = new HashMap<>();
+        values.put("a", "A");
+        values.put("b", "B");
+        values.put("c", "C");
+        simpleCache.putAll(values);
+        assertEquals(values, simpleCache.asMap());
+        values.put("d", "D");
+        simpleCache.putAll(values);
+        assertEquals(values, simpleCache.asMap());
+    }
+
+    @Test
+    public void putIfAbsentTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache().withMaxEntries(2);
+        putSlowly(simpleCache, "a", "b");
+        assertFalse(simpleCache.putIfAbsent("a", "A2"));
+        assertEquals("A", simpleCache.get("a"));
+        assertTrue(simpleCache.putIfAbsent("c", "C"));
+        assertFalse(simpleCache.containsKey("b"));
+        assertEquals(2, mockOfJedisForSimpleCache.getSortedSet(simpleCache.resolveIndexKey()).size());
+    }
+
+    @Test
+    public void removeTest() {
+        SimpleCache simpleCache = createNewCache().withMaxEntries(10);
+        simpleCache.put("a", "A1");
+        simpleCache.put("b", "B1");
+        simpleCache.put("c", "C1");
+        simpleCache.put("d", "D1");
+        long entryBytes = simpleCache.resolveKey("a").length() + "A1".length();
+        assertTrue(simpleCache.remove("a"));
+        assertFalse(simpleCache.remove("a"));
+        assertEquals("B1", simpleCache.getAndRemove("b"));
+        assertNull(simpleCache.getAndRemove("b"));
+        simpleCache.removeAll(new HashSet<>(Collections.singletonList("c")));
+        assertEquals(entryBytes, simpleCache.getCurrentBytes());
+        simpleCache.clear();
+        assertEquals(0L, simpleCache.getCurrentBytes());
+        assertTrue(mockOfJedisForSimpleCache.getSortedSet(simpleCache.resolveIndexKey()).isEmpty());
+    }
+
+    @Test
+    public void replaceTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache();
+        long entryBytes = simpleCache.resolveKey("a").length() + "A1".length();
+        simpleCache.withMaxBytes(3 * entryBytes);
+        simpleCache.put("a", "A1");
+        Thread.sleep(5);
+        simpleCache.put("b", "B1");
+        Thread.sleep(5);
+        simpleCache.put("c", "C1");
+        assertFalse(simpleCache.replace("a", "A0", "A2"));
+        assertTrue(simpleCache.replace("a", "A1", "A2"));
+        assertEquals(3 * entryBytes, simpleCache.getCurrentBytes());
+        assertTrue(simpleCache.replace("c", "C123"));
+        assertFalse(simpleCache.containsKey("b"));
+        assertEquals(2 * entryBytes + 2, simpleCache.getCurrentBytes());
+        assertEquals("C123", simpleCache.getAndReplace("c", "C"));
+        assertNull(simpleCache.getAndReplace("b", "B2"));
+        assertEquals(2 * entryBytes - 1, simpleCache.getCurrentBytes());
+        assertEquals(new HashSet<>(Arrays.asList(simpleCache.resolveKey("a"), simpleCache.resolveKey("c"))),
+                mockOfJedisForSimpleCache.getSortedSet(simpleCache.resolveIndexKey()).keySet());
+    }
+
+    @Test
+    public void replaceNotEvictedTest() {
+        SimpleCache simpleCache = createNewCache();
+        long entryBytes = simpleCache.resolveKey("a").length() + "A1".length();
+        simpleCache.withMaxBytes(2 * entryBytes).
+                withEvictionPolicy(EvictionPolicy.LFU);
+        simpleCache.put("a", "A1");
+        simpleCache.put("b", "B1");
+        simpleCache.get("b");
+        assertTrue(simpleCache.replace("a", "A1", "A12345"));
+        assertTrue(simpleCache.containsKey("a"));
+        assertFalse(simpleCache.containsKey("b"));
+        assertEquals(2.0, mockOfJedisForSimpleCache.getSortedSet(simpleCache.resolveIndexKey()).
+                get(simpleCache.resolveKey("a")), 0.0);
+    }
+
+    @Test
+    public void removeWithValueTest() {
+        SimpleCache simpleCache = createNewCache().withMaxEntries(10);
+        simpleCache.put("a", "A1");
+        simpleCache.put("b", "B1");
+        long entryBytes = simpleCache.resolveKey("a").length() + "A1".length();
+        assertFalse(simpleCache.remove("a", "A0"));
+        assertEquals(2 * entryBytes, simpleCache.getCurrentBytes());
+        assertTrue(simpleCache.remove("a", "A1"));
+        assertFalse(simpleCache.containsKey("a"));
+        assertEquals(entryBytes, simpleCache.getCurrentBytes());
+        assertEquals(Collections.singleton(simpleCache.resolveKey("b")),
+                mockOfJedisForSimpleCache.getSortedSet(simpleCache.resolveIndexKey()).keySet());
+    }
+
+    @Test
+    public void expiredEntriesTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache().withMaxEntries(2);
+        simpleCache.put("a", "A", 50);
+        simpleCache.put("b", "B");
+        Thread.sleep(150);
+        simpleCache.put("c", "C");
+        assertTrue(simpleCache.containsKey("b"));
+        assertTrue(simpleCache.containsKey("c"));
+        assertFalse(mockOfJedisForSimpleCache.getSortedSet(simpleCache.resolveIndexKey()).
+                containsKey(simpleCache.resolveKey("a")));
+    }
+
+    @Test
+    public void readThroughAndStatisticsTest() {
+        Map<String, String> external = new HashMap<>();
+        external.put("a", "A0");
+        external.put("b", "B0");
+        external.put("c", "C0");
+        SimpleCache simpleCache = createNewCache().
+                withCacheLoader(external::get).
+                withMaxEntries(2).
+                withStatistics();
+        assertEquals("A0", simpleCache.get("a"));
+        Map<String, String> result = simpleCache.getAll(new HashSet<>(Arrays.asList("b", "c")));
+        assertEquals(2, result.size());
+        assertFalse(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveKey("a")));
+        assertEquals(1L, simpleCache.getStatistics().getCacheEvictions());
+    }
+
+    @Test
+    public void oneConnectionTest() {
+        SimpleCache simpleCache = createNewCache().
+                withCacheLoader(String::toUpperCase).
+                withMaxEntries(2);
+        Mockito.clearInvocations(mockOfJedisForSimpleCache.getJedisPool());
+        assertEquals("A", simpleCache.get("a"));
+        verify(mockOfJedisForSimpleCache.getJedisPool(), times(1)).getResource();
+        Mockito.clearInvocations(mockOfJedisForSimpleCache.getJedisPool());
+        assertEquals(2, simpleCache.getAll(new HashSet<>(Arrays.asList("b", "c"))).size());
+        verify(mockOfJedisForSimpleCache.getJedisPool(), times(1)).getResource();
+        Mockito.clearInvocations(mockOfJedisForSimpleCache.getJedisPool());
+        assertEquals("B", simpleCache.getAndRemove("b"));
+        verify(mockOfJedisForSimpleCache.getJedisPool(), times(1)).getResource();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withMaxEntriesErrorTest() {
+        createNewCache().withMaxEntries(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withEvictionPolicyErrorTest() {
+        createNewCache().withEvictionPolicy(null);
+    }
+
+}
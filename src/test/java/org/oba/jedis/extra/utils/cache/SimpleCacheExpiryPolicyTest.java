@@ -0,0 +1,157 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import redis.clients.jedis.Transaction;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.oba.jedis.extra.utils.cache.MockOfJedisForSimpleCache.unitTestEnabledForSimpleCache;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Transaction.class})
+public class SimpleCacheExpiryPolicyTest {
+
+    private MockOfJedisForSimpleCache mockOfJedisForSimpleCache;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(unitTestEnabledForSimpleCache());
+        if (!unitTestEnabledForSimpleCache()) return;
+        mockOfJedisForSimpleCache = new MockOfJedisForSimpleCache();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockOfJedisForSimpleCache != null) {
+            mockOfJedisForSimpleCache.clearData();
+        }
+    }
+
+    SimpleCache createNewCache(ExpiryPolicy expiryPolicy) {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        return new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), name, 3_600_000).
+                withExpiryPolicy(expiryPolicy);
+    }
+
+    long pttl(SimpleCache simpleCache, String key) {
+        return mockOfJedisForSimpleCache.mockPttl(simpleCache.resolveKey(key));
+    }
+
+    @Test
+    public void defaultPolicyTest() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        SimpleCache simpleCache = new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), name, 10_000);
+        simpleCache.put("a", "A1");
+        assertTrue(pttl(simpleCache, "a") > 9_000L);
+        assertEquals("A1", simpleCache.get("a"));
+    }
+
+    @Test
+    public void accessedTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache(ExpiryPolicy.accessed(1_000));
+        simpleCache.put("a", "A1");
+        Thread.sleep(300);
+        assertTrue(pttl(simpleCache, "a") < 800L);
+        assertEquals("A1", simpleCache.get("a"));
+        assertTrue(pttl(simpleCache, "a") > 900L);
+    }
+
+    @Test
+    public void accessedGetAllTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache(ExpiryPolicy.accessed(1_000));
+        simpleCache.put("a", "A1");
+        simpleCache.put("b", "B1");
+        Thread.sleep(300);
+        Map<String, String> result = simpleCache.getAll(new HashSet<>(Arrays.asList("a", "b")));
+        assertEquals(2, result.size());
+        assertTrue(pttl(simpleCache, "a") > 900L);
+        assertTrue(pttl(simpleCache, "b") > 900L);
+    }
+
+    @Test
+    public void createdTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache(ExpiryPolicy.created(1_000));
+        simpleCache.put("a", "A1");
+        Thread.sleep(300);
+        simpleCache.put("a", "A2");
+        assertEquals("A2", simpleCache.get("a"));
+        assertTrue(pttl(simpleCache, "a") < 800L);
+        assertTrue(simpleCache.replace("a", "A2", "A3"));
+        assertTrue(pttl(simpleCache, "a") < 800L);
+        assertEquals("A3", simpleCache.getAndPut("a", "A4"));
+        assertTrue(pttl(simpleCache, "a") < 800L);
+        simpleCache.put("b", "B1");
+        assertTrue(pttl(simpleCache, "b") > 900L);
+    }
+
+    @Test
+    public void createdPutAllTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache(ExpiryPolicy.created(1_000));
+        simpleCache.put("a", "A1");
+        Thread.sleep(300);
+        Map<String, String> data = new HashMap<>();
+        data.put("a", "A2");
+        data.put("b", "B2");
+        simpleCache.putAll(data);
+        assertEquals("A2", simpleCache.get("a"));
+        assertEquals("B2", simpleCache.get("b"));
+        assertTrue(pttl(simpleCache, "a") < 800L);
+        assertTrue(pttl(simpleCache, "b") > 900L);
+    }
+
+    @Test
+    public void perCallPolicyTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache(ExpiryPolicy.modified(1_000));
+        simpleCache.put("a", "A1", ExpiryPolicy.touched(10_000));
+        assertTrue(pttl(simpleCache, "a") > 9_000L);
+        simpleCache.put("b", "B1");
+        Thread.sleep(300);
+        assertEquals("B1", simpleCache.get("b", ExpiryPolicy.accessed(10_000)));
+        assertTrue(pttl(simpleCache, "b") > 9_000L);
+    }
+
+    @Test
+    public void noExpiryTest() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        SimpleCache simpleCache = new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), name, 0);
+        simpleCache.put("a", "A1");
+        assertEquals(-1L, pttl(simpleCache, "a"));
+        assertTrue(simpleCache.putIfAbsent("b", "B1"));
+        assertEquals(-1L, pttl(simpleCache, "b"));
+        simpleCache.put("c", "C1", 1_000);
+        assertTrue(simpleCache.replace("c", "C1", "C2"));
+        assertEquals(-1L, pttl(simpleCache, "c"));
+        simpleCache.put("d", "D1", -1);
+        assertEquals(-1L, pttl(simpleCache, "d"));
+        assertEquals("A1", simpleCache.get("a"));
+    }
+
+    @Test
+    public void noExpiryBoundedTest() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        SimpleCache simpleCache = new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), name, -1).
+                withMaxEntries(10);
+        simpleCache.put("a", "A1");
+        assertEquals(-1L, pttl(simpleCache, "a"));
+        assertEquals("A1", simpleCache.getAndPut("a", "A2"));
+        assertEquals(-1L, pttl(simpleCache, "a"));
+        assertEquals("A2", simpleCache.get("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void policyErrorTest() {
+        new SimpleExpiryPolicy(1_000, 0, ExpiryPolicy.UNCHANGED);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withExpiryPolicyErrorTest() {
+        createNewCache(null);
+    }
+
+}
@@ -167,4 +167,22 @@ public class SimpleCacheIteratorTest {
         map.put("b","B1");
     }
 
+    @Test
+    public void iteratorWithOneMgetPerPageTest() {
+        SimpleCache simpleCache = createNewCache().withResultsPerScan(3);
+        Map<String, String> data = new HashMap<>();
+        for(int i = 0; i < 7; i++) {
+            data.put("k" + i, "V" + i);
+        }
+        simpleCache.putAll(data);
+        Map<String, String> map = simpleCache.iterator().asMap();
+        assertEquals(data, map);
+        assertEquals(3, mockOfJedisForSimpleCache.getMgetCalls());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withResultsPerScanErrorTest() {
+        createNewCache().withResultsPerScan(0);
+    }
+
 }
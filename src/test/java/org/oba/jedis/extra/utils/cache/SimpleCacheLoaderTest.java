@@ -9,7 +9,10 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import redis.clients.jedis.Transaction;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -124,6 +127,174 @@ public class SimpleCacheLoaderTest {
         simpleCache.get("a");
     }
 
+    @Test
+    public void getAllWithMissesLoadedInOneCallTest() {
+        AtomicInteger loadCalls = new AtomicInteger(0);
+        AtomicInteger loadAllCalls = new AtomicInteger(0);
+        CacheLoader countingCacheLoader = new CacheLoader() {
+            @Override
+            public String load(String key) {
+                loadCalls.incrementAndGet();
+                return key + ":loaded";
+            }
+
+            @Override
+            public Map<String, String> loadAll(Iterable<String> keys) {
+                loadAllCalls.incrementAndGet();
+                Map<String, String> results = new HashMap<>();
+                keys.forEach(key -> results.put(key, key + ":loaded"));
+                return results;
+            }
+        };
+        SimpleCache simpleCache = createNewCache(countingCacheLoader);
+        simpleCache.put("a", "A1");
+        Set<String> keys = new HashSet<>(Arrays.asList("a", "b", "c", "d"));
+        Map<String, String> result = simpleCache.getAll(keys);
+        assertEquals(4, result.size());
+        assertEquals("A1", result.get("a"));
+        assertEquals("b:loaded", result.get("b"));
+        assertEquals("d:loaded", result.get("d"));
+        assertEquals(1, loadAllCalls.get());
+        assertEquals(0, loadCalls.get());
+        assertEquals("c:loaded", mockOfJedisForsimpleCache.getCurrentData().get(simpleCache.resolveKey("c")));
+    }
+
+
+    @Test
+    public void getConcurrentLoadedOnceTest() throws InterruptedException {
+        AtomicInteger loadCalls = new AtomicInteger(0);
+        CacheLoader slowCacheLoader = key -> {
+            loadCalls.incrementAndGet();
+            try {
+                Thread.sleep(250);
+            } catch (InterruptedException e) {
+                // Eat this
+            }
+            return key + ":loaded";
+        };
+        SimpleCache simpleCache = createNewCache(slowCacheLoader);
+        List<String> results = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            threads.add(new Thread(() -> results.add(simpleCache.get("a"))));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1, loadCalls.get());
+        assertEquals(5, results.size());
+        assertTrue(results.stream().allMatch("a:loaded"::equals));
+    }
+
+    @Test
+    public void getConcurrentWithOtherLoaderTest() throws InterruptedException {
+        CacheLoader slowCacheLoader = key -> {
+            try {
+                Thread.sleep(250);
+            } catch (InterruptedException e) {
+                // Eat this
+            }
+            return key + ":slow";
+        };
+        SimpleCache simpleCache = createNewCache(slowCacheLoader);
+        List<String> results = Collections.synchronizedList(new ArrayList<>());
+        Thread thread = new Thread(() -> results.add(simpleCache.get("a")));
+        thread.start();
+        Thread.sleep(50);
+        // other loader is not coalesced with the default one
+        assertEquals("a:fast", simpleCache.get("a", key -> key + ":fast"));
+        thread.join();
+        assertEquals(Collections.singletonList("a:slow"), results);
+    }
+
+    @Test
+    public void getWithLoadLeaseTest() {
+        SimpleCache simpleCache = createNewCache().withLoadLease(1000);
+        String result = simpleCache.get("a");
+        assertNotNull(result);
+        assertEquals(1, testingCacheLoader.countDataGenerator());
+        assertFalse(mockOfJedisForsimpleCache.getCurrentData().containsKey(simpleCache.resolveLeaseKey("a")));
+    }
+
+    @Test
+    public void getWithLoadLeaseHeldByOtherTest() {
+        SimpleCache simpleCache = createNewCache().withLoadLease(500);
+        mockOfJedisForsimpleCache.put(simpleCache.resolveLeaseKey("a"), "1");
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                // Eat this
+            }
+            mockOfJedisForsimpleCache.put(simpleCache.resolveKey("a"), "A1");
+        }).start();
+        String result = simpleCache.get("a");
+        assertEquals("A1", result);
+        assertEquals(0, testingCacheLoader.countDataGenerator());
+    }
+
+    @Test
+    public void getWithLoadLeaseExpiredTest() {
+        SimpleCache simpleCache = createNewCache().withLoadLease(100);
+        mockOfJedisForsimpleCache.put(simpleCache.resolveLeaseKey("a"), "1");
+        String result = simpleCache.get("a");
+        assertNotNull(result);
+        assertEquals(1, testingCacheLoader.countDataGenerator());
+    }
+
+    @Test
+    public void getWithLoadLeaseTakenOverTest() {
+        String[] leaseKey = new String[1];
+        SimpleCache simpleCache = createNewCache(key -> {
+            // the lease expires while loading, and other instance gets it
+            mockOfJedisForsimpleCache.put(leaseKey[0], "other");
+            return testingCacheLoader.load(key);
+        }).withLoadLease(1000);
+        leaseKey[0] = simpleCache.resolveLeaseKey("a");
+        assertNotNull(simpleCache.get("a"));
+        assertEquals("other", mockOfJedisForsimpleCache.getCurrentData().get(leaseKey[0]));
+    }
+
+    @Test
+    public void getWithRefreshAheadTest() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger(0);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        SimpleCache simpleCache = new SimpleCache(mockOfJedisForsimpleCache.getJedisPool(), name, 10_000).
+                withCacheLoader(key -> key + ":" + loads.incrementAndGet()).
+                withRefreshAhead(0.5, executorService);
+        simpleCache.put("a", "A1", 1_000);
+        String result = simpleCache.get("a");
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals("A1", result);
+        assertEquals(1, loads.get());
+        assertEquals("a:1", simpleCache.get("a"));
+        assertTrue(mockOfJedisForsimpleCache.mockPttl(simpleCache.resolveKey("a")) > 5_000L);
+    }
+
+    @Test
+    public void getWithRefreshAheadNotNeededTest() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger(0);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        SimpleCache simpleCache = new SimpleCache(mockOfJedisForsimpleCache.getJedisPool(), name, 10_000).
+                withCacheLoader(key -> key + ":" + loads.incrementAndGet()).
+                withRefreshAhead(0.5, executorService);
+        simpleCache.put("a", "A1");
+        String result = simpleCache.get("a");
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals("A1", result);
+        assertEquals(0, loads.get());
+        assertEquals("b:1", simpleCache.get("b"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withRefreshAheadErrorTest() {
+        createNewCache().withRefreshAhead(1.0);
+    }
 
     private static class TestingCacheLoader implements CacheLoader {
 
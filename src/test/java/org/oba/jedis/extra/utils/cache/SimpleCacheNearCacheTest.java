@@ -0,0 +1,98 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import redis.clients.jedis.Transaction;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.oba.jedis.extra.utils.cache.MockOfJedisForSimpleCache.unitTestEnabledForSimpleCache;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Transaction.class })
+public class SimpleCacheNearCacheTest {
+
+    private MockOfJedisForSimpleCache mockOfJedisForSimpleCache;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(unitTestEnabledForSimpleCache());
+        if (!unitTestEnabledForSimpleCache()) return;
+        mockOfJedisForSimpleCache = new MockOfJedisForSimpleCache();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockOfJedisForSimpleCache != null) {
+            mockOfJedisForSimpleCache.clearData();
+        }
+    }
+
+    SimpleCache createNewCache() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        return new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), name, 3_600_000).
+                withNearCache(100, 3_600_000, false);
+    }
+
+    @Test
+    public void getFromLocalTest() {
+        SimpleCache simpleCache = createNewCache();
+        simpleCache.put("a", "A1");
+        assertEquals("A1", simpleCache.get("a"));
+        // Changed in redis without the cache, local value is still returned
+        mockOfJedisForSimpleCache.put(simpleCache.resolveKey("a"), "A2");
+        assertEquals("A1", simpleCache.get("a"));
+        assertTrue(simpleCache.containsKey("a"));
+    }
+
+    @Test
+    public void putInvalidatesTest() {
+        SimpleCache simpleCache = createNewCache();
+        simpleCache.put("a", "A1");
+        assertEquals("A1", simpleCache.get("a"));
+        simpleCache.put("a", "A2");
+        assertEquals("A2", simpleCache.get("a"));
+        assertTrue(simpleCache.replace("a", "A3"));
+        assertEquals("A3", simpleCache.get("a"));
+    }
+
+    @Test
+    public void removeInvalidatesTest() {
+        SimpleCache simpleCache = createNewCache();
+        simpleCache.put("a", "A1");
+        simpleCache.put("b", "B1");
+        assertEquals("A1", simpleCache.get("a"));
+        assertEquals("B1", simpleCache.get("b"));
+        simpleCache.remove("a");
+        assertNull(simpleCache.get("a"));
+        simpleCache.clear();
+        assertNull(simpleCache.get("b"));
+    }
+
+    @Test
+    public void getAllMixedTest() {
+        SimpleCache simpleCache = createNewCache();
+        simpleCache.put("a", "A1");
+        simpleCache.put("b", "B1");
+        assertEquals("A1", simpleCache.get("a"));
+        mockOfJedisForSimpleCache.put(simpleCache.resolveKey("a"), "A2");
+        Map<String, String> result = simpleCache.getAll(new HashSet<>(Arrays.asList("a", "b", "c")));
+        assertEquals(2, result.size());
+        assertEquals("A1", result.get("a"));
+        assertEquals("B1", result.get("b"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedTest() {
+        SimpleCache simpleCache = createNewCache();
+        simpleCache.put("a", "A1");
+        simpleCache.close();
+        simpleCache.get("a");
+    }
+
+}
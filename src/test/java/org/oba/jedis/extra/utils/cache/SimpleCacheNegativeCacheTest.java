@@ -0,0 +1,218 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import redis.clients.jedis.Transaction;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.oba.jedis.extra.utils.cache.MockOfJedisForSimpleCache.unitTestEnabledForSimpleCache;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Transaction.class})
+public class SimpleCacheNegativeCacheTest {
+
+    private MockOfJedisForSimpleCache mockOfJedisForSimpleCache;
+
+    private final Map<String, String> external = Collections.synchronizedMap(new HashMap<>());
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(unitTestEnabledForSimpleCache());
+        if (!unitTestEnabledForSimpleCache()) return;
+        mockOfJedisForSimpleCache = new MockOfJedisForSimpleCache();
+        external.put("a", "A0");
+    }
+
+    @After
+    public void tearDown() {
+        if (mockOfJedisForSimpleCache != null) {
+            mockOfJedisForSimpleCache.clearData();
+        }
+    }
+
+    SimpleCache createNewCache() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        return new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), name, 3_600_000).
+                withCacheLoader(key -> {
+                    loads.incrementAndGet();
+                    return external.get(key);
+                });
+    }
+
+    @Test
+    public void withoutNegativeCacheTest() {
+        SimpleCache simpleCache = createNewCache();
+        assertNull(simpleCache.get("x"));
+        assertNull(simpleCache.get("x"));
+        assertEquals(2, loads.get());
+        assertFalse(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("x")));
+    }
+
+    @Test
+    public void tombstoneTest() {
+        SimpleCache simpleCache = createNewCache().withNegativeCache(1_000);
+        assertEquals("A0", simpleCache.get("a"));
+        assertNull(simpleCache.get("x"));
+        assertNull(simpleCache.get("x"));
+        assertNull(simpleCache.get("x"));
+        assertEquals(2, loads.get());
+        assertTrue(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("x")));
+        assertFalse(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("a")));
+        assertTrue(mockOfJedisForSimpleCache.mockPttl(simpleCache.resolveNegativeKey("x")) <= 1_000L);
+        assertFalse(simpleCache.containsKey("x"));
+        assertFalse(simpleCache.keysIterator().asList().contains("x"));
+    }
+
+    @Test
+    public void tombstoneExpiresTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache().withNegativeCache(100);
+        assertNull(simpleCache.get("x"));
+        external.put("x", "X0");
+        assertNull(simpleCache.get("x"));
+        Thread.sleep(250);
+        assertEquals("X0", simpleCache.get("x"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void putOverTombstoneTest() {
+        SimpleCache simpleCache = createNewCache().withNegativeCache(1_000);
+        assertNull(simpleCache.get("x"));
+        simpleCache.put("x", "X1");
+        assertEquals("X1", simpleCache.get("x"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void putAndRemoveDeleteTombstoneTest() {
+        SimpleCache simpleCache = createNewCache().withNegativeCache(1_000);
+        assertNull(simpleCache.get("x"));
+        simpleCache.put("x", "X1");
+        assertFalse(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("x")));
+        assertTrue(simpleCache.remove("x"));
+        external.put("x", "X0");
+        assertEquals("X0", simpleCache.get("x"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void writesDeleteTombstoneTest() {
+        SimpleCache simpleCache = createNewCache().withNegativeCache(1_000);
+        assertNull(simpleCache.get("x"));
+        simpleCache.putAll(Collections.singletonMap("x", "X1"));
+        assertFalse(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("x")));
+        simpleCache.removeAll(Collections.singleton("x"));
+        assertNull(simpleCache.get("x"));
+        assertTrue(simpleCache.putIfAbsent("x", "X2"));
+        assertFalse(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("x")));
+        assertEquals("X2", simpleCache.getAndRemove("x"));
+        assertNull(simpleCache.get("x"));
+        assertNull(simpleCache.getAndPut("x", "X3"));
+        assertFalse(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("x")));
+        assertTrue(simpleCache.remove("x", "X3"));
+        assertNull(simpleCache.get("x"));
+        simpleCache.put("x", "X4", ExpiryPolicy.created(2_000));
+        assertFalse(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("x")));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void boundedWritesDeleteTombstoneTest() {
+        SimpleCache simpleCache = createNewCache().withNegativeCache(1_000).withMaxEntries(10);
+        assertNull(simpleCache.get("x"));
+        simpleCache.put("x", "X1");
+        assertFalse(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("x")));
+        simpleCache.removeAll(Collections.singleton("x"));
+        assertNull(simpleCache.get("x"));
+        assertTrue(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("x")));
+        assertTrue(simpleCache.putIfAbsent("x", "X2"));
+        assertFalse(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("x")));
+        assertTrue(simpleCache.remove("x", "X2"));
+        external.put("x", "X0");
+        assertEquals("X0", simpleCache.get("x"));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void clearDeletesTombstonesTest() {
+        SimpleCache simpleCache = createNewCache().withNegativeCache(1_000, 1000, 0.01);
+        assertNull(simpleCache.get("x"));
+        assertNull(simpleCache.get("y"));
+        simpleCache.clear();
+        assertFalse(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("x")));
+        assertFalse(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("y")));
+        external.put("x", "X0");
+        assertEquals("X0", simpleCache.get("x"));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void getAllTest() {
+        SimpleCache simpleCache = createNewCache().withNegativeCache(1_000);
+        Set<String> keys = new HashSet<>(Arrays.asList("a", "x", "y"));
+        Map<String, String> result = simpleCache.getAll(keys);
+        assertEquals(1, result.size());
+        assertEquals(3, loads.get());
+        assertTrue(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("x")));
+        assertTrue(mockOfJedisForSimpleCache.mockExists(simpleCache.resolveNegativeKey("y")));
+        result = simpleCache.getAll(keys);
+        assertEquals(1, result.size());
+        assertEquals(3, loads.get());
+        assertNull(simpleCache.get("y"));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void localFilterTest() {
+        SimpleCache simpleCache = createNewCache().withNegativeCache(1_000, 1000, 0.01);
+        assertNull(simpleCache.get("x"));
+        // Tombstone removed, but the local filter still knows the key is missing
+        mockOfJedisForSimpleCache.clearData();
+        assertNull(simpleCache.get("x"));
+        assertEquals(1, loads.get());
+        simpleCache.put("x", "X1");
+        assertEquals("X1", simpleCache.get("x"));
+    }
+
+    @Test
+    public void localFilterValueInRedisTest() {
+        SimpleCache simpleCache = createNewCache().withNegativeCache(1_000, 1000, 0.01);
+        assertNull(simpleCache.get("x"));
+        // Other instance writes the key, the local filter still has it
+        mockOfJedisForSimpleCache.put(simpleCache.resolveKey("x"), "X2");
+        assertEquals("X2", simpleCache.get("x"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void localFilterFromTombstoneTest() {
+        SimpleCache simpleCache1 = createNewCache().withNegativeCache(1_000);
+        SimpleCache simpleCache2 = new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), simpleCache1.getName(), 3_600_000).
+                withCacheLoader(key -> {
+                    loads.incrementAndGet();
+                    return external.get(key);
+                }).
+                withNegativeCache(1_000, 1000, 0.01);
+        assertNull(simpleCache1.get("x"));
+        assertNull(simpleCache2.get("x"));
+        assertEquals(1, loads.get());
+        mockOfJedisForSimpleCache.clearData();
+        assertNull(simpleCache2.get("x"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withNegativeCacheErrorTest() {
+        createNewCache().withNegativeCache(0, 1000, 0.01);
+    }
+
+}
@@ -0,0 +1,154 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import redis.clients.jedis.Transaction;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.oba.jedis.extra.utils.cache.MockOfJedisForSimpleCache.unitTestEnabledForSimpleCache;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Transaction.class})
+public class SimpleCacheStatisticsTest {
+
+    private MockOfJedisForSimpleCache mockOfJedisForSimpleCache;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(unitTestEnabledForSimpleCache());
+        if (!unitTestEnabledForSimpleCache()) return;
+        mockOfJedisForSimpleCache = new MockOfJedisForSimpleCache();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockOfJedisForSimpleCache != null) {
+            mockOfJedisForSimpleCache.clearData();
+        }
+    }
+
+    SimpleCache createNewCache() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        return new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), name, 3_600_000).
+                withStatistics();
+    }
+
+    @Test
+    public void noStatisticsTest() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        SimpleCache simpleCache = new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), name, 3_600_000);
+        simpleCache.put("a", "A1");
+        assertEquals("A1", simpleCache.get("a"));
+        assertNull(simpleCache.getStatistics());
+    }
+
+    @Test
+    public void hitsAndMissesTest() {
+        SimpleCache simpleCache = createNewCache();
+        simpleCache.put("a", "A1");
+        simpleCache.put("b", "B1");
+        assertEquals("A1", simpleCache.get("a"));
+        assertNull(simpleCache.get("c"));
+        Map<String, String> result = simpleCache.getAll(new HashSet<>(Arrays.asList("a", "b", "d")));
+        assertEquals(2, result.size());
+        CacheStatistics statistics = simpleCache.getStatistics();
+        assertEquals(3L, statistics.getCacheHits());
+        assertEquals(2L, statistics.getCacheMisses());
+        assertEquals(60.0, statistics.getCacheHitPercentage(), 0.001);
+    }
+
+    @Test
+    public void loadsTest() {
+        AtomicInteger calls = new AtomicInteger();
+        SimpleCache simpleCache = createNewCache().
+                withCacheLoader(key -> {
+                    if (calls.incrementAndGet() > 1) {
+                        throw new IllegalStateException("load error " + key);
+                    }
+                    return key.toUpperCase();
+                });
+        assertEquals("A", simpleCache.get("a"));
+        assertEquals("A", simpleCache.get("a"));
+        try {
+            simpleCache.get("b");
+            fail("Load error expected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("load error"));
+        }
+        CacheStatistics statistics = simpleCache.getStatistics();
+        assertEquals(1L, statistics.getCacheLoadSuccesses());
+        assertEquals(1L, statistics.getCacheLoadFailures());
+        assertEquals(2L, statistics.getLoadTimeHistogram().getCount());
+        assertEquals(1L, statistics.getCacheHits());
+        assertEquals(2L, statistics.getCacheMisses());
+    }
+
+    @Test
+    public void writerTest() {
+        List<String> operations = Collections.synchronizedList(new ArrayList<>());
+        SimpleCache simpleCache = createNewCache().
+                withCacheWriter(new CacheWriter() {
+                    @Override
+                    public void write(String key, String value) {
+                        operations.add("write " + key);
+                    }
+
+                    @Override
+                    public void delete(String key) {
+                        operations.add("delete " + key);
+                    }
+                });
+        simpleCache.put("a", "A1");
+        simpleCache.put("b", "B1");
+        simpleCache.remove("a");
+        assertEquals(3, operations.size());
+        assertEquals(3L, simpleCache.getStatistics().getCacheWriterCalls());
+    }
+
+    @Test
+    public void roundTripTest() {
+        SimpleCache simpleCache = createNewCache();
+        simpleCache.put("a", "A1");
+        simpleCache.get("a");
+        simpleCache.get("b");
+        simpleCache.containsKey("a");
+        simpleCache.remove("a");
+        CacheStatistics statistics = simpleCache.getStatistics();
+        Map<String, Double> byOperation = statistics.getAverageRoundTripTimeByOperation();
+        assertTrue(byOperation.containsKey(CacheStatistics.OPERATION_PUT));
+        assertTrue(byOperation.containsKey(CacheStatistics.OPERATION_GET));
+        assertTrue(byOperation.containsKey(CacheStatistics.OPERATION_CONTAINS_KEY));
+        assertTrue(byOperation.containsKey(CacheStatistics.OPERATION_REMOVE));
+        assertFalse(byOperation.containsKey(CacheStatistics.OPERATION_PUT_ALL));
+        assertEquals(2L, statistics.getRoundTripTimeHistogram(CacheStatistics.OPERATION_GET).getCount());
+        assertTrue(statistics.getAverageRoundTripTime() >= 0.0);
+        assertTrue(statistics.getRoundTripTime99Percentile() >= 0.0);
+    }
+
+    @Test
+    public void snapshotAndClearTest() {
+        SimpleCache simpleCache = createNewCache();
+        simpleCache.put("a", "A1");
+        simpleCache.get("a");
+        simpleCache.get("b");
+        CacheStatistics statistics = simpleCache.getStatistics();
+        CacheStatisticsSnapshot snapshot = statistics.snapshot();
+        statistics.clear();
+        assertEquals(1L, snapshot.getHits());
+        assertEquals(1L, snapshot.getMisses());
+        assertEquals(50.0, snapshot.getHitPercentage(), 0.001);
+        assertTrue(snapshot.getAverageRoundTripTimeByOperation().containsKey(CacheStatistics.OPERATION_GET));
+        assertTrue(snapshot.toString().contains("hits=1"));
+        assertEquals(0L, statistics.getCacheHits());
+        assertEquals(0L, statistics.getCacheMisses());
+        assertTrue(statistics.getAverageRoundTripTimeByOperation().isEmpty());
+    }
+
+}
@@ -283,6 +283,34 @@ public class SimpleCacheTest {
         assertFalse(simpleCache.containsKey("e"));
     }
 
+    @Test
+    public void removeAllByPagesTest() {
+        SimpleCache simpleCache = createNewCache().withResultsPerScan(2);
+        simpleCache.put("a", "A1");
+        simpleCache.put("b", "B1");
+        simpleCache.put("c", "C1");
+        simpleCache.put("d", "D1");
+        simpleCache.put("e", "E1");
+        simpleCache.removeAll();
+        assertTrue(simpleCache.keys().isEmpty());
+        assertEquals(3, mockOfJedisForsimpleCache.getUnlinkCalls());
+    }
+
+    @Test
+    public void streamTest() {
+        SimpleCache simpleCache = createNewCache().withResultsPerScan(2);
+        simpleCache.put("a", "A1");
+        simpleCache.put("b", "B1");
+        simpleCache.put("c", "C1");
+        Map<String, String> result = new HashMap<>();
+        simpleCache.stream().
+                filter(e -> !e.getKey().equals("b")).
+                forEach(e -> result.put(e.getKey(), e.getValue()));
+        assertEquals(2, result.size());
+        assertEquals("A1", result.get("a"));
+        assertEquals("C1", result.get("c"));
+    }
+
     @Test
     public void clearTest() {
         SimpleCache simpleCache = createNewCache();
@@ -372,6 +372,44 @@ public class SimpleCacheWriterTest {
         assertNull(localCacheWriter.get("e"));
     }
 
+    @Test
+    public void writeBehindTest() {
+        SimpleCache simpleCache = createNewCache().withWriteBehind(100, 60_000L, 1000);
+        simpleCache.put("a", "A1");
+        simpleCache.put("a", "A2");
+        simpleCache.put("b", "B1");
+        simpleCache.remove("b");
+        assertEquals("A2", simpleCache.get("a"));
+        assertEquals(0, testingCacheWriter.countDataInserted());
+        assertEquals(0, testingCacheWriter.countDataDeleted());
+        simpleCache.close();
+        assertEquals("A2", testingCacheWriter.get("a"));
+        assertFalse(testingCacheWriter.contains("b"));
+        assertEquals(1, testingCacheWriter.countDataInserted());
+        assertEquals(1, testingCacheWriter.countDataDeleted());
+    }
+
+    @Test
+    public void writeBehindReplacedTest() {
+        SimpleCache simpleCache = createNewCache().withWriteBehind(100, 60_000L, 1000);
+        simpleCache.put("a", "A1");
+        assertEquals(0, testingCacheWriter.countDataInserted());
+        TestingCacheWriter otherCacheWriter = new TestingCacheWriter();
+        simpleCache.withCacheWriter(otherCacheWriter);
+        assertEquals("A1", testingCacheWriter.get("a"));
+        simpleCache.put("b", "B1");
+        assertEquals("B1", otherCacheWriter.get("b"));
+        assertFalse(testingCacheWriter.contains("b"));
+        simpleCache.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void writeBehindWithoutWriterTest() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        new SimpleCache(mockOfJedisForSimpleCache.getJedisPool(), name, 3_600_000).
+                withWriteBehind(100, 60_000L, 1000);
+    }
+
     private static class TestingCacheWriter implements CacheWriter {
 
         private final Map<String, String> internalData = new HashMap<>();
@@ -0,0 +1,137 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import redis.clients.jedis.Transaction;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.oba.jedis.extra.utils.cache.MockOfJedisForSimpleCache.unitTestEnabledForSimpleCache;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Transaction.class})
+public class TypedCacheTest {
+
+    private MockOfJedisForSimpleCache mockOfJedisForSimpleCache;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(unitTestEnabledForSimpleCache());
+        if (!unitTestEnabledForSimpleCache()) return;
+        mockOfJedisForSimpleCache = new MockOfJedisForSimpleCache();
+    }
+
+    @After
+    public void tearDown() {
+        if (mockOfJedisForSimpleCache != null) {
+            mockOfJedisForSimpleCache.clearData();
+        }
+    }
+
+    <V> TypedCache<V> createNewCache(CacheCodec<V> codec) {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        return new TypedCache<>(mockOfJedisForSimpleCache.getJedisPool(), name, 3_600_000, codec);
+    }
+
+    @Test
+    public void putGetTest() {
+        TypedCache<String> typedCache = createNewCache(CacheCodec.utf8());
+        typedCache.put("a", "A1");
+        assertEquals("A1", typedCache.get("a"));
+        assertEquals(TypedCache.TEXT + "A1", mockOfJedisForSimpleCache.mockGet(typedCache.resolveKey("a")));
+        assertNull(typedCache.get("b"));
+        assertTrue(typedCache.containsKey("a"));
+        assertFalse(typedCache.containsKey("b"));
+    }
+
+    @Test
+    public void bytesTest() {
+        TypedCache<byte[]> typedCache = createNewCache(CacheCodec.bytes());
+        byte[] value = new byte[]{0, -1, 2, -3};
+        typedCache.put("a", value);
+        assertArrayEquals(value, typedCache.get("a"));
+        assertEquals(TypedCache.BASE64, mockOfJedisForSimpleCache.mockGet(typedCache.resolveKey("a")).charAt(0));
+    }
+
+    @Test
+    public void deflateTest() {
+        TypedCache<String> typedCache = createNewCache(CacheCodec.deflate(CacheCodec.utf8(), 10));
+        String value = String.join("", Collections.nCopies(100, "abcde"));
+        typedCache.put("a", value);
+        assertEquals(value, typedCache.get("a"));
+        assertTrue(mockOfJedisForSimpleCache.mockGet(typedCache.resolveKey("a")).length() < value.length());
+    }
+
+    @Test
+    public void getAllTest() {
+        TypedCache<String> typedCache = createNewCache(CacheCodec.utf8());
+        typedCache.putAll(Map.of("a", "A1", "b", "B1"));
+        Map<String, String> result = typedCache.getAll(new HashSet<>(Arrays.asList("a", "b", "c")));
+        assertEquals(2, result.size());
+        assertEquals("A1", result.get("a"));
+        assertEquals("B1", result.get("b"));
+        assertEquals(Map.of("a", "A1", "b", "B1"), typedCache.asMap());
+    }
+
+    @Test
+    public void putIfAbsentTest() {
+        TypedCache<String> typedCache = createNewCache(CacheCodec.utf8());
+        assertTrue(typedCache.putIfAbsent("a", "A1"));
+        assertFalse(typedCache.putIfAbsent("a", "A2"));
+        assertEquals("A1", typedCache.get("a"));
+        assertEquals("A1", typedCache.getAndPut("a", "A3"));
+        assertEquals("A3", typedCache.get("a"));
+    }
+
+    @Test
+    public void replaceTest() {
+        TypedCache<byte[]> typedCache = createNewCache(CacheCodec.bytes());
+        typedCache.put("a", new byte[]{0, -1});
+        assertFalse(typedCache.replace("a", new byte[]{0, -2}, new byte[]{1}));
+        assertTrue(typedCache.replace("a", new byte[]{0, -1}, new byte[]{1}));
+        assertArrayEquals(new byte[]{1}, typedCache.getAndReplace("a", new byte[]{2}));
+        assertFalse(typedCache.replace("b", new byte[]{3}));
+        assertTrue(typedCache.remove("a", new byte[]{2}));
+        assertFalse(typedCache.containsKey("a"));
+    }
+
+    @Test
+    public void removeTest() {
+        TypedCache<String> typedCache = createNewCache(CacheCodec.utf8());
+        typedCache.put("a", "A1");
+        typedCache.put("b", "B1");
+        assertTrue(typedCache.remove("a"));
+        assertFalse(typedCache.remove("a"));
+        assertEquals("B1", typedCache.getAndRemove("b"));
+        assertNull(typedCache.getAndRemove("b"));
+    }
+
+    @Test
+    public void loaderAndWriterTest() {
+        Map<String, byte[]> external = new HashMap<>();
+        external.put("a", new byte[]{0, -1});
+        TypedCache<byte[]> typedCache = createNewCache(CacheCodec.bytes()).
+                withCacheLoader(external::get).
+                withCacheWriter(external::put, external::remove);
+        assertArrayEquals(new byte[]{0, -1}, typedCache.get("a"));
+        assertTrue(typedCache.containsKey("a"));
+        assertNull(typedCache.get("b"));
+        typedCache.put("b", new byte[]{-2});
+        assertArrayEquals(new byte[]{-2}, external.get("b"));
+        typedCache.remove("a");
+        assertFalse(external.containsKey("a"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedTest() {
+        TypedCache<String> typedCache = createNewCache(CacheCodec.utf8());
+        typedCache.close();
+        typedCache.get("a");
+    }
+
+}
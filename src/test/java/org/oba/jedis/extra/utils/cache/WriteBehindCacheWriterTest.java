@@ -0,0 +1,150 @@
+package org.oba.jedis.extra.utils.cache;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class WriteBehindCacheWriterTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void newErrorTest() {
+        new WriteBehindCacheWriter(new RecordingCacheWriter(), 10, 1000L, 5);
+    }
+
+    @Test
+    public void coalesceAndDrainOnCloseTest() {
+        RecordingCacheWriter recordingCacheWriter = new RecordingCacheWriter();
+        WriteBehindCacheWriter writer = new WriteBehindCacheWriter(recordingCacheWriter, 100, 60_000L, 1000);
+        writer.write("a", "A1");
+        writer.write("a", "A2");
+        writer.write("b", "B1");
+        writer.delete("b");
+        writer.delete("c");
+        assertEquals(3, writer.pendingOperations());
+        assertEquals(0, recordingCacheWriter.calls.get());
+        writer.close();
+        assertEquals(0, writer.pendingOperations());
+        assertEquals("A2", recordingCacheWriter.data.get("a"));
+        assertEquals(Set.of("b", "c"), recordingCacheWriter.deleted);
+        assertEquals(2, recordingCacheWriter.calls.get());
+    }
+
+    @Test
+    public void flushByBatchSizeTest() throws InterruptedException {
+        RecordingCacheWriter recordingCacheWriter = new RecordingCacheWriter();
+        WriteBehindCacheWriter writer = new WriteBehindCacheWriter(recordingCacheWriter, 3, 60_000L, 100);
+        writer.write("a", "A1");
+        writer.write("b", "B1");
+        writer.write("c", "C1");
+        waitFor(() -> recordingCacheWriter.data.size() == 3);
+        assertEquals(3, recordingCacheWriter.data.size());
+        assertEquals(0, writer.pendingOperations());
+        writer.close();
+    }
+
+    @Test
+    public void flushByIntervalTest() throws InterruptedException {
+        RecordingCacheWriter recordingCacheWriter = new RecordingCacheWriter();
+        WriteBehindCacheWriter writer = new WriteBehindCacheWriter(recordingCacheWriter, 100, 50L, 1000);
+        writer.write("a", "A1");
+        waitFor(() -> recordingCacheWriter.data.size() == 1);
+        assertEquals("A1", recordingCacheWriter.data.get("a"));
+        writer.close();
+    }
+
+    @Test
+    public void flushTest() {
+        RecordingCacheWriter recordingCacheWriter = new RecordingCacheWriter();
+        WriteBehindCacheWriter writer = new WriteBehindCacheWriter(recordingCacheWriter, 100, 60_000L, 1000);
+        writer.writeAll(Map.of("a", "A1", "b", "B1"));
+        writer.flush();
+        assertEquals(2, recordingCacheWriter.data.size());
+        writer.close();
+    }
+
+    @Test
+    public void backpressureTest() throws InterruptedException {
+        RecordingCacheWriter recordingCacheWriter = new RecordingCacheWriter();
+        WriteBehindCacheWriter writer = new WriteBehindCacheWriter(recordingCacheWriter, 2, 60_000L, 2);
+        recordingCacheWriter.block = true;
+        for (int i = 0; i < 10; i++) {
+            writer.write("k" + i, "V" + i);
+        }
+        assertTrue(writer.pendingOperations() <= 2);
+        recordingCacheWriter.block = false;
+        writer.close();
+        assertEquals(10, recordingCacheWriter.data.size());
+    }
+
+    @Test
+    public void errorInDelegateTest() {
+        RecordingCacheWriter recordingCacheWriter = new RecordingCacheWriter();
+        recordingCacheWriter.doError = true;
+        WriteBehindCacheWriter writer = new WriteBehindCacheWriter(recordingCacheWriter, 100, 60_000L, 1000);
+        writer.write("a", "A1");
+        writer.close();
+        assertEquals(0, writer.pendingOperations());
+        assertTrue(recordingCacheWriter.data.isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void writeAfterCloseTest() {
+        WriteBehindCacheWriter writer = new WriteBehindCacheWriter(new RecordingCacheWriter());
+        writer.close();
+        writer.write("a", "A1");
+    }
+
+    static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static class RecordingCacheWriter implements CacheWriter {
+
+        private final Map<String, String> data = Collections.synchronizedMap(new HashMap<>());
+        private final Set<String> deleted = Collections.synchronizedSet(new HashSet<>());
+        private final AtomicInteger calls = new AtomicInteger(0);
+        private volatile boolean block = false;
+        private volatile boolean doError = false;
+
+        @Override
+        public void write(String key, String value) {
+            writeAll(Map.of(key, value));
+        }
+
+        @Override
+        public void writeAll(Map<String, String> values) {
+            doBlock();
+            calls.incrementAndGet();
+            if (doError) {
+                throw new IllegalStateException("Test exception");
+            }
+            data.putAll(values);
+        }
+
+        @Override
+        public void delete(String key) {
+            deleteAll(List.of(key));
+        }
+
+        @Override
+        public void deleteAll(Collection<String> keys) {
+            doBlock();
+            calls.incrementAndGet();
+            deleted.addAll(keys);
+        }
+
+        private void doBlock() {
+            try {
+                Thread.sleep(block ? 20 : 0);
+            } catch (InterruptedException e) {
+                // Eat this
+            }
+        }
+    }
+
+}
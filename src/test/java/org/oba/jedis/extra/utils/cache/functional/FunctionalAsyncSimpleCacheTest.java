@@ -0,0 +1,87 @@
+package org.oba.jedis.extra.utils.cache.functional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.oba.jedis.extra.utils.cache.AsyncSimpleCache;
+import org.oba.jedis.extra.utils.cache.SimpleCache;
+import org.oba.jedis.extra.utils.test.JedisTestFactory;
+import org.oba.jedis.extra.utils.test.WithJedisPoolDelete;
+import redis.clients.jedis.JedisPool;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class FunctionalAsyncSimpleCacheTest {
+
+    private static final List<String> listNameKeysToDelete = new ArrayList<>();
+
+    private final JedisTestFactory jtfTest = JedisTestFactory.get();
+
+    private JedisPool jedisPool;
+
+    private AsyncSimpleCache asyncSimpleCache;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(jtfTest.functionalTestEnabled());
+        if (!jtfTest.functionalTestEnabled()) return;
+        jedisPool = jtfTest.createJedisPool();
+    }
+
+    @After
+    public void tearDown() {
+        if (asyncSimpleCache != null) {
+            asyncSimpleCache.close();
+        }
+        if (jedisPool != null) {
+            WithJedisPoolDelete.doDelete(jedisPool, listNameKeysToDelete);
+            jedisPool.close();
+        }
+    }
+
+    SimpleCache createNewCache() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        listNameKeysToDelete.add(name);
+        return new SimpleCache(jedisPool, name, 3_600_000);
+    }
+
+    @Test
+    public void concurrentReadsTest() throws ExecutionException, InterruptedException {
+        asyncSimpleCache = new AsyncSimpleCache(createNewCache());
+        List<CompletableFuture<Void>> puts = new ArrayList<>();
+        for(int i = 0; i < 200; i++) {
+            puts.add(asyncSimpleCache.put("k" + i, "V" + i));
+        }
+        CompletableFuture.allOf(puts.toArray(new CompletableFuture[0])).get();
+        List<CompletableFuture<String>> gets = new ArrayList<>();
+        for(int i = 0; i < 300; i++) {
+            gets.add(asyncSimpleCache.get("k" + i));
+        }
+        CompletableFuture.allOf(gets.toArray(new CompletableFuture[0])).get();
+        for(int i = 0; i < 300; i++) {
+            assertEquals(i < 200 ? "V" + i : null, gets.get(i).get());
+        }
+    }
+
+    @Test
+    public void readThroughAndReplaceTest() throws ExecutionException, InterruptedException {
+        SimpleCache simpleCache = createNewCache().
+                withCacheLoader(key -> key.toUpperCase());
+        asyncSimpleCache = new AsyncSimpleCache(simpleCache);
+        assertEquals("A", asyncSimpleCache.get("a").get());
+        assertEquals("A", simpleCache.get("a"));
+        assertTrue(asyncSimpleCache.replace("a", "A", "A2").get());
+        assertEquals("A2", asyncSimpleCache.getAndRemove("a").get());
+        Map<String, String> result = asyncSimpleCache.getAll(new HashSet<>(Arrays.asList("b", "c"))).get();
+        assertEquals("B", result.get("b"));
+        assertEquals("C", result.get("c"));
+    }
+
+}
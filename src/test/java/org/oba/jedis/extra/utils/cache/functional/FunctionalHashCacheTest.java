@@ -0,0 +1,105 @@
+package org.oba.jedis.extra.utils.cache.functional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.oba.jedis.extra.utils.cache.HashCache;
+import org.oba.jedis.extra.utils.test.JedisTestFactory;
+import org.oba.jedis.extra.utils.test.WithJedisPoolDelete;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class FunctionalHashCacheTest {
+
+    private static final List<String> listNameKeysToDelete = new ArrayList<>();
+
+    private final JedisTestFactory jtfTest = JedisTestFactory.get();
+
+    private JedisPool jedisPool;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(jtfTest.functionalTestEnabled());
+        if (!jtfTest.functionalTestEnabled()) return;
+        jedisPool = jtfTest.createJedisPool();
+    }
+
+    @After
+    public void tearDown() {
+        if (jedisPool != null) {
+            WithJedisPoolDelete.doDelete(jedisPool, listNameKeysToDelete);
+            jedisPool.close();
+        }
+    }
+
+    HashCache createNewCache() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        listNameKeysToDelete.add(name);
+        return new HashCache(jedisPool, name, 3_600_000).
+                withBuckets(8);
+    }
+
+    @Test
+    public void putGetTest() {
+        HashCache hashCache = createNewCache();
+        hashCache.put("a", "A1");
+        assertTrue(hashCache.putIfAbsent("b", "B1"));
+        assertFalse(hashCache.putIfAbsent("b", "B2"));
+        assertEquals("A1", hashCache.get("a"));
+        assertEquals("B1", hashCache.get("b"));
+        assertNull(hashCache.get("c"));
+        assertTrue(hashCache.containsKey("a"));
+        assertEquals("A1", hashCache.getAndRemove("a"));
+        assertFalse(hashCache.containsKey("a"));
+        assertTrue(hashCache.remove("b"));
+        assertEquals(0L, hashCache.size());
+    }
+
+    @Test
+    public void bucketsTest() {
+        HashCache hashCache = createNewCache();
+        Map<String, String> values = new HashMap<>();
+        for(int i = 0; i < 200; i++) {
+            values.put("k" + i, "V" + i);
+        }
+        hashCache.putAll(values);
+        try (Jedis jedis = jedisPool.getResource()) {
+            for(int i = 0; i < hashCache.getBuckets(); i++) {
+                String bucket = hashCache.getName() + ":{" + i + "}";
+                assertEquals("hash", jedis.type(bucket));
+            }
+            assertFalse(jedis.exists(hashCache.getName() + ":k1"));
+        }
+        assertEquals(200L, hashCache.size());
+        assertEquals(values, hashCache.asMap());
+        Map<String, String> result = hashCache.getAll(new HashSet<>(Arrays.asList("k1", "k100", "x")));
+        assertEquals(2, result.size());
+        hashCache.clear();
+        assertEquals(0L, hashCache.size());
+        assertFalse(hashCache.iterator().hasNext());
+    }
+
+    @Test
+    public void expirationTest() throws InterruptedException {
+        HashCache hashCache = createNewCache();
+        if (hashCache.isFieldExpiration()) {
+            hashCache.put("a", "A1", 200);
+            hashCache.put("b", "B1");
+            Thread.sleep(400);
+            assertNull(hashCache.get("a"));
+            assertEquals("B1", hashCache.get("b"));
+        } else {
+            hashCache.put("a", "A1", 200);
+            Thread.sleep(400);
+            assertNull(hashCache.get("a"));
+        }
+    }
+
+}
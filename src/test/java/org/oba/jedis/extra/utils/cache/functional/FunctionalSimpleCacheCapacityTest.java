@@ -0,0 +1,124 @@
+package org.oba.jedis.extra.utils.cache.functional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.oba.jedis.extra.utils.cache.EvictionPolicy;
+import org.oba.jedis.extra.utils.cache.SimpleCache;
+import org.oba.jedis.extra.utils.test.JedisTestFactory;
+import org.oba.jedis.extra.utils.test.WithJedisPoolDelete;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class FunctionalSimpleCacheCapacityTest {
+
+    private static final List<String> listNameKeysToDelete = new ArrayList<>();
+
+    private final JedisTestFactory jtfTest = JedisTestFactory.get();
+
+    private JedisPool jedisPool;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(jtfTest.functionalTestEnabled());
+        if (!jtfTest.functionalTestEnabled()) return;
+        jedisPool = jtfTest.createJedisPool();
+    }
+
+    @After
+    public void tearDown() {
+        if (jedisPool != null) {
+            WithJedisPoolDelete.doDelete(jedisPool, listNameKeysToDelete);
+            jedisPool.close();
+        }
+    }
+
+    SimpleCache createNewCache() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        SimpleCache simpleCache = new SimpleCache(jedisPool, name, 3_600_000);
+        for(String key: Arrays.asList("a", "b", "c", "d", "e")) {
+            listNameKeysToDelete.add(simpleCache.resolveKey(key));
+        }
+        listNameKeysToDelete.add(name + "~index");
+        listNameKeysToDelete.add(name + "~meta");
+        return simpleCache;
+    }
+
+    @Test
+    public void maxEntriesLruTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache().withMaxEntries(3).withStatistics();
+        simpleCache.put("a", "A");
+        Thread.sleep(5);
+        simpleCache.put("b", "B");
+        Thread.sleep(5);
+        simpleCache.put("c", "C");
+        Thread.sleep(5);
+        assertEquals("A", simpleCache.get("a"));
+        Thread.sleep(5);
+        simpleCache.put("d", "D");
+        assertEquals(new HashSet<>(Arrays.asList("a", "c", "d")), new HashSet<>(simpleCache.keys()));
+        assertEquals(1L, simpleCache.getStatistics().getCacheEvictions());
+        try (Jedis jedis = jedisPool.getResource()) {
+            assertEquals(3L, jedis.zcard(simpleCache.getName() + "~index"));
+        }
+    }
+
+    @Test
+    public void maxEntriesLfuTest() {
+        SimpleCache simpleCache = createNewCache().
+                withMaxEntries(3).
+                withEvictionPolicy(EvictionPolicy.LFU);
+        simpleCache.put("a", "A");
+        simpleCache.put("b", "B");
+        simpleCache.put("c", "C");
+        simpleCache.get("a");
+        simpleCache.get("c");
+        simpleCache.put("d", "D");
+        simpleCache.put("e", "E");
+        assertEquals(new HashSet<>(Arrays.asList("a", "c", "e")), new HashSet<>(simpleCache.keys()));
+    }
+
+    @Test
+    public void maxBytesTest() {
+        SimpleCache simpleCache = createNewCache();
+        long entryBytes = simpleCache.resolveKey("a").length() + "A1".length();
+        simpleCache.withMaxBytes(2 * entryBytes);
+        simpleCache.put("a", "A1");
+        simpleCache.put("b", "B1");
+        simpleCache.put("c", "C1");
+        assertEquals(2, simpleCache.keys().size());
+        assertTrue(simpleCache.containsKey("c"));
+        simpleCache.remove("c");
+        try (Jedis jedis = jedisPool.getResource()) {
+            assertEquals(Long.toString(entryBytes), jedis.hget(simpleCache.getName() + "~meta", "~bytes"));
+        }
+    }
+
+    @Test
+    public void replaceAndRemoveTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache().withStatistics();
+        long entryBytes = simpleCache.resolveKey("a").length() + "A1".length();
+        simpleCache.withMaxBytes(3 * entryBytes);
+        simpleCache.put("a", "A1");
+        Thread.sleep(5);
+        simpleCache.put("b", "B1");
+        Thread.sleep(5);
+        simpleCache.put("c", "C1");
+        assertTrue(simpleCache.replace("c", "C1", "C123"));
+        assertEquals(new HashSet<>(Arrays.asList("b", "c")), new HashSet<>(simpleCache.keys()));
+        assertEquals(1L, simpleCache.getStatistics().getCacheEvictions());
+        assertTrue(simpleCache.remove("b", "B1"));
+        try (Jedis jedis = jedisPool.getResource()) {
+            assertEquals(Long.toString(entryBytes + 2), jedis.hget(simpleCache.getName() + "~meta", "~bytes"));
+            assertEquals(1L, jedis.zcard(simpleCache.getName() + "~index"));
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package org.oba.jedis.extra.utils.cache.functional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.oba.jedis.extra.utils.cache.ExpiryPolicy;
+import org.oba.jedis.extra.utils.cache.SimpleCache;
+import org.oba.jedis.extra.utils.test.JedisTestFactory;
+import org.oba.jedis.extra.utils.test.WithJedisPoolDelete;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class FunctionalSimpleCacheExpiryPolicyTest {
+
+    private static final List<String> listNameKeysToDelete = new ArrayList<>();
+
+    private final JedisTestFactory jtfTest = JedisTestFactory.get();
+
+    private JedisPool jedisPool;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(jtfTest.functionalTestEnabled());
+        if (!jtfTest.functionalTestEnabled()) return;
+        jedisPool = jtfTest.createJedisPool();
+    }
+
+    @After
+    public void tearDown() {
+        if (jedisPool != null) {
+            WithJedisPoolDelete.doDelete(jedisPool, listNameKeysToDelete);
+            jedisPool.close();
+        }
+    }
+
+    SimpleCache createNewCache(ExpiryPolicy expiryPolicy) {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        listNameKeysToDelete.add(name);
+        return new SimpleCache(jedisPool, name, 3_600_000).
+                withExpiryPolicy(expiryPolicy);
+    }
+
+    long pttl(SimpleCache simpleCache, String key) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return jedis.pttl(simpleCache.resolveKey(key));
+        }
+    }
+
+    @Test
+    public void accessedTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache(ExpiryPolicy.accessed(1_000));
+        simpleCache.put("a", "A1");
+        Thread.sleep(300);
+        assertTrue(pttl(simpleCache, "a") < 800L);
+        assertEquals("A1", simpleCache.get("a"));
+        assertTrue(pttl(simpleCache, "a") > 900L);
+        Thread.sleep(1_100);
+        assertNull(simpleCache.get("a"));
+    }
+
+    @Test
+    public void createdTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache(ExpiryPolicy.created(1_000));
+        simpleCache.put("a", "A1");
+        Thread.sleep(300);
+        simpleCache.put("a", "A2");
+        assertTrue(simpleCache.replace("a", "A2", "A3"));
+        Map<String, String> data = new HashMap<>();
+        data.put("a", "A4");
+        data.put("b", "B4");
+        simpleCache.putAll(data);
+        assertTrue(pttl(simpleCache, "a") < 800L);
+        assertTrue(pttl(simpleCache, "b") > 900L);
+        assertEquals("A4", simpleCache.getAndPut("a", "A5"));
+        assertEquals("A5", simpleCache.get("a"));
+        assertTrue(pttl(simpleCache, "a") < 800L);
+    }
+
+    @Test
+    public void perCallPolicyTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache(ExpiryPolicy.modified(1_000));
+        simpleCache.put("a", "A1", ExpiryPolicy.touched(10_000));
+        assertTrue(pttl(simpleCache, "a") > 9_000L);
+        simpleCache.put("b", "B1");
+        assertEquals("B1", simpleCache.get("b", ExpiryPolicy.accessed(10_000)));
+        assertTrue(pttl(simpleCache, "b") > 9_000L);
+    }
+
+}
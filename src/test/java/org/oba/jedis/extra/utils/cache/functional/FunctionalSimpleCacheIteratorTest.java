@@ -172,4 +172,16 @@ public class FunctionalSimpleCacheIteratorTest {
         map.put("b","B1");
     }
 
+    @Test
+    public void iteratorWithPagesTest() {
+        SimpleCache simpleCache = createNewCache().withResultsPerScan(7);
+        Map<String, String> data = new HashMap<>();
+        for(int i = 0; i < 100; i++) {
+            data.put("k" + i, "V" + i);
+        }
+        simpleCache.putAll(data);
+        Map<String, String> map = simpleCache.iterator().asMap();
+        assertEquals(data, map);
+    }
+
 }
@@ -12,7 +12,10 @@ import org.oba.jedis.extra.utils.test.WithJedisPoolDelete;
 import redis.clients.jedis.JedisPool;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -130,6 +133,26 @@ public class FunctionalSimpleCacheLoaderTest {
         simpleCache.get("a");
     }
 
+    @Test
+    public void getWithRefreshAheadTest() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger(0);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        listNameKeysToDelete.add(name);
+        SimpleCache simpleCache = new SimpleCache(jedisPool, name, 10_000).
+                withCacheLoader(key -> key + ":" + loads.incrementAndGet()).
+                withRefreshAhead(0.5, executorService);
+        simpleCache.put("a", "A1", 1_000);
+        String result = simpleCache.get("a");
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals("A1", result);
+        assertEquals(1, loads.get());
+        Thread.sleep(1_100);
+        assertEquals("a:1", simpleCache.get("a"));
+        assertEquals(1, loads.get());
+    }
+
 
     private static class TestingCacheLoader implements CacheLoader {
 
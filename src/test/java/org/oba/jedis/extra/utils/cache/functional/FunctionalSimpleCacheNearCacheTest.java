@@ -0,0 +1,94 @@
+package org.oba.jedis.extra.utils.cache.functional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.oba.jedis.extra.utils.cache.SimpleCache;
+import org.oba.jedis.extra.utils.test.JedisTestFactory;
+import org.oba.jedis.extra.utils.test.WithJedisPoolDelete;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class FunctionalSimpleCacheNearCacheTest {
+
+    private static final List<String> listNameKeysToDelete = new ArrayList<>();
+
+    private final JedisTestFactory jtfTest = JedisTestFactory.get();
+
+    private JedisPool jedisPool;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(jtfTest.functionalTestEnabled());
+        if (!jtfTest.functionalTestEnabled()) return;
+        jedisPool = jtfTest.createJedisPool();
+    }
+
+    @After
+    public void tearDown() {
+        if (jedisPool != null) {
+            WithJedisPoolDelete.doDelete(jedisPool, listNameKeysToDelete);
+            jedisPool.close();
+        }
+    }
+
+    String newCacheName() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        listNameKeysToDelete.add(name);
+        return name;
+    }
+
+    @Test
+    public void nearCacheInvalidatedByOtherInstanceTest() throws InterruptedException {
+        String name = newCacheName();
+        SimpleCache nearCached = new SimpleCache(jedisPool, name, 3_600_000).
+                withNearCache(100, 3_600_000);
+        SimpleCache other = new SimpleCache(jedisPool, name, 3_600_000);
+        try {
+            nearCached.put("a", "A1");
+            listNameKeysToDelete.add(nearCached.resolveKey("a"));
+            assertEquals("A1", nearCached.get("a"));
+            other.put("a", "A2");
+            String result = nearCached.get("a");
+            for (int i = 0; i < 20 && !"A2".equals(result); i++) {
+                Thread.sleep(50);
+                result = nearCached.get("a");
+            }
+            assertEquals("A2", result);
+        } finally {
+            nearCached.close();
+            other.close();
+        }
+    }
+
+    @Test
+    public void nearCacheInvalidatedByRedisTest() throws InterruptedException {
+        String name = newCacheName();
+        SimpleCache nearCached = new SimpleCache(jedisPool, name, 3_600_000).
+                withNearCache(100, 3_600_000);
+        try {
+            nearCached.put("b", "B1");
+            listNameKeysToDelete.add(nearCached.resolveKey("b"));
+            assertEquals("B1", nearCached.get("b"));
+            try (Jedis jedis = jedisPool.getResource()) {
+                jedis.del(nearCached.resolveKey("b"));
+            }
+            String result = nearCached.get("b");
+            for (int i = 0; i < 20 && result != null; i++) {
+                Thread.sleep(50);
+                result = nearCached.get("b");
+            }
+            assertNull(result);
+        } finally {
+            nearCached.close();
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package org.oba.jedis.extra.utils.cache.functional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.oba.jedis.extra.utils.cache.SimpleCache;
+import org.oba.jedis.extra.utils.test.JedisTestFactory;
+import org.oba.jedis.extra.utils.test.WithJedisPoolDelete;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class FunctionalSimpleCacheNegativeCacheTest {
+
+    private static final List<String> listNameKeysToDelete = new ArrayList<>();
+
+    private final JedisTestFactory jtfTest = JedisTestFactory.get();
+
+    private final Map<String, String> external = Collections.synchronizedMap(new HashMap<>());
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private JedisPool jedisPool;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(jtfTest.functionalTestEnabled());
+        if (!jtfTest.functionalTestEnabled()) return;
+        jedisPool = jtfTest.createJedisPool();
+        external.put("a", "A0");
+    }
+
+    @After
+    public void tearDown() {
+        if (jedisPool != null) {
+            WithJedisPoolDelete.doDelete(jedisPool, listNameKeysToDelete);
+            jedisPool.close();
+        }
+    }
+
+    SimpleCache createNewCache() {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        SimpleCache simpleCache = new SimpleCache(jedisPool, name, 3_600_000).
+                withCacheLoader(key -> {
+                    loads.incrementAndGet();
+                    return external.get(key);
+                });
+        listNameKeysToDelete.add(simpleCache.resolveKey("a"));
+        listNameKeysToDelete.add(simpleCache.resolveKey("x"));
+        return simpleCache;
+    }
+
+    @Test
+    public void tombstoneTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache().withNegativeCache(300);
+        assertEquals("A0", simpleCache.get("a"));
+        assertNull(simpleCache.get("x"));
+        assertNull(simpleCache.get("x"));
+        assertEquals(2, loads.get());
+        assertEquals(1, simpleCache.getAll(new HashSet<>(Arrays.asList("a", "x"))).size());
+        assertEquals(2, loads.get());
+        assertFalse(simpleCache.keysIterator().asList().contains("x"));
+        Thread.sleep(500);
+        external.put("x", "X0");
+        assertEquals("X0", simpleCache.get("x"));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void localFilterTest() {
+        SimpleCache simpleCache = createNewCache().withNegativeCache(1_000, 1000, 0.01);
+        assertNull(simpleCache.get("x"));
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.del(simpleCache.getName() + "~missing:x");
+        }
+        assertNull(simpleCache.get("x"));
+        assertEquals(1, loads.get());
+        simpleCache.put("x", "X1");
+        assertEquals("X1", simpleCache.get("x"));
+    }
+
+}
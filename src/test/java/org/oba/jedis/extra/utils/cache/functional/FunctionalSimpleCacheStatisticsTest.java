@@ -0,0 +1,84 @@
+package org.oba.jedis.extra.utils.cache.functional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.oba.jedis.extra.utils.cache.CacheStatistics;
+import org.oba.jedis.extra.utils.cache.SimpleCache;
+import org.oba.jedis.extra.utils.test.JedisTestFactory;
+import org.oba.jedis.extra.utils.test.WithJedisPoolDelete;
+import redis.clients.jedis.JedisPool;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class FunctionalSimpleCacheStatisticsTest {
+
+    private static final List<String> listNameKeysToDelete = new ArrayList<>();
+
+    private final JedisTestFactory jtfTest = JedisTestFactory.get();
+
+    private JedisPool jedisPool;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(jtfTest.functionalTestEnabled());
+        if (!jtfTest.functionalTestEnabled()) return;
+        jedisPool = jtfTest.createJedisPool();
+    }
+
+    @After
+    public void tearDown() {
+        if (jedisPool != null) {
+            WithJedisPoolDelete.doDelete(jedisPool, listNameKeysToDelete);
+            jedisPool.close();
+        }
+    }
+
+    SimpleCache createNewCache(boolean registerMBean) {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        listNameKeysToDelete.add(name);
+        return new SimpleCache(jedisPool, name, 3_600_000).
+                withStatistics(registerMBean);
+    }
+
+    @Test
+    public void statisticsTest() {
+        SimpleCache simpleCache = createNewCache(false);
+        simpleCache.put("a", "A1");
+        simpleCache.putAll(Collections.singletonMap("b", "B1"));
+        assertEquals("A1", simpleCache.get("a"));
+        assertNull(simpleCache.get("c"));
+        assertEquals(2, simpleCache.getAll(new HashSet<>(Arrays.asList("a", "b", "c"))).size());
+        CacheStatistics statistics = simpleCache.getStatistics();
+        assertEquals(3L, statistics.getCacheHits());
+        assertEquals(2L, statistics.getCacheMisses());
+        assertTrue(statistics.getAverageRoundTripTime() > 0.0);
+        assertTrue(statistics.getRoundTripTime99Percentile() > 0.0);
+        assertEquals(2L, statistics.getRoundTripTimeHistogram(CacheStatistics.OPERATION_GET).getCount());
+        assertEquals(1L, statistics.getRoundTripTimeHistogram(CacheStatistics.OPERATION_GET_ALL).getCount());
+        assertEquals(1L, statistics.getRoundTripTimeHistogram(CacheStatistics.OPERATION_PUT_ALL).getCount());
+    }
+
+    @Test
+    public void mbeanTest() throws Exception {
+        SimpleCache simpleCache = createNewCache(true);
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(SimpleCache.STATISTICS_MBEAN_DOMAIN + ":type=CacheStatistics,name=" +
+                ObjectName.quote(simpleCache.getName()));
+        assertTrue(mBeanServer.isRegistered(objectName));
+        simpleCache.put("a", "A1");
+        simpleCache.get("a");
+        assertEquals(1L, mBeanServer.getAttribute(objectName, "CacheHits"));
+        simpleCache.close();
+        assertFalse(mBeanServer.isRegistered(objectName));
+    }
+
+}
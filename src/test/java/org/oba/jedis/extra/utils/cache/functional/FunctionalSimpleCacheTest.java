@@ -242,6 +242,43 @@ public class FunctionalSimpleCacheTest {
         assertEquals("A1", replaced);
     }
 
+    @Test
+    public void replaceKeepsTimeoutTest() {
+        SimpleCache simpleCache = createNewCache();
+        simpleCache.put("a", "A1");
+        assertTrue(simpleCache.replace("a", "A1", "A2"));
+        assertTrue(simpleCache.replace("a", "A3"));
+        assertEquals("A3", simpleCache.getAndReplace("a", "A4"));
+        assertEquals("A4", jedisGet(simpleCache.getName() + ":a"));
+        try (Jedis jedis = jedisPool.getResource()) {
+            long pttl = jedis.pttl(simpleCache.getName() + ":a");
+            assertTrue(pttl > 0 && pttl <= 3_600_000);
+        }
+    }
+
+    @Test
+    public void replaceConcurrentTest() throws InterruptedException {
+        SimpleCache simpleCache = createNewCache();
+        simpleCache.put("a", "0");
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 25; j++) {
+                    boolean replaced = false;
+                    while (!replaced) {
+                        String current = simpleCache.get("a");
+                        replaced = simpleCache.replace("a", current, Integer.toString(Integer.parseInt(current) + 1));
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals("100", simpleCache.get("a"));
+    }
+
     @Test
     public void removeAllKeysTest() {
         SimpleCache simpleCache = createNewCache();
@@ -275,6 +312,18 @@ public class FunctionalSimpleCacheTest {
         assertFalse(simpleCache.containsKey("e"));
     }
 
+    @Test
+    public void removeAllByPagesTest() {
+        SimpleCache simpleCache = createNewCache().withResultsPerScan(3);
+        for(int i = 0; i < 50; i++) {
+            simpleCache.put("k" + i, "V" + i);
+        }
+        assertEquals(50, simpleCache.stream().map(Map.Entry::getKey).distinct().count());
+        simpleCache.removeAll();
+        assertTrue(simpleCache.keys().isEmpty());
+        assertEquals(0L, simpleCache.stream().count());
+    }
+
     @Test
     public void clearTest() {
         SimpleCache simpleCache = createNewCache();
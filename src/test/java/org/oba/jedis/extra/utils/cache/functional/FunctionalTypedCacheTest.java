@@ -0,0 +1,88 @@
+package org.oba.jedis.extra.utils.cache.functional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.oba.jedis.extra.utils.cache.CacheCodec;
+import org.oba.jedis.extra.utils.cache.TypedCache;
+import org.oba.jedis.extra.utils.test.JedisTestFactory;
+import org.oba.jedis.extra.utils.test.WithJedisPoolDelete;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class FunctionalTypedCacheTest {
+
+    private static final List<String> listNameKeysToDelete = new ArrayList<>();
+
+    private final JedisTestFactory jtfTest = JedisTestFactory.get();
+
+    private JedisPool jedisPool;
+
+    @Before
+    public void setup() {
+        org.junit.Assume.assumeTrue(jtfTest.functionalTestEnabled());
+        if (!jtfTest.functionalTestEnabled()) return;
+        jedisPool = jtfTest.createJedisPool();
+    }
+
+    @After
+    public void tearDown() {
+        if (jedisPool != null) {
+            WithJedisPoolDelete.doDelete(jedisPool, listNameKeysToDelete);
+            jedisPool.close();
+        }
+    }
+
+    <V> TypedCache<V> createNewCache(CacheCodec<V> codec) {
+        String name = "cache:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        listNameKeysToDelete.add(name);
+        return new TypedCache<>(jedisPool, name, 3_600_000, codec);
+    }
+
+    @Test
+    public void putGetTest() {
+        TypedCache<String> typedCache = createNewCache(CacheCodec.utf8());
+        typedCache.put("a", "A1€");
+        typedCache.put("b", "B1");
+        assertEquals("A1€", typedCache.get("a"));
+        assertNull(typedCache.get("c"));
+        assertTrue(typedCache.containsKey("a"));
+        Map<String, String> result = typedCache.getAll(new HashSet<>(Arrays.asList("a", "b", "c")));
+        assertEquals(2, result.size());
+        assertEquals("B1", result.get("b"));
+        assertEquals("B1", typedCache.getAndRemove("b"));
+        assertFalse(typedCache.containsKey("b"));
+    }
+
+    @Test
+    public void putAllTest() {
+        TypedCache<byte[]> typedCache = createNewCache(CacheCodec.bytes());
+        Map<String, byte[]> data = new HashMap<>();
+        data.put("a", new byte[]{0, 1});
+        data.put("b", new byte[]{-1, -2});
+        typedCache.putAll(data);
+        assertArrayEquals(new byte[]{0, 1}, typedCache.get("a"));
+        assertArrayEquals(new byte[]{-1, -2}, typedCache.get("b"));
+        assertFalse(typedCache.putIfAbsent("a", new byte[]{5}));
+        assertTrue(typedCache.remove("a"));
+    }
+
+    @Test
+    public void deflateTest() {
+        TypedCache<String> typedCache = createNewCache(CacheCodec.deflate(CacheCodec.utf8(), 64));
+        String value = String.join(",", Collections.nCopies(1000, "value"));
+        typedCache.put("a", value);
+        assertEquals(value, typedCache.get("a"));
+        try (Jedis jedis = jedisPool.getResource()) {
+            assertTrue(jedis.strlen(typedCache.resolveKey("a")) < value.length() / 4);
+        }
+    }
+
+}
@@ -184,4 +184,63 @@ public class JedisListIteratorTest {
         assertFalse(it.hasNext());
     }
 
+    private JedisList createNumberedList(int size){
+        JedisList jedisList = new JedisList(mockOfJedisForList.getJedisPool(), listName);
+        List<String> values = new ArrayList<>();
+        for(int i = 0; i < size; i++) {
+            values.add("v" + i);
+        }
+        jedisList.addAll(values);
+        return jedisList;
+    }
+
+    @Test
+    public void iteratorWindowTest() {
+        JedisList jedisList = createNumberedList(25).withIteratorWindowSize(10);
+        List<String> expected = jedisList.asList();
+        int llenCalls = mockOfJedisForList.getLlenCalls();
+        int lrangeCalls = mockOfJedisForList.getLrangeCalls();
+        List<String> check = new ArrayList<>();
+        Iterator<String> it = jedisList.iterator();
+        while (it.hasNext()) {
+            check.add(it.next());
+        }
+        assertFalse(it.hasNext());
+        assertEquals(expected, check);
+        assertEquals(llenCalls, mockOfJedisForList.getLlenCalls());
+        assertEquals(lrangeCalls + 3, mockOfJedisForList.getLrangeCalls());
+    }
+
+    @Test
+    public void iteratorWindowPreviousTest() {
+        JedisList jedisList = createNumberedList(25).withIteratorWindowSize(10);
+        ListIterator<String> it = jedisList.listIterator(22);
+        List<String> check = new ArrayList<>();
+        while (it.hasPrevious()) {
+            check.add(it.previous());
+        }
+        assertEquals(22, check.size());
+        assertEquals("v21", check.get(0));
+        assertEquals("v0", check.get(21));
+    }
+
+    @Test
+    public void iteratorWindowChangeTest() {
+        JedisList jedisList = createNumberedList(25).withIteratorWindowSize(10);
+        ListIterator<String> it = jedisList.listIterator();
+        it.next();
+        it.set("x0");
+        assertEquals("v1", it.next());
+        it.set("x1");
+        assertEquals("x1", it.previous());
+        assertEquals("x0", it.previous());
+        assertEquals("x0", jedisList.get(0));
+        assertEquals(25, jedisList.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void iteratorWindowErrorTest() {
+        createABCList().withIteratorWindowSize(0);
+    }
+
 }
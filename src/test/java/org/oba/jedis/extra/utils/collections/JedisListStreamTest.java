@@ -10,9 +10,15 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import redis.clients.jedis.Transaction;
 
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(PowerMockRunner.class)
@@ -113,4 +119,49 @@ public class JedisListStreamTest {
         assertTrue(result);
     }
 
+    private JedisList createNumberedList(int size){
+        JedisList jedisList = new JedisList(mockOfJedisForList.getJedisPool(), listName);
+        List<String> values = new ArrayList<>();
+        for(int i = 0; i < size; i++) {
+            values.add("v" + i);
+        }
+        jedisList.addAll(values);
+        return jedisList;
+    }
+
+    @Test
+    public void streamWindowTest() {
+        JedisList jedisList = createNumberedList(250).withIteratorWindowSize(20);
+        List<String> result = jedisList.stream().collect(Collectors.toList());
+        assertEquals(jedisList.asList(), result);
+    }
+
+    @Test
+    public void parallelStreamTest() {
+        JedisList jedisList = createNumberedList(1000).withIteratorWindowSize(10);
+        List<String> result = jedisList.parallelStream().
+                map(String::toUpperCase).
+                collect(Collectors.toList());
+        assertEquals(1000, result.size());
+        assertEquals("V0", result.get(0));
+        assertEquals("V999", result.get(999));
+        assertEquals(1000L, jedisList.parallelStream().filter(s -> s.startsWith("v")).count());
+    }
+
+    @Test
+    public void spliteratorSplitTest() {
+        JedisList jedisList = createNumberedList(100).withIteratorWindowSize(30);
+        Spliterator<String> suffix = jedisList.spliterator();
+        Spliterator<String> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertEquals(50L, prefix.estimateSize());
+        assertEquals(50L, suffix.estimateSize());
+        StringBuilder sb = new StringBuilder();
+        assertTrue(suffix.tryAdvance(sb::append));
+        assertTrue(prefix.tryAdvance(sb::append));
+        assertEquals("v50v0", sb.toString());
+        Spliterator<String> small = jedisList.withIteratorWindowSize(100).spliterator();
+        assertNull(small.trySplit());
+    }
+
 }
@@ -11,12 +11,17 @@ import redis.clients.jedis.Transaction;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -164,6 +169,31 @@ public class JedisListTest {
         assertEquals(-1, jedisList.lastIndexOf("C"));
     }
 
+    @Test
+    public void containsAllTest() {
+        JedisList jedisList = new JedisList(mockOfJedisForList.getJedisPool(), listName);
+        jedisList.addAll(Arrays.asList("a", "b", "c", "a", "d"));
+        assertTrue(jedisList.containsAll(Arrays.asList("d", "a", "a")));
+        assertTrue(jedisList.containsAll(Collections.emptyList()));
+        assertFalse(jedisList.containsAll(Arrays.asList("a", "C")));
+    }
+
+    @Test
+    public void indexOfLongListTest() {
+        JedisList jedisList = new JedisList(mockOfJedisForList.getJedisPool(), listName);
+        List<String> values = new ArrayList<>();
+        for(int i = 0; i < 2500; i++) {
+            values.add(i % 1200 == 1100 ? "x" : "v" + i);
+        }
+        jedisList.addAll(values);
+        assertEquals(1100, jedisList.indexOf("x"));
+        assertEquals(2300, jedisList.lastIndexOf("x"));
+        assertEquals(2499, jedisList.indexOf("v2499"));
+        assertEquals(0, jedisList.lastIndexOf("v0"));
+        assertTrue(jedisList.containsAll(Arrays.asList("v2499", "x", "v0")));
+        assertFalse(jedisList.containsAll(Arrays.asList("v2499", "v2500")));
+    }
+
     @Test
     public void addAllTest() {
         JedisList jedisList = createABCList();
@@ -199,6 +229,70 @@ public class JedisListTest {
         assertEquals(-1,  jedisList.indexOf("b"));
     }
 
+    @Test
+    public void addAllAtBoundsTest() {
+        JedisList jedisList = createABCList();
+        jedisList.addAll(0, Arrays.asList("x", "y"));
+        jedisList.addAll(5, Arrays.asList("z"));
+        jedisList.addAll(4, Arrays.asList("w1", "w2"));
+        assertEquals(Arrays.asList("x", "y", "a", "b", "w1", "w2", "c", "z"), jedisList.asList());
+        assertFalse(jedisList.addAll(1, new ArrayList<>()));
+    }
+
+    @Test
+    public void addWithDuplicatesTest() {
+        JedisList jedisList = createABCList();
+        jedisList.add("a");
+        jedisList.add(3, "x");
+        jedisList.add(4, "y");
+        assertEquals(Arrays.asList("a", "b", "c", "x", "y", "a"), jedisList.asList());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void addAllOutOfBoundsTest() {
+        JedisList jedisList = createABCList();
+        jedisList.addAll(4, Arrays.asList("x", "y"));
+    }
+
+    @Test
+    public void removeAllDuplicatesTest() {
+        JedisList jedisList = createABCList();
+        jedisList.addAll(Arrays.asList("a", "d", "c"));
+        assertTrue(jedisList.removeAll(new HashSet<>(Arrays.asList("a", "c"))));
+        assertEquals(Arrays.asList("b", "d"), jedisList.asList());
+        assertFalse(jedisList.removeAll(Arrays.asList("x")));
+        assertTrue(jedisList.removeAll(Arrays.asList("b", "d")));
+        assertFalse(jedisList.exists());
+    }
+
+    @Test
+    public void setAllTest() {
+        JedisList jedisList = createABCList();
+        Map<Integer, String> elements = new HashMap<>();
+        elements.put(0, "A");
+        elements.put(2, "C");
+        Map<Integer, String> previous = jedisList.setAll(elements);
+        assertEquals(2, previous.size());
+        assertEquals("a", previous.get(0));
+        assertEquals("c", previous.get(2));
+        assertEquals(Arrays.asList("A", "b", "C"), jedisList.asList());
+    }
+
+    @Test
+    public void setAllOutOfBoundsTest() {
+        JedisList jedisList = createABCList();
+        Map<Integer, String> elements = new HashMap<>();
+        elements.put(0, "A");
+        elements.put(3, "D");
+        try {
+            jedisList.setAll(elements);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // NOOP
+        }
+        assertEquals(Arrays.asList("a", "b", "c"), jedisList.asList());
+    }
+
     @Test
     public void subListTest() {
         JedisList jedisList = createABCList();
@@ -296,5 +390,80 @@ public class JedisListTest {
 
     }
 
+    @Test
+    public void removeByIndexBothSidesTest() {
+        JedisList jedisList = new JedisList(mockOfJedisForList.getJedisPool(), listName);
+        jedisList.addAll(Arrays.asList("a", "b", "c", "d", "e", "f"));
+        assertEquals("b", jedisList.remove(1));
+        assertEquals("e", jedisList.remove(3));
+        assertEquals("a", jedisList.remove(0));
+        assertEquals("f", jedisList.remove(2));
+        assertEquals(Arrays.asList("c", "d"), jedisList.asList());
+        assertEquals("c", jedisList.remove(0));
+        assertEquals("d", jedisList.remove(0));
+        assertFalse(jedisList.exists());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void removeByIndexOutOfBoundsTest() {
+        createABCList().remove(3);
+    }
+
+    @Test
+    public void retainAllDuplicatesTest() {
+        JedisList jedisList = new JedisList(mockOfJedisForList.getJedisPool(), listName);
+        jedisList.addAll(Arrays.asList("a", "b", "a", "c", "b", "d"));
+        assertTrue(jedisList.retainAll(Arrays.asList("b", "d", "x")));
+        assertEquals(Arrays.asList("b", "b", "d"), jedisList.asList());
+        assertFalse(jedisList.retainAll(Arrays.asList("b", "d")));
+        assertTrue(jedisList.retainAll(Collections.emptyList()));
+        assertFalse(jedisList.exists());
+    }
+
+    @Test
+    public void removeIfTest() {
+        JedisList jedisList = new JedisList(mockOfJedisForList.getJedisPool(), listName).withIteratorWindowSize(2);
+        jedisList.addAll(Arrays.asList("a", "bb", "c", "dd", "a", "ee"));
+        assertTrue(jedisList.removeIf(s -> s.length() > 1));
+        assertEquals(Arrays.asList("a", "c", "a"), jedisList.asList());
+        assertFalse(jedisList.removeIf(s -> s.length() > 1));
+    }
+
+    @Test
+    public void snapshotTest() {
+        JedisList jedisList = createABCList();
+        JedisListSnapshot snapshot = jedisList.snapshot();
+        assertEquals(Arrays.asList("a", "b", "c"), snapshot);
+        assertEquals(jedisList.getVersion(), snapshot.getVersion());
+        assertTrue(snapshot.isCurrent());
+        assertSame(snapshot, snapshot.refresh());
+        jedisList.add("d");
+        assertFalse(snapshot.isCurrent());
+        assertEquals(3, snapshot.size());
+        JedisListSnapshot refreshed = snapshot.refresh();
+        assertEquals(Arrays.asList("a", "b", "c", "d"), refreshed);
+        assertTrue(refreshed.getVersion() > snapshot.getVersion());
+        jedisList.set(0, "A");
+        assertFalse(refreshed.isCurrent());
+        refreshed = refreshed.refresh();
+        jedisList.addAll(1, Arrays.asList("x", "y"));
+        assertFalse(refreshed.isCurrent());
+        refreshed = refreshed.refresh();
+        jedisList.removeAll(Arrays.asList("x", "y"));
+        assertFalse(refreshed.isCurrent());
+        refreshed = refreshed.refresh();
+        jedisList.remove("z");
+        assertTrue(refreshed.isCurrent());
+        jedisList.remove(0);
+        assertFalse(refreshed.isCurrent());
+        assertEquals(Arrays.asList("b", "c", "d"), refreshed.refresh());
+        jedisList.clear();
+        assertTrue(refreshed.refresh().isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotReadOnlyTest() {
+        createABCList().snapshot().add("d");
+    }
 
 }
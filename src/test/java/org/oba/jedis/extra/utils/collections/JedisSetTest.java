@@ -9,11 +9,16 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import redis.clients.jedis.Transaction;
 
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(PowerMockRunner.class)
@@ -21,11 +26,15 @@ import static org.junit.Assert.assertTrue;
 public class JedisSetTest {
 
     private String setName;
+    private String setName2;
+    private String setName3;
     private MockOfJedisForSet mockOfJedisForSet;
 
     @Before
     public void before() {
         setName = "set:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        setName2 = setName + ":2";
+        setName3 = setName + ":3";
         mockOfJedisForSet = new MockOfJedisForSet();
     }
 
@@ -153,4 +162,100 @@ public class JedisSetTest {
         boolean result2 = jedisSet.retainAll(Arrays.asList("a", "b", "c", "x", "y"));
         assertFalse(result2);
     }
+
+    @Test
+    public void containsAllTest() {
+        JedisSet jedisSet = new JedisSet(mockOfJedisForSet.getJedisPool(), setName);
+        List<String> values = new ArrayList<>();
+        for(int i = 0; i < 2500; i++) {
+            values.add("v" + i);
+        }
+        jedisSet.addAll(values);
+        assertTrue(jedisSet.containsAll(values));
+        assertTrue(jedisSet.containsAll(Arrays.asList("v1", "v1", "v2400")));
+        assertTrue(jedisSet.containsAll(Collections.emptyList()));
+        assertFalse(jedisSet.containsAll(Arrays.asList("v1", "v2500")));
+        assertFalse(jedisSet.containsAll(Arrays.asList("v1", 1)));
+        List<String> withMissing = new ArrayList<>(values);
+        withMissing.add("x");
+        assertFalse(jedisSet.containsAll(withMissing));
+    }
+
+    @Test
+    public void retainAllServerSideTest() {
+        JedisSet jedisSet = createABCSet();
+        long version = jedisSet.getVersion();
+        assertFalse(jedisSet.retainAll(Arrays.asList("a", "b", "c", "d")));
+        assertEquals(version, jedisSet.getVersion());
+        assertTrue(jedisSet.retainAll(Arrays.asList("a", "c", 1)));
+        assertEquals(new HashSet<>(Arrays.asList("a", "c")), jedisSet.asSet());
+        assertTrue(jedisSet.getVersion() > version);
+        assertTrue(jedisSet.retainAll(Collections.emptyList()));
+        assertFalse(jedisSet.exists());
+        assertTrue(jedisSet.isEmpty());
+        assertTrue(mockOfJedisForSet.keys().stream().noneMatch(key -> key.contains("~retain")));
+    }
+
+    @Test
+    public void setAlgebraTest() {
+        JedisSet jedisSet1 = createABCSet();
+        JedisSet jedisSet2 = new JedisSet(mockOfJedisForSet.getJedisPool(), setName2);
+        jedisSet2.addAll(Arrays.asList("b", "c", "d"));
+        JedisSet jedisSet3 = new JedisSet(mockOfJedisForSet.getJedisPool(), setName3);
+        jedisSet3.addAll(Arrays.asList("c", "d", "e"));
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c", "d", "e")), jedisSet1.union(jedisSet2, jedisSet3));
+        assertEquals(new HashSet<>(Arrays.asList("b", "c")), jedisSet1.intersect(jedisSet2));
+        assertEquals(Collections.singleton("c"), jedisSet1.intersect(jedisSet2, jedisSet3));
+        assertEquals(Collections.singleton("a"), jedisSet1.difference(jedisSet2, jedisSet3));
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), jedisSet1.union());
+        assertEquals(2L, jedisSet1.intersectCardinality(jedisSet2));
+        assertEquals(0L, jedisSet1.difference(jedisSet1).size());
+        long version3 = jedisSet3.getVersion();
+        assertEquals(4L, jedisSet1.unionStore(jedisSet3, jedisSet2));
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c", "d")), jedisSet3.asSet());
+        assertTrue(jedisSet3.getVersion() > version3);
+        assertEquals(2L, jedisSet1.intersectStore(jedisSet1, jedisSet2));
+        assertEquals(new HashSet<>(Arrays.asList("b", "c")), jedisSet1.asSet());
+        assertEquals(1L, jedisSet3.differenceStore(jedisSet2, jedisSet1, jedisSet2));
+        assertEquals(Collections.singleton("a"), jedisSet2.asSet());
+    }
+
+    @Test
+    public void snapshotTest() {
+        JedisSet jedisSet = createABCSet();
+        JedisSetSnapshot snapshot = jedisSet.snapshot();
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), snapshot);
+        assertTrue(snapshot.contains("b"));
+        assertFalse(snapshot.contains("d"));
+        assertTrue(snapshot.isCurrent());
+        assertSame(snapshot, snapshot.refresh());
+        jedisSet.add("a");
+        assertTrue(snapshot.isCurrent());
+        jedisSet.add("d");
+        assertFalse(snapshot.isCurrent());
+        JedisSetSnapshot refreshed = snapshot.refresh();
+        assertEquals(4, refreshed.size());
+        assertTrue(refreshed.contains("d"));
+        jedisSet.removeAll(Arrays.asList("a", "b"));
+        assertFalse(refreshed.isCurrent());
+        assertEquals(new HashSet<>(Arrays.asList("c", "d")), refreshed.refresh());
+    }
+
+    @Test
+    public void snapshotManyTest() {
+        JedisSet jedisSet = new JedisSet(mockOfJedisForSet.getJedisPool(), setName);
+        Set<String> values = new HashSet<>();
+        for(int i = 0; i < 500; i++) {
+            values.add("v" + i);
+        }
+        jedisSet.addAll(values);
+        JedisSetSnapshot snapshot = jedisSet.snapshot();
+        assertEquals(values, snapshot);
+        assertEquals(values, new HashSet<>(snapshot));
+        for(String value: values) {
+            assertTrue(snapshot.contains(value));
+        }
+        assertFalse(snapshot.contains("v500"));
+    }
+
 }
@@ -16,6 +16,7 @@ import redis.clients.jedis.args.ListPosition;
 import redis.clients.jedis.params.SetParams;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
@@ -36,9 +37,16 @@ public class MockOfJedisForList {
     private final JedisPool jedisPool;
     private final Map<String, Object> data = Collections.synchronizedMap(new HashMap<>());
     private final Timer timer;
+    private final AtomicInteger llenCalls = new AtomicInteger(0);
+    private final AtomicInteger lrangeCalls = new AtomicInteger(0);
 
     private String sha1IndexOf = "x";
     private String sha1LastIndexOf = "y";
+    private String sha1InsertAll = "z1";
+    private String sha1Filter = "z2";
+    private String sha1SetAll = "z3";
+    private String sha1ContainsAll = "z4";
+    private String sha1RemoveAt = "z5";
 
     public MockOfJedisForList() {
 
@@ -71,14 +79,24 @@ public class MockOfJedisForList {
             return mockSet(key, value, setParams);
         });
 
+        when(jedis.incr(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockIncr(key);
+        });
+        when(transaction.incr(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return TransactionOrder.quickReponseExecuted(mockIncr(key));
+        });
         when(jedis.llen(anyString())).thenAnswer(ioc -> {
             String key = ioc.getArgument(0);
+            llenCalls.incrementAndGet();
             return mockListLlen(key);
         });
         when(jedis.lrange(anyString(), anyLong(), anyLong())).thenAnswer(ioc -> {
             String key = ioc.getArgument(0);
             long from = ioc.getArgument(1);
             long to = ioc.getArgument(2);
+            lrangeCalls.incrementAndGet();
             return mockListLrange(key, from, to);
         });
         when(jedis.rpush(anyString(), any())).thenAnswer(ioc -> {
@@ -166,6 +184,14 @@ public class MockOfJedisForList {
         return jedisPool;
     }
 
+    int getLlenCalls() {
+        return llenCalls.get();
+    }
+
+    int getLrangeCalls() {
+        return lrangeCalls.get();
+    }
+
 
 
     synchronized boolean mockExists(String key) {
@@ -176,6 +202,13 @@ public class MockOfJedisForList {
         return data.get(key);
     }
 
+    synchronized Long mockIncr(String key) {
+        Object value = data.get(key);
+        long result = value != null ? Long.parseLong((String) value) + 1 : 1L;
+        data.put(key, Long.toString(result));
+        return result;
+    }
+
     synchronized String mockSet(final String key, String value, SetParams setParams) {
         boolean insert = true;
         if (isSetParamsNX(setParams)) {
@@ -248,7 +281,10 @@ public class MockOfJedisForList {
         if (from == 0 && to == -1) {
             return data;
         } else {
-            return new ArrayList<>(data.subList(Long.valueOf(from).intValue() , Long.valueOf(to + 1).intValue()));
+            int size = data.size();
+            int fromIndex = (int) Math.min(from, size);
+            int toIndex = (int) Math.max(fromIndex, Math.min(to + 1, size));
+            return new ArrayList<>(data.subList(fromIndex, toIndex));
         }
     }
 
@@ -312,6 +348,21 @@ public class MockOfJedisForList {
         if (script.contains(" lastIndexOf")) {
             sha1LastIndexOf = sha1;
         }
+        if (script.contains(" insertAll")) {
+            sha1InsertAll = sha1;
+        }
+        if (script.contains(" filter")) {
+            sha1Filter = sha1;
+        }
+        if (script.contains(" setAll")) {
+            sha1SetAll = sha1;
+        }
+        if (script.contains(" containsAll")) {
+            sha1ContainsAll = sha1;
+        }
+        if (script.contains(" removeAt")) {
+            sha1RemoveAt = sha1;
+        }
         return sha1;
     }
 
@@ -323,10 +374,97 @@ public class MockOfJedisForList {
         } else if (sha1.equalsIgnoreCase(sha1LastIndexOf)) {
             ArrayList<String> data = dataToList(keys.get(0));
             response = (long)data.lastIndexOf(values.get(0));
+        } else if (sha1.equalsIgnoreCase(sha1InsertAll)) {
+            response = mockListInsertAll(keys.get(0), values);
+            if ((Long) response >= 0) {
+                mockIncr(keys.get(1));
+            }
+        } else if (sha1.equalsIgnoreCase(sha1Filter)) {
+            List<String> elements = values.subList(1, values.size());
+            response = "keep".equals(values.get(0)) ?
+                    mockListRetainAll(keys.get(0), elements) :
+                    mockListRemoveAll(keys.get(0), elements);
+            if ((Long) response > 0) {
+                mockIncr(keys.get(1));
+            }
+        } else if (sha1.equalsIgnoreCase(sha1SetAll)) {
+            response = mockListSetAll(keys.get(0), values);
+            if (response instanceof List) {
+                mockIncr(keys.get(1));
+            }
+        } else if (sha1.equalsIgnoreCase(sha1ContainsAll)) {
+            response = dataToList(keys.get(0)).containsAll(values) ? 1L : 0L;
+        } else if (sha1.equalsIgnoreCase(sha1RemoveAt)) {
+            response = mockListRemoveAt(keys.get(0), Integer.parseInt(values.get(0)));
+            if (response instanceof String) {
+                mockIncr(keys.get(1));
+            }
         }
         return response;
     }
 
+    synchronized Long mockListInsertAll(String key, List<String> values) {
+        int index = Integer.parseInt(values.get(0));
+        if (index < 0 || index > mockListLlen(key)) {
+            return -1L;
+        }
+        ArrayList<String> data = dataToList(key, true);
+        data.addAll(index, values.subList(1, values.size()));
+        return (long) data.size();
+    }
+
+    synchronized Object mockListRemoveAt(String key, int index) {
+        ArrayList<String> data = dataToList(key);
+        if (index < 0 || index >= data.size()) {
+            return -1L;
+        }
+        String removed = data.remove(index);
+        if (data.isEmpty()) {
+            this.data.remove(key);
+        }
+        return removed;
+    }
+
+    synchronized Long mockListRetainAll(String key, List<String> values) {
+        ArrayList<String> data = dataToList(key);
+        Set<String> toKeep = new HashSet<>(values);
+        int size = data.size();
+        data.removeIf(s -> !toKeep.contains(s));
+        long removed = size - data.size();
+        if (data.isEmpty()) {
+            this.data.remove(key);
+        }
+        return removed;
+    }
+
+    synchronized Long mockListRemoveAll(String key, List<String> values) {
+        ArrayList<String> data = dataToList(key);
+        Set<String> toRemove = new HashSet<>(values);
+        int size = data.size();
+        data.removeIf(toRemove::contains);
+        long removed = size - data.size();
+        if (data.isEmpty()) {
+            this.data.remove(key);
+        }
+        return removed;
+    }
+
+    synchronized Object mockListSetAll(String key, List<String> values) {
+        ArrayList<String> data = dataToList(key);
+        for(int i = 0; i < values.size(); i += 2) {
+            long index = Long.parseLong(values.get(i));
+            if (index < 0 || index >= data.size()) {
+                return index;
+            }
+        }
+        List<String> previous = new ArrayList<>();
+        for(int i = 0; i < values.size(); i += 2) {
+            int index = Integer.parseInt(values.get(i));
+            previous.add(data.set(index, values.get(i + 1)));
+        }
+        return previous;
+    }
+
     private Object mockTransactionExec() {
         LOGGER.debug("mockTransactionExec do nothing");
         return new ArrayList<Object>(0);
@@ -2,6 +2,7 @@ package org.oba.jedis.extra.utils.collections;
 
 import org.mockito.Mockito;
 import org.oba.jedis.extra.utils.test.TransactionOrder;
+import org.oba.jedis.extra.utils.utils.ScriptEvalSha1;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.api.support.membermodification.MemberMatcher;
 import org.slf4j.Logger;
@@ -15,13 +16,18 @@ import redis.clients.jedis.params.ScanParams;
 import redis.clients.jedis.resps.ScanResult;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Timer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
@@ -35,6 +41,11 @@ public class MockOfJedisForMap {
     private final Map<String, Object> data = Collections.synchronizedMap(new HashMap<>());
     private final Timer timer;
 
+    private String sha1ContainsValue = "x";
+    private String sha1PutIfAbsent = "y";
+    private String sha1CompareAndSet = "z";
+    private boolean duplicatedScanResults = false;
+
     public MockOfJedisForMap() {
 
 
@@ -55,6 +66,18 @@ public class MockOfJedisForMap {
             String key = ioc.getArgument(0);
             return mockDelete(key);
         });
+        when(jedis.get(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockGet(key);
+        });
+        when(jedis.incr(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockIncr(key);
+        });
+        when(transaction.incr(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return TransactionOrder.quickReponseExecuted(mockIncr(key));
+        });
         when(jedis.hlen(anyString())).thenAnswer(ioc -> {
             String key = ioc.getArgument(0);
             return mockHlen(key);
@@ -108,9 +131,70 @@ public class MockOfJedisForMap {
             String name = ioc.getArgument(1);
             return mockTransactionHdel(key, name);
         });
+        when(transaction.hdel(anyString(), any())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            long num = 0;
+            for(String name: varargsToList(ioc.getArguments())) {
+                num += mockHdel(key, name);
+            }
+            return TransactionOrder.quickReponseExecuted(num);
+        });
+        when(jedis.hset(anyString(), anyMap())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            Map<String, String> hash = ioc.getArgument(1);
+            return mockHsetAll(key, hash);
+        });
+        when(jedis.hmget(anyString(), any())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockHmget(key, varargsToList(ioc.getArguments()));
+        });
+        when(transaction.hincrBy(anyString(), anyString(), anyLong())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String name = ioc.getArgument(1);
+            long increment = ioc.getArgument(2);
+            return TransactionOrder.quickReponseExecuted(mockHincrBy(key, name, increment));
+        });
+        when(transaction.hincrByFloat(anyString(), anyString(), anyDouble())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String name = ioc.getArgument(1);
+            double increment = ioc.getArgument(2);
+            return TransactionOrder.quickReponseExecuted(mockHincrByFloat(key, name, increment));
+        });
+        PowerMockito.when(jedis.scriptLoad(anyString())).thenAnswer(ioc -> {
+            String script = ioc.getArgument(0, String.class);
+            return mockScriptLoad(script);
+        });
+        PowerMockito.when(jedis.evalsha(anyString(), any(List.class), any(List.class))).thenAnswer(ioc -> {
+            String sha1 = ioc.getArgument(0, String.class);
+            List<String> keys = ioc.getArgument(1, List.class);
+            List<String> args = ioc.getArgument(2, List.class);
+            return mockEvalSha(sha1, keys, args);
+        });
+        Mockito.when(jedis.eval(anyString(),any(List.class), any(List.class))).thenAnswer(ioc -> {
+            String script = ioc.getArgument(0);
+            String sha1 = ScriptEvalSha1.sha1(script);
+            List<String> keys = ioc.getArgument(1);
+            List<String> values = ioc.getArgument(2);
+            return mockEvalSha(sha1, keys, values);
+        });
         PowerMockito.when(transaction.exec()).thenAnswer(ioc -> mockTransactionExec());
     }
 
+    /**
+     * Arguments after the key of a varargs call, passed as many arguments or as an array
+     */
+    private static List<String> varargsToList(Object[] arguments) {
+        List<String> result = new ArrayList<>();
+        for(int i = 1; i < arguments.length; i++) {
+            if (arguments[i] instanceof String[]) {
+                result.addAll(Arrays.asList((String[]) arguments[i]));
+            } else {
+                result.add((String) arguments[i]);
+            }
+        }
+        return result;
+    }
+
     Jedis getJedis(){
         return jedis;
     }
@@ -146,6 +230,18 @@ public class MockOfJedisForMap {
         return previous != null ? 1L : 0L;
     }
 
+    synchronized String mockGet(String key) {
+        Object value = data.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    synchronized Long mockIncr(String key) {
+        Object value = data.get(key);
+        long result = value != null ? Long.parseLong((String) value) + 1 : 1L;
+        data.put(key, Long.toString(result));
+        return result;
+    }
+
     synchronized Long mockHlen(String key) {
         Map<String, String> map = getStringStringMap(key);
         return map != null ? map.size() : 0L;
@@ -169,8 +265,28 @@ public class MockOfJedisForMap {
 
     synchronized Long mockHset(String key, String name, String value) {
         Map<String, String> map = getStringStringMap(key);
-        map.put(name, value);
-        return 1L;
+        String previous = map.put(name, value);
+        return previous == null ? 1L : 0L;
+    }
+
+    synchronized Long mockHsetAll(String key, Map<String, String> hash) {
+        Map<String, String> map = getStringStringMap(key);
+        long added = 0;
+        for(Map.Entry<String, String> entry: hash.entrySet()) {
+            if (map.put(entry.getKey(), entry.getValue()) == null) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    synchronized List<String> mockHmget(String key, List<String> names) {
+        Map<String, String> map = getStringStringMap(key);
+        List<String> result = new ArrayList<>();
+        for(String name: names) {
+            result.add(map.get(name));
+        }
+        return result;
     }
 
     synchronized Response<Long> mockTransactionHset(String key, String name, String value) {
@@ -193,12 +309,84 @@ public class MockOfJedisForMap {
         return TransactionOrder.quickReponseExecuted(data);
     }
 
+    /**
+     * Makes HSCAN return every entry twice, as redis can do while the hash changes
+     * @param duplicatedScanResults true to return duplicates
+     */
+    synchronized void setDuplicatedScanResults(boolean duplicatedScanResults) {
+        this.duplicatedScanResults = duplicatedScanResults;
+    }
+
     synchronized ScanResult<Map.Entry<String, String>> mockHscan(String key, String cursor, ScanParams scanParams) {
         Map<String, String> map = getStringStringMap(key);
         List<Map.Entry<String, String>> results = new ArrayList<>(map.entrySet());
+        if (duplicatedScanResults) {
+            results.addAll(map.entrySet());
+        }
         return new ScanResult<Map.Entry<String, String>>(ScanParams.SCAN_POINTER_START, results);
     }
 
+    synchronized String mockScriptLoad(String script) {
+        String sha1 = ScriptEvalSha1.sha1(script);
+        if (script.contains(" containsValue")) {
+            sha1ContainsValue = sha1;
+        }
+        if (script.contains(" putIfAbsent")) {
+            sha1PutIfAbsent = sha1;
+        }
+        if (script.contains(" compareAndSet")) {
+            sha1CompareAndSet = sha1;
+        }
+        return sha1;
+    }
+
+    synchronized Object mockEvalSha(String sha1, List<String> keys, List<String> values) {
+        Object response = null;
+        if (sha1.equalsIgnoreCase(sha1ContainsValue)) {
+            response = getStringStringMap(keys.get(0)).containsValue(values.get(0)) ? 1L : 0L;
+        } else if (sha1.equalsIgnoreCase(sha1PutIfAbsent)) {
+            response = getStringStringMap(keys.get(0)).putIfAbsent(values.get(0), values.get(1));
+            if (response == null) {
+                mockIncr(keys.get(1));
+            }
+        } else if (sha1.equalsIgnoreCase(sha1CompareAndSet)) {
+            response = mockCompareAndSet(keys.get(0), values);
+            if ((Long) response == 1L) {
+                mockIncr(keys.get(1));
+            }
+        }
+        return response;
+    }
+
+    synchronized Long mockCompareAndSet(String key, List<String> values) {
+        Map<String, String> map = getStringStringMap(key);
+        String current = map.get(values.get(0));
+        String expected = "1".equals(values.get(1)) ? values.get(2) : null;
+        if (!Objects.equals(current, expected)) {
+            return 0L;
+        }
+        if ("1".equals(values.get(3))) {
+            map.put(values.get(0), values.get(4));
+        } else {
+            map.remove(values.get(0));
+        }
+        return 1L;
+    }
+
+    synchronized Long mockHincrBy(String key, String name, long increment) {
+        Map<String, String> map = getStringStringMap(key);
+        long value = Long.parseLong(map.getOrDefault(name, "0")) + increment;
+        map.put(name, Long.toString(value));
+        return value;
+    }
+
+    synchronized Double mockHincrByFloat(String key, String name, double increment) {
+        Map<String, String> map = getStringStringMap(key);
+        double value = Double.parseDouble(map.getOrDefault(name, "0")) + increment;
+        map.put(name, Double.toString(value));
+        return value;
+    }
+
     private Object mockTransactionExec() {
         LOGGER.debug("mockTransactionExec do nothing");
         return new ArrayList<Object>(0);
@@ -15,6 +15,7 @@ import redis.clients.jedis.params.ScanParams;
 import redis.clients.jedis.resps.ScanResult;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -64,6 +65,18 @@ public class MockOfJedisForSet {
         when(transaction.sadd(anyString(), any())).thenAnswer( ioc ->
                 TransactionOrder.quickReponseExecuted(iocSadd(ioc))
         );
+        when(jedis.get(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockGet(key);
+        });
+        when(jedis.incr(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockIncr(key);
+        });
+        when(transaction.incr(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return TransactionOrder.quickReponseExecuted(mockIncr(key));
+        });
         when(jedis.sismember(anyString(), anyString())).thenAnswer(ioc -> {
             String key = ioc.getArgument(0);
             String value = ioc.getArgument(1);
@@ -102,9 +115,51 @@ public class MockOfJedisForSet {
             ScanParams scanParams = ioc.getArgument(2);
             return mockSscan(key, cursor, scanParams);
         });
+        when(jedis.smismember(anyString(), any())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockSmismember(key, varargsToList(ioc.getArguments(), 1));
+        });
+        when(transaction.scard(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return TransactionOrder.quickReponseExecuted(mockScard(key));
+        });
+        when(jedis.sunion((String[]) any())).thenAnswer(ioc -> mockSunion(varargsToList(ioc.getArguments(), 0)));
+        when(jedis.sinter((String[]) any())).thenAnswer(ioc -> mockSinter(varargsToList(ioc.getArguments(), 0)));
+        when(jedis.sdiff((String[]) any())).thenAnswer(ioc -> mockSdiff(varargsToList(ioc.getArguments(), 0)));
+        when(jedis.sintercard((String[]) any())).thenAnswer(ioc ->
+                Long.valueOf(mockSinter(varargsToList(ioc.getArguments(), 0)).size())
+        );
+        when(jedis.sunionstore(anyString(), any())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockStore(key, mockSunion(varargsToList(ioc.getArguments(), 1)));
+        });
+        when(jedis.sinterstore(anyString(), any())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockStore(key, mockSinter(varargsToList(ioc.getArguments(), 1)));
+        });
+        when(transaction.sinterstore(anyString(), any())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return TransactionOrder.quickReponseExecuted(mockStore(key, mockSinter(varargsToList(ioc.getArguments(), 1))));
+        });
+        when(jedis.sdiffstore(anyString(), any())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockStore(key, mockSdiff(varargsToList(ioc.getArguments(), 1)));
+        });
         PowerMockito.when(transaction.exec()).thenAnswer(ioc -> mockTransactionExec());
     }
 
+    private static List<String> varargsToList(Object[] arguments, int from) {
+        List<String> result = new ArrayList<>();
+        for(int i = from; i < arguments.length; i++) {
+            if (arguments[i] instanceof String[]) {
+                result.addAll(Arrays.asList((String[]) arguments[i]));
+            } else {
+                result.add((String) arguments[i]);
+            }
+        }
+        return result;
+    }
+
     private Long iocSadd(InvocationOnMock ioc){
         // dont like it, but it works
         String key = ioc.getArgument(0);
@@ -154,6 +209,18 @@ public class MockOfJedisForSet {
         }
     }
 
+    synchronized String mockGet(String key) {
+        Object value = data.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    synchronized Long mockIncr(String key) {
+        Object value = data.get(key);
+        long result = value != null ? Long.parseLong((String) value) + 1 : 1L;
+        data.put(key, Long.toString(result));
+        return result;
+    }
+
     synchronized Long mockSadd(String key, Object value) {
         if (value instanceof String) {
             return doAdd(key, new String[] {(String) value});
@@ -219,6 +286,44 @@ public class MockOfJedisForSet {
         return num;
     }
 
+    synchronized List<Boolean> mockSmismember(String key, List<String> values) {
+        Set<String> set = getStringSet(key);
+        List<Boolean> result = new ArrayList<>();
+        values.forEach(value -> result.add(set.contains(value)));
+        return result;
+    }
+
+    synchronized Set<String> mockSunion(List<String> keys) {
+        Set<String> result = new HashSet<>();
+        keys.forEach(key -> result.addAll(getStringSet(key)));
+        return result;
+    }
+
+    synchronized Set<String> mockSinter(List<String> keys) {
+        Set<String> result = new HashSet<>(getStringSet(keys.get(0)));
+        keys.subList(1, keys.size()).forEach(key -> result.retainAll(getStringSet(key)));
+        return result;
+    }
+
+    synchronized Set<String> mockSdiff(List<String> keys) {
+        Set<String> result = new HashSet<>(getStringSet(keys.get(0)));
+        keys.subList(1, keys.size()).forEach(key -> result.removeAll(getStringSet(key)));
+        return result;
+    }
+
+    synchronized Long mockStore(String key, Set<String> values) {
+        if (values.isEmpty()) {
+            data.remove(key);
+        } else {
+            data.put(key, values);
+        }
+        return Long.valueOf(values.size());
+    }
+
+    synchronized Set<String> keys() {
+        return new HashSet<>(data.keySet());
+    }
+
     private Object mockTransactionExec() {
         LOGGER.debug("mockTransactionExec do nothing");
         return new ArrayList<Object>(0);
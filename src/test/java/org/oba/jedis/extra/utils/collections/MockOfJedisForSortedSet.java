@@ -0,0 +1,510 @@
+package org.oba.jedis.extra.utils.collections;
+
+import org.mockito.Mockito;
+import org.oba.jedis.extra.utils.test.TransactionOrder;
+import org.powermock.api.mockito.PowerMockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.CommandArguments;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Transaction;
+import redis.clients.jedis.args.Rawable;
+import redis.clients.jedis.params.ZAddParams;
+import redis.clients.jedis.params.ZParams;
+import redis.clients.jedis.resps.Tuple;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mock of jedis methods used by the sorted set
+ * Sorted sets are stored as maps of values and scores, and plain sets (the temporary keys) as sets
+ */
+public class MockOfJedisForSortedSet {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MockOfJedisForSortedSet.class);
+
+    private static final Comparator<Map.Entry<String, Double>> ORDER =
+            Comparator.<Map.Entry<String, Double>>comparingDouble(Map.Entry::getValue).thenComparing(Map.Entry::getKey);
+
+    private final Jedis jedis;
+    private final JedisPool jedisPool;
+    private final Map<String, Object> data = Collections.synchronizedMap(new HashMap<>());
+    private int zrangeCalls = 0;
+
+    public MockOfJedisForSortedSet() {
+        jedis = Mockito.mock(Jedis.class);
+        jedisPool = Mockito.mock(JedisPool.class);
+        when(jedisPool.getResource()).thenReturn(jedis);
+
+        Transaction transaction = PowerMockito.mock(Transaction.class);
+
+        when(jedis.multi()).thenReturn(transaction);
+        when(jedis.exists(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockExists(key);
+        });
+        when(jedis.del(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockDel(key);
+        });
+        when(transaction.del(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return TransactionOrder.quickReponseExecuted(mockDel(key));
+        });
+        when(jedis.get(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockGet(key);
+        });
+        when(jedis.incr(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockIncr(key);
+        });
+        when(transaction.incr(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return TransactionOrder.quickReponseExecuted(mockIncr(key));
+        });
+        when(transaction.sadd(anyString(), any())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return TransactionOrder.quickReponseExecuted(mockSadd(key, varargsToList(ioc.getArguments(), 1)));
+        });
+        when(jedis.zadd(anyString(), anyDouble(), anyString(), any(ZAddParams.class))).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            double score = ioc.getArgument(1);
+            String value = ioc.getArgument(2);
+            ZAddParams params = ioc.getArgument(3);
+            return mockZadd(key, Collections.singletonMap(value, score), params);
+        });
+        when(jedis.zadd(anyString(), anyMap(), any(ZAddParams.class))).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            Map<String, Double> scores = ioc.getArgument(1);
+            ZAddParams params = ioc.getArgument(2);
+            return mockZadd(key, scores, params);
+        });
+        when(jedis.zcard(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockZcard(key);
+        });
+        when(transaction.zcard(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return TransactionOrder.quickReponseExecuted(mockZcard(key));
+        });
+        when(jedis.zscore(anyString(), anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String value = ioc.getArgument(1);
+            return getZset(key).get(value);
+        });
+        when(jedis.zmscore(anyString(), any())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockZmscore(key, varargsToList(ioc.getArguments(), 1));
+        });
+        when(jedis.zrem(anyString(), any())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockZrem(key, varargsToList(ioc.getArguments(), 1));
+        });
+        when(jedis.zincrby(anyString(), anyDouble(), anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            double increment = ioc.getArgument(1);
+            String value = ioc.getArgument(2);
+            return mockZincrby(key, increment, value);
+        });
+        when(jedis.zrank(anyString(), anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String value = ioc.getArgument(1);
+            return mockZrank(key, value, false);
+        });
+        when(jedis.zrevrank(anyString(), anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String value = ioc.getArgument(1);
+            return mockZrank(key, value, true);
+        });
+        when(jedis.zrange(anyString(), anyLong(), anyLong())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            long start = ioc.getArgument(1);
+            long stop = ioc.getArgument(2);
+            return mockZrange(key, start, stop, false);
+        });
+        when(jedis.zrevrange(anyString(), anyLong(), anyLong())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            long start = ioc.getArgument(1);
+            long stop = ioc.getArgument(2);
+            return mockZrange(key, start, stop, true);
+        });
+        when(jedis.zpopmin(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockZpop(key, false);
+        });
+        when(jedis.zpopmax(anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return mockZpop(key, true);
+        });
+        when(jedis.zrangeByScoreWithScores(anyString(), anyString(), anyString(), anyInt(), anyInt())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String min = ioc.getArgument(1);
+            String max = ioc.getArgument(2);
+            int offset = ioc.getArgument(3);
+            int count = ioc.getArgument(4);
+            return mockRangeByScore(key, min, max, offset, count, false);
+        });
+        when(jedis.zrangeByScore(anyString(), anyString(), anyString(), anyInt(), anyInt())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String min = ioc.getArgument(1);
+            String max = ioc.getArgument(2);
+            int offset = ioc.getArgument(3);
+            int count = ioc.getArgument(4);
+            return elements(mockRangeByScore(key, min, max, offset, count, false));
+        });
+        when(jedis.zrevrangeByScore(anyString(), anyString(), anyString(), anyInt(), anyInt())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String max = ioc.getArgument(1);
+            String min = ioc.getArgument(2);
+            int offset = ioc.getArgument(3);
+            int count = ioc.getArgument(4);
+            return elements(mockRangeByScore(key, min, max, offset, count, true));
+        });
+        when(jedis.zrangeByLex(anyString(), anyString(), anyString(), anyInt(), anyInt())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String min = ioc.getArgument(1);
+            String max = ioc.getArgument(2);
+            int offset = ioc.getArgument(3);
+            int count = ioc.getArgument(4);
+            return elements(mockRangeByLex(key, min, max, offset, count, false));
+        });
+        when(jedis.zrevrangeByLex(anyString(), anyString(), anyString(), anyInt(), anyInt())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String max = ioc.getArgument(1);
+            String min = ioc.getArgument(2);
+            int offset = ioc.getArgument(3);
+            int count = ioc.getArgument(4);
+            return elements(mockRangeByLex(key, min, max, offset, count, true));
+        });
+        when(jedis.zcount(anyString(), anyString(), anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String min = ioc.getArgument(1);
+            String max = ioc.getArgument(2);
+            return Long.valueOf(mockRangeByScore(key, min, max, 0, -1, false).size());
+        });
+        when(jedis.zlexcount(anyString(), anyString(), anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String min = ioc.getArgument(1);
+            String max = ioc.getArgument(2);
+            return Long.valueOf(mockRangeByLex(key, min, max, 0, -1, false).size());
+        });
+        when(jedis.zremrangeByScore(anyString(), anyString(), anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String min = ioc.getArgument(1);
+            String max = ioc.getArgument(2);
+            return mockZrem(key, elements(mockRangeByScore(key, min, max, 0, -1, false)));
+        });
+        when(jedis.zremrangeByLex(anyString(), anyString(), anyString())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            String min = ioc.getArgument(1);
+            String max = ioc.getArgument(2);
+            return mockZrem(key, elements(mockRangeByLex(key, min, max, 0, -1, false)));
+        });
+        when(transaction.zinterstore(anyString(), any(ZParams.class), any())).thenAnswer(ioc -> {
+            String key = ioc.getArgument(0);
+            return TransactionOrder.quickReponseExecuted(mockZinterstore(key, varargsToList(ioc.getArguments(), 2)));
+        });
+        PowerMockito.when(transaction.exec()).thenAnswer(ioc -> mockTransactionExec());
+    }
+
+    private static List<String> varargsToList(Object[] arguments, int from) {
+        List<String> result = new ArrayList<>();
+        for(int i = from; i < arguments.length; i++) {
+            if (arguments[i] instanceof String[]) {
+                result.addAll(Arrays.asList((String[]) arguments[i]));
+            } else {
+                result.add((String) arguments[i]);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> paramFlags(ZAddParams params) {
+        CommandArguments arguments = new CommandArguments(Protocol.Command.ZADD);
+        params.addParams(arguments);
+        Set<String> flags = new HashSet<>();
+        for(Rawable rawable: arguments) {
+            flags.add(new String(rawable.getRaw(), StandardCharsets.UTF_8).toUpperCase());
+        }
+        return flags;
+    }
+
+    private static List<String> elements(List<Tuple> tuples) {
+        return tuples.stream().map(Tuple::getElement).collect(Collectors.toList());
+    }
+
+    Jedis getJedis(){
+        return jedis;
+    }
+
+    JedisPool getJedisPool() {
+        return jedisPool;
+    }
+
+    synchronized void clearData(){
+        data.clear();
+        zrangeCalls = 0;
+    }
+
+    synchronized Set<String> keys() {
+        return new HashSet<>(data.keySet());
+    }
+
+    synchronized int getZrangeCalls() {
+        return zrangeCalls;
+    }
+
+    private synchronized Map<String, Double> getZset(String key) {
+        Object value = data.get(key);
+        return value instanceof Map ? (Map<String, Double>) value : Collections.emptyMap();
+    }
+
+    private synchronized Map<String, Double> getZsetForWrite(String key) {
+        return (Map<String, Double>) data.computeIfAbsent(key, k -> new HashMap<String, Double>());
+    }
+
+    private synchronized void removeIfEmpty(String key) {
+        Object value = data.get(key);
+        if (value instanceof Map && ((Map<?, ?>) value).isEmpty()) {
+            data.remove(key);
+        }
+    }
+
+    private synchronized List<Map.Entry<String, Double>> sorted(String key) {
+        List<Map.Entry<String, Double>> entries = new ArrayList<>(getZset(key).entrySet());
+        entries.sort(ORDER);
+        return entries;
+    }
+
+    synchronized boolean mockExists(String key) {
+        return data.containsKey(key);
+    }
+
+    synchronized Long mockDel(String key) {
+        return data.remove(key) != null ? 1L : 0L;
+    }
+
+    synchronized String mockGet(String key) {
+        Object value = data.get(key);
+        return value instanceof String ? (String) value : null;
+    }
+
+    synchronized Long mockIncr(String key) {
+        Object value = data.get(key);
+        long result = value != null ? Long.parseLong((String) value) + 1 : 1L;
+        data.put(key, Long.toString(result));
+        return result;
+    }
+
+    synchronized Long mockSadd(String key, List<String> values) {
+        Set<String> set = (Set<String>) data.computeIfAbsent(key, k -> new HashSet<String>());
+        long num = 0;
+        for(String value: values) {
+            if (set.add(value)) {
+                num++;
+            }
+        }
+        return num;
+    }
+
+    synchronized Long mockZadd(String key, Map<String, Double> scores, ZAddParams params) {
+        Set<String> flags = paramFlags(params);
+        Map<String, Double> zset = getZsetForWrite(key);
+        long num = 0;
+        for(Map.Entry<String, Double> entry: scores.entrySet()) {
+            Double previous = zset.get(entry.getKey());
+            if (previous == null) {
+                zset.put(entry.getKey(), entry.getValue());
+                num++;
+            } else if (!flags.contains("NX") && !previous.equals(entry.getValue())) {
+                zset.put(entry.getKey(), entry.getValue());
+                if (flags.contains("CH")) {
+                    num++;
+                }
+            }
+        }
+        removeIfEmpty(key);
+        return num;
+    }
+
+    synchronized Long mockZcard(String key) {
+        return Long.valueOf(getZset(key).size());
+    }
+
+    synchronized List<Double> mockZmscore(String key, List<String> values) {
+        Map<String, Double> zset = getZset(key);
+        List<Double> result = new ArrayList<>();
+        values.forEach(value -> result.add(zset.get(value)));
+        return result;
+    }
+
+    synchronized Long mockZrem(String key, List<String> values) {
+        Map<String, Double> zset = getZset(key);
+        long num = 0;
+        for(String value: values) {
+            if (zset.containsKey(value)) {
+                zset.remove(value);
+                num++;
+            }
+        }
+        removeIfEmpty(key);
+        return num;
+    }
+
+    synchronized Double mockZincrby(String key, double increment, String value) {
+        Map<String, Double> zset = getZsetForWrite(key);
+        double result = zset.getOrDefault(value, 0.0) + increment;
+        zset.put(value, result);
+        return result;
+    }
+
+    synchronized Long mockZrank(String key, String value, boolean reverse) {
+        List<Map.Entry<String, Double>> entries = sorted(key);
+        for(int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).getKey().equals(value)) {
+                return reverse ? (long) (entries.size() - 1 - i) : (long) i;
+            }
+        }
+        return null;
+    }
+
+    synchronized List<String> mockZrange(String key, long start, long stop, boolean reverse) {
+        zrangeCalls++;
+        List<Map.Entry<String, Double>> entries = sorted(key);
+        if (reverse) {
+            Collections.reverse(entries);
+        }
+        int size = entries.size();
+        if (start < 0) start += size;
+        if (stop < 0) stop += size;
+        start = Math.max(0, start);
+        stop = Math.min(stop, size - 1L);
+        List<String> result = new ArrayList<>();
+        for(long i = start; i <= stop; i++) {
+            result.add(entries.get((int) i).getKey());
+        }
+        return result;
+    }
+
+    synchronized Tuple mockZpop(String key, boolean max) {
+        List<Map.Entry<String, Double>> entries = sorted(key);
+        if (entries.isEmpty()) {
+            return null;
+        }
+        Map.Entry<String, Double> entry = entries.get(max ? entries.size() - 1 : 0);
+        mockZrem(key, Collections.singletonList(entry.getKey()));
+        return new Tuple(entry.getKey(), entry.getValue());
+    }
+
+    synchronized List<Tuple> mockRangeByScore(String key, String min, String max, int offset, int count, boolean reverse) {
+        zrangeCalls++;
+        List<Tuple> matched = new ArrayList<>();
+        for(Map.Entry<String, Double> entry: sorted(key)) {
+            if (scoreAboveMin(entry.getValue(), min) && scoreBelowMax(entry.getValue(), max)) {
+                matched.add(new Tuple(entry.getKey(), entry.getValue()));
+            }
+        }
+        return limit(matched, offset, count, reverse);
+    }
+
+    synchronized List<Tuple> mockRangeByLex(String key, String min, String max, int offset, int count, boolean reverse) {
+        zrangeCalls++;
+        List<Tuple> matched = new ArrayList<>();
+        for(Map.Entry<String, Double> entry: sorted(key)) {
+            if (lexAboveMin(entry.getKey(), min) && lexBelowMax(entry.getKey(), max)) {
+                matched.add(new Tuple(entry.getKey(), entry.getValue()));
+            }
+        }
+        return limit(matched, offset, count, reverse);
+    }
+
+    synchronized Long mockZinterstore(String key, List<String> keys) {
+        // weights are taken as (1, 0): the scores of the first key are kept
+        Map<String, Double> result = new HashMap<>(getZset(keys.get(0)));
+        for(String other: keys.subList(1, keys.size())) {
+            Object value = data.get(other);
+            Set<String> members = value instanceof Set ? (Set<String>) value : getZset(other).keySet();
+            result.keySet().retainAll(members);
+        }
+        if (result.isEmpty()) {
+            data.remove(key);
+        } else {
+            data.put(key, result);
+        }
+        return Long.valueOf(result.size());
+    }
+
+    private static List<Tuple> limit(List<Tuple> matched, int offset, int count, boolean reverse) {
+        if (reverse) {
+            Collections.reverse(matched);
+        }
+        int from = Math.min(offset, matched.size());
+        int to = count < 0 ? matched.size() : Math.min(from + count, matched.size());
+        return new ArrayList<>(matched.subList(from, to));
+    }
+
+    private static double parseScore(String bound) {
+        if ("-inf".equals(bound)) {
+            return Double.NEGATIVE_INFINITY;
+        } else if ("+inf".equals(bound) || "inf".equals(bound)) {
+            return Double.POSITIVE_INFINITY;
+        } else {
+            return Double.parseDouble(bound);
+        }
+    }
+
+    private static boolean scoreAboveMin(double score, String min) {
+        return min.startsWith("(") ? score > parseScore(min.substring(1)) : score >= parseScore(min);
+    }
+
+    private static boolean scoreBelowMax(double score, String max) {
+        return max.startsWith("(") ? score < parseScore(max.substring(1)) : score <= parseScore(max);
+    }
+
+    private static boolean lexAboveMin(String value, String min) {
+        if ("-".equals(min)) {
+            return true;
+        } else if ("+".equals(min)) {
+            return false;
+        }
+        int compare = value.compareTo(min.substring(1));
+        return min.startsWith("(") ? compare > 0 : compare >= 0;
+    }
+
+    private static boolean lexBelowMax(String value, String max) {
+        if ("+".equals(max)) {
+            return true;
+        } else if ("-".equals(max)) {
+            return false;
+        }
+        int compare = value.compareTo(max.substring(1));
+        return max.startsWith("(") ? compare < 0 : compare <= 0;
+    }
+
+    private Object mockTransactionExec() {
+        LOGGER.debug("mockTransactionExec do nothing");
+        return new ArrayList<Object>(0);
+    }
+
+}
@@ -45,6 +45,7 @@ public class FunctionalJedisListIteratorTest {
     public void after() {
         if (jedisPool != null) {
             WithJedisPoolDelete.doDelete(jedisPool, listName);
+            WithJedisPoolDelete.doDelete(jedisPool, listName + "~version");
             jedisPool.close();
         }
     }
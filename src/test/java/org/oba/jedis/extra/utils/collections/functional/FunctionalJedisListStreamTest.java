@@ -10,8 +10,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import redis.clients.jedis.JedisPool;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -39,6 +42,7 @@ public class FunctionalJedisListStreamTest {
     public void after() {
         if (jedisPool != null) {
             WithJedisPoolDelete.doDelete(jedisPool, listName);
+            WithJedisPoolDelete.doDelete(jedisPool, listName + "~version");
             jedisPool.close();
         }
     }
@@ -123,4 +127,21 @@ public class FunctionalJedisListStreamTest {
         assertTrue(result);
     }
 
+    @Test
+    public void parallelStreamTest() {
+        JedisList jedisList = new JedisList(jedisPool, listName).withIteratorWindowSize(10);
+        List<String> values = new ArrayList<>();
+        for(int i = 0; i < 1000; i++) {
+            values.add("v" + i);
+        }
+        jedisList.addAll(values);
+        List<String> result = jedisList.parallelStream().
+                map(String::toUpperCase).
+                collect(Collectors.toList());
+        assertEquals(1000, result.size());
+        assertEquals("V0", result.get(0));
+        assertEquals("V999", result.get(999));
+        assertEquals(values, jedisList.stream().collect(Collectors.toList()));
+    }
+
 }
@@ -4,6 +4,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.oba.jedis.extra.utils.collections.JedisMap;
+import org.oba.jedis.extra.utils.collections.JedisMapSnapshot;
 import org.oba.jedis.extra.utils.test.JedisTestFactory;
 import org.oba.jedis.extra.utils.test.WithJedisPoolDelete;
 import org.slf4j.Logger;
@@ -11,15 +12,23 @@ import org.slf4j.LoggerFactory;
 import redis.clients.jedis.JedisPool;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class FunctionalJedisMapTest {
@@ -44,7 +53,9 @@ public class FunctionalJedisMapTest {
     public void after() {
         if (jedisPool != null) {
             WithJedisPoolDelete.doDelete(jedisPool, mapName);
+            WithJedisPoolDelete.doDelete(jedisPool, mapName + "~version");
             WithJedisPoolDelete.doDelete(jedisPool, mapName2);
+            WithJedisPoolDelete.doDelete(jedisPool, mapName2 + "~version");
             jedisPool.close();
         }
     }
@@ -194,4 +205,157 @@ public class FunctionalJedisMapTest {
         assertTrue(values.isEmpty());
     }
 
+    @Test
+    public void fastPutRemoveTest() {
+        JedisMap jedisMap = createABCMap();
+        long version = jedisMap.getVersion();
+        assertTrue(jedisMap.fastPut("d", "4"));
+        assertFalse(jedisMap.fastPut("a", "11"));
+        assertEquals("11", jedisMap.get("a"));
+        assertEquals(4, jedisMap.size());
+        assertEquals(2L, jedisMap.fastRemove("a", "b", "x"));
+        assertEquals(0L, jedisMap.fastRemove("a"));
+        assertEquals(0L, jedisMap.fastRemove());
+        assertEquals(2, jedisMap.size());
+        assertTrue(jedisMap.getVersion() > version);
+    }
+
+    @Test
+    public void putAllGetAllChunkedTest() {
+        JedisMap jedisMap = new JedisMap(jedisPool, mapName);
+        Map<String, String> values = new HashMap<>();
+        for(int i = 0; i < JedisMap.CHUNK_SIZE * 2 + 10; i++) {
+            values.put("k" + i, "v" + i);
+        }
+        jedisMap.putAll(values);
+        assertEquals(values.size(), jedisMap.size());
+        List<String> keys = new ArrayList<>(values.keySet());
+        keys.add("x");
+        Map<String, String> result = jedisMap.getAll(keys);
+        assertEquals(values, result);
+        assertTrue(jedisMap.getAll(Collections.emptyList()).isEmpty());
+        assertEquals(Collections.singletonMap("k1", "v1"), jedisMap.getAll(Arrays.asList("k1", "y")));
+    }
+
+    @Test
+    public void containsValueTest() {
+        JedisMap jedisMap = createABCMap();
+        assertTrue(jedisMap.containsValue("2"));
+        assertFalse(jedisMap.containsValue("b"));
+        assertTrue(jedisMap.values().contains("3"));
+        jedisMap.clear();
+        assertFalse(jedisMap.containsValue("2"));
+    }
+
+    @Test
+    public void viewsTest() {
+        JedisMap jedisMap = createABCMap();
+        Set<String> keys = jedisMap.keySet();
+        jedisMap.put("d", "4");
+        assertEquals(4, keys.size());
+        assertTrue(keys.contains("d"));
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c", "d")), keys.stream().collect(Collectors.toSet()));
+        assertEquals("1234", jedisMap.values().stream().sorted().collect(Collectors.joining()));
+        Iterator<Map.Entry<String, String>> iterator = jedisMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey().equals("a")) {
+                iterator.remove();
+            }
+        }
+        assertFalse(jedisMap.containsKey("a"));
+        assertTrue(keys.remove("b"));
+        assertFalse(keys.remove("b"));
+        assertEquals(2, jedisMap.size());
+        assertEquals(jedisMap.asMap().entrySet(), jedisMap.entrySet());
+        jedisMap.values().clear();
+        assertTrue(keys.isEmpty());
+    }
+
+    @Test
+    public void incrementTest() {
+        JedisMap jedisMap = createABCMap();
+        long version = jedisMap.getVersion();
+        assertEquals(11L, jedisMap.incrementBy("a", 10L));
+        assertEquals(-5L, jedisMap.incrementBy("counter", -5L));
+        assertEquals("-5", jedisMap.get("counter"));
+        assertEquals(1.5, jedisMap.incrementByFloat("float", 1.5), 0.0);
+        assertEquals(3.75, jedisMap.incrementByFloat("float", 2.25), 0.0);
+        Map<String, Long> increments = new HashMap<>();
+        increments.put("b", 3L);
+        increments.put("counter", 10L);
+        increments.put("new", 1L);
+        Map<String, Long> result = jedisMap.incrementAll(increments);
+        assertEquals(Long.valueOf(5L), result.get("b"));
+        assertEquals(Long.valueOf(5L), result.get("counter"));
+        assertEquals(Long.valueOf(1L), result.get("new"));
+        assertEquals("1", jedisMap.get("new"));
+        assertTrue(jedisMap.incrementAll(Collections.emptyMap()).isEmpty());
+        assertTrue(jedisMap.getVersion() > version);
+    }
+
+    @Test
+    public void atomicOperationsTest() {
+        JedisMap jedisMap = createABCMap();
+        assertEquals("1", jedisMap.putIfAbsent("a", "11"));
+        assertNull(jedisMap.putIfAbsent("d", "4"));
+        assertEquals("4", jedisMap.get("d"));
+        assertEquals("1", jedisMap.computeIfAbsent("a", k -> "x"));
+        assertEquals("e5", jedisMap.computeIfAbsent("e", k -> k + "5"));
+        assertNull(jedisMap.computeIfAbsent("f", k -> null));
+        assertFalse(jedisMap.containsKey("f"));
+        assertEquals("1,2", jedisMap.merge("a", "2", (v1, v2) -> v1 + "," + v2));
+        assertEquals("9", jedisMap.merge("g", "9", (v1, v2) -> v1 + "," + v2));
+        assertNull(jedisMap.merge("g", "9", (v1, v2) -> null));
+        assertFalse(jedisMap.containsKey("g"));
+        assertFalse(jedisMap.replace("b", "x", "y"));
+        assertTrue(jedisMap.replace("b", "2", "22"));
+        assertEquals("22", jedisMap.get("b"));
+        assertFalse(jedisMap.remove("c", "x"));
+        assertTrue(jedisMap.remove("c", "3"));
+        assertFalse(jedisMap.containsKey("c"));
+        assertTrue(jedisMap.compareAndSet("h", null, "8"));
+        assertFalse(jedisMap.compareAndSet("h", null, "9"));
+        assertEquals("8", jedisMap.get("h"));
+    }
+
+    @Test
+    public void snapshotTest() {
+        JedisMap jedisMap = createABCMap();
+        JedisMapSnapshot snapshot = jedisMap.snapshot();
+        assertEquals(jedisMap.asMap(), snapshot);
+        assertEquals("2", snapshot.get("b"));
+        assertNull(snapshot.get("d"));
+        assertTrue(snapshot.containsKey("c"));
+        assertTrue(snapshot.isCurrent());
+        assertSame(snapshot, snapshot.refresh());
+        jedisMap.put("d", "4");
+        assertFalse(snapshot.isCurrent());
+        assertEquals(3, snapshot.size());
+        JedisMapSnapshot refreshed = snapshot.refresh();
+        assertEquals("4", refreshed.get("d"));
+        jedisMap.remove("a");
+        assertFalse(refreshed.isCurrent());
+        refreshed = refreshed.refresh();
+        assertFalse(refreshed.containsKey("a"));
+        jedisMap.clear();
+        assertFalse(refreshed.isCurrent());
+        assertTrue(refreshed.refresh().isEmpty());
+    }
+
+    @Test
+    public void snapshotManyTest() {
+        JedisMap jedisMap = new JedisMap(jedisPool, mapName);
+        Map<String, String> values = new HashMap<>();
+        for(int i = 0; i < 500; i++) {
+            values.put("k" + i, "v" + i);
+        }
+        jedisMap.putAll(values);
+        JedisMapSnapshot snapshot = jedisMap.snapshot();
+        assertEquals(values, snapshot);
+        assertEquals(values, new HashMap<>(snapshot));
+        for(Map.Entry<String, String> entry: values.entrySet()) {
+            assertEquals(entry.getValue(), snapshot.get(entry.getKey()));
+        }
+    }
+
 }
@@ -41,6 +41,7 @@ public class FunctionalJedisSetIteratorTest {
     public void after() {
         if (jedisPool != null) {
             WithJedisPoolDelete.doDelete(jedisPool, setName);
+            WithJedisPoolDelete.doDelete(jedisPool, setName + "~version");
             jedisPool.close();
         }
     }
@@ -38,6 +38,7 @@ public class FunctionalJedisSetStreamTest {
     public void after() {
         if (jedisPool != null) {
             WithJedisPoolDelete.doDelete(jedisPool, setName);
+            WithJedisPoolDelete.doDelete(jedisPool, setName + "~version");
             jedisPool.close();
         }
     }
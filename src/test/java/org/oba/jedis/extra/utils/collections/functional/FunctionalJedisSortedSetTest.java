@@ -0,0 +1,274 @@
+package org.oba.jedis.extra.utils.collections.functional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.oba.jedis.extra.utils.collections.JedisSortedSet;
+import org.oba.jedis.extra.utils.collections.JedisSortedSetRange;
+import org.oba.jedis.extra.utils.test.JedisTestFactory;
+import org.oba.jedis.extra.utils.test.WithJedisPoolDelete;
+import redis.clients.jedis.JedisPool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+public class FunctionalJedisSortedSetTest {
+
+    private final JedisTestFactory jtfTest = JedisTestFactory.get();
+
+    private String setName;
+    private JedisPool jedisPool;
+
+    @Before
+    public void before() {
+        org.junit.Assume.assumeTrue(jtfTest.functionalTestEnabled());
+        if (!jtfTest.functionalTestEnabled()) return;
+        setName = "sortedset:" + this.getClass().getName() + ":" + System.currentTimeMillis();
+        jedisPool = jtfTest.createJedisPool();
+    }
+
+    @After
+    public void after() {
+        if (jedisPool != null) {
+            WithJedisPoolDelete.doDelete(jedisPool, setName);
+            WithJedisPoolDelete.doDelete(jedisPool, setName + "~version");
+            jedisPool.close();
+        }
+    }
+
+    JedisSortedSet createScoredSet() {
+        JedisSortedSet jedisSortedSet = new JedisSortedSet(jedisPool, setName);
+        Map<String, Double> scores = new HashMap<>();
+        scores.put("a", 10.0);
+        scores.put("b", 20.0);
+        scores.put("c", 30.0);
+        scores.put("d", 40.0);
+        scores.put("e", 50.0);
+        jedisSortedSet.addAll(scores);
+        return jedisSortedSet;
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void basicTestWithErrorExists() {
+        JedisSortedSet jedisSortedSet = new JedisSortedSet(jedisPool, setName);
+        jedisSortedSet.checkExists();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withPageSizeErrorTest() {
+        new JedisSortedSet(jedisPool, setName).withPageSize(0);
+    }
+
+    @Test
+    public void basicTest() {
+        JedisSortedSet jedisSortedSet = new JedisSortedSet(jedisPool, setName);
+        assertFalse(jedisSortedSet.exists());
+        assertTrue(jedisSortedSet.isEmpty());
+        assertTrue(jedisSortedSet.add("a"));
+        assertFalse(jedisSortedSet.add("a"));
+        assertTrue(jedisSortedSet.exists());
+        assertEquals(0.0, jedisSortedSet.score("a"), 0.0);
+        assertTrue(jedisSortedSet.add("b", 2.0));
+        assertTrue(jedisSortedSet.add("a", 3.0));
+        assertFalse(jedisSortedSet.add("a", 3.0));
+        assertFalse(jedisSortedSet.add("a"));
+        assertEquals(3.0, jedisSortedSet.score("a"), 0.0);
+        assertNull(jedisSortedSet.score("z"));
+        assertEquals(2, jedisSortedSet.size());
+        assertTrue(jedisSortedSet.contains("a"));
+        assertFalse(jedisSortedSet.contains("z"));
+        assertEquals(Arrays.asList("b", "a"), jedisSortedSet.asList());
+        assertArrayEquals(new String[]{"b", "a"}, jedisSortedSet.toArray(new String[0]));
+        assertTrue(jedisSortedSet.remove("a"));
+        assertFalse(jedisSortedSet.remove("a"));
+        jedisSortedSet.clear();
+        assertFalse(jedisSortedSet.exists());
+    }
+
+    @Test
+    public void scoresAndRanksTest() {
+        JedisSortedSet jedisSortedSet = createScoredSet();
+        assertEquals(Long.valueOf(0L), jedisSortedSet.rank("a"));
+        assertEquals(Long.valueOf(3L), jedisSortedSet.rank("d"));
+        assertEquals(Long.valueOf(0L), jedisSortedSet.reverseRank("e"));
+        assertNull(jedisSortedSet.rank("z"));
+        assertEquals("a", jedisSortedSet.first());
+        assertEquals("e", jedisSortedSet.last());
+        assertEquals(Arrays.asList("b", "c", "d"), jedisSortedSet.range(1, 3));
+        assertEquals(Arrays.asList("d", "e"), jedisSortedSet.range(-2, -1));
+        assertEquals(Arrays.asList("e", "d"), jedisSortedSet.top(2));
+        assertTrue(jedisSortedSet.top(0).isEmpty());
+        assertEquals(55.5, jedisSortedSet.incrementScore("a", 45.5), 0.0);
+        assertEquals(Arrays.asList("a", "e"), jedisSortedSet.top(2));
+        assertEquals(-1.0, jedisSortedSet.incrementScore("z", -1.0), 0.0);
+        assertEquals("z", jedisSortedSet.first());
+    }
+
+    @Test
+    public void pollTest() {
+        JedisSortedSet jedisSortedSet = createScoredSet();
+        long version = jedisSortedSet.getVersion();
+        assertEquals("a", jedisSortedSet.pollFirst());
+        assertEquals("e", jedisSortedSet.pollLast());
+        assertEquals(Arrays.asList("b", "c", "d"), jedisSortedSet.asList());
+        assertTrue(jedisSortedSet.getVersion() > version);
+        jedisSortedSet.clear();
+        assertNull(jedisSortedSet.pollFirst());
+        assertNull(jedisSortedSet.pollLast());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void firstEmptyTest() {
+        new JedisSortedSet(jedisPool, setName).first();
+    }
+
+    @Test
+    public void addAllTest() {
+        JedisSortedSet jedisSortedSet = new JedisSortedSet(jedisPool, setName);
+        Map<String, Double> scores = new HashMap<>();
+        for(int i = 0; i < 2500; i++) {
+            scores.put("v" + i, (double) i);
+        }
+        assertEquals(2500L, jedisSortedSet.addAll(scores));
+        assertEquals(0L, jedisSortedSet.addAll(scores));
+        assertEquals(2500, jedisSortedSet.size());
+        assertEquals("v2499", jedisSortedSet.last());
+        scores.put("v0", 3000.0);
+        assertEquals(1L, jedisSortedSet.addAll(scores));
+        assertEquals("v0", jedisSortedSet.last());
+        assertTrue(jedisSortedSet.addAll(Arrays.asList("v1", "w")));
+        assertFalse(jedisSortedSet.addAll(Arrays.asList("v1", "w")));
+        assertEquals(1.0, jedisSortedSet.score("v1"), 0.0);
+        assertEquals(0.0, jedisSortedSet.score("w"), 0.0);
+        assertTrue(jedisSortedSet.containsAll(scores.keySet()));
+        assertFalse(jedisSortedSet.containsAll(Arrays.asList("v1", "x")));
+        assertFalse(jedisSortedSet.containsAll(Arrays.asList("v1", 1)));
+        assertTrue(jedisSortedSet.removeAll(scores.keySet()));
+        assertFalse(jedisSortedSet.removeAll(scores.keySet()));
+        assertEquals(Collections.singletonList("w"), jedisSortedSet.asList());
+    }
+
+    @Test
+    public void retainAllTest() {
+        JedisSortedSet jedisSortedSet = createScoredSet();
+        long version = jedisSortedSet.getVersion();
+        assertFalse(jedisSortedSet.retainAll(Arrays.asList("a", "b", "c", "d", "e", "f")));
+        assertEquals(version, jedisSortedSet.getVersion());
+        assertTrue(jedisSortedSet.retainAll(Arrays.asList("e", "b", 1)));
+        assertEquals(Arrays.asList("b", "e"), jedisSortedSet.asList());
+        assertEquals(50.0, jedisSortedSet.score("e"), 0.0);
+        assertTrue(jedisSortedSet.getVersion() > version);
+        assertTrue(jedisSortedSet.retainAll(Collections.emptyList()));
+        assertFalse(jedisSortedSet.exists());
+    }
+
+    @Test
+    public void iteratorTest() {
+        JedisSortedSet jedisSortedSet = new JedisSortedSet(jedisPool, setName).withPageSize(3);
+        List<String> expected = new ArrayList<>();
+        Map<String, Double> scores = new HashMap<>();
+        for(int i = 0; i < 10; i++) {
+            expected.add("v" + i);
+            scores.put("v" + i, (double) i);
+        }
+        jedisSortedSet.addAll(scores);
+        List<String> result = new ArrayList<>();
+        jedisSortedSet.forEach(result::add);
+        assertEquals(expected, result);
+        Iterator<String> iterator = jedisSortedSet.iterator();
+        List<String> kept = new ArrayList<>();
+        while (iterator.hasNext()) {
+            String value = iterator.next();
+            if (Integer.parseInt(value.substring(1)) % 2 == 0) {
+                iterator.remove();
+            } else {
+                kept.add(value);
+            }
+        }
+        assertEquals(Arrays.asList("v1", "v3", "v5", "v7", "v9"), kept);
+        assertEquals(kept, jedisSortedSet.asList());
+    }
+
+    @Test
+    public void rangeByScoreTest() {
+        JedisSortedSet jedisSortedSet = createScoredSet().withPageSize(2);
+        JedisSortedSetRange range = jedisSortedSet.subSetByScore(20.0, true, 50.0, false);
+        assertEquals(Arrays.asList("b", "c", "d"), range.asList());
+        assertEquals(3L, range.count());
+        assertEquals(Arrays.asList("b", "c"), range.first(2));
+        assertEquals(Arrays.asList("d", "c"), range.last(2));
+        assertEquals(Arrays.asList("b", "c", "d"), range.stream().collect(Collectors.toList()));
+        assertEquals(Arrays.asList("a", "b"), jedisSortedSet.headSetByScore(20.0, true).asList());
+        assertEquals(Collections.singletonList("a"), jedisSortedSet.headSetByScore(20.0, false).asList());
+        assertEquals(Arrays.asList("d", "e"), jedisSortedSet.tailSetByScore(30.0, false).asList());
+        assertEquals(5L, jedisSortedSet.tailSetByScore(Double.NEGATIVE_INFINITY, true).count());
+        jedisSortedSet.add("f", 60.0);
+        assertEquals(Arrays.asList("d", "e", "f"), jedisSortedSet.tailSetByScore(30.0, false).asList());
+        long version = jedisSortedSet.getVersion();
+        assertEquals(2L, jedisSortedSet.headSetByScore(20.0, true).clear());
+        assertEquals(Arrays.asList("c", "d", "e", "f"), jedisSortedSet.asList());
+        assertTrue(jedisSortedSet.getVersion() > version);
+        assertEquals(0L, jedisSortedSet.headSetByScore(20.0, true).clear());
+    }
+
+    @Test
+    public void rangeByScoreTiesTest() {
+        JedisSortedSet jedisSortedSet = new JedisSortedSet(jedisPool, setName).withPageSize(3);
+        Map<String, Double> scores = new HashMap<>();
+        List<String> expected = new ArrayList<>();
+        for(int i = 0; i < 20; i++) {
+            String value = String.format("v%02d", i);
+            scores.put(value, i < 8 ? 1.0 : (i < 9 ? 2.0 : 3.0));
+            expected.add(value);
+        }
+        jedisSortedSet.addAll(scores);
+        assertEquals(expected, jedisSortedSet.tailSetByScore(1.0, true).asList());
+        assertEquals(expected.subList(8, 20), jedisSortedSet.tailSetByScore(1.0, false).asList());
+        assertEquals(expected.subList(0, 9), jedisSortedSet.headSetByScore(2.0, true).asList());
+    }
+
+    @Test
+    public void rangeByLexTest() {
+        JedisSortedSet jedisSortedSet = new JedisSortedSet(jedisPool, setName).withPageSize(2);
+        jedisSortedSet.addAll(Arrays.asList("apple", "banana", "cherry", "date", "fig", "grape"));
+        JedisSortedSetRange range = jedisSortedSet.subSetByLex("b", true, "f", false);
+        assertEquals(Arrays.asList("banana", "cherry", "date"), range.asList());
+        assertEquals(3L, range.count());
+        assertEquals(Collections.singletonList("banana"), range.first(1));
+        assertEquals(Collections.singletonList("date"), range.last(1));
+        assertEquals(Arrays.asList("apple", "banana"), jedisSortedSet.headSetByLex("banana", true).asList());
+        assertEquals(Collections.singletonList("apple"), jedisSortedSet.headSetByLex("banana", false).asList());
+        assertEquals(Arrays.asList("fig", "grape"), jedisSortedSet.tailSetByLex("date", false).asList());
+        assertEquals(Arrays.asList("date", "fig", "grape"), jedisSortedSet.tailSetByLex("date", true).asList());
+        assertEquals(2L, jedisSortedSet.tailSetByLex("fig", true).clear());
+        assertEquals(Arrays.asList("apple", "banana", "cherry", "date"), jedisSortedSet.asList());
+    }
+
+    @Test
+    public void versionTest() {
+        JedisSortedSet jedisSortedSet = createScoredSet();
+        long version = jedisSortedSet.getVersion();
+        assertTrue(version > 0);
+        jedisSortedSet.add("a");
+        jedisSortedSet.add("a", 10.0);
+        jedisSortedSet.remove("z");
+        assertEquals(version, jedisSortedSet.getVersion());
+        jedisSortedSet.add("a", 11.0);
+        assertTrue(jedisSortedSet.getVersion() > version);
+    }
+
+}
@@ -1,6 +1,7 @@
 package org.oba.jedis.extra.utils.test;
 
 import redis.clients.jedis.Protocol;
+import redis.clients.jedis.params.GetExParams;
 import redis.clients.jedis.params.SetParams;
 
 import java.lang.reflect.Field;
@@ -40,6 +41,23 @@ public class TestingUtils {
     }
 
 
+    public static Long extractGetExParamsExpireTimePX(GetExParams getExParams) {
+        if (getExParams != null) {
+            Protocol.Keyword valueExpiration = extractPrivateValue("expiration", GetExParams.class, getExParams, Protocol.Keyword.class, true);
+            Long valueExpirationValue = extractPrivateValue("expirationValue", GetExParams.class, getExParams, Long.class, true);
+            if (valueExpiration == null && valueExpirationValue == null) {
+                return null;
+            } else if (valueExpiration == Protocol.Keyword.PX) {
+                return valueExpirationValue;
+            } else {
+                throw new IllegalArgumentException("GetExParams is not PX " + getExParams);
+            }
+        } else {
+            return null;
+        }
+    }
+
+
     public static <I,O> O extractPrivateValue(String field, Class<I> originType, I origin, Class<O> resultType) {
         return extractPrivateValue(field, originType, origin, resultType, false);
     }
@@ -3,13 +3,23 @@ package org.oba.jedis.extra.utils.utils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.oba.jedis.extra.utils.utils.MockOfJedis.unitTestEnabled;
 
 public class ScriptEvalSha1Test {
@@ -55,4 +65,28 @@ public class ScriptEvalSha1Test {
         assertTrue(result.toString().contains("K"));
     }
 
+    @Test
+    public void evalSha1WithConnectionTest() {
+        ScriptEvalSha1 scriptEvalSha1 = createNewScript();
+        Object result = scriptEvalSha1.evalSha(mockOfJedis.getJedis(), Collections.singletonList("K"), Collections.singletonList("V"));
+        assertNotNull(scriptEvalSha1.getSha1Digest());
+        assertTrue(result.toString().contains(scriptEvalSha1.getSha1Digest()));
+        verify(mockOfJedis.getJedisPool(), times(0)).getResource();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void evalSha1WithConnectionNoScriptTest() {
+        ScriptEvalSha1 scriptEvalSha1 = createNewScript();
+        Jedis jedis = Mockito.mock(Jedis.class);
+        when(jedis.scriptLoad(anyString())).thenAnswer(ioc -> MockOfJedis.mockScriptLoad(ioc.getArgument(0)));
+        when(jedis.evalsha(anyString(), any(List.class), any(List.class))).
+                thenThrow(new JedisNoScriptException("NOSCRIPT No matching script")).
+                thenReturn("OK");
+        Object result = scriptEvalSha1.evalSha(jedis, Collections.singletonList("K"), Collections.singletonList("V"));
+        assertEquals("OK", result);
+        verify(jedis, times(2)).scriptLoad(anyString());
+        verify(jedis, times(2)).evalsha(anyString(), any(List.class), any(List.class));
+    }
+
 }
@@ -3,7 +3,10 @@ package org.oba.jedis.extra.utils.utils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.oba.jedis.extra.utils.cache.HashCache;
+import org.oba.jedis.extra.utils.cache.SimpleCache;
 import org.oba.jedis.extra.utils.collections.JedisList;
+import org.oba.jedis.extra.utils.collections.JedisMap;
 import org.oba.jedis.extra.utils.cycle.CycleData;
 import org.oba.jedis.extra.utils.interruptinglocks.JedisLock;
 import org.oba.jedis.extra.utils.rateLimiter.BucketRateLimiter;
@@ -48,8 +51,25 @@ public class ScriptHolderTest {
         assertNotNull(holder.getScript(CycleData.SCRIPT_NAME));
         assertNotNull(holder.getScript(JedisList.SCRIPT_NAME_INDEX_OF));
         assertNotNull(holder.getScript(JedisList.SCRIPT_NAME_LAST_INDEX_OF));
+        assertNotNull(holder.getScript(JedisList.SCRIPT_NAME_INSERT_ALL));
+        assertNotNull(holder.getScript(JedisList.SCRIPT_NAME_FILTER));
+        assertNotNull(holder.getScript(JedisList.SCRIPT_NAME_SET_ALL));
+        assertNotNull(holder.getScript(JedisList.SCRIPT_NAME_CONTAINS_ALL));
+        assertNotNull(holder.getScript(JedisList.SCRIPT_NAME_REMOVE_AT));
+        assertNotNull(holder.getScript(JedisMap.SCRIPT_NAME_CONTAINS_VALUE));
+        assertNotNull(holder.getScript(JedisMap.SCRIPT_NAME_PUT_IF_ABSENT));
+        assertNotNull(holder.getScript(JedisMap.SCRIPT_NAME_COMPARE_AND_SET));
         assertNotNull(holder.getScript(JedisLock.SCRIPT_NAME));
         assertNotNull(holder.getScript(JedisSemaphore.SCRIPT_NAME));
+        assertNotNull(holder.getScript(SimpleCache.SCRIPT_NAME_COMPARE_AND_REPLACE));
+        assertNotNull(holder.getScript(SimpleCache.SCRIPT_NAME_REPLACE_IF_EXISTS));
+        assertNotNull(holder.getScript(SimpleCache.SCRIPT_NAME_COMPARE_AND_REMOVE));
+        assertNotNull(holder.getScript(SimpleCache.SCRIPT_NAME_PUT_WITH_EXPIRY));
+        assertNotNull(holder.getScript(SimpleCache.SCRIPT_NAME_BOUNDED_PUT));
+        assertNotNull(holder.getScript(SimpleCache.SCRIPT_NAME_BOUNDED_REMOVE));
+        assertNotNull(holder.getScript(SimpleCache.SCRIPT_NAME_BOUNDED_COMPARE_AND_REMOVE));
+        assertNotNull(holder.getScript(HashCache.SCRIPT_NAME_REPLACE));
+        assertNotNull(holder.getScript(HashCache.SCRIPT_NAME_COMPARE_AND_REMOVE));
     }
 
     @Test